@@ -0,0 +1,117 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+package com.hortonworks.beacon.benchmark;
+
+import com.hortonworks.beacon.EncryptionAlgorithmType;
+import com.hortonworks.beacon.client.entity.CloudCred;
+import com.hortonworks.beacon.entity.BeaconCloudCred;
+import com.hortonworks.beacon.entity.FSDRProperties;
+import com.hortonworks.beacon.exceptions.BeaconException;
+import org.apache.hadoop.conf.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static com.hortonworks.beacon.util.FSUtils.merge;
+
+/**
+ * Cost of building the HCFS replication configuration for a cloud credential, from scratch
+ * versus from a prepared configuration as kept by CloudCredConfCache.
+ *
+ * By default the bucket endpoint is pre-configured, so no bucket region is looked up remotely. Run with
+ * {@code -p presetEndpoint=false -p bucket=<bucket>} and instance profile credentials to include the remote
+ * bucket endpoint lookup that the cache saves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CloudConfigurationBenchmark {
+
+    private static final String ENDPOINT_RESOURCE = "benchmark-endpoint-site.xml";
+
+    @Param("true")
+    private boolean presetEndpoint;
+
+    @Param("beacon-benchmark")
+    private String bucket;
+
+    private String cloudPath;
+    private CloudCred cloudCred;
+    private Properties properties;
+    private BeaconCloudCred preparedCloudCred;
+    private Configuration preparedConf;
+    private Configuration preparedEndpointConf;
+
+    @Setup
+    public void setup() throws BeaconException {
+        if (presetEndpoint) {
+            Configuration.addDefaultResource(ENDPOINT_RESOURCE);
+        }
+        cloudPath = "s3a://" + bucket + "/data/warehouse";
+        cloudCred = new CloudCred();
+        cloudCred.setId("benchmark-cred");
+        cloudCred.setName("benchmark-cred");
+        cloudCred.setProvider(CloudCred.Provider.AWS);
+        cloudCred.setAuthType(CloudCred.AuthType.AWS_INSTANCEPROFILE);
+        cloudCred.setConfigs(new HashMap<CloudCred.Config, String>());
+
+        properties = new Properties();
+        properties.setProperty(FSDRProperties.CLOUD_ENCRYPTIONALGORITHM.getName(),
+                EncryptionAlgorithmType.AWS_SSES3.name());
+
+        preparedCloudCred = new BeaconCloudCred(cloudCred);
+        preparedConf = preparedCloudCred.getHadoopConf(false);
+        preparedEndpointConf = preparedCloudCred.getBucketEndpointConf(cloudPath);
+    }
+
+    @Benchmark
+    public Configuration uncached() throws BeaconException {
+        BeaconCloudCred beaconCloudCred = new BeaconCloudCred(cloudCred);
+        Configuration cloudConf = beaconCloudCred.getHadoopConf(false);
+        merge(cloudConf, beaconCloudCred.getCloudEncryptionTypeConf(properties, cloudPath));
+        merge(cloudConf, beaconCloudCred.getBucketEndpointConf(cloudPath));
+        return merge(new Configuration(), cloudConf);
+    }
+
+    @Benchmark
+    public Configuration cached() throws BeaconException {
+        Configuration cloudConf = new Configuration(preparedConf);
+        merge(cloudConf, preparedCloudCred.getCloudEncryptionTypeConf(properties, cloudPath));
+        merge(cloudConf, preparedEndpointConf);
+        return merge(new Configuration(), cloudConf);
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.benchmark;
+
+import com.hortonworks.beacon.util.EvictionHelper;
+import com.hortonworks.beacon.util.ExpressionHelper;
+import org.apache.commons.el.ExpressionEvaluatorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.servlet.jsp.el.ELException;
+import javax.servlet.jsp.el.ExpressionEvaluator;
+import javax.servlet.jsp.el.FunctionMapper;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation of the snapshot retention expressions, which is done for every policy instance. Resolving the
+ * functions by scanning the declared methods of ExpressionHelper is compared with its function table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ExpressionHelperBenchmark {
+
+    @Param({"days(7)", "days(1) + hours(6)", "months(1)"})
+    private String expression;
+
+    private ExpressionEvaluator evaluator;
+    private FunctionMapper reflectiveMapper;
+    private String fullExpression;
+
+    @Setup
+    public void setup() {
+        evaluator = new ExpressionEvaluatorImpl();
+        reflectiveMapper = new FunctionMapper() {
+            @Override
+            public Method resolveFunction(String prefix, String name) {
+                for (Method method : ExpressionHelper.class.getDeclaredMethods()) {
+                    if (method.getName().equals(name)) {
+                        return method;
+                    }
+                }
+                throw new UnsupportedOperationException(name);
+            }
+        };
+        fullExpression = "${" + expression + "}";
+    }
+
+    @Benchmark
+    public Object reflectiveLookup() throws ELException {
+        return evaluator.evaluate(fullExpression, Long.class, ExpressionHelper.get(), reflectiveMapper);
+    }
+
+    @Benchmark
+    public Long functionTable() throws ELException {
+        return EvictionHelper.evalExpressionToMilliSeconds(expression);
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+package com.hortonworks.beacon.benchmark;
+
+import com.hortonworks.beacon.job.JobContext;
+import com.hortonworks.beacon.job.JobContextCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of the job context stored with every instance job, comparing the JSON form with
+ * the compact binary form. The stored payload size of both forms is logged once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class JobContextCodecBenchmark {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JobContextCodecBenchmark.class);
+    private static final String INSTANCE_ID = "dataCenter$source$target-1-1510000000000-000000001@12";
+
+    @Param({"4", "64"})
+    private int contextEntries;
+
+    private JobContext jobContext;
+    private String json;
+    private String binary;
+
+    @Setup
+    public void setup() {
+        jobContext = new JobContext();
+        jobContext.setJobInstanceId(INSTANCE_ID);
+        jobContext.setOffset(1);
+        Map<String, String> contextMap = new HashMap<>();
+        contextMap.put("instanceExecutionStatus",
+                "{\"jobStatus\":\"SUCCESS\",\"jobMessage\":\"Instance succeeded\"}");
+        for (int i = 1; i < contextEntries; i++) {
+            contextMap.put("beacon.fs.snapshot." + i, "beacon-snapshot-" + INSTANCE_ID + "-" + (1510000000000L + i));
+        }
+        jobContext.setJobContextMap(contextMap);
+        json = jobContext.toString();
+        binary = JobContextCodec.encode(jobContext);
+        LOG.info("Payload size for {} entries: json=[{}], binary=[{}]", contextEntries, json.length(),
+                binary.length());
+    }
+
+    @Benchmark
+    public String encodeJson() {
+        return jobContext.toString();
+    }
+
+    @Benchmark
+    public JobContext decodeJson() {
+        return JobContext.parseJobContext(json);
+    }
+
+    @Benchmark
+    public String encodeBinary() {
+        return JobContextCodec.encode(jobContext);
+    }
+
+    @Benchmark
+    public JobContext decodeBinary() {
+        return JobContextCodec.decode(binary);
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.hortonworks.beacon.plugin.ranger.RangerExportPolicyList;
+import com.hortonworks.beacon.plugin.ranger.RangerPolicy;
+import com.hortonworks.beacon.plugin.ranger.RangerPolicy.RangerPolicyItem;
+import com.hortonworks.beacon.plugin.ranger.RangerPolicy.RangerPolicyItemAccess;
+import com.hortonworks.beacon.plugin.ranger.RangerPolicy.RangerPolicyItemCondition;
+import com.hortonworks.beacon.plugin.ranger.RangerPolicy.RangerPolicyResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization and parsing of an exported Ranger policy list, done with the same Gson setup as the Ranger
+ * admin client on every export and import. The policies are synthetic Hive policies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RangerPolicyJsonBenchmark {
+
+    private static final String SERVICE_NAME = "cl1_hive";
+
+    @Param({"10", "1000"})
+    private int policies;
+
+    private RangerExportPolicyList policyList;
+    private String json;
+
+    @Setup
+    public void setup() {
+        List<RangerPolicy> rangerPolicies = new ArrayList<>();
+        for (int i = 0; i < policies; i++) {
+            rangerPolicies.add(createPolicy(i));
+        }
+        policyList = new RangerExportPolicyList();
+        policyList.setPolicies(rangerPolicies);
+        Map<String, Object> metaDataInfo = new LinkedHashMap<>();
+        metaDataInfo.put("Host name", "ranger.example.com");
+        metaDataInfo.put("Exported by", "beacon");
+        metaDataInfo.put("Export time", new Date().toString());
+        metaDataInfo.put("Ranger apache version", "0.7.0");
+        policyList.setMetaDataInfo(metaDataInfo);
+        json = new GsonBuilder().create().toJson(policyList);
+    }
+
+    @Benchmark
+    public String toJson() {
+        Gson gson = new GsonBuilder().create();
+        return gson.toJson(policyList);
+    }
+
+    @Benchmark
+    public RangerExportPolicyList fromJson() {
+        Gson gson = new GsonBuilder().create();
+        return gson.fromJson(json, RangerExportPolicyList.class);
+    }
+
+    private static RangerPolicy createPolicy(int index) {
+        Map<String, RangerPolicyResource> resources = new HashMap<>();
+        resources.put("database", new RangerPolicyResource(Collections.singletonList("salesdb"), false, false));
+        resources.put("table", new RangerPolicyResource(Collections.singletonList("orders_" + index), false, false));
+        resources.put("column", new RangerPolicyResource(Collections.singletonList("*"), false, false));
+
+        List<RangerPolicyItem> policyItems = new ArrayList<>();
+        policyItems.add(new RangerPolicyItem(
+                Arrays.asList(new RangerPolicyItemAccess("select", true), new RangerPolicyItemAccess("update", true)),
+                Arrays.asList("analyst" + index, "etl"), Collections.singletonList("sales"),
+                new ArrayList<RangerPolicyItemCondition>(), false));
+        policyItems.add(new RangerPolicyItem(Collections.singletonList(new RangerPolicyItemAccess("all", true)),
+                Collections.singletonList("hive"), new ArrayList<String>(),
+                new ArrayList<RangerPolicyItemCondition>(), true));
+
+        RangerPolicy policy = new RangerPolicy(SERVICE_NAME, "salesdb-orders-" + index, 0,
+                "Policy for salesdb.orders_" + index, resources, policyItems, null);
+        policy.setId((long) index);
+        policy.setGuid("8f3b3d2e-7c1a-4d8e-9b6f-" + String.format("%012d", index));
+        policy.setIsEnabled(true);
+        policy.setIsAuditEnabled(true);
+        policy.setCreatedBy("Admin");
+        policy.setUpdatedBy("Admin");
+        policy.setCreateTime(new Date());
+        policy.setUpdateTime(new Date());
+        policy.setVersion(1L);
+        return policy;
+    }
+}
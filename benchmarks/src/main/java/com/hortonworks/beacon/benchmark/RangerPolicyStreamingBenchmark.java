@@ -0,0 +1,209 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.hortonworks.beacon.plugin.ranger.RangerExportPolicyList;
+import com.hortonworks.beacon.plugin.ranger.RangerPolicy;
+import com.hortonworks.beacon.plugin.ranger.RangerPolicy.RangerPolicyItem;
+import com.hortonworks.beacon.plugin.ranger.RangerPolicy.RangerPolicyItemAccess;
+import com.hortonworks.beacon.plugin.ranger.RangerPolicy.RangerPolicyItemCondition;
+import com.hortonworks.beacon.plugin.ranger.RangerPolicy.RangerPolicyResource;
+import com.hortonworks.beacon.plugin.ranger.RangerPolicyJsonStream;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Export of a synthetic Ranger service with 50k HDFS policies to a staging file, done by materializing the
+ * whole policy list as the Ranger admin client used to and by streaming it one policy at a time. Every other
+ * policy has more than one path and is dropped, like in the export. Peak heap of each iteration is reported as
+ * the peakHeapMB secondary result, and the input and output are files so that they are not part of it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class RangerPolicyStreamingBenchmark {
+
+    @Param({"50000"})
+    private int policies;
+
+    private File exportFile;
+    private File stagingFile;
+
+    /**
+     * Peak heap usage of the measured iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HeapCounters {
+        public long peakHeapMB;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            System.gc();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    pool.resetPeakUsage();
+                }
+            }
+            peakHeapMB = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void record() {
+            long peak = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    peak += pool.getPeakUsage().getUsed();
+                }
+            }
+            peakHeapMB = peak / (1024 * 1024);
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        exportFile = File.createTempFile("ranger-export", ".json");
+        stagingFile = File.createTempFile("ranger-staging", ".json");
+        List<RangerPolicy> rangerPolicies = new ArrayList<>();
+        for (int i = 0; i < policies; i++) {
+            rangerPolicies.add(createPolicy(i));
+        }
+        RangerExportPolicyList policyList = new RangerExportPolicyList();
+        policyList.setPolicies(rangerPolicies);
+        Map<String, Object> metaDataInfo = new LinkedHashMap<>();
+        metaDataInfo.put("Host name", "ranger.example.com");
+        metaDataInfo.put("Exported by", "beacon");
+        metaDataInfo.put("Ranger apache version", "0.7.0");
+        policyList.setMetaDataInfo(metaDataInfo);
+        try (Writer writer = Files.newBufferedWriter(exportFile.toPath(), StandardCharsets.UTF_8)) {
+            new GsonBuilder().create().toJson(policyList, writer);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        exportFile.delete();
+        stagingFile.delete();
+    }
+
+    @Benchmark
+    public int materialized(HeapCounters counters) throws IOException {
+        // The response is read into a string, parsed, filtered and written back as a string.
+        String response = new String(Files.readAllBytes(exportFile.toPath()), StandardCharsets.UTF_8);
+        Gson gson = new GsonBuilder().create();
+        RangerExportPolicyList policyList = gson.fromJson(response, RangerExportPolicyList.class);
+        List<RangerPolicy> filtered = new ArrayList<>();
+        for (RangerPolicy policy : policyList.getPolicies()) {
+            if (isSinglePathPolicy(policy)) {
+                filtered.add(policy);
+            }
+        }
+        policyList.setPolicies(filtered);
+        String json = gson.toJson(policyList);
+        try (Writer writer = Files.newBufferedWriter(stagingFile.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(json);
+        }
+        return filtered.size();
+    }
+
+    @Benchmark
+    public int streaming(HeapCounters counters) throws IOException {
+        try (Reader reader = Files.newBufferedReader(exportFile.toPath(), StandardCharsets.UTF_8);
+             Writer writer = Files.newBufferedWriter(stagingFile.toPath(), StandardCharsets.UTF_8)) {
+            return RangerPolicyJsonStream.transform(reader, writer, new RangerPolicyJsonStream.PolicyTransformer() {
+                @Override
+                public RangerPolicy transform(RangerPolicy policy) {
+                    return isSinglePathPolicy(policy) ? policy : null;
+                }
+            }, null);
+        }
+    }
+
+    private static boolean isSinglePathPolicy(RangerPolicy policy) {
+        RangerPolicyResource resource = policy.getResources().get("path");
+        return resource != null && resource.getValues().size() == 1;
+    }
+
+    private static RangerPolicy createPolicy(int index) {
+        Map<String, RangerPolicyResource> resources = new HashMap<>();
+        List<String> paths = index % 2 == 0
+                ? Collections.singletonList("/data/warehouse/part_" + index)
+                : Arrays.asList("/data/warehouse/part_" + index, "/data/archive/part_" + index);
+        resources.put("path", new RangerPolicyResource(paths, false, true));
+
+        List<RangerPolicyItem> policyItems = new ArrayList<>();
+        policyItems.add(new RangerPolicyItem(
+                Arrays.asList(new RangerPolicyItemAccess("read", true), new RangerPolicyItemAccess("execute", true)),
+                Arrays.asList("analyst" + index, "etl"), Collections.singletonList("warehouse"),
+                new ArrayList<RangerPolicyItemCondition>(), false));
+        policyItems.add(new RangerPolicyItem(Collections.singletonList(new RangerPolicyItemAccess("write", true)),
+                Collections.singletonList("hdfs"), new ArrayList<String>(),
+                new ArrayList<RangerPolicyItemCondition>(), true));
+
+        RangerPolicy policy = new RangerPolicy("cl1_hadoop", "warehouse-part-" + index, 0,
+                "Policy for /data/warehouse/part_" + index, resources, policyItems, null);
+        policy.setId((long) index);
+        policy.setGuid("5d2c9a1e-3b4f-4c6d-8e7f-" + String.format("%012d", index));
+        policy.setIsEnabled(true);
+        policy.setIsAuditEnabled(true);
+        policy.setCreatedBy("Admin");
+        policy.setUpdatedBy("Admin");
+        policy.setVersion(1L);
+        return policy;
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+package com.hortonworks.beacon.benchmark;
+
+import com.hortonworks.beacon.authorize.BeaconAccessRequest;
+import com.hortonworks.beacon.authorize.BeaconActionTypes;
+import com.hortonworks.beacon.authorize.BeaconAuthorizationException;
+import com.hortonworks.beacon.authorize.BeaconResourceTypes;
+import com.hortonworks.beacon.authorize.simple.SimpleBeaconAuthorizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per request cost of the simple authorizer against synthetic policies of thousands of users and groups.
+ * Each request carries several groups of which only the last one is granted access, and the requests
+ * rotate over a fixed pool so that the decision cache sees repeated callers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SimpleAuthorizerBenchmark {
+
+    private static final int REQUEST_POOL_SIZE = 512;
+    private static final int GROUPS_PER_USER = 16;
+
+    @Param({"5000"})
+    private int numUsers;
+
+    @Param({"2000"})
+    private int numGroups;
+
+    @Param({"0", "1000"})
+    private int decisionCacheSize;
+
+    private SimpleBeaconAuthorizer authorizer;
+    private BeaconAccessRequest[] requests;
+    private int next;
+
+    @Setup
+    public void setup() {
+        authorizer = new SimpleBeaconAuthorizer(decisionCacheSize);
+
+        Map<String, Map<BeaconResourceTypes, List<String>>> userMap = new HashMap<>();
+        for (int i = 0; i < numUsers; i++) {
+            userMap.put("user" + i, resources("policy-user" + i + "-*", "cluster-" + i));
+        }
+        Map<String, Map<BeaconResourceTypes, List<String>>> groupMap = new HashMap<>();
+        for (int i = 0; i < numGroups; i++) {
+            groupMap.put("group" + i, resources("policy-group" + i + "-?", "policy-shared", "policy-*-" + i));
+        }
+        authorizer.setResourcesForTesting(userMap, groupMap, BeaconActionTypes.READ);
+
+        Set<BeaconResourceTypes> resourceTypes = Collections.singleton(BeaconResourceTypes.POLICY);
+        requests = new BeaconAccessRequest[REQUEST_POOL_SIZE];
+        for (int i = 0; i < REQUEST_POOL_SIZE; i++) {
+            Set<String> groups = new HashSet<>();
+            for (int j = 0; j < GROUPS_PER_USER; j++) {
+                groups.add("unknown" + ((i + j) % numGroups));
+            }
+            groups.add("group" + (i % numGroups));
+            requests[i] = new BeaconAccessRequest(resourceTypes, "policy-shared", BeaconActionTypes.READ,
+                    "other" + i, groups, "127.0.0.1");
+        }
+    }
+
+    private static Map<BeaconResourceTypes, List<String>> resources(String... values) {
+        Map<BeaconResourceTypes, List<String>> resources = new EnumMap<>(BeaconResourceTypes.class);
+        resources.put(BeaconResourceTypes.POLICY, new ArrayList<>(Arrays.asList(values)));
+        resources.put(BeaconResourceTypes.CLUSTER, new ArrayList<>(Arrays.asList(values)));
+        return resources;
+    }
+
+    @Benchmark
+    public boolean isAccessAllowed() throws BeaconAuthorizationException {
+        BeaconAccessRequest request = requests[next];
+        next = (next + 1) % REQUEST_POOL_SIZE;
+        return authorizer.isAccessAllowed(request);
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.benchmark;
+
+import com.hortonworks.beacon.metrics.Progress;
+import com.hortonworks.beacon.metrics.ReplicationMetrics;
+import com.hortonworks.beacon.metrics.ReplicationMetrics.JobType;
+import com.hortonworks.beacon.metrics.util.ReplicationMetricsUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization and parsing of the tracking info kept with every instance job, which is rewritten on each
+ * progress update. A single main job and a main job with its recovery job are covered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class TrackingInfoJsonBenchmark {
+
+    @Param({"MAIN", "MAIN_RECOVERY"})
+    private String jobs;
+
+    private List<ReplicationMetrics> metricsList;
+    private String json;
+
+    @Setup
+    public void setup() {
+        metricsList = new ArrayList<>();
+        metricsList.add(createMetrics("job_1510000000000_0001", JobType.MAIN));
+        if ("MAIN_RECOVERY".equals(jobs)) {
+            metricsList.add(createMetrics("job_1510000000000_0002", JobType.RECOVERY));
+        }
+        json = ReplicationMetricsUtils.toJsonString(metricsList);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return ReplicationMetricsUtils.toJsonString(metricsList);
+    }
+
+    @Benchmark
+    public List<ReplicationMetrics> fromJson() {
+        return ReplicationMetricsUtils.getListOfReplicationMetrics(json);
+    }
+
+    private static ReplicationMetrics createMetrics(String jobId, JobType jobType) {
+        Progress progress = new Progress();
+        progress.setTotal(100000);
+        progress.setCompleted(42000);
+        progress.setFailed(3);
+        progress.setKilled(0);
+        progress.setUnit("FILES");
+        progress.setFilesCopied(42000L);
+        progress.setBytesCopied(42L * 1024 * 1024 * 1024);
+        progress.setDirectoriesCopied(1200L);
+        progress.setTimeTaken(360000L);
+        progress.setJobProgress(42.0f);
+        ReplicationMetrics metrics = new ReplicationMetrics();
+        metrics.updateReplicationMetricsDetails(jobId, jobType, progress);
+        return metrics;
+    }
+}
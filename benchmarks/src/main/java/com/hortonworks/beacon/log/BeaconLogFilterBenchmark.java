@@ -0,0 +1,108 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splitting and filter matching of single log lines, the per-line work done while serving policy logs.
+ * The lines are synthetic and a configurable share of them carries the requested policy name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class BeaconLogFilterBenchmark {
+
+    private static final int NUM_LINES = 1000;
+
+    @Param({"1", "10"})
+    private int matchEvery;
+
+    private BeaconLogFilter filter;
+    private List<String> lines;
+
+    @Setup
+    public void setup() {
+        filter = new BeaconLogFilter(createFilterMap(), new Date(0), new Date());
+        filter.constructFilterPattern();
+        lines = createLogLines(NUM_LINES, matchEvery, 0);
+    }
+
+    @Benchmark
+    public int splitAndMatch() {
+        int matched = 0;
+        for (String line : lines) {
+            ArrayList<String> logParts = filter.splitLogMessage(line);
+            if (logParts != null && filter.matches(logParts)) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    static Map<String, String> createFilterMap() {
+        Map<String, String> filterMap = new HashMap<>();
+        filterMap.put(BeaconLogParams.POLICYNAME.name(), "fspolicy");
+        return filterMap;
+    }
+
+    /**
+     * Creates log lines in the beacon log4j layout. Every matchEvery-th message belongs to the filtered policy
+     * and every traceEvery-th message is followed by a short stack trace, when traceEvery is positive.
+     */
+    static List<String> createLogLines(int count, int matchEvery, int traceEvery) {
+        List<String> logLines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String policyName = i % matchEvery == 0 ? "fspolicy" : "otherpolicy" + i;
+            logLines.add(String.format("2017-04-24 09:%02d:%02d,%03d INFO  - [pool-2-thread-%d:"
+                    + "2825ac8a-31e8-4611-9516-32576c2d752b POLICYNAME[%s]] ~ Instance %d of policy moved to "
+                    + "RUNNING (QuartzJobListener:118)", (i / 60) % 60, i % 60, i % 1000, i % 8, policyName, i));
+            if (traceEvery > 0 && i % traceEvery == 0) {
+                logLines.add("java.io.IOException: Connection reset by peer");
+                logLines.add("\tat com.hortonworks.beacon.replication.fs.FSDRImpl.perform(FSDRImpl.java:120)");
+                logLines.add("\tat com.hortonworks.beacon.scheduler.quartz.QuartzJob.execute(QuartzJob.java:91)");
+            }
+        }
+        return logLines;
+    }
+}
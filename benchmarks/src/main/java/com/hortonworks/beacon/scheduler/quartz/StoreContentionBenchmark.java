@@ -0,0 +1,170 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.scheduler.quartz;
+
+import com.hortonworks.beacon.RequestContext;
+import com.hortonworks.beacon.client.entity.ReplicationPolicy;
+import com.hortonworks.beacon.config.BeaconConfig;
+import com.hortonworks.beacon.entity.util.PolicyDao;
+import com.hortonworks.beacon.exceptions.BeaconException;
+import com.hortonworks.beacon.job.JobContext;
+import com.hortonworks.beacon.job.JobStatus;
+import com.hortonworks.beacon.service.BeaconStoreService;
+import com.hortonworks.beacon.service.ServiceManager;
+import com.hortonworks.beacon.store.bean.PolicyBean;
+import com.hortonworks.beacon.store.bean.PolicyInstanceBean;
+import com.hortonworks.beacon.store.bean.PolicyPropertiesBean;
+import com.hortonworks.beacon.store.executors.PolicyExecutor;
+import com.hortonworks.beacon.tools.BeaconDBSetup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Store contention between the scheduler and the API: a group of threads keeps updating a small set of running
+ * instances of one policy as the job listeners do, including the run count updates on retry, while another group
+ * reads the policy and its instances as the policy status and instance list calls do. The throughput of both is
+ * reported per operation. Conflicting run count updates are retried, so the update throughput includes retries.
+ * The store is an embedded in-memory HSQLDB created from src/sql, so the benchmark is run from the source root or
+ * with -jvmArgsAppend -Dbeacon.sql.dir=&lt;dir&gt;.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class StoreContentionBenchmark {
+
+    private static final String POLICY_NAME = "contention-policy";
+    private static final String POLICY_ID = "/NYC/source/beacon/" + POLICY_NAME + "/0/1510000000000/000000001";
+
+    @Param({"1", "16"})
+    private int instances;
+
+    private List<String> instanceIds = new ArrayList<>();
+
+    /**
+     * Per thread choice of the instance to update.
+     */
+    @State(Scope.Thread)
+    public static class InstanceChooser {
+        private final Random random = new Random();
+
+        String next(List<String> instanceIds) {
+            return instanceIds.get(random.nextInt(instanceIds.size()));
+        }
+    }
+
+    @Setup
+    public void setup() throws BeaconException {
+        File schemaDir = new File(System.getProperty("beacon.sql.dir", "src/sql"));
+        BeaconConfig.getInstance().getDbStore().setSchemaDirectory(schemaDir.getAbsolutePath());
+        BeaconDBSetup.setupDB();
+        ServiceManager.getInstance().initialize(Collections.singletonList(BeaconStoreService.class.getName()),
+                null);
+
+        PolicyBean bean = new PolicyBean(POLICY_NAME);
+        bean.setId(POLICY_ID);
+        bean.setType("FS");
+        bean.setSourceCluster("source");
+        bean.setTargetCluster("target");
+        bean.setCustomProperties(new ArrayList<PolicyPropertiesBean>());
+        RequestContext.setInitialValue();
+        try {
+            RequestContext.get().startTransaction();
+            new PolicyExecutor(bean).submitPolicy();
+            for (int i = 1; i <= instances; i++) {
+                String instanceId = StoreHelper.insertPolicyInstance(POLICY_ID, i, JobStatus.RUNNING.name());
+                StoreHelper.insertJobInstance(instanceId, 1);
+                instanceIds.add(instanceId);
+            }
+            RequestContext.get().commitTransaction();
+        } finally {
+            RequestContext.get().clear();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws BeaconException {
+        ServiceManager.getInstance().destroy();
+    }
+
+    @Benchmark
+    @Group("contention")
+    @GroupThreads(4)
+    public void updateInstance(InstanceChooser chooser) {
+        RequestContext.setInitialValue();
+        try {
+            RequestContext.get().startTransaction();
+            JobContext jobContext = new JobContext();
+            jobContext.setJobInstanceId(chooser.next(instanceIds));
+            jobContext.setOffset(0);
+            StoreHelper.incrementJobRunCount(jobContext);
+            StoreHelper.incrementInstanceRunCount(jobContext);
+            StoreHelper.updateInstanceCurrentOffset(jobContext);
+            StoreHelper.updateInstanceJobStatusStartTime(jobContext, JobStatus.RUNNING);
+            StoreHelper.updatePolicyLastInstanceStatus(POLICY_ID, JobStatus.RUNNING.name());
+            RequestContext.get().commitTransaction();
+        } finally {
+            RequestContext.get().clear();
+        }
+    }
+
+    @Benchmark
+    @Group("contention")
+    @GroupThreads(4)
+    public void readPolicy(Blackhole blackhole) throws BeaconException {
+        RequestContext.setInitialValue();
+        try {
+            RequestContext.get().startTransaction();
+            PolicyDao policyDao = new PolicyDao();
+            ReplicationPolicy policy = policyDao.getActivePolicy(POLICY_NAME);
+            List<PolicyInstanceBean> policyInstances = policyDao.getPolicyInstance(policy.getPolicyId());
+            RequestContext.get().commitTransaction();
+            blackhole.consume(policy);
+            blackhole.consume(policyInstances);
+        } finally {
+            RequestContext.get().clear();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package org.apache.hadoop.tools;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hdfs.protocol.SnapshotDiffReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Translation of created and modified snapshot diff entries through the renamed directories, which looks up
+ * the rename item of every entry. The diff report is synthetic, so no cluster is needed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DistCpSyncBenchmark {
+
+    private static final String SOURCE_DIR = "/data/source";
+
+    @Param({"10", "1000"})
+    private int renames;
+
+    @Param({"1000", "10000"})
+    private int diffs;
+
+    private DistCpSync distCpSync;
+
+    @Setup
+    public void setup() throws Exception {
+        List<Path> sourcePaths = Collections.singletonList(new Path("hdfs://source:8020" + SOURCE_DIR));
+        DistCpOptions options = new DistCpOptions(sourcePaths, new Path("hdfs://target:8020" + SOURCE_DIR));
+        distCpSync = new DistCpSync(options, new Configuration());
+
+        EnumMap<SnapshotDiffReport.DiffType, List<DiffInfo>> diffMap =
+                new EnumMap<>(SnapshotDiffReport.DiffType.class);
+        for (SnapshotDiffReport.DiffType type : SnapshotDiffReport.DiffType.values()) {
+            diffMap.put(type, new ArrayList<DiffInfo>());
+        }
+        for (int i = 0; i < renames; i++) {
+            diffMap.get(SnapshotDiffReport.DiffType.RENAME).add(new DiffInfo(new Path("dir" + i),
+                    new Path("renamed" + i), SnapshotDiffReport.DiffType.RENAME));
+        }
+        // Every other entry lives under a renamed directory, the rest under directories that were not renamed.
+        for (int i = 0; i < diffs; i++) {
+            String parent = (i % 2 == 0 ? "dir" : "other") + (i % renames);
+            SnapshotDiffReport.DiffType type = i % 3 == 0
+                    ? SnapshotDiffReport.DiffType.MODIFY
+                    : SnapshotDiffReport.DiffType.CREATE;
+            diffMap.get(type).add(new DiffInfo(new Path(parent, "file" + i), null, type));
+        }
+        Field field = DistCpSync.class.getDeclaredField("diffMap");
+        field.setAccessible(true);
+        field.set(distCpSync, diffMap);
+    }
+
+    @Benchmark
+    public List<DiffInfo> prepareDiffListForCopyListing() {
+        return distCpSync.prepareDiffListForCopyListing();
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package org.apache.hadoop.tools;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.tools.util.DistCpUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the copy listing and then sorting it with a SequenceFile.Sorter pass, against writing the sorted
+ * listing alongside the listing with SortedListingBuilder. The listing is written to the local file system.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortedListingBenchmark {
+
+    @Param({"10000", "200000"})
+    private int entries;
+
+    private Configuration conf;
+    private FileSystem fs;
+    private File baseDir;
+    private Path listing;
+    private Text[] keys;
+    private CopyListingFileStatus[] statuses;
+
+    @Setup
+    public void setup() throws IOException {
+        conf = new Configuration();
+        fs = FileSystem.getLocal(conf);
+        baseDir = Files.createTempDirectory("sorted-listing").toFile();
+        listing = new Path(baseDir.toURI().toString(), "listing.seq");
+        Random random = new Random(entries);
+        keys = new Text[entries];
+        statuses = new CopyListingFileStatus[entries];
+        for (int i = 0; i < entries; i++) {
+            String key = "/dir" + random.nextInt(100) + "/file" + random.nextLong();
+            keys[i] = new Text(key);
+            statuses[i] = new CopyListingFileStatus(new FileStatus(1024, false, 3, 128 * 1024 * 1024, 0,
+                    new Path("/tmp/src" + key)));
+        }
+    }
+
+    @TearDown
+    public void teardown() throws IOException {
+        fs.delete(new Path(baseDir.toURI().toString()), true);
+    }
+
+    @Benchmark
+    public Path writeAndSort() throws IOException {
+        writeListing(null);
+        return DistCpUtils.sortListing(fs, conf, listing);
+    }
+
+    @Benchmark
+    public Path writeWithSortedRuns() throws IOException {
+        return writeListing(new SortedListingBuilder(conf, listing, SimpleCopyListing.DEFAULT_SORTED_RUN_SIZE));
+    }
+
+    private Path writeListing(SortedListingBuilder builder) throws IOException {
+        SequenceFile.Writer writer = SequenceFile.createWriter(conf,
+                SequenceFile.Writer.file(listing),
+                SequenceFile.Writer.keyClass(Text.class),
+                SequenceFile.Writer.valueClass(CopyListingFileStatus.class),
+                SequenceFile.Writer.compression(SequenceFile.CompressionType.NONE));
+        try {
+            for (int i = 0; i < entries; i++) {
+                writer.append(keys[i], statuses[i]);
+                if (builder != null) {
+                    builder.add(keys[i], statuses[i]);
+                }
+            }
+        } finally {
+            writer.close();
+        }
+        return builder != null ? builder.finish() : listing;
+    }
+}
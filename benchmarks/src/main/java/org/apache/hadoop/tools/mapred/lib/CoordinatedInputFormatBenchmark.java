@@ -0,0 +1,145 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package org.apache.hadoop.tools.mapred.lib;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputFormat;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.JobID;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.TaskType;
+import org.apache.hadoop.mapreduce.task.JobContextImpl;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.apache.hadoop.tools.CopyListingFileStatus;
+import org.apache.hadoop.tools.DistCpConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands out the same copy listing with the DynamicInputFormat and the CoordinatedInputFormat on the local file
+ * system, from computing the splits until every map has read all its records.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoordinatedInputFormatBenchmark {
+
+    @Param({"10000", "100000"})
+    private int records;
+
+    @Param({"10", "50"})
+    private int maps;
+
+    private Configuration configuration;
+    private File baseDir;
+
+    @Setup
+    public void setup() throws IOException {
+        configuration = new Configuration();
+        FileSystem fs = FileSystem.getLocal(configuration);
+        baseDir = Files.createTempDirectory("coordinated-input").toFile();
+        Path listing = new Path(baseDir.toURI().toString(), "fileList.seq");
+        SequenceFile.Writer writer = SequenceFile.createWriter(fs.getConf(),
+                SequenceFile.Writer.file(listing),
+                SequenceFile.Writer.keyClass(Text.class),
+                SequenceFile.Writer.valueClass(CopyListingFileStatus.class),
+                SequenceFile.Writer.compression(SequenceFile.CompressionType.NONE));
+        try {
+            for (int i = 0; i < records; i++) {
+                String key = "/source/" + i;
+                writer.append(new Text(key), new CopyListingFileStatus(
+                        new FileStatus(0, false, 1, 1024, 0, new Path("/tmp" + key))));
+            }
+        } finally {
+            writer.close();
+        }
+        configuration.set(DistCpConstants.CONF_LABEL_LISTING_FILE_PATH, listing.toString());
+        configuration.setInt(DistCpConstants.CONF_LABEL_TOTAL_NUMBER_OF_RECORDS, records);
+        configuration.setInt(JobContext.NUM_MAPS, maps);
+    }
+
+    @TearDown
+    public void teardown() throws IOException {
+        FileSystem.getLocal(configuration).delete(new Path(baseDir.toURI().toString()), true);
+    }
+
+    @Benchmark
+    public int dynamic() throws Exception {
+        return readAll(new DynamicInputFormat<Text, CopyListingFileStatus>());
+    }
+
+    @Benchmark
+    public int coordinated() throws Exception {
+        return readAll(new CoordinatedInputFormat<Text, CopyListingFileStatus>());
+    }
+
+    private int readAll(InputFormat<Text, CopyListingFileStatus> inputFormat) throws Exception {
+        JobContext jobContext = new JobContextImpl(new Configuration(configuration), new JobID());
+        List<InputSplit> splits = inputFormat.getSplits(jobContext);
+        int read = 0;
+        for (int taskId = 0; taskId < splits.size(); ++taskId) {
+            TaskAttemptContext context = new TaskAttemptContextImpl(jobContext.getConfiguration(),
+                    new TaskAttemptID("", 0, TaskType.MAP, taskId, 0));
+            RecordReader<Text, CopyListingFileStatus> reader =
+                    inputFormat.createRecordReader(splits.get(taskId), context);
+            reader.initialize(splits.get(taskId), context);
+            try {
+                while (reader.nextKeyValue()) {
+                    // The framework reports progress after every record.
+                    reader.getProgress();
+                    ++read;
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return read;
+    }
+}
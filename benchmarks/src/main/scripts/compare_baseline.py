@@ -0,0 +1,100 @@
+#!/usr/bin/env python
+
+"""
+  HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+
+  (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+
+  This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+  Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+  to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+  properly licensed third party, you do not have any rights to this code.
+
+  If this code is provided to you under the terms of the AGPLv3:
+  (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+  (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+  (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+    FROM OR RELATED TO THE CODE; AND
+  (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+    OR LOSS OR CORRUPTION OF DATA.
+"""
+
+# Compares a JMH result file (java -jar beacon-benchmarks.jar -rf json -rff current.json) against a saved
+# baseline result file and fails when a benchmark got slower than the allowed threshold.
+#
+# usage: compare_baseline.py [--threshold PERCENT] baseline.json current.json
+
+from __future__ import print_function
+
+import argparse
+import json
+import sys
+
+# Modes where a lower score is better, throughput is the only mode where a higher score is better.
+TIME_MODES = ('avgt', 'sample', 'ss')
+
+
+def load_results(path):
+    with open(path) as result_file:
+        results = {}
+        for entry in json.load(result_file):
+            params = entry.get('params') or {}
+            key = entry['benchmark'] + format_params(params)
+            results[key] = entry
+        return results
+
+
+def format_params(params):
+    if not params:
+        return ''
+    return '(' + ', '.join(name + '=' + params[name] for name in sorted(params)) + ')'
+
+
+def regression_percent(mode, baseline_score, current_score):
+    change = (current_score - baseline_score) * 100.0 / baseline_score
+    return change if mode in TIME_MODES else -change
+
+
+def main():
+    parser = argparse.ArgumentParser(description='Compare JMH results against a saved baseline.')
+    parser.add_argument('--threshold', type=float, default=10.0,
+                        help='regression in percent above which the comparison fails (default: 10)')
+    parser.add_argument('baseline', help='JMH json result file of the baseline run')
+    parser.add_argument('current', help='JMH json result file of the current run')
+    args = parser.parse_args()
+
+    baseline = load_results(args.baseline)
+    current = load_results(args.current)
+
+    regressions = []
+    print('%-100s %14s %14s %9s' % ('Benchmark', 'Baseline', 'Current', 'Change'))
+    for key in sorted(current):
+        entry = current[key]
+        metric = entry['primaryMetric']
+        if key not in baseline:
+            print('%-100s %14s %14.3f %9s  %s' % (key, '-', metric['score'], '-', metric['scoreUnit']))
+            continue
+        baseline_metric = baseline[key]['primaryMetric']
+        regression = regression_percent(entry['mode'], baseline_metric['score'], metric['score'])
+        flag = ''
+        if regression > args.threshold:
+            regressions.append(key)
+            flag = ' REGRESSION'
+        print('%-100s %14.3f %14.3f %+8.1f%%  %s%s' % (key, baseline_metric['score'], metric['score'],
+                                                      regression, metric['scoreUnit'], flag))
+
+    for key in sorted(set(baseline) - set(current)):
+        print('%-100s missing from the current run' % key)
+
+    if regressions:
+        print('\n%d benchmark(s) regressed by more than %.1f%%' % (len(regressions), args.threshold))
+        return 1
+    print('\nNo benchmark regressed by more than %.1f%%' % args.threshold)
+    return 0
+
+
+if __name__ == '__main__':
+    sys.exit(main())
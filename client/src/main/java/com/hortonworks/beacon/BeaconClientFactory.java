@@ -25,15 +25,28 @@ package com.hortonworks.beacon;
 import com.google.common.annotations.VisibleForTesting;
 import com.hortonworks.beacon.client.BeaconClient;
 import com.hortonworks.beacon.client.BeaconClientException;
+import com.hortonworks.beacon.client.BeaconClientMetrics;
 import com.hortonworks.beacon.client.BeaconWebClient;
+import com.hortonworks.beacon.config.BeaconConfig;
+import com.hortonworks.beacon.config.Engine;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Facory for creation beacon client.
+ * One client is kept per remote Beacon endpoint and Knox URL, so that the connections to the peer are reused.
  */
 public final class BeaconClientFactory {
 
     private static BeaconClient beaconClient;
 
+    private static final ConcurrentMap<String, BeaconWebClient> CLIENTS = new ConcurrentHashMap<>();
+
     private BeaconClientFactory() {
     }
 
@@ -46,6 +59,50 @@ public final class BeaconClientFactory {
         if (beaconClient != null) {
             return beaconClient;
         }
-        return new BeaconWebClient(beaconUrl, knoxBaseUrl);
+        String key = getKey(beaconUrl, knoxBaseUrl);
+        BeaconWebClient client = CLIENTS.get(key);
+        if (client == null) {
+            BeaconWebClient newClient = new BeaconWebClient(beaconUrl, knoxBaseUrl, getPeerClientProperties());
+            client = CLIENTS.putIfAbsent(key, newClient);
+            if (client == null) {
+                client = newClient;
+            }
+        }
+        return client;
+    }
+
+    /**
+     * @return request metrics of the shared clients, keyed by remote endpoint and Knox URL
+     */
+    public static Map<String, BeaconClientMetrics> getClientMetrics() {
+        Map<String, BeaconClientMetrics> metrics = new HashMap<>();
+        for (Map.Entry<String, BeaconWebClient> entry : CLIENTS.entrySet()) {
+            metrics.put(entry.getKey(), entry.getValue().getMetrics());
+        }
+        return metrics;
+    }
+
+    @VisibleForTesting
+    public static void clearClients() {
+        for (BeaconWebClient client : CLIENTS.values()) {
+            client.close();
+        }
+        CLIENTS.clear();
+    }
+
+    private static String getKey(String beaconUrl, String knoxBaseUrl) {
+        return StringUtils.removeEnd(StringUtils.trimToEmpty(beaconUrl), "/")
+                + "|" + StringUtils.removeEnd(StringUtils.trimToEmpty(knoxBaseUrl), "/");
+    }
+
+    private static Properties getPeerClientProperties() {
+        Engine engine = BeaconConfig.getInstance().getEngine();
+        Properties properties = new Properties();
+        properties.setProperty(BeaconWebClient.MAX_CONNECTIONS, String.valueOf(engine.getPeerMaxConnections()));
+        properties.setProperty(BeaconWebClient.CONNECT_TIMEOUT, String.valueOf(engine.getPeerConnectTimeout()));
+        properties.setProperty(BeaconWebClient.READ_TIMEOUT, String.valueOf(engine.getPeerReadTimeout()));
+        properties.setProperty(BeaconWebClient.CONNECTION_WAIT_TIMEOUT,
+                String.valueOf(engine.getPeerConnectionWaitTimeout()));
+        return properties;
     }
 }
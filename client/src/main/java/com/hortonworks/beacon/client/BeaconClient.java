@@ -37,6 +37,8 @@ import com.hortonworks.beacon.client.resource.UserPrivilegesResult;
 import com.hortonworks.beacon.client.result.DBListResult;
 import com.hortonworks.beacon.client.result.FileListResult;
 
+import java.util.Map;
+
 /**
  * Abstract Client API to submit and manage Beacon resources.
  */
@@ -81,6 +83,8 @@ public interface BeaconClient {
     void syncPolicyStatus(String policyName, String status,
             boolean isInternalStatusSync) throws BeaconClientException;
 
+    void syncPolicyStatus(Map<String, String> policyStatuses) throws BeaconClientException;
+
     ServerStatusResult getServiceStatus() throws BeaconClientException;
 
     ServerVersionResult getServiceVersion() throws BeaconClientException;
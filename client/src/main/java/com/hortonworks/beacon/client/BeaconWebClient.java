@@ -47,15 +47,24 @@ import com.sun.jersey.api.client.ClientHandlerException;
 import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.WebResource;
 import com.sun.jersey.api.client.config.ClientConfig;
-import com.sun.jersey.api.client.config.DefaultClientConfig;
 import com.sun.jersey.api.client.filter.HTTPBasicAuthFilter;
 import com.sun.jersey.api.json.JSONConfiguration;
-import com.sun.jersey.client.urlconnection.HTTPSProperties;
+import com.sun.jersey.client.apache4.ApacheHttpClient4;
+import com.sun.jersey.client.apache4.config.ApacheHttpClient4Config;
+import com.sun.jersey.client.apache4.config.DefaultApacheHttpClient4Config;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.hdfs.web.KerberosUgiAuthenticator;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.hadoop.security.authentication.client.AuthenticatedURL;
 import org.apache.hadoop.security.authentication.client.Authenticator;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -70,6 +79,7 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringWriter;
 import java.net.URL;
 import java.security.PrivilegedAction;
 import java.util.Map;
@@ -105,10 +115,15 @@ public class BeaconWebClient implements BeaconClient {
     private static final String BEACON_USERNAME = "beacon.username";
     private static final String BEACON_PASSWORD = "beacon.password";
 
+    public static final String CONNECT_TIMEOUT = "beacon.connect.timeout";
+    public static final String READ_TIMEOUT = "beacon.read.timeout";
+    public static final String MAX_CONNECTIONS = "beacon.client.max.connections";
+    public static final String CONNECTION_WAIT_TIMEOUT = "beacon.client.connection.wait.timeout";
 
     private final WebResource service;
+    private final BeaconClientMetrics metrics;
+    private final PoolingClientConnectionManager connectionManager;
 
-    private AuthenticatedURL.Token authToken;
     private final String knoxBaseURL;
     /**
      * debugMode=false means no debugging. debugMode=true means debugging on.
@@ -116,7 +131,6 @@ public class BeaconWebClient implements BeaconClient {
     private boolean debugMode = false;
 
     private final Properties clientProperties;
-    private String ssoToken;
 
     /**
      * Create a Beacon client instance.
@@ -147,17 +161,23 @@ public class BeaconWebClient implements BeaconClient {
                 baseUrl += "/";
             }
             this.clientProperties = properties;
-            SSLContext sslContext = SSLUtils.getSSLContext();
-            DefaultClientConfig config = new DefaultClientConfig();
-            config.getProperties().put(HTTPSProperties.PROPERTY_HTTPS_PROPERTIES,
-                    new HTTPSProperties(SSLUtils.HOSTNAME_VERIFIER, sslContext)
-            );
+            connectionManager = createConnectionManager(SSLUtils.getSSLContext(),
+                    Integer.parseInt(clientProperties.getProperty(MAX_CONNECTIONS, "0")));
+            // Requests wait for a pooled connection at most this long.
+            HttpParams httpParams = new BasicHttpParams();
+            httpParams.setLongParameter(ClientPNames.CONN_MANAGER_TIMEOUT,
+                    Long.parseLong(clientProperties.getProperty(CONNECTION_WAIT_TIMEOUT, "180000")));
+            DefaultApacheHttpClient4Config config = new DefaultApacheHttpClient4Config();
+            config.getProperties().put(ApacheHttpClient4Config.PROPERTY_CONNECTION_MANAGER, connectionManager);
+            config.getProperties().put(ApacheHttpClient4Config.PROPERTY_HTTP_PARAMS, httpParams);
+            // The client is shared between users, the auth cookies are set on every request instead.
+            config.getProperties().put(ApacheHttpClient4Config.PROPERTY_DISABLE_COOKIES, true);
             config.getProperties().put(ClientConfig.PROPERTY_FOLLOW_REDIRECTS, true);
             config.getFeatures().put(JSONConfiguration.FEATURE_POJO_MAPPING, Boolean.TRUE);
             boolean isBasicAuthentication = AUTHCONFIG.getBooleanProperty(BEACON_BASIC_AUTH_ENABLED, true);
 
 
-            Client client =  Client.create(config);
+            Client client = ApacheHttpClient4.create(config);
 
             if (isBasicAuthentication) {
                 String username=AUTHCONFIG.getProperty(BEACON_USERNAME);
@@ -173,9 +193,10 @@ public class BeaconWebClient implements BeaconClient {
                 }
                 client.addFilter(new HTTPBasicAuthFilter(username, password));
             }
-            client.setConnectTimeout(Integer.parseInt(clientProperties.getProperty("beacon.connect.timeout",
-                    "180000")));
-            client.setReadTimeout(Integer.parseInt(clientProperties.getProperty("beacon.read.timeout", "180000")));
+            client.setConnectTimeout(Integer.parseInt(clientProperties.getProperty(CONNECT_TIMEOUT, "180000")));
+            client.setReadTimeout(Integer.parseInt(clientProperties.getProperty(READ_TIMEOUT, "180000")));
+            metrics = new BeaconClientMetrics(baseUrl);
+            client.addFilter(new ClientMetricsFilter(metrics));
             service = client.resource(UriBuilder.fromUri(baseUrl).build());
         } catch (Exception e) {
             LOG.error("Unable to initialize Beacon Client object. Cause: {}", e.getMessage(), e);
@@ -183,6 +204,38 @@ public class BeaconWebClient implements BeaconClient {
         }
     }
 
+    /**
+     * Pooled connection manager bounding the connections to the remote endpoint, 0 for no limit. A connection
+     * goes back to the pool once the response entity is read or closed.
+     */
+    private static PoolingClientConnectionManager createConnectionManager(SSLContext sslContext,
+                                                                          int maxConnections) {
+        SchemeRegistry schemeRegistry = SchemeRegistryFactory.createDefault();
+        if (sslContext != null) {
+            schemeRegistry.register(new Scheme("https", 443,
+                    new SSLSocketFactory(sslContext, new SessionHostnameVerifier(SSLUtils.HOSTNAME_VERIFIER))));
+        }
+        PoolingClientConnectionManager manager = new PoolingClientConnectionManager(schemeRegistry);
+        int limit = maxConnections > 0 ? maxConnections : Integer.MAX_VALUE;
+        manager.setMaxTotal(limit);
+        manager.setDefaultMaxPerRoute(limit);
+        return manager;
+    }
+
+    /**
+     * Closes the pooled connections of the client.
+     */
+    public void close() {
+        connectionManager.shutdown();
+    }
+
+    /**
+     * @return request metrics of the remote endpoint
+     */
+    public BeaconClientMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * @return current debug Mode
      */
@@ -275,6 +328,7 @@ public class BeaconWebClient implements BeaconClient {
         //Internal policy operations
         POLICY_SYNC("api/beacon/policy/sync/", HttpMethod.POST, MediaType.APPLICATION_JSON),
         POLICY_SYNCSTATUS("api/beacon/policy/syncStatus/", HttpMethod.POST, MediaType.APPLICATION_JSON),
+        POLICY_BULK_SYNCSTATUS("api/beacon/policy/bulkSyncStatus/", HttpMethod.POST, MediaType.APPLICATION_JSON),
 
         //Admin operations
         ADMIN_STATUS(API_PREFIX + "admin/status", HttpMethod.GET, MediaType.APPLICATION_JSON),
@@ -406,6 +460,29 @@ public class BeaconWebClient implements BeaconClient {
         syncStatus(policyName, status, isInternalStatusSync);
     }
 
+    @Override
+    public void syncPolicyStatus(Map<String, String> policyStatuses) throws BeaconClientException {
+        Properties statuses = new Properties();
+        statuses.putAll(policyStatuses);
+        StringWriter writer = new StringWriter();
+        try {
+            statuses.store(writer, null);
+        } catch (IOException e) {
+            throw new BeaconClientException(e, "Unable to serialize the policy statuses: {}", e.getMessage());
+        }
+        ClientResponse clientResponse = new ResourceBuilder().path(API.POLICY_BULK_SYNCSTATUS.path)
+                .call(API.POLICY_BULK_SYNCSTATUS, writer.toString());
+        // Servers without the bulk endpoint do not return an APIResult.
+        if (clientResponse.getStatus() == Response.Status.NOT_FOUND.getStatusCode()) {
+            clientResponse.close();
+            BeaconClientException e = new BeaconClientException(null, "Bulk status sync is not supported by {}",
+                    service.getURI());
+            e.setStatus(Response.Status.NOT_FOUND.getStatusCode());
+            throw e;
+        }
+        getResponse(clientResponse, APIResult.class);
+    }
+
     @Override
     public ServerStatusResult getServiceStatus() throws BeaconClientException {
         ClientResponse clientResponse = new ResourceBuilder().path(API.ADMIN_STATUS.path).call(API.ADMIN_STATUS);
@@ -515,17 +592,9 @@ public class BeaconWebClient implements BeaconClient {
         }
 
         private ClientResponse call(API entities) throws BeaconClientException {
-            setSSOToken(getSSOToken());
-            setAuthToken(getToken(service.getURI().toString()));
             WebResource.Builder builder = resource.accept(entities.mimeType);
             builder.type(MediaType.TEXT_PLAIN);
-            if (ssoToken != null) {
-                builder.cookie(new Cookie("hadoop-jwt", ssoToken));
-            } else {
-                if (authToken != null && authToken.isSet()) {
-                    builder.cookie(new Cookie(AuthenticatedURL.AUTH_COOKIE, authToken.toString()));
-                }
-            }
+            addAuthCookie(builder);
             try {
                 return builder.method(entities.method, ClientResponse.class);
             } catch (ClientHandlerException e) {
@@ -534,18 +603,23 @@ public class BeaconWebClient implements BeaconClient {
         }
 
         public ClientResponse call(API operation, Object entityDefinition) {
-            setSSOToken(getSSOToken());
-            setAuthToken(getToken(service.getURI().toString()));
             WebResource.Builder builder = resource.accept(operation.mimeType);
             builder.type(MediaType.APPLICATION_OCTET_STREAM_TYPE);
+            addAuthCookie(builder);
+            return builder.method(operation.method, ClientResponse.class, entityDefinition);
+        }
+
+        // The tokens are resolved per call and not kept on the client, as the client is shared between threads.
+        private void addAuthCookie(WebResource.Builder builder) {
+            String ssoToken = getSSOToken();
             if (ssoToken != null) {
                 builder.cookie(new Cookie("hadoop-jwt", ssoToken));
             } else {
+                AuthenticatedURL.Token authToken = getToken(service.getURI().toString());
                 if (authToken != null && authToken.isSet()) {
                     builder.cookie(new Cookie(AuthenticatedURL.AUTH_COOKIE, authToken.toString()));
                 }
             }
-            return builder.method(operation.method, ClientResponse.class, entityDefinition);
         }
     }
     //RESUME CHECKSTYLE CHECK VisibilityModifierCheck
@@ -673,13 +747,6 @@ public class BeaconWebClient implements BeaconClient {
         getResponse(clientResponse, APIResult.class);
     }
 
-    private void setAuthToken(AuthenticatedURL.Token token) {
-        this.authToken = token;
-    }
-
-    private void setSSOToken(String token) {
-        this.ssoToken = token;
-    }
     @Override
     public String submitCloudCred(CloudCred cloudCred) throws BeaconClientException {
         InputStream stream = getStream(cloudCred);
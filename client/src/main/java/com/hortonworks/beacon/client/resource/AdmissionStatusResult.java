@@ -0,0 +1,88 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.client.resource;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.util.Arrays;
+
+/**
+ * REST API response for running and waiting replication jobs per cluster pair.
+ */
+@XmlRootElement(name = "admission")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class AdmissionStatusResult {
+
+    @XmlElement
+    private int results;
+
+    @XmlElement(name = "pair")
+    private final PairElement[] elements;
+
+    /**
+     * Admission status of a cluster pair.
+     */
+    public static class PairElement {
+        //SUSPEND CHECKSTYLE CHECK VisibilityModifierCheck
+        @XmlElement
+        public String pair;
+        @XmlElement
+        public int weight;
+        @XmlElement
+        public int running;
+        @XmlElement
+        public int waiting;
+        //RESUME CHECKSTYLE CHECK VisibilityModifierCheck
+
+        @Override
+        public String toString() {
+            return "PairElement {"
+                    + "pair='" + pair + '\''
+                    + ", weight=" + weight
+                    + ", running=" + running
+                    + ", waiting=" + waiting
+                    + '}';
+        }
+    }
+
+    //For JAXB
+    public AdmissionStatusResult() {
+        this.elements = null;
+        this.results = 0;
+    }
+
+    public AdmissionStatusResult(PairElement[] elements) {
+        this.elements = elements != null ? Arrays.copyOf(elements, elements.length) : null;
+        this.results = elements != null ? elements.length : 0;
+    }
+
+    public int getResults() {
+        return results;
+    }
+
+    public PairElement[] getElements() {
+        return elements != null ? Arrays.copyOf(elements, elements.length) : null;
+    }
+}
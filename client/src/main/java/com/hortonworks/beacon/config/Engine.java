@@ -46,6 +46,14 @@ public class Engine {
     private static final String DEF_PREAUTH_TOPOLOGY = "beacon-preauth";
     private static final String DEF_PROXY_TOPOLOGY = "dp-proxy";
     private static final int DEF_TOKEN_THRESHOLD = 300;
+    private static final int DEF_PEER_MAX_CONNECTIONS = 20;
+    private static final int DEF_PEER_CONNECT_TIMEOUT = 180000;
+    private static final int DEF_PEER_READ_TIMEOUT = 180000;
+    private static final int DEF_PEER_CONNECTION_WAIT_TIMEOUT = 60000;
+    private static final int DEF_SNAPSHOT_EVICTION_THREADS = 2;
+    private static final int DEF_SNAPSHOT_EVICTION_PARALLEL_DELETES = 4;
+    private static final String DEF_HIVE_BOOTSTRAP_RECOVERY_MODE = "RESUME";
+    private static final int DEF_HIVE_BOOTSTRAP_RECOVERY_BATCH_SIZE = 100;
     private String hostName;
     private String bindHost;
     private int port;
@@ -81,6 +89,11 @@ public class Engine {
     private int refreshSnapshotDirs;
 
     private int snapshotRetentionNumber;
+    private int snapshotEvictionThreads;
+    private int snapshotEvictionParallelDeletes;
+
+    private String hiveBootstrapRecoveryMode;
+    private int hiveBootstrapRecoveryBatchSize;
 
     private String cloudCredProviderPath;
 
@@ -92,6 +105,12 @@ public class Engine {
     private String knoxProxyTopology;
     private  int knoxProxyTokenThreshold;
 
+    // Connection settings of the shared clients to peer Beacon servers.
+    private int peerMaxConnections;
+    private int peerConnectTimeout;
+    private int peerReadTimeout;
+    private int peerConnectionWaitTimeout;
+
 
     //TLS parameters
     private int tlsPort;
@@ -139,6 +158,14 @@ public class Engine {
         setKnoxPreAuthTopology(DEF_PREAUTH_TOPOLOGY);
         setKnoxProxyTopology(DEF_PROXY_TOPOLOGY);
         setKnoxProxyTokenThreshold(DEF_TOKEN_THRESHOLD);
+        setPeerMaxConnections(DEF_PEER_MAX_CONNECTIONS);
+        setPeerConnectTimeout(DEF_PEER_CONNECT_TIMEOUT);
+        setPeerReadTimeout(DEF_PEER_READ_TIMEOUT);
+        setPeerConnectionWaitTimeout(DEF_PEER_CONNECTION_WAIT_TIMEOUT);
+        setSnapshotEvictionThreads(DEF_SNAPSHOT_EVICTION_THREADS);
+        setSnapshotEvictionParallelDeletes(DEF_SNAPSHOT_EVICTION_PARALLEL_DELETES);
+        setHiveBootstrapRecoveryMode(DEF_HIVE_BOOTSTRAP_RECOVERY_MODE);
+        setHiveBootstrapRecoveryBatchSize(DEF_HIVE_BOOTSTRAP_RECOVERY_BATCH_SIZE);
     }
 
     public void copy(Engine o) {
@@ -166,6 +193,10 @@ public class Engine {
         setRefreshEncryptionZones(o.getRefreshEncryptionZones());
         setRefreshSnapshotDirs(o.getRefreshSnapshotDirs());
         setSnapshotRetentionNumber(o.getSnapshotRetentionNumber());
+        setSnapshotEvictionThreads(o.getSnapshotEvictionThreads());
+        setSnapshotEvictionParallelDeletes(o.getSnapshotEvictionParallelDeletes());
+        setHiveBootstrapRecoveryMode(o.getHiveBootstrapRecoveryMode());
+        setHiveBootstrapRecoveryBatchSize(o.getHiveBootstrapRecoveryBatchSize());
         setBindHost(o.getBindHost());
         setCloudCredProviderPath(o.getCloudCredProviderPath());
         setKeyStore(o.getKeyStore());
@@ -181,6 +212,10 @@ public class Engine {
         setKnoxProxyEnabled(o.isKnoxProxyEnabled());
         setKnoxProxyTokenThreshold(o.getKnoxProxyTokenThreshold());
         setPreserveMeta(o.isPreserveMeta());
+        setPeerMaxConnections(o.getPeerMaxConnections());
+        setPeerConnectTimeout(o.getPeerConnectTimeout());
+        setPeerReadTimeout(o.getPeerReadTimeout());
+        setPeerConnectionWaitTimeout(o.getPeerConnectionWaitTimeout());
     }
 
     public String getHostName() {
@@ -395,6 +430,47 @@ public class Engine {
         this.snapshotRetentionNumber = snapshotRetentionNumber == 0 ? 3 : snapshotRetentionNumber;
     }
 
+    public int getSnapshotEvictionThreads() {
+        return snapshotEvictionThreads;
+    }
+
+    public void setSnapshotEvictionThreads(int snapshotEvictionThreads) {
+        if (snapshotEvictionThreads <= 0) {
+            throw new IllegalArgumentException("snapshot eviction threads must be > 0");
+        }
+        this.snapshotEvictionThreads = snapshotEvictionThreads;
+    }
+
+    public int getSnapshotEvictionParallelDeletes() {
+        return snapshotEvictionParallelDeletes;
+    }
+
+    public void setSnapshotEvictionParallelDeletes(int snapshotEvictionParallelDeletes) {
+        if (snapshotEvictionParallelDeletes <= 0) {
+            throw new IllegalArgumentException("snapshot eviction parallel deletes must be > 0");
+        }
+        this.snapshotEvictionParallelDeletes = snapshotEvictionParallelDeletes;
+    }
+
+    public String getHiveBootstrapRecoveryMode() {
+        return hiveBootstrapRecoveryMode;
+    }
+
+    public void setHiveBootstrapRecoveryMode(String hiveBootstrapRecoveryMode) {
+        this.hiveBootstrapRecoveryMode = hiveBootstrapRecoveryMode;
+    }
+
+    public int getHiveBootstrapRecoveryBatchSize() {
+        return hiveBootstrapRecoveryBatchSize;
+    }
+
+    public void setHiveBootstrapRecoveryBatchSize(int hiveBootstrapRecoveryBatchSize) {
+        if (hiveBootstrapRecoveryBatchSize <= 0) {
+            throw new IllegalArgumentException("hive bootstrap recovery batch size must be > 0");
+        }
+        this.hiveBootstrapRecoveryBatchSize = hiveBootstrapRecoveryBatchSize;
+    }
+
     public String getBindHost() {
         return bindHost;
     }
@@ -549,4 +625,39 @@ public class Engine {
     public void setPreserveMeta(boolean preserveMeta) {
         this.preserveMeta = preserveMeta;
     }
+
+    public int getPeerMaxConnections() {
+        return peerMaxConnections;
+    }
+
+    public void setPeerMaxConnections(int peerMaxConnections) {
+        if (peerMaxConnections < 0) {
+            throw new IllegalArgumentException("peer max connections must be >= 0");
+        }
+        this.peerMaxConnections = peerMaxConnections;
+    }
+
+    public int getPeerConnectTimeout() {
+        return peerConnectTimeout;
+    }
+
+    public void setPeerConnectTimeout(int peerConnectTimeout) {
+        this.peerConnectTimeout = peerConnectTimeout;
+    }
+
+    public int getPeerReadTimeout() {
+        return peerReadTimeout;
+    }
+
+    public void setPeerReadTimeout(int peerReadTimeout) {
+        this.peerReadTimeout = peerReadTimeout;
+    }
+
+    public int getPeerConnectionWaitTimeout() {
+        return peerConnectionWaitTimeout;
+    }
+
+    public void setPeerConnectionWaitTimeout(int peerConnectionWaitTimeout) {
+        this.peerConnectionWaitTimeout = peerConnectionWaitTimeout;
+    }
 }
@@ -25,10 +25,24 @@ package com.hortonworks.beacon.config;
 /**
  * Configuration parameter related to beacon scheduler.
  * housekeepingSyncFrequency: status sync frequency is in minutes.
+ * quartzClusterCheckinInterval, quartzMisfireThreshold: values are in milliseconds.
+ * admissionClass: FairShareJobAdmission enables the fair share admission, by default every job is admitted.
+ * admissionPairMaxJobs, admissionPolicyMaxJobs: 0 means no limit.
+ * admissionPairWeights: comma separated list of sourceCluster->targetCluster=weight.
+ * hiveDumpRetention: hours a Hive dump directory is kept after a later instance has loaded a newer dump.
  */
 public class Scheduler {
+    private static final long DEF_QUARTZ_CLUSTER_CHECKIN_INTERVAL = 20000;
+    private static final long DEF_QUARTZ_MISFIRE_THRESHOLD = 60000;
+    private static final String DEF_ADMISSION_CLASS =
+            "com.hortonworks.beacon.scheduler.admission.PassThroughJobAdmission";
+    private static final int DEF_HIVE_DUMP_RETENTION = 24;
+
     private String quartzPrefix;
     private String quartzThreadPool;
+    private boolean quartzClustered;
+    private long quartzClusterCheckinInterval;
+    private long quartzMisfireThreshold;
     private int retiredPolicyOlderThan;
     private int cleanupFrequency;
     private int housekeepingThreads;
@@ -37,10 +51,25 @@ public class Scheduler {
     private int minReplicationFrequency;
     private int replicationMetricsInterval;
     private int policyCheckFrequency;
+    private String admissionClass;
+    private int admissionPairMaxJobs;
+    private int admissionPolicyMaxJobs;
+    private String admissionPairWeights;
+    private int hiveDumpRetention;
+
+    public Scheduler() {
+        setQuartzClusterCheckinInterval(DEF_QUARTZ_CLUSTER_CHECKIN_INTERVAL);
+        setQuartzMisfireThreshold(DEF_QUARTZ_MISFIRE_THRESHOLD);
+        setAdmissionClass(DEF_ADMISSION_CLASS);
+        setHiveDumpRetention(DEF_HIVE_DUMP_RETENTION);
+    }
 
     public void copy(Scheduler o) {
         setQuartzPrefix(o.getQuartzPrefix());
         setQuartzThreadPool(o.getQuartzThreadPool());
+        setQuartzClustered(o.isQuartzClustered());
+        setQuartzClusterCheckinInterval(o.getQuartzClusterCheckinInterval());
+        setQuartzMisfireThreshold(o.getQuartzMisfireThreshold());
         setRetiredPolicyOlderThan(o.getRetiredPolicyOlderThan());
         setCleanupFrequency(o.getCleanupFrequency());
         setHousekeepingThreads(o.getHousekeepingThreads());
@@ -49,6 +78,11 @@ public class Scheduler {
         setReplicationMetricsInterval(o.getReplicationMetricsInterval());
         setHousekeepingSyncMaxRetry(o.getHousekeepingSyncMaxRetry());
         setPolicyCheckFrequency(o.getPolicyCheckFrequency());
+        setAdmissionClass(o.getAdmissionClass());
+        setAdmissionPairMaxJobs(o.getAdmissionPairMaxJobs());
+        setAdmissionPolicyMaxJobs(o.getAdmissionPolicyMaxJobs());
+        setAdmissionPairWeights(o.getAdmissionPairWeights());
+        setHiveDumpRetention(o.getHiveDumpRetention());
     }
 
     public String getQuartzPrefix() {
@@ -67,6 +101,30 @@ public class Scheduler {
         this.quartzThreadPool = quartzThreadPool;
     }
 
+    public boolean isQuartzClustered() {
+        return quartzClustered;
+    }
+
+    public void setQuartzClustered(boolean quartzClustered) {
+        this.quartzClustered = quartzClustered;
+    }
+
+    public long getQuartzClusterCheckinInterval() {
+        return quartzClusterCheckinInterval;
+    }
+
+    public void setQuartzClusterCheckinInterval(long quartzClusterCheckinInterval) {
+        this.quartzClusterCheckinInterval = quartzClusterCheckinInterval;
+    }
+
+    public long getQuartzMisfireThreshold() {
+        return quartzMisfireThreshold;
+    }
+
+    public void setQuartzMisfireThreshold(long quartzMisfireThreshold) {
+        this.quartzMisfireThreshold = quartzMisfireThreshold;
+    }
+
     public int getRetiredPolicyOlderThan() {
         return retiredPolicyOlderThan;
     }
@@ -130,4 +188,44 @@ public class Scheduler {
     public void setPolicyCheckFrequency(int policyCheckFrequency) {
         this.policyCheckFrequency = policyCheckFrequency;
     }
+
+    public String getAdmissionClass() {
+        return admissionClass;
+    }
+
+    public void setAdmissionClass(String admissionClass) {
+        this.admissionClass = admissionClass;
+    }
+
+    public int getAdmissionPairMaxJobs() {
+        return admissionPairMaxJobs;
+    }
+
+    public void setAdmissionPairMaxJobs(int admissionPairMaxJobs) {
+        this.admissionPairMaxJobs = admissionPairMaxJobs;
+    }
+
+    public int getAdmissionPolicyMaxJobs() {
+        return admissionPolicyMaxJobs;
+    }
+
+    public void setAdmissionPolicyMaxJobs(int admissionPolicyMaxJobs) {
+        this.admissionPolicyMaxJobs = admissionPolicyMaxJobs;
+    }
+
+    public String getAdmissionPairWeights() {
+        return admissionPairWeights;
+    }
+
+    public void setAdmissionPairWeights(String admissionPairWeights) {
+        this.admissionPairWeights = admissionPairWeights;
+    }
+
+    public int getHiveDumpRetention() {
+        return hiveDumpRetention;
+    }
+
+    public void setHiveDumpRetention(int hiveDumpRetention) {
+        this.hiveDumpRetention = hiveDumpRetention;
+    }
 }
@@ -0,0 +1,184 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.job;
+
+import org.apache.commons.codec.binary.Base64;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compact, versioned binary form of the job context stored with the instance job.
+ * The binary form is kept in the text column as base64 behind a marker, rows written as JSON by
+ * {@link JobContext#toString()} are still read.
+ */
+public final class JobContextCodec {
+
+    static final char BINARY_MARKER = '#';
+    static final byte VERSION = 1;
+
+    private static final int FLAG_INTERRUPT = 1;
+    private static final int FLAG_RECOVERY = 1 << 1;
+    private static final int FLAG_PERFORM_AFTER_RECOVERY = 1 << 2;
+    private static final int FLAG_DEFLATED = 1 << 7;
+
+    // Smaller bodies do not gain from compression.
+    private static final int DEFLATE_THRESHOLD = 256;
+
+    private JobContextCodec() {
+    }
+
+    public static String encode(JobContext jobContext) {
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(body);
+            writeVarInt(out, jobContext.getOffset());
+            writeString(out, jobContext.getJobInstanceId());
+            Map<String, String> contextMap = jobContext.getJobContextMap();
+            writeVarInt(out, contextMap.size());
+            for (Map.Entry<String, String> entry : contextMap.entrySet()) {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue());
+            }
+            out.flush();
+
+            int flags = 0;
+            flags |= jobContext.shouldInterrupt().get() ? FLAG_INTERRUPT : 0;
+            flags |= jobContext.isRecovery() ? FLAG_RECOVERY : 0;
+            flags |= jobContext.isPerformJobAfterRecovery() ? FLAG_PERFORM_AFTER_RECOVERY : 0;
+            byte[] bodyBytes = body.toByteArray();
+            if (bodyBytes.length > DEFLATE_THRESHOLD) {
+                byte[] deflated = deflate(bodyBytes);
+                if (deflated.length < bodyBytes.length) {
+                    bodyBytes = deflated;
+                    flags |= FLAG_DEFLATED;
+                }
+            }
+
+            byte[] payload = new byte[bodyBytes.length + 2];
+            payload[0] = VERSION;
+            payload[1] = (byte) flags;
+            System.arraycopy(bodyBytes, 0, payload, 2, bodyBytes.length);
+            return BINARY_MARKER + new String(Base64.encodeBase64(payload), StandardCharsets.US_ASCII);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to encode the job context.", e);
+        }
+    }
+
+    /**
+     * Reads the job context written by {@link #encode(JobContext)} or the JSON form of {@link JobContext}.
+     * Same as for the JSON form, recovery flags are not carried over, they belong to the job which wrote them.
+     */
+    public static JobContext decode(String contextData) {
+        if (contextData == null || contextData.isEmpty() || contextData.charAt(0) != BINARY_MARKER) {
+            return JobContext.parseJobContext(contextData);
+        }
+        byte[] payload = Base64.decodeBase64(contextData.substring(1));
+        if (payload.length < 2 || payload[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported job context version: "
+                    + (payload.length > 0 ? payload[0] : "none"));
+        }
+        int flags = payload[1] & 0xFF;
+        try {
+            InputStream body = new ByteArrayInputStream(payload, 2, payload.length - 2);
+            if ((flags & FLAG_DEFLATED) != 0) {
+                body = new InflaterInputStream(body);
+            }
+            DataInputStream in = new DataInputStream(body);
+            JobContext jobContext = new JobContext();
+            jobContext.setOffset(readVarInt(in));
+            jobContext.setJobInstanceId(readString(in));
+            jobContext.setShouldInterrupt(new AtomicBoolean((flags & FLAG_INTERRUPT) != 0));
+            int size = readVarInt(in);
+            Map<String, String> contextMap = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                contextMap.put(readString(in), readString(in));
+            }
+            jobContext.setJobContextMap(contextMap);
+            return jobContext;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid data found while loading the context.", e);
+        }
+    }
+
+    private static byte[] deflate(byte[] bytes) throws IOException {
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream(bytes.length);
+        try (OutputStream out = new DeflaterOutputStream(deflated)) {
+            out.write(bytes);
+        }
+        return deflated.toByteArray();
+    }
+
+    // Length is written plus one, 0 is used for null.
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readVarInt(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length integer.");
+    }
+}
@@ -33,12 +33,14 @@ import org.slf4j.LoggerFactory;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 
 /**
  * Configuration for Beacon Store.
  */
-public final class BeaconStoreService implements BeaconService {
+public final class BeaconStoreService implements DependentService {
 
     private static final Logger LOG = LoggerFactory.getLogger(BeaconStoreService.class);
 
@@ -112,6 +114,11 @@ public final class BeaconStoreService implements BeaconService {
         return !(dbType == DbStore.DBType.HSQLDB || dbType == DbStore.DBType.DERBY);
     }
 
+    @Override
+    public List<String> getDependencies() {
+        return Collections.<String>emptyList();
+    }
+
     @Override
     public void destroy() {
         if (factory != null && factory.isOpen()) {
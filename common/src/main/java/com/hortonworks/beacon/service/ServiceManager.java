@@ -24,9 +24,26 @@ package com.hortonworks.beacon.service;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.util.ReflectionUtils;
@@ -42,7 +59,9 @@ import com.hortonworks.beacon.exceptions.BeaconException;
  */
 public final class ServiceManager {
     private static final Logger LOG = LoggerFactory.getLogger(ServiceManager.class);
+    private static final long EXECUTOR_TERMINATION_TIMEOUT_SECONDS = 60;
     private final Services services = Services.get();
+    private final Map<String, Long> startupTimes = Collections.synchronizedMap(new LinkedHashMap<String, Long>());
 
 
     private ServiceManager() {
@@ -86,24 +105,124 @@ public final class ServiceManager {
         }
 
         LOG.debug("Services to be initialised: {}", serviceList);
+        Map<String, BeaconService> serviceInstances = new LinkedHashMap<>();
         for (String serviceClassName : serviceList) {
             serviceClassName = serviceClassName.trim();
-            if (serviceClassName.isEmpty()) {
+            if (serviceClassName.isEmpty() || serviceInstances.containsKey(serviceClassName)) {
                 continue;
             }
             BeaconService service = getInstanceByClassName(serviceClassName);
-            LOG.info("Initializing service: {}", serviceClassName);
-            try {
-                service.init();
-            } catch (Throwable t) {
-                LOG.error("Failed to initialize service: {}", serviceClassName, t);
-                throw new BeaconException(t);
+            serviceInstances.put(serviceClassName, service);
+        }
+        initialize(serviceInstances, getDependencies(serviceInstances));
+    }
+
+    /**
+     * Dependencies of the services to be initialized. A service that does not declare its dependencies depends on
+     * all the services listed before it, so that it keeps the sequential initialization order.
+     */
+    private Map<String, Set<String>> getDependencies(Map<String, BeaconService> serviceInstances) {
+        Map<String, Set<String>> dependencies = new HashMap<>();
+        Set<String> previous = new LinkedHashSet<>();
+        for (Map.Entry<String, BeaconService> entry : serviceInstances.entrySet()) {
+            Set<String> serviceDependencies = new HashSet<>();
+            if (entry.getValue() instanceof DependentService) {
+                for (String dependency : ((DependentService) entry.getValue()).getDependencies()) {
+                    if (serviceInstances.containsKey(dependency)) {
+                        serviceDependencies.add(dependency);
+                    } else if (!services.isRegistered(dependency)) {
+                        LOG.warn("Service {} depends on service {} which is not configured", entry.getKey(),
+                                dependency);
+                    }
+                }
+            } else {
+                serviceDependencies.addAll(previous);
             }
-            services.register(service);
-            LOG.info("Service initialized: {}", serviceClassName);
+            dependencies.put(entry.getKey(), serviceDependencies);
+            previous.add(entry.getKey());
+        }
+        return dependencies;
+    }
+
+    private void initialize(Map<String, BeaconService> serviceInstances, Map<String, Set<String>> dependencies)
+            throws BeaconException {
+        Map<String, BeaconService> pending = new LinkedHashMap<>(serviceInstances);
+        Set<String> initialized = new HashSet<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, pending.size()), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                // Not a daemon thread, the threads started by the services inherit it.
+                return new Thread(runnable, "beacon-service-init-" + count.incrementAndGet());
+            }
+        });
+        CompletionService<String> completionService = new ExecutorCompletionService<>(executor);
+        long startTime = System.currentTimeMillis();
+        Throwable failure = null;
+        int running = 0;
+        try {
+            while (true) {
+                if (failure == null) {
+                    Iterator<Map.Entry<String, BeaconService>> iterator = pending.entrySet().iterator();
+                    while (iterator.hasNext()) {
+                        Map.Entry<String, BeaconService> entry = iterator.next();
+                        if (initialized.containsAll(dependencies.get(entry.getKey()))) {
+                            completionService.submit(new ServiceInitializer(entry.getKey(), entry.getValue()));
+                            iterator.remove();
+                            running++;
+                        }
+                    }
+                }
+                if (running == 0) {
+                    break;
+                }
+                Future<String> future = completionService.take();
+                running--;
+                try {
+                    initialized.add(future.get());
+                } catch (ExecutionException e) {
+                    // Wait for the services already initializing, but don't start any new one.
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                }
+            }
+            // All the services are done, let the idle init threads exit.
+            executor.shutdown();
+            if (!executor.awaitTermination(EXECUTOR_TERMINATION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOG.warn("Service init threads did not terminate in {} seconds",
+                        EXECUTOR_TERMINATION_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeaconException(e, "Interrupted while initializing services");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (failure != null) {
+            throw failure instanceof BeaconException ? (BeaconException) failure : new BeaconException(failure);
         }
+        if (!pending.isEmpty()) {
+            throw new BeaconException("Cyclic dependencies between services: {}", pending.keySet());
+        }
+        LOG.info("Initialized {} services in {} ms", initialized.size(), System.currentTimeMillis() - startTime);
     }
 
+    /**
+     * @return initialization time in milliseconds of each service, in the order the services were initialized.
+     */
+    public Map<String, Long> getStartupTimes() {
+        synchronized (startupTimes) {
+            return new LinkedHashMap<>(startupTimes);
+        }
+    }
+
+    /**
+     * Destroys the services in the reverse order of their initialization, so that a service is destroyed before
+     * the services it depends on.
+     */
     public void destroy() throws BeaconException {
         Iterator<BeaconService> iterator = services.reverseIterator();
         while (iterator.hasNext()) {
@@ -134,4 +253,34 @@ public final class ServiceManager {
             throw new BeaconException(e, "Unable to get instance for: ", clazzName);
         }
     }
+
+    /**
+     * Initializes and registers a service.
+     */
+    private final class ServiceInitializer implements Callable<String> {
+        private final String serviceClassName;
+        private final BeaconService service;
+
+        private ServiceInitializer(String serviceClassName, BeaconService service) {
+            this.serviceClassName = serviceClassName;
+            this.service = service;
+        }
+
+        @Override
+        public String call() throws BeaconException {
+            LOG.info("Initializing service: {}", serviceClassName);
+            long startTime = System.currentTimeMillis();
+            try {
+                service.init();
+            } catch (Throwable t) {
+                LOG.error("Failed to initialize service: {}", serviceClassName, t);
+                throw new BeaconException(t);
+            }
+            long initTime = System.currentTimeMillis() - startTime;
+            startupTimes.put(serviceClassName, initTime);
+            services.register(service);
+            LOG.info("Service initialized: {} in {} ms", serviceClassName, initTime);
+            return serviceClassName;
+        }
+    }
 }
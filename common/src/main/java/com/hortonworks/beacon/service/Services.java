@@ -25,10 +25,10 @@ package com.hortonworks.beacon.service;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.hortonworks.beacon.exceptions.BeaconException;
 
@@ -46,31 +46,34 @@ public final class Services implements Iterable<BeaconService> {
         return INSTANCE;
     }
 
-    private final Map<String, BeaconService> services =
-            new LinkedHashMap<>();
+    // Looked up without locking, services are registered concurrently while they are initialized.
+    private final ConcurrentMap<String, BeaconService> services = new ConcurrentHashMap<>();
+
+    // Registration order, guarded by this.
+    private final List<BeaconService> registered = new ArrayList<>();
 
     public synchronized void register(BeaconService service) {
-        if (!services.containsKey(service.getClass().getName())) {
-            services.put(service.getClass().getName(), service);
+        if (services.putIfAbsent(service.getClass().getName(), service) == null) {
+            registered.add(service);
         }
     }
 
     synchronized void deregister(String serviceName) throws BeaconException {
-
-        if (!services.containsKey(serviceName)) {
+        BeaconService service = services.remove(serviceName);
+        if (service == null) {
             throw new BeaconException("Service {} is not registered", serviceName);
         } else {
-            services.remove(serviceName);
+            registered.remove(service);
         }
     }
 
     @SuppressWarnings("unchecked")
     public <T extends BeaconService> T getService(Class<T> tClass) {
-        if (services.containsKey(tClass.getName())) {
-            return (T) services.get(tClass.getName());
-        } else {
+        T service = (T) services.get(tClass.getName());
+        if (service == null) {
             throw new NoSuchElementException("Service " + tClass.getName() + " not registered with registry");
         }
+        return service;
     }
 
     public boolean isRegistered(String serviceName) {
@@ -78,17 +81,18 @@ public final class Services implements Iterable<BeaconService> {
     }
 
     @Override
-    public Iterator<BeaconService> iterator() {
-        return services.values().iterator();
+    public synchronized Iterator<BeaconService> iterator() {
+        return new ArrayList<>(registered).iterator();
     }
 
-    public Iterator<BeaconService> reverseIterator() {
-        List<BeaconService> list = new ArrayList(services.values());
+    public synchronized Iterator<BeaconService> reverseIterator() {
+        List<BeaconService> list = new ArrayList<>(registered);
         Collections.reverse(list);
         return list.iterator();
     }
 
-    public void reset() {
+    public synchronized void reset() {
         services.clear();
+        registered.clear();
     }
 }
@@ -24,9 +24,13 @@ package com.hortonworks.beacon.util;
 
 
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
@@ -58,6 +62,9 @@ public final class ExpressionHelper implements FunctionMapper, VariableResolver
     private static final ExpressionEvaluator EVALUATOR = new ExpressionEvaluatorImpl();
     private static final ExpressionHelper RESOLVER = ExpressionHelper.get();
 
+    // Functions available to expressions, looked up by name.
+    private static final Map<String, Method> FUNCTIONS = loadFunctions();
+
 
     public static final ThreadLocal<SimpleDateFormat> FORMATTER = new ThreadLocal<SimpleDateFormat>() {
         @Override
@@ -92,14 +99,25 @@ public final class ExpressionHelper implements FunctionMapper, VariableResolver
         }
     }
 
-    @Override
-    public Method resolveFunction(String prefix, String name) {
+    private static Map<String, Method> loadFunctions() {
+        Map<String, Method> functions = new HashMap<>();
         for (Method method : ExpressionHelper.class.getDeclaredMethods()) {
-            if (method.getName().equals(name)) {
-                return method;
+            int modifiers = method.getModifiers();
+            if (Modifier.isPublic(modifiers) && Modifier.isStatic(modifiers)
+                    && !functions.containsKey(method.getName())) {
+                functions.put(method.getName(), method);
             }
         }
-        throw new UnsupportedOperationException(StringFormat.format("Function not found {}: {}", prefix, name));
+        return Collections.unmodifiableMap(functions);
+    }
+
+    @Override
+    public Method resolveFunction(String prefix, String name) {
+        Method method = FUNCTIONS.get(name);
+        if (method == null) {
+            throw new UnsupportedOperationException(StringFormat.format("Function not found {}: {}", prefix, name));
+        }
+        return method;
     }
 
     public void setPropertiesForVariable(Properties properties) {
@@ -0,0 +1,94 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.job;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests for JobContextCodec.
+ */
+public class JobContextCodecTest {
+
+    private static final String INSTANCE_ID = "dataCenter$source$target-1-1510000000000-000000001@12";
+
+    @Test
+    public void testRoundTrip() {
+        JobContext jobContext = createJobContext(3);
+        jobContext.setShouldInterrupt(new AtomicBoolean(true));
+        // Separators of the JSON form are valid in the binary form.
+        jobContext.getJobContextMap().put("snapshot", "name=beacon;created");
+
+        String encoded = JobContextCodec.encode(jobContext);
+        Assert.assertEquals(encoded.charAt(0), JobContextCodec.BINARY_MARKER);
+        JobContext decoded = JobContextCodec.decode(encoded);
+        Assert.assertEquals(decoded.getJobInstanceId(), INSTANCE_ID);
+        Assert.assertEquals(decoded.getOffset(), 2);
+        Assert.assertTrue(decoded.shouldInterrupt().get());
+        Assert.assertEquals(decoded.getJobContextMap(), jobContext.getJobContextMap());
+    }
+
+    @Test
+    public void testReadsJsonContext() {
+        JobContext jobContext = createJobContext(3);
+        JobContext decoded = JobContextCodec.decode(jobContext.toString());
+        Assert.assertEquals(decoded.getJobInstanceId(), INSTANCE_ID);
+        Assert.assertEquals(decoded.getOffset(), 2);
+        Assert.assertFalse(decoded.shouldInterrupt().get());
+        Assert.assertEquals(decoded.getJobContextMap(), jobContext.getJobContextMap());
+    }
+
+    @Test
+    public void testLargeContextIsSmallerThanJson() {
+        JobContext jobContext = createJobContext(64);
+        String encoded = JobContextCodec.encode(jobContext);
+        Assert.assertTrue(encoded.length() < jobContext.toString().length() / 2,
+                "binary: " + encoded.length() + ", json: " + jobContext.toString().length());
+        Assert.assertEquals(JobContextCodec.decode(encoded).getJobContextMap(), jobContext.getJobContextMap());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnsupportedVersion() {
+        String encoded = JobContextCodec.encode(createJobContext(1));
+        // "Ag" is the base64 prefix of version 2.
+        JobContextCodec.decode(JobContextCodec.BINARY_MARKER + "Ag" + encoded.substring(3));
+    }
+
+    static JobContext createJobContext(int entries) {
+        JobContext jobContext = new JobContext();
+        jobContext.setJobInstanceId(INSTANCE_ID);
+        jobContext.setOffset(2);
+        Map<String, String> contextMap = new HashMap<>();
+        contextMap.put("instanceExecutionStatus",
+                "{\"jobStatus\":\"SUCCESS\",\"jobMessage\":\"Instance succeeded\"}");
+        for (int i = 1; i < entries; i++) {
+            contextMap.put("beacon.fs.snapshot." + i, "beacon-snapshot-" + INSTANCE_ID + "-" + (1510000000000L + i));
+        }
+        jobContext.setJobContextMap(contextMap);
+        return jobContext;
+    }
+}
@@ -0,0 +1,235 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.service;
+
+import com.hortonworks.beacon.exceptions.BeaconException;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the dependency ordered initialization of ServiceManager.
+ */
+public class ServiceManagerTest {
+
+    private static final List<String> EVENTS = Collections.synchronizedList(new ArrayList<String>());
+    private static CountDownLatch parallelLatch;
+
+    @BeforeMethod
+    public void setup() {
+        EVENTS.clear();
+        parallelLatch = new CountDownLatch(2);
+    }
+
+    @AfterMethod
+    public void cleanup() throws BeaconException {
+        ServiceManager.getInstance().destroy();
+    }
+
+    @Test
+    public void testParallelInitialization() throws Exception {
+        ServiceManager.getInstance().initialize(Arrays.asList(RootService.class.getName(),
+                FirstParallelService.class.getName(), SecondParallelService.class.getName()),
+                Arrays.asList(JoinService.class.getName(), UndeclaredService.class.getName()));
+
+        // Both parallel services wait for each other, so they can only succeed when initialized in parallel.
+        Assert.assertEquals(EVENTS.get(0), "init:RootService");
+        Assert.assertEquals(EVENTS.subList(3, 5), Arrays.asList("init:JoinService", "init:UndeclaredService"));
+        Assert.assertEquals(ServiceManager.getInstance().getStartupTimes().size(), 5);
+        Assert.assertTrue(Services.get().isRegistered(JoinService.class.getName()));
+
+        EVENTS.clear();
+        ServiceManager.getInstance().destroy();
+        Assert.assertEquals(EVENTS.subList(0, 2), Arrays.asList("destroy:UndeclaredService", "destroy:JoinService"));
+        Assert.assertEquals(EVENTS.get(4), "destroy:RootService");
+        Assert.assertFalse(Services.get().isRegistered(RootService.class.getName()));
+    }
+
+    @Test
+    public void testInitializationFailure() throws Exception {
+        try {
+            ServiceManager.getInstance().initialize(Arrays.asList(RootService.class.getName(),
+                    FailingService.class.getName(), FailureDependentService.class.getName()), null);
+            Assert.fail("Initialization should have failed");
+        } catch (BeaconException e) {
+            Assert.assertEquals(e.getCause().getMessage(), "injected failure");
+        }
+        Assert.assertTrue(Services.get().isRegistered(RootService.class.getName()));
+        Assert.assertFalse(Services.get().isRegistered(FailingService.class.getName()));
+        Assert.assertFalse(EVENTS.contains("init:FailureDependentService"));
+    }
+
+    @Test(expectedExceptions = BeaconException.class, expectedExceptionsMessageRegExp = "Cyclic dependencies.*")
+    public void testCyclicDependencies() throws Exception {
+        ServiceManager.getInstance().initialize(Arrays.asList(RootService.class.getName(),
+                FirstCyclicService.class.getName(), SecondCyclicService.class.getName()), null);
+    }
+
+    /**
+     * Mock service recording its initialization and destruction.
+     */
+    public abstract static class MockService implements DependentService {
+        private final List<String> dependencies = new ArrayList<>();
+
+        MockService(Class<?>... dependencyClasses) {
+            for (Class<?> dependency : dependencyClasses) {
+                dependencies.add(dependency.getName());
+            }
+        }
+
+        @Override
+        public List<String> getDependencies() {
+            return dependencies;
+        }
+
+        @Override
+        public void init() throws BeaconException {
+            EVENTS.add("init:" + getClass().getSimpleName());
+        }
+
+        @Override
+        public void destroy() throws BeaconException {
+            EVENTS.add("destroy:" + getClass().getSimpleName());
+        }
+
+        void awaitParallelService() throws BeaconException {
+            parallelLatch.countDown();
+            try {
+                if (!parallelLatch.await(10, TimeUnit.SECONDS)) {
+                    throw new BeaconException("Parallel service was not initialized");
+                }
+            } catch (InterruptedException e) {
+                throw new BeaconException(e);
+            }
+        }
+    }
+
+    /**
+     * Service without dependencies.
+     */
+    public static class RootService extends MockService {
+    }
+
+    /**
+     * Service initialized in parallel with {@link SecondParallelService}.
+     */
+    public static class FirstParallelService extends MockService {
+        public FirstParallelService() {
+            super(RootService.class);
+        }
+
+        @Override
+        public void init() throws BeaconException {
+            awaitParallelService();
+            super.init();
+        }
+    }
+
+    /**
+     * Service initialized in parallel with {@link FirstParallelService}.
+     */
+    public static class SecondParallelService extends MockService {
+        public SecondParallelService() {
+            super(RootService.class);
+        }
+
+        @Override
+        public void init() throws BeaconException {
+            awaitParallelService();
+            super.init();
+        }
+    }
+
+    /**
+     * Service depending on both parallel services.
+     */
+    public static class JoinService extends MockService {
+        public JoinService() {
+            super(FirstParallelService.class, SecondParallelService.class);
+        }
+    }
+
+    /**
+     * Service that does not declare its dependencies.
+     */
+    public static class UndeclaredService implements BeaconService {
+        @Override
+        public void init() {
+            EVENTS.add("init:" + getClass().getSimpleName());
+        }
+
+        @Override
+        public void destroy() {
+            EVENTS.add("destroy:" + getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Service failing its initialization.
+     */
+    public static class FailingService extends MockService {
+        public FailingService() {
+            super(RootService.class);
+        }
+
+        @Override
+        public void init() throws BeaconException {
+            throw new BeaconException("injected failure");
+        }
+    }
+
+    /**
+     * Service depending on the failing service.
+     */
+    public static class FailureDependentService extends MockService {
+        public FailureDependentService() {
+            super(FailingService.class);
+        }
+    }
+
+    /**
+     * Service depending on {@link SecondCyclicService}.
+     */
+    public static class FirstCyclicService extends MockService {
+        public FirstCyclicService() {
+            super(SecondCyclicService.class);
+        }
+    }
+
+    /**
+     * Service depending on {@link FirstCyclicService}.
+     */
+    public static class SecondCyclicService extends MockService {
+        public SecondCyclicService() {
+            super(FirstCyclicService.class);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+package com.hortonworks.beacon.util;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.jsp.el.ELException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Test class for expression evaluation.
+ */
+public class ExpressionHelperTest {
+
+    @Test
+    public void testEvaluate() throws Exception {
+        Assert.assertEquals(EvictionHelper.evalExpressionToMilliSeconds("days(7)").longValue(),
+                TimeUnit.DAYS.toMillis(7));
+        Assert.assertEquals(EvictionHelper.evalExpressionToMilliSeconds("days(1) + hours(6)").longValue(),
+                TimeUnit.HOURS.toMillis(30));
+        // Evaluating again gives the same result.
+        Assert.assertEquals(EvictionHelper.evalExpressionToMilliSeconds("days(7)").longValue(),
+                TimeUnit.DAYS.toMillis(7));
+        Assert.assertEquals(ExpressionHelper.get().evaluate("hours(2)", Long.class).longValue(),
+                TimeUnit.HOURS.toMillis(2));
+        Assert.assertEquals(ExpressionHelper.get().evaluateFullExpression("${minutes(5)}ms", String.class),
+                TimeUnit.MINUTES.toMillis(5) + "ms");
+        Assert.assertEquals(ExpressionHelper.get().evaluateFullExpression("plain", String.class), "plain");
+    }
+
+    @Test(expectedExceptions = ELException.class)
+    public void testInvalidExpression() throws Exception {
+        EvictionHelper.evalExpressionToMilliSeconds("days(7");
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testUnknownFunction() throws Exception {
+        EvictionHelper.evalExpressionToMilliSeconds("weeks(2)");
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testPrivateFunction() throws Exception {
+        EvictionHelper.evalExpressionToMilliSeconds("getDayOffset('MON')");
+    }
+}
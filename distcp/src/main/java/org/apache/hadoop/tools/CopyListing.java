@@ -83,6 +83,8 @@ public abstract class CopyListing extends Configured {
   public final void buildListing(Path pathToListFile,
                                  DistCpOptions options) throws IOException {
     validatePaths(options);
+    // Any sorted listing recorded earlier belongs to a previous listing.
+    getConf().unset(DistCpConstants.CONF_LABEL_SORTED_LISTING_FILE_PATH);
     doBuildListing(pathToListFile, options);
     Configuration config = getConf();
 
@@ -145,7 +147,7 @@ public abstract class CopyListing extends Configured {
     Configuration config = getConf();
     FileSystem fs = pathToListFile.getFileSystem(config);
 
-    Path sortedList = DistCpUtils.sortListing(fs, config, pathToListFile);
+    Path sortedList = DistCpUtils.getSortedListing(fs, config, pathToListFile);
 
     SequenceFile.Reader reader = new SequenceFile.Reader(
                           config, SequenceFile.Reader.file(sortedList));
@@ -67,6 +67,10 @@ public class DistCpConstants {
       "distcp.simplelisting.file.status.size";
   public static final String CONF_LABEL_SIMPLE_LISTING_RANDOMIZE_FILES =
       "distcp.simplelisting.randomize.files";
+  public static final String CONF_LABEL_SIMPLE_LISTING_PRESORT =
+      "distcp.simplelisting.presort";
+  public static final String CONF_LABEL_SIMPLE_LISTING_SORTED_RUN_SIZE =
+      "distcp.simplelisting.sorted.run.size";
   public static final String CONF_LABEL_FILTERS_FILE =
           "distcp.filters.file";
   public static final String CONF_LABEL_MAX_CHUNKS_TOLERABLE =
@@ -90,6 +94,12 @@ public class DistCpConstants {
   /* If input is based -f <<source listing>>, file containing the src paths */
   public static final String CONF_LABEL_LISTING_FILE_PATH = "distcp.listing.file.path";
 
+  /* Sorted listing written while the listing was built, if the copy listing
+    produced one. Later stages use it instead of sorting the listing again
+   */
+  public static final String CONF_LABEL_SORTED_LISTING_FILE_PATH =
+      "distcp.sorted.listing.file.path";
+
   /* Directory where the mapreduce job will write to. If not atomic commit, then same
     as CONF_LABEL_TARGET_FINAL_PATH
    */
@@ -62,6 +62,8 @@ public class SimpleCopyListing extends CopyListing {
 
   public static final int DEFAULT_FILE_STATUS_SIZE = 1000;
   public static final boolean DEFAULT_RANDOMIZE_FILE_LISTING = true;
+  public static final boolean DEFAULT_PRESORT_LISTING = true;
+  public static final int DEFAULT_SORTED_RUN_SIZE = 100000;
 
   private long totalPaths = 0;
   private long totalDirs = 0;
@@ -69,6 +71,9 @@ public class SimpleCopyListing extends CopyListing {
   private int numListstatusThreads = 1;
   private final int fileStatusLimit;
   private final boolean randomizeFileListing;
+  private final boolean presortListing;
+  private final int sortedRunSize;
+  private SortedListingBuilder sortedListing;
 
   private final int maxRetries = 3;
   private CopyFilter copyFilter;
@@ -93,10 +98,18 @@ public class SimpleCopyListing extends CopyListing {
     randomizeFileListing = getConf().getBoolean(
         DistCpConstants.CONF_LABEL_SIMPLE_LISTING_RANDOMIZE_FILES,
         DEFAULT_RANDOMIZE_FILE_LISTING);
+    presortListing = getConf().getBoolean(
+        DistCpConstants.CONF_LABEL_SIMPLE_LISTING_PRESORT,
+        DEFAULT_PRESORT_LISTING);
+    sortedRunSize = getConf().getInt(
+        DistCpConstants.CONF_LABEL_SIMPLE_LISTING_SORTED_RUN_SIZE,
+        DEFAULT_SORTED_RUN_SIZE);
     if (LOG.isDebugEnabled()) {
       LOG.debug("numListstatusThreads=" + numListstatusThreads
           + ", fileStatusLimit=" + fileStatusLimit
-          + ", randomizeFileListing=" + randomizeFileListing);
+          + ", randomizeFileListing=" + randomizeFileListing
+          + ", presortListing=" + presortListing
+          + ", sortedRunSize=" + sortedRunSize);
     }
     copyFilter = CopyFilter.getCopyFilter(getConf());
     copyFilter.initialize();
@@ -112,6 +125,12 @@ public class SimpleCopyListing extends CopyListing {
     this.numListstatusThreads = numListstatusThreads;
     this.fileStatusLimit = Math.max(1, fileStatusLimit);
     this.randomizeFileListing = randomizeFileListing;
+    this.presortListing = getConf().getBoolean(
+        DistCpConstants.CONF_LABEL_SIMPLE_LISTING_PRESORT,
+        DEFAULT_PRESORT_LISTING);
+    this.sortedRunSize = getConf().getInt(
+        DistCpConstants.CONF_LABEL_SIMPLE_LISTING_SORTED_RUN_SIZE,
+        DEFAULT_SORTED_RUN_SIZE);
   }
 
   protected SimpleCopyListing(Configuration configuration,
@@ -195,10 +214,27 @@ public class SimpleCopyListing extends CopyListing {
   @Override
   protected void doBuildListing(Path pathToListingFile,
                                 DistCpOptions options) throws IOException {
-    if(options.shouldUseSnapshotDiff()) {
-      doBuildListingWithSnapshotDiff(getWriter(pathToListingFile), options);
-    }else {
-      doBuildListing(getWriter(pathToListingFile), options);
+    if (presortListing) {
+      sortedListing = new SortedListingBuilder(getConf(), pathToListingFile,
+          sortedRunSize);
+    }
+    try {
+      if(options.shouldUseSnapshotDiff()) {
+        doBuildListingWithSnapshotDiff(getWriter(pathToListingFile), options);
+      }else {
+        doBuildListing(getWriter(pathToListingFile), options);
+      }
+      if (sortedListing != null) {
+        // Mark the listing as sorted, so that it isn't sorted again.
+        Path sortedListingPath = sortedListing.finish();
+        getConf().set(DistCpConstants.CONF_LABEL_SORTED_LISTING_FILE_PATH,
+            sortedListingPath.toString());
+      }
+    } finally {
+      if (sortedListing != null) {
+        sortedListing.cleanup();
+        sortedListing = null;
+      }
     }
   }
 
@@ -704,9 +740,13 @@ public class SimpleCopyListing extends CopyListing {
       return;
     }
 
-    fileListWriter.append(new Text(DistCpUtils.getRelativePath(sourcePathRoot,
-        fileStatus.getPath())), fileStatus);
+    Text relPath = new Text(DistCpUtils.getRelativePath(sourcePathRoot,
+        fileStatus.getPath()));
+    fileListWriter.append(relPath, fileStatus);
     fileListWriter.sync();
+    if (sortedListing != null) {
+      sortedListing.add(relPath, fileStatus);
+    }
 
     if (!fileStatus.isDirectory()) {
       totalBytesToCopy += fileStatus.getLen();
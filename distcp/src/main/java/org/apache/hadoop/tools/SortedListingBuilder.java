@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.tools;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.tools.util.DistCpUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Builds the sorted copy of a copy listing while the listing itself is being
+ * written, so that later stages need not run a SequenceFile.Sorter pass over
+ * the whole listing. Entries are collected into in-memory runs which are
+ * sorted and spilled to disk once they reach the run size, and the runs are
+ * merged in a single pass when the listing is complete. The result has the
+ * same path and contents as the file {@link DistCpUtils#sortListing} writes.
+ */
+class SortedListingBuilder {
+  private static final Log LOG = LogFactory.getLog(SortedListingBuilder.class);
+
+  private static final Comparator<ListingEntry> KEY_ORDER =
+      new Comparator<ListingEntry>() {
+        @Override
+        public int compare(ListingEntry e1, ListingEntry e2) {
+          return e1.key.compareTo(e2.key);
+        }
+      };
+
+  private final Configuration conf;
+  private final FileSystem fs;
+  private final Path listing;
+  private final int runSize;
+
+  private final List<ListingEntry> run = new ArrayList<ListingEntry>();
+  private final List<Path> runFiles = new ArrayList<Path>();
+
+  SortedListingBuilder(Configuration conf, Path listing, int runSize)
+      throws IOException {
+    this.conf = conf;
+    this.fs = listing.getFileSystem(conf);
+    this.listing = listing;
+    this.runSize = Math.max(1, runSize);
+  }
+
+  /**
+   * Record an entry that was appended to the listing. The key and file status
+   * are buffered as they are, so the caller must not reuse them.
+   */
+  void add(Text key, CopyListingFileStatus fileStatus) throws IOException {
+    run.add(new ListingEntry(key, fileStatus));
+    if (run.size() >= runSize) {
+      spill();
+    }
+  }
+
+  /**
+   * Write out the sorted listing once every entry has been added.
+   *
+   * @return Path of the sorted listing
+   * @throws IOException - Any exception while writing or merging the runs
+   */
+  Path finish() throws IOException {
+    Path output = DistCpUtils.getSortedListingPath(listing);
+    if (fs.exists(output)) {
+      fs.delete(output, false);
+    }
+
+    if (runFiles.isEmpty()) {
+      // The whole listing fit in one run, so there is nothing to merge.
+      Collections.sort(run, KEY_ORDER);
+      write(output, run);
+    } else {
+      if (!run.isEmpty()) {
+        spill();
+      }
+      SequenceFile.Sorter sorter = new SequenceFile.Sorter(fs, Text.class,
+          CopyListingFileStatus.class, conf);
+      sorter.merge(runFiles.toArray(new Path[runFiles.size()]), output);
+      LOG.info("Merged " + runFiles.size() + " sorted runs into " + output);
+    }
+    cleanup();
+    return output;
+  }
+
+  /**
+   * Drop the buffered entries and delete any runs spilled to disk.
+   */
+  void cleanup() {
+    run.clear();
+    for (Path runFile : runFiles) {
+      try {
+        fs.delete(runFile, false);
+      } catch (IOException e) {
+        LOG.warn("Unable to delete sorted run " + runFile, e);
+      }
+    }
+    runFiles.clear();
+  }
+
+  private void spill() throws IOException {
+    Collections.sort(run, KEY_ORDER);
+    Path runFile = new Path(listing.toString() + "_run" + runFiles.size());
+    write(runFile, run);
+    runFiles.add(runFile);
+    run.clear();
+  }
+
+  private void write(Path path, List<ListingEntry> entries)
+      throws IOException {
+    SequenceFile.Writer writer = SequenceFile.createWriter(conf,
+        SequenceFile.Writer.file(path),
+        SequenceFile.Writer.keyClass(Text.class),
+        SequenceFile.Writer.valueClass(CopyListingFileStatus.class),
+        SequenceFile.Writer.compression(SequenceFile.CompressionType.NONE));
+    try {
+      for (ListingEntry entry : entries) {
+        writer.append(entry.key, entry.fileStatus);
+      }
+      writer.close();
+      writer = null;
+    } finally {
+      IOUtils.cleanup(LOG, writer);
+    }
+  }
+
+  private static class ListingEntry {
+    private final Text key;
+    private final CopyListingFileStatus fileStatus;
+
+    ListingEntry(Text key, CopyListingFileStatus fileStatus) {
+      this.key = key;
+      this.fileStatus = fileStatus;
+    }
+  }
+}
@@ -226,7 +226,7 @@ public class CopyCommitter extends FileOutputCommitter {
     // Sort the source-file listing alphabetically.
     Path sourceListing = new Path(conf.get(DistCpConstants.CONF_LABEL_LISTING_FILE_PATH));
     FileSystem clusterFS = sourceListing.getFileSystem(conf);
-    Path sortedSourceListing = DistCpUtils.sortListing(clusterFS, conf, sourceListing);
+    Path sortedSourceListing = DistCpUtils.getSortedListing(clusterFS, conf, sourceListing);
 
     // Similarly, create the listing of target-files. Sort alphabetically.
     Path targetListing = new Path(sourceListing.getParent(), "targetListing.seq");
@@ -249,7 +249,8 @@ public class CopyCommitter extends FileOutputCommitter {
     options.setTargetPathExists(targetPathExists);
 
     target.buildListing(targetListing, options);
-    Path sortedTargetListing = DistCpUtils.sortListing(clusterFS, conf, targetListing);
+    Path sortedTargetListing = DistCpUtils.getSortedListing(clusterFS,
+        target.getConf(), targetListing);
     long totalLen = clusterFS.getFileStatus(sortedTargetListing).getLen();
 
     SequenceFile.Reader sourceReader = new SequenceFile.Reader(conf,
@@ -65,6 +65,7 @@ public class CopyMapper extends Mapper<Text, CopyListingFileStatus, Text, Text>
     BYTESEXPECTED,// Number of bytes expected to be copied.
     BYTESFAILED,  // Number of bytes that failed to be copied.
     BYTESSKIPPED, // Number of bytes that were skipped from copy.
+    PRESERVE_RPCS_AVOIDED, // Number of metadata RPCs avoided while preserving.
   }
 
   /**
@@ -276,8 +277,11 @@ public class CopyMapper extends Mapper<Text, CopyListingFileStatus, Text, Text>
             action, fileAttributes);
       }
 
-      DistCpUtils.preserve(target.getFileSystem(conf), target, sourceCurrStatus,
+      // The target status is only still current if the file was not copied.
+      int rpcsAvoided = DistCpUtils.preserve(target.getFileSystem(conf), target,
+          sourceCurrStatus, action == FileAction.SKIP ? targetStatus : null,
           fileAttributes, preserveRawXattrs);
+      incrementCounter(context, Counter.PRESERVE_RPCS_AVOIDED, rpcsAvoided);
     } catch (IOException exception) {
       handleFailures(exception, sourceFileStatus, target, context);
     }
@@ -0,0 +1,331 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.tools.mapred.lib;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileAlreadyExistsException;
+import org.apache.hadoop.fs.FileContext;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Options;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.mapreduce.TaskID;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The ChunkCoordinator hands out chunks of the copy-listing to the
+ * CoordinatedRecordReaders of a job. A chunk is a byte range of the listing
+ * file, and the chunk boundaries are recorded once in a single index file by
+ * the CoordinatedInputFormat.
+ * Chunk i is pre-assigned to map i. The remaining chunks are divided into one
+ * region per map: a map claims chunks from the front of its own region and,
+ * once that is used up, steals from the back of the other regions. A chunk is
+ * claimed by writing the claim to a pending file of the map, and renaming that
+ * into place, which fails if the chunk has been claimed already. A claim costs
+ * a create and a rename, and a claim file is never seen half written, so a map
+ * that dies while claiming cannot leave a chunk that nobody reads. No chunk
+ * files are written, renamed, deleted or listed while the maps run. Each map
+ * lists the claims once before it finishes, to pick up anything left behind by
+ * failed attempts.
+ */
+class ChunkCoordinator {
+  private static final Log LOG = LogFactory.getLog(ChunkCoordinator.class);
+
+  private static final String INDEX_FILE_NAME = "chunkIndex";
+  private static final String CLAIM_DIR_NAME = "chunkClaims";
+  private static final String PENDING_DIR_NAME = "chunkClaimsPending";
+  private static final int NOT_STARTED = -1;
+
+  private final FileSystem fs;
+  private final FileContext fc;
+  private final Path claimRootPath;
+  private final Path pendingClaimPath;
+  private final String taskId;
+  private final int taskIndex;
+
+  private int numSplits;
+  private long[] offsets;
+  private int regionSize;
+
+  // Claim state: the next chunk of the own region, the region currently
+  // being stolen from (as an offset from the own region) and the next chunk
+  // to steal from it, counting down.
+  private int ownNext;
+  private int victim = 1;
+  private int victimNext = NOT_STARTED;
+  private int unexploredChunks;
+  private List<Integer> unclaimed = null;
+  private int claimSequence = 0;
+
+  ChunkCoordinator(Configuration configuration, TaskID taskID)
+      throws IOException {
+    Path listingFilePath = DynamicInputFormat.getListingFilePath(configuration);
+    this.fs = listingFilePath.getFileSystem(configuration);
+    this.fc = FileContext.getFileContext(fs.getUri(), configuration);
+    this.claimRootPath = getClaimRootPath(listingFilePath);
+    this.taskId = taskID.toString();
+    this.pendingClaimPath = getPendingClaimPath(listingFilePath, taskId);
+    this.taskIndex = taskID.getId();
+    readIndex(getIndexPath(listingFilePath));
+
+    regionSize = numSplits == 0 ? 0
+        : (getNumChunks() - numSplits + numSplits - 1) / numSplits;
+    ownNext = regionStart(taskIndex);
+    unexploredChunks = getNumChunks() - numSplits
+        - (regionEnd(taskIndex) - regionStart(taskIndex));
+  }
+
+  /**
+   * Write the chunk index for a listing and clear any claims left from an
+   * earlier run over the same listing.
+   * @param configuration The job configuration.
+   * @param listingFilePath The copy-listing the chunks are ranges of.
+   * @param numSplits Number of splits, each pre-assigned one chunk.
+   * @param offsets Chunk boundaries: chunk i spans offsets i to i + 1.
+   * @throws IOException Exception on failure to write the index.
+   */
+  static void writeIndex(Configuration configuration, Path listingFilePath,
+      int numSplits, List<Long> offsets) throws IOException {
+    Path indexPath = getIndexPath(listingFilePath);
+    FileSystem fs = indexPath.getFileSystem(configuration);
+    FSDataOutputStream out = fs.create(indexPath, true);
+    try {
+      out.writeInt(numSplits);
+      out.writeInt(offsets.size());
+      for (long offset : offsets) {
+        out.writeLong(offset);
+      }
+      out.close();
+      out = null;
+    } finally {
+      IOUtils.cleanup(LOG, out);
+    }
+    fs.delete(getClaimRootPath(listingFilePath), true);
+    fs.delete(getPendingRootPath(listingFilePath), true);
+    fs.mkdirs(getClaimRootPath(listingFilePath));
+  }
+
+  private void readIndex(Path indexPath) throws IOException {
+    FSDataInputStream in = fs.open(indexPath);
+    try {
+      numSplits = in.readInt();
+      offsets = new long[in.readInt()];
+      for (int i = 0; i < offsets.length; ++i) {
+        offsets[i] = in.readLong();
+      }
+    } finally {
+      IOUtils.closeStream(in);
+    }
+  }
+
+  private static Path getIndexPath(Path listingFilePath) {
+    return new Path(listingFilePath.getParent(), INDEX_FILE_NAME);
+  }
+
+  private static Path getClaimRootPath(Path listingFilePath) {
+    return new Path(listingFilePath.getParent(), CLAIM_DIR_NAME);
+  }
+
+  private static Path getPendingRootPath(Path listingFilePath) {
+    return new Path(listingFilePath.getParent(), PENDING_DIR_NAME);
+  }
+
+  /**
+   * The file a map writes its next claim to, before renaming it into place.
+   * Visible for testing.
+   */
+  static Path getPendingClaimPath(Path listingFilePath, String taskId) {
+    return new Path(getPendingRootPath(listingFilePath), taskId);
+  }
+
+  int getNumChunks() {
+    return offsets.length - 1;
+  }
+
+  long getChunkStart(int chunk) {
+    return offsets[chunk];
+  }
+
+  long getChunkLength(int chunk) {
+    return offsets[chunk + 1] - offsets[chunk];
+  }
+
+  /**
+   * The chunk a map starts with. That is its pre-assigned chunk, unless an
+   * earlier attempt of the same task had moved on to a claimed chunk, in
+   * which case that chunk is resumed.
+   * @param attempt The attempt number of the map.
+   * @return The chunk to read first, or -1 if there is none.
+   * @throws IOException Exception on failure to read the earlier claims.
+   */
+  int acquireFirst(int attempt) throws IOException {
+    if (taskIndex >= numSplits) {
+      return -1;
+    }
+    if (attempt > 0) {
+      int resumed = -1;
+      for (FileStatus claim : listClaims()) {
+        FSDataInputStream in = fs.open(claim.getPath());
+        try {
+          String owner = in.readUTF();
+          int sequence = in.readInt();
+          if (taskId.equals(owner) && sequence > claimSequence) {
+            claimSequence = sequence;
+            resumed = Integer.parseInt(claim.getPath().getName());
+          }
+        } finally {
+          IOUtils.closeStream(in);
+        }
+      }
+      if (resumed >= 0) {
+        LOG.info(taskId + " resuming chunk " + resumed
+            + " claimed by an earlier attempt");
+        if (resumed >= ownNext && resumed < regionEnd(taskIndex)) {
+          // Carry on with the own region from where the earlier attempt was.
+          ownNext = resumed + 1;
+        }
+        return resumed;
+      }
+    }
+    return taskIndex;
+  }
+
+  /**
+   * Claim the next chunk for this map.
+   * @return The claimed chunk, or -1 if all chunks have been claimed.
+   * @throws IOException Exception on failure to claim.
+   */
+  int claimNext() throws IOException {
+    // Own region, front to back. A failed claim means thieves coming from
+    // the back have taken the rest of it.
+    while (ownNext < regionEnd(taskIndex)) {
+      int chunk = ownNext++;
+      if (tryClaim(chunk)) {
+        return chunk;
+      }
+      ownNext = regionEnd(taskIndex);
+    }
+
+    // Other regions, back to front. A failed claim means the owner or
+    // another thief is already there, so move on to the next region.
+    while (victim < numSplits) {
+      int region = (taskIndex + victim) % numSplits;
+      if (victimNext == NOT_STARTED) {
+        victimNext = regionEnd(region) - 1;
+        unexploredChunks -= regionEnd(region) - regionStart(region);
+      }
+      if (victimNext >= regionStart(region)) {
+        int chunk = victimNext--;
+        if (tryClaim(chunk)) {
+          return chunk;
+        }
+      }
+      ++victim;
+      victimNext = NOT_STARTED;
+    }
+
+    if (unclaimed == null) {
+      unclaimed = getUnclaimedChunks();
+    }
+    while (!unclaimed.isEmpty()) {
+      int chunk = unclaimed.remove(unclaimed.size() - 1);
+      if (tryClaim(chunk)) {
+        return chunk;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Estimate of the chunks this map may still claim. It never increases, and
+   * needs no calls to the file system.
+   * @return Number of chunks left.
+   */
+  int getNumChunksLeft() {
+    int left = regionEnd(taskIndex) - ownNext + unexploredChunks;
+    if (victim < numSplits && victimNext != NOT_STARTED) {
+      int region = (taskIndex + victim) % numSplits;
+      left += Math.max(0, victimNext - regionStart(region) + 1);
+    }
+    return left;
+  }
+
+  private int regionStart(int region) {
+    return Math.min(getNumChunks(), numSplits + region * regionSize);
+  }
+
+  private int regionEnd(int region) {
+    return Math.min(getNumChunks(), numSplits + (region + 1) * regionSize);
+  }
+
+  private boolean tryClaim(int chunk) throws IOException {
+    // A pending claim left behind by a failed attempt is simply overwritten.
+    FSDataOutputStream out = fs.create(pendingClaimPath, true);
+    try {
+      out.writeUTF(taskId);
+      out.writeInt(claimSequence + 1);
+      out.close();
+      out = null;
+    } finally {
+      IOUtils.cleanup(LOG, out);
+    }
+    try {
+      fc.rename(pendingClaimPath, new Path(claimRootPath,
+          String.valueOf(chunk)), Options.Rename.NONE);
+    } catch (FileAlreadyExistsException e) {
+      return false;
+    }
+    ++claimSequence;
+    LOG.info(taskId + " claimed chunk " + chunk);
+    return true;
+  }
+
+  private FileStatus[] listClaims() throws IOException {
+    try {
+      return fs.listStatus(claimRootPath);
+    } catch (FileNotFoundException e) {
+      return new FileStatus[0];
+    }
+  }
+
+  private List<Integer> getUnclaimedChunks() throws IOException {
+    Set<Integer> claimed = new HashSet<Integer>();
+    for (FileStatus claim : listClaims()) {
+      claimed.add(Integer.parseInt(claim.getPath().getName()));
+    }
+    List<Integer> chunks = new ArrayList<Integer>();
+    for (int chunk = numSplits; chunk < getNumChunks(); ++chunk) {
+      if (!claimed.contains(chunk)) {
+        chunks.add(chunk);
+      }
+    }
+    return chunks;
+  }
+}
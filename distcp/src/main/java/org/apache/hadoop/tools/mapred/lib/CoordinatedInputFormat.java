@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.tools.mapred.lib;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputFormat;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.hadoop.tools.CopyListingFileStatus;
+import org.apache.hadoop.tools.util.DistCpUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CoordinatedInputFormat is an alternative to the DynamicInputFormat that
+ * keeps its "Worker pattern", but does away with the chunk files.
+ * The copy-listing is divided into chunks of consecutive records, which are
+ * only recorded as offsets into the listing in a single index file. Maps then
+ * claim chunks through the ChunkCoordinator, which costs a create and an atomic
+ * rename per chunk instead of writing, renaming and listing chunk files. This
+ * keeps the load on the name-node low when there are many chunks or many maps.
+ * Chunk sizes are chosen in the same way, and with the same settings, as for
+ * the DynamicInputFormat.
+ */
+public class CoordinatedInputFormat<K, V> extends InputFormat<K, V> {
+  private static final Log LOG
+                = LogFactory.getLog(CoordinatedInputFormat.class);
+
+  /**
+   * Implementation of InputFormat::getSplits(). This method divides the
+   * copy-listing into chunks, writes the chunk index, and assigns the first
+   * chunk to each of the tasks.
+   * @param jobContext JobContext for the map job.
+   * @return The list of input-splits, one for the first chunk of each map.
+   * @throws IOException
+   * @throws InterruptedException
+   */
+  @Override
+  public List<InputSplit> getSplits(JobContext jobContext)
+      throws IOException, InterruptedException {
+    LOG.info("CoordinatedInputFormat: Getting splits for job:"
+             + jobContext.getJobID());
+    final Configuration configuration = jobContext.getConfiguration();
+    int numRecords = DynamicInputFormat.getNumberOfRecords(configuration);
+    int numMaps = DynamicInputFormat.getNumMapTasks(configuration);
+    int maxChunksTolerable
+            = DynamicInputFormat.getMaxChunksTolerable(configuration);
+
+    // Number of chunks each map will process, on average.
+    int splitRatio = DynamicInputFormat.getListingSplitRatio(configuration,
+                                                             numMaps,
+                                                             numRecords);
+    DynamicInputFormat.validateNumChunksUsing(splitRatio, numMaps,
+                                              maxChunksTolerable);
+
+    int numEntriesPerChunk = Math.max(1, (int)Math.ceil((float)numRecords
+                                          /(splitRatio * numMaps)));
+    DistCpUtils.publish(configuration,
+                        DynamicInputFormat.CONF_LABEL_NUM_ENTRIES_PER_CHUNK,
+                        numEntriesPerChunk);
+
+    Path listingPath = DynamicInputFormat.getListingFilePath(configuration);
+    List<Long> offsets = getChunkOffsets(configuration, listingPath,
+                                         numEntriesPerChunk);
+    final int numChunks = offsets.size() - 1;
+    final int nSplits = Math.min(numMaps, numChunks);
+    ChunkCoordinator.writeIndex(configuration, listingPath, nSplits, offsets);
+
+    List<InputSplit> splits = new ArrayList<InputSplit>(nSplits);
+    for (int i=0; i < nSplits; ++i) {
+      splits.add(new FileSplit(listingPath, offsets.get(i),
+          offsets.get(i + 1) - offsets.get(i), null));
+    }
+    DistCpUtils.publish(configuration,
+                        DynamicInputFormat.CONF_LABEL_NUM_SPLITS,
+                        splits.size());
+    LOG.info("Number of coordinated chunks: " + numChunks
+             + ", number of splits: " + nSplits);
+    return splits;
+  }
+
+  /**
+   * Read through the copy-listing once, noting the offset at which every
+   * chunk starts. The last offset is the end of the listing.
+   */
+  private static List<Long> getChunkOffsets(Configuration configuration,
+      Path listingPath, int numEntriesPerChunk) throws IOException {
+    List<Long> offsets = new ArrayList<Long>();
+    offsets.add(0L);
+
+    SequenceFile.Reader reader
+            = new SequenceFile.Reader(configuration,
+                                      SequenceFile.Reader.file(listingPath));
+    CopyListingFileStatus fileStatus = new CopyListingFileStatus();
+    Text relPath = new Text();
+    int recordCounter = 0;
+    long position = 0;
+    try {
+      while (reader.next(relPath, fileStatus)) {
+        position = reader.getPosition();
+        if (++recordCounter % numEntriesPerChunk == 0) {
+          offsets.add(position);
+        }
+      }
+    } finally {
+      IOUtils.closeStream(reader);
+    }
+
+    if (recordCounter % numEntriesPerChunk != 0) {
+      offsets.add(position);
+    }
+    return offsets;
+  }
+
+  /**
+   * Implementation of Inputformat::createRecordReader().
+   * @param inputSplit The split for which the RecordReader is required.
+   * @param taskAttemptContext TaskAttemptContext for the current attempt.
+   * @return CoordinatedRecordReader instance.
+   * @throws IOException
+   * @throws InterruptedException
+   */
+  @Override
+  public RecordReader<K, V> createRecordReader(
+          InputSplit inputSplit,
+          TaskAttemptContext taskAttemptContext)
+          throws IOException, InterruptedException {
+    return new CoordinatedRecordReader<K, V>();
+  }
+}
@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.tools.mapred.lib;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.hadoop.mapreduce.lib.input.SequenceFileRecordReader;
+
+import java.io.IOException;
+
+/**
+ * The CoordinatedRecordReader is used in conjunction with the
+ * CoordinatedInputFormat. It presents the records of each chunk it holds to
+ * DistCp's mapper, and claims the next chunk from the ChunkCoordinator when
+ * the current one has been completely consumed.
+ */
+public class CoordinatedRecordReader<K, V> extends RecordReader<K, V> {
+  private static final Log LOG
+                = LogFactory.getLog(CoordinatedRecordReader.class);
+  private TaskAttemptContext taskAttemptContext;
+  private ChunkCoordinator coordinator;
+  private Path listingFilePath;
+  private SequenceFileRecordReader<K, V> reader;
+
+  // Data required for progress indication.
+  private int numRecordsPerChunk; // Constant per job.
+  private int numRecordsProcessedByThisMap = 0;
+  private boolean done = false;
+
+  CoordinatedRecordReader() {
+  }
+
+  /**
+   * Implementation for RecordReader::initialize(). Opens the first chunk for
+   * this map.
+   * @param inputSplit The InputSplit for the map. Ignored entirely.
+   * @param taskAttemptContext The AttemptContext.
+   * @throws IOException
+   * @throws InterruptedException
+   */
+  @Override
+  public void initialize(InputSplit inputSplit,
+                         TaskAttemptContext taskAttemptContext)
+                         throws IOException, InterruptedException {
+    this.taskAttemptContext = taskAttemptContext;
+    numRecordsPerChunk = DynamicInputFormat.getNumEntriesPerChunk(
+            taskAttemptContext.getConfiguration());
+    listingFilePath = DynamicInputFormat.getListingFilePath(
+            taskAttemptContext.getConfiguration());
+    TaskAttemptID taskAttemptID = taskAttemptContext.getTaskAttemptID();
+    coordinator = new ChunkCoordinator(taskAttemptContext.getConfiguration(),
+                                       taskAttemptID.getTaskID());
+    openChunk(coordinator.acquireFirst(taskAttemptID.getId()));
+  }
+
+  private void openChunk(int chunk) throws IOException, InterruptedException {
+    if (chunk < 0) {
+      done = true;
+      return;
+    }
+    reader = new SequenceFileRecordReader<K, V>();
+    reader.initialize(new FileSplit(listingFilePath,
+                                    coordinator.getChunkStart(chunk),
+                                    coordinator.getChunkLength(chunk), null),
+                      taskAttemptContext);
+  }
+
+  /**
+   * Implementation of RecordReader::nextValue().
+   * Reads the contents of the current chunk and returns them. When a chunk has
+   * been completely exhausted, the next chunk is claimed and read,
+   * transparently.
+   * @return True, if the nextValue() could be traversed to. False, otherwise.
+   * @throws IOException
+   * @throws InterruptedException
+   */
+  @Override
+  public boolean nextKeyValue()
+      throws IOException, InterruptedException {
+    while (!done) {
+      if (reader.nextKeyValue()) {
+        ++numRecordsProcessedByThisMap;
+        return true;
+      }
+
+      if (LOG.isDebugEnabled())
+        LOG.debug(taskAttemptContext.getTaskAttemptID()
+                  + ": Current chunk exhausted. Claiming the next one.");
+      reader.close();
+      reader = null;
+      openChunk(coordinator.claimNext());
+    }
+    return false;
+  }
+
+  /**
+   * Implementation of RecordReader::getCurrentKey().
+   * @return The key of the current record. (i.e. the source-path.)
+   * @throws IOException
+   * @throws InterruptedException
+   */
+  @Override
+  public K getCurrentKey()
+      throws IOException, InterruptedException {
+    return reader.getCurrentKey();
+  }
+
+  /**
+   * Implementation of RecordReader::getCurrentValue().
+   * @return The value of the current record. (i.e. the target-path.)
+   * @throws IOException
+   * @throws InterruptedException
+   */
+  @Override
+  public V getCurrentValue()
+      throws IOException, InterruptedException {
+    return reader.getCurrentValue();
+  }
+
+  /**
+   * Implementation of RecordReader::getProgress(). The chunks left are
+   * estimated from the claim state of this map alone, so no calls are made
+   * to the file system.
+   * @return A fraction [0.0,1.0] indicating the progress of a DistCp mapper.
+   * @throws IOException
+   * @throws InterruptedException
+   */
+  @Override
+  public float getProgress()
+      throws IOException, InterruptedException {
+    if (done) {
+      return 1.0f;
+    }
+    long remaining = (long) numRecordsPerChunk
+                     * coordinator.getNumChunksLeft();
+    if (numRecordsProcessedByThisMap + remaining == 0) {
+      return 0.0f;
+    }
+    return ((float) numRecordsProcessedByThisMap)
+            /(numRecordsProcessedByThisMap + remaining);
+  }
+
+  /**
+   * Implementation of RecordReader::close().
+   * Closes the RecordReader.
+   * @throws IOException
+   */
+  @Override
+  public void close()
+      throws IOException {
+    if (reader != null)
+      reader.close();
+  }
+}
@@ -53,9 +53,9 @@ public class DynamicInputFormat<K, V> extends InputFormat<K, V> {
 
   private static final String CONF_LABEL_LISTING_SPLIT_RATIO
           = "mapred.listing.split.ratio";
-  private static final String CONF_LABEL_NUM_SPLITS
+  static final String CONF_LABEL_NUM_SPLITS
           = "mapred.num.splits";
-  private static final String CONF_LABEL_NUM_ENTRIES_PER_CHUNK
+  static final String CONF_LABEL_NUM_ENTRIES_PER_CHUNK
           = "mapred.num.entries.per.chunk";
   private DynamicInputChunkContext<K, V> chunkContext = null;
 
@@ -179,7 +179,7 @@ public class DynamicInputFormat<K, V> extends InputFormat<K, V> {
     return chunksFinal;
   }
 
-  private static void validateNumChunksUsing(int splitRatio, int numMaps,
+  static void validateNumChunksUsing(int splitRatio, int numMaps,
       int maxChunksTolerable) throws IOException {
     if (splitRatio * numMaps > maxChunksTolerable)
       throw new IOException("Too many chunks created with splitRatio:"
@@ -216,7 +216,7 @@ public class DynamicInputFormat<K, V> extends InputFormat<K, V> {
   }
 
 
-  private static Path getListingFilePath(Configuration configuration) {
+  static Path getListingFilePath(Configuration configuration) {
     String listingFilePathString = configuration.get(
             DistCpConstants.CONF_LABEL_LISTING_FILE_PATH, "");
 
@@ -234,24 +234,24 @@ public class DynamicInputFormat<K, V> extends InputFormat<K, V> {
     return listingFilePath;
   }
 
-  private static int getNumberOfRecords(Configuration configuration) {
+  static int getNumberOfRecords(Configuration configuration) {
     return DistCpUtils.getInt(configuration,
                               DistCpConstants.CONF_LABEL_TOTAL_NUMBER_OF_RECORDS);
   }
 
-  private static int getNumMapTasks(Configuration configuration) {
+  static int getNumMapTasks(Configuration configuration) {
     return DistCpUtils.getInt(configuration,
                               JobContext.NUM_MAPS);
   }
 
-  private static int getListingSplitRatio(Configuration configuration,
+  static int getListingSplitRatio(Configuration configuration,
                                             int numMaps, int numPaths) {
     return configuration.getInt(
             CONF_LABEL_LISTING_SPLIT_RATIO,
             getSplitRatio(numMaps, numPaths, configuration));
   }
 
-  private static int getMaxChunksTolerable(Configuration conf) {
+  static int getMaxChunksTolerable(Configuration conf) {
     int maxChunksTolerable = conf.getInt(
         DistCpConstants.CONF_LABEL_MAX_CHUNKS_TOLERABLE,
         DistCpConstants.MAX_CHUNKS_TOLERABLE_DEFAULT);
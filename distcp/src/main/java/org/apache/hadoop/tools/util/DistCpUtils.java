@@ -36,6 +36,7 @@ import org.apache.hadoop.mapreduce.InputFormat;
 import org.apache.hadoop.tools.CopyListing.AclsNotSupportedException;
 import org.apache.hadoop.tools.CopyListing.XAttrsNotSupportedException;
 import org.apache.hadoop.tools.CopyListingFileStatus;
+import org.apache.hadoop.tools.DistCpConstants;
 import org.apache.hadoop.tools.DistCpOptions;
 import org.apache.hadoop.tools.DistCpOptions.FileAttribute;
 import org.apache.hadoop.tools.mapred.UniformSizeInputFormat;
@@ -194,74 +195,35 @@ public class DistCpUtils {
                               CopyListingFileStatus srcFileStatus,
                               EnumSet<FileAttribute> attributes,
                               boolean preserveRawXattrs) throws IOException {
+    preserve(targetFS, path, srcFileStatus, null, attributes,
+        preserveRawXattrs);
+  }
 
-    // If not preserving anything from FileStatus, don't bother fetching it.
-    FileStatus targetFileStatus = attributes.isEmpty() ? null :
-        targetFS.getFileStatus(path);
-    String group = targetFileStatus == null ? null :
-        targetFileStatus.getGroup();
-    String user = targetFileStatus == null ? null :
-        targetFileStatus.getOwner();
-    boolean chown = false;
-
-    if (attributes.contains(FileAttribute.ACL)) {
-      List<AclEntry> srcAcl = srcFileStatus.getAclEntries();
-      List<AclEntry> targetAcl = getAcl(targetFS, targetFileStatus);
-      if (!srcAcl.equals(targetAcl)) {
-        targetFS.setAcl(path, srcAcl);
-      }
-      // setAcl doesn't preserve sticky bit, so also call setPermission if needed.
-      if (srcFileStatus.getPermission().getStickyBit() !=
-          targetFileStatus.getPermission().getStickyBit()) {
-        targetFS.setPermission(path, srcFileStatus.getPermission());
-      }
-    } else if (attributes.contains(FileAttribute.PERMISSION) &&
-      !srcFileStatus.getPermission().equals(targetFileStatus.getPermission())) {
-      targetFS.setPermission(path, srcFileStatus.getPermission());
-    }
-
-    final boolean preserveXAttrs = attributes.contains(FileAttribute.XATTR);
-    if (preserveXAttrs || preserveRawXattrs) {
-      final String rawNS =
-          StringUtils.toLowerCase(XAttr.NameSpace.RAW.name());
-      Map<String, byte[]> srcXAttrs = srcFileStatus.getXAttrs();
-      Map<String, byte[]> targetXAttrs = getXAttrs(targetFS, path);
-      if (srcXAttrs != null && !srcXAttrs.equals(targetXAttrs)) {
-        for (Entry<String, byte[]> entry : srcXAttrs.entrySet()) {
-          String xattrName = entry.getKey();
-          if (xattrName.startsWith(rawNS) || preserveXAttrs) {
-            targetFS.setXAttr(path, xattrName, entry.getValue());
-          }
-        }
-      }
-    }
-
-    if (attributes.contains(FileAttribute.REPLICATION) && !targetFileStatus.isDirectory() &&
-        (srcFileStatus.getReplication() != targetFileStatus.getReplication())) {
-      targetFS.setReplication(path, srcFileStatus.getReplication());
-    }
-
-    if (attributes.contains(FileAttribute.GROUP) &&
-        !group.equals(srcFileStatus.getGroup())) {
-      group = srcFileStatus.getGroup();
-      chown = true;
-    }
-
-    if (attributes.contains(FileAttribute.USER) &&
-        !user.equals(srcFileStatus.getOwner())) {
-      user = srcFileStatus.getOwner();
-      chown = true;
-    }
-
-    if (chown) {
-      targetFS.setOwner(path, user, group);
-    }
-
-    if (attributes.contains(FileAttribute.TIMES)) {
-      targetFS.setTimes(path,
-          srcFileStatus.getModificationTime(),
-          srcFileStatus.getAccessTime());
-    }
+  /**
+   * Preserve attribute on file matching that of the file status being sent
+   * as argument, issuing only the metadata mutations worked out by
+   * {@link PreservePlan}.
+   *
+   * @param targetFS - File system
+   * @param path - Path that needs to preserve original file status
+   * @param srcFileStatus - Original file status
+   * @param targetFileStatus - Current status of the target path if the caller
+   *                           already has it, null to fetch it
+   * @param attributes - Attribute set that needs to be preserved
+   * @param preserveRawXattrs if true, raw.* xattrs should be preserved
+   * @return number of RPCs avoided compared to setting every attribute
+   * @throws IOException - Exception if any (particularly relating to group/owner
+   *                       change or any transient error)
+   */
+  public static int preserve(FileSystem targetFS, Path path,
+                             CopyListingFileStatus srcFileStatus,
+                             FileStatus targetFileStatus,
+                             EnumSet<FileAttribute> attributes,
+                             boolean preserveRawXattrs) throws IOException {
+    PreservePlan plan = PreservePlan.create(targetFS, path, srcFileStatus,
+        targetFileStatus, attributes, preserveRawXattrs);
+    plan.apply(targetFS);
+    return plan.getRpcsAvoided();
   }
 
   /**
@@ -354,7 +316,7 @@ public class DistCpUtils {
       throws IOException {
     SequenceFile.Sorter sorter = new SequenceFile.Sorter(fs, Text.class,
       CopyListingFileStatus.class, conf);
-    Path output = new Path(sourceListing.toString() +  "_sorted");
+    Path output = getSortedListingPath(sourceListing);
 
     if (fs.exists(output)) {
       fs.delete(output, false);
@@ -364,6 +326,36 @@ public class DistCpUtils {
     return output;
   }
 
+  /**
+   * Returns the sorted listing of a source listing, reusing the one the copy
+   * listing wrote while building it when the configuration marks it as
+   * already sorted, and sorting the listing otherwise.
+   *
+   * @param fs - File System
+   * @param conf - Configuration
+   * @param sourceListing - Source listing file
+   * @return Path of the sorted file
+   * @throws IOException - Any exception during sort.
+   */
+  public static Path getSortedListing(FileSystem fs, Configuration conf,
+      Path sourceListing) throws IOException {
+    Path sorted = getSortedListingPath(sourceListing);
+    if (sorted.toString().equals(
+        conf.get(DistCpConstants.CONF_LABEL_SORTED_LISTING_FILE_PATH)) &&
+        fs.exists(sorted)) {
+      return sorted;
+    }
+    return sortListing(fs, conf, sourceListing);
+  }
+
+  /**
+   * @param sourceListing - Source listing file
+   * @return Path of the sorted copy of the listing
+   */
+  public static Path getSortedListingPath(Path sourceListing) {
+    return new Path(sourceListing.toString() + "_sorted");
+  }
+
   /**
    * Determines if a file system supports ACLs by running a canary getAclStatus
    * request on the file system root.  This method is used before distcp job
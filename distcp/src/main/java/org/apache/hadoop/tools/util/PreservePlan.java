@@ -0,0 +1,218 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.tools.util;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.XAttr;
+import org.apache.hadoop.fs.permission.AclEntry;
+import org.apache.hadoop.fs.permission.AclUtil;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.hdfs.DistributedFileSystem;
+import org.apache.hadoop.tools.CopyListingFileStatus;
+import org.apache.hadoop.tools.DistCpOptions.FileAttribute;
+import org.apache.hadoop.util.StringUtils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * The minimal set of metadata mutations that make a target path match the
+ * preserved attributes of its source. The plan is worked out from the source
+ * CopyListingFileStatus and the target status, which is reused when the
+ * caller already has it, so only attributes that differ are set and setTimes
+ * is skipped when the times already match. It also counts the RPCs saved
+ * compared to setting every preserved attribute unconditionally.
+ */
+public final class PreservePlan {
+
+  private final Path path;
+
+  private List<AclEntry> acl;
+  private FsPermission permission;
+  private final Map<String, byte[]> xAttrs =
+      new LinkedHashMap<String, byte[]>();
+  private short replication = -1;
+  private String user;
+  private String group;
+  private boolean chown;
+  private boolean setTimes;
+  private long modificationTime;
+  private long accessTime;
+
+  private int rpcsAvoided;
+
+  private PreservePlan(Path path) {
+    this.path = path;
+  }
+
+  /**
+   * Work out the mutations needed on the target path.
+   *
+   * @param targetFS - File system
+   * @param path - Path that needs to preserve original file status
+   * @param srcFileStatus - Original file status
+   * @param targetFileStatus - Current status of the target path, or null
+   *                           if it has to be fetched
+   * @param attributes - Attribute set that needs to be preserved
+   * @param preserveRawXattrs if true, raw.* xattrs should be preserved
+   * @return the plan, to be applied with {@link #apply(FileSystem)}
+   * @throws IOException - Exception if any while reading the target metadata
+   */
+  public static PreservePlan create(FileSystem targetFS, Path path,
+      CopyListingFileStatus srcFileStatus, FileStatus targetFileStatus,
+      EnumSet<FileAttribute> attributes, boolean preserveRawXattrs)
+      throws IOException {
+    PreservePlan plan = new PreservePlan(path);
+
+    // If not preserving anything from FileStatus, don't bother fetching it.
+    if (attributes.isEmpty()) {
+      targetFileStatus = null;
+    } else if (targetFileStatus == null) {
+      targetFileStatus = targetFS.getFileStatus(path);
+    } else {
+      plan.rpcsAvoided++;
+    }
+
+    if (attributes.contains(FileAttribute.ACL)) {
+      List<AclEntry> srcAcl = srcFileStatus.getAclEntries();
+      List<AclEntry> targetAcl;
+      if (targetFS instanceof DistributedFileSystem &&
+          !targetFileStatus.getPermission().getAclBit()) {
+        // HDFS flags paths with extended ACL entries, so without the flag the
+        // ACL is fully described by the permission bits.
+        targetAcl = AclUtil.getMinimalAcl(targetFileStatus.getPermission());
+        plan.rpcsAvoided++;
+      } else {
+        targetAcl = DistCpUtils.getAcl(targetFS, targetFileStatus);
+      }
+      if (!srcAcl.equals(targetAcl)) {
+        plan.acl = srcAcl;
+      }
+      // setAcl doesn't preserve sticky bit, so also call setPermission if needed.
+      if (srcFileStatus.getPermission().getStickyBit() !=
+          targetFileStatus.getPermission().getStickyBit()) {
+        plan.permission = srcFileStatus.getPermission();
+      }
+    } else if (attributes.contains(FileAttribute.PERMISSION) &&
+      !srcFileStatus.getPermission().equals(targetFileStatus.getPermission())) {
+      plan.permission = srcFileStatus.getPermission();
+    }
+
+    final boolean preserveXAttrs = attributes.contains(FileAttribute.XATTR);
+    if (preserveXAttrs || preserveRawXattrs) {
+      final String rawNS =
+          StringUtils.toLowerCase(XAttr.NameSpace.RAW.name());
+      Map<String, byte[]> srcXAttrs = srcFileStatus.getXAttrs();
+      Map<String, byte[]> targetXAttrs = DistCpUtils.getXAttrs(targetFS, path);
+      // Map.equals compares the byte[] values by identity, so compare each
+      // value and only set the xattrs that are missing or differ.
+      if (srcXAttrs != null && !srcXAttrs.equals(targetXAttrs)) {
+        for (Entry<String, byte[]> entry : srcXAttrs.entrySet()) {
+          String xattrName = entry.getKey();
+          if (xattrName.startsWith(rawNS) || preserveXAttrs) {
+            if (targetXAttrs != null && targetXAttrs.containsKey(xattrName) &&
+                Arrays.equals(entry.getValue(), targetXAttrs.get(xattrName))) {
+              plan.rpcsAvoided++;
+            } else {
+              plan.xAttrs.put(xattrName, entry.getValue());
+            }
+          }
+        }
+      }
+    }
+
+    if (attributes.contains(FileAttribute.REPLICATION) && !targetFileStatus.isDirectory() &&
+        (srcFileStatus.getReplication() != targetFileStatus.getReplication())) {
+      plan.replication = srcFileStatus.getReplication();
+    }
+
+    if (targetFileStatus != null) {
+      plan.user = targetFileStatus.getOwner();
+      plan.group = targetFileStatus.getGroup();
+    }
+
+    if (attributes.contains(FileAttribute.GROUP) &&
+        !plan.group.equals(srcFileStatus.getGroup())) {
+      plan.group = srcFileStatus.getGroup();
+      plan.chown = true;
+    }
+
+    if (attributes.contains(FileAttribute.USER) &&
+        !plan.user.equals(srcFileStatus.getOwner())) {
+      plan.user = srcFileStatus.getOwner();
+      plan.chown = true;
+    }
+
+    if (attributes.contains(FileAttribute.TIMES)) {
+      if (srcFileStatus.getModificationTime() ==
+          targetFileStatus.getModificationTime() &&
+          srcFileStatus.getAccessTime() == targetFileStatus.getAccessTime()) {
+        plan.rpcsAvoided++;
+      } else {
+        plan.setTimes = true;
+        plan.modificationTime = srcFileStatus.getModificationTime();
+        plan.accessTime = srcFileStatus.getAccessTime();
+      }
+    }
+    return plan;
+  }
+
+  /**
+   * Issue the planned mutations against the target path.
+   *
+   * @param targetFS - File system of the target path
+   * @throws IOException - Exception if any (particularly relating to
+   *                       group/owner change or any transient error)
+   */
+  public void apply(FileSystem targetFS) throws IOException {
+    if (acl != null) {
+      targetFS.setAcl(path, acl);
+    }
+    if (permission != null) {
+      targetFS.setPermission(path, permission);
+    }
+    for (Entry<String, byte[]> entry : xAttrs.entrySet()) {
+      targetFS.setXAttr(path, entry.getKey(), entry.getValue());
+    }
+    if (replication != -1) {
+      targetFS.setReplication(path, replication);
+    }
+    if (chown) {
+      targetFS.setOwner(path, user, group);
+    }
+    if (setTimes) {
+      targetFS.setTimes(path, modificationTime, accessTime);
+    }
+  }
+
+  /**
+   * @return number of RPCs this plan avoids compared to fetching the target
+   *         status and setting every preserved attribute
+   */
+  public int getRpcsAvoided() {
+    return rpcsAvoided;
+  }
+}
@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.tools;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hdfs.MiniDFSCluster;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.security.Credentials;
+import org.apache.hadoop.tools.util.DistCpUtils;
+import org.apache.hadoop.tools.util.TestDistCpUtils;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class TestSortedListingBuilder {
+  private static final Log LOG = LogFactory.getLog(TestSortedListingBuilder.class);
+
+  private static final Configuration config = new Configuration();
+  private static MiniDFSCluster cluster;
+  private static FileSystem fs;
+
+  @BeforeClass
+  public static void create() throws IOException {
+    cluster = new MiniDFSCluster.Builder(config).numDataNodes(1).format(true)
+                                                .build();
+    fs = cluster.getFileSystem();
+  }
+
+  @AfterClass
+  public static void destroy() {
+    if (cluster != null) {
+      cluster.shutdown();
+    }
+  }
+
+  @Test(timeout=60000)
+  public void testMatchesSortListing() throws Exception {
+    Path listing = new Path("/tmp/sorted/listing.seq");
+    List<String> keys = writeListing(listing, 1000, 64);
+
+    List<String> presorted = readKeys(
+        DistCpUtils.getSortedListingPath(listing));
+    Collections.sort(keys);
+    Assert.assertEquals(keys, presorted);
+
+    List<String> resorted = readKeys(
+        DistCpUtils.sortListing(fs, config, listing));
+    Assert.assertEquals(resorted, presorted);
+    Assert.assertFalse(fs.exists(new Path(listing.toString() + "_run0")));
+  }
+
+  @Test(timeout=60000)
+  public void testSingleRun() throws Exception {
+    Path listing = new Path("/tmp/sorted/single.seq");
+    List<String> keys = writeListing(listing, 100, 1000);
+    Collections.sort(keys);
+    Assert.assertEquals(keys, readKeys(
+        DistCpUtils.getSortedListingPath(listing)));
+  }
+
+  @Test(timeout=60000)
+  public void testBuildListingMarksSorted() throws Exception {
+    try {
+      TestDistCpUtils.createFile(fs, "/tmp/in/b/2");
+      TestDistCpUtils.createFile(fs, "/tmp/in/a/1");
+      TestDistCpUtils.createFile(fs, "/tmp/in/c");
+      TestDistCpUtils.createFile(fs, "/tmp/in/a/3");
+      fs.mkdirs(new Path("/tmp/out"));
+
+      Configuration conf = new Configuration(config);
+      conf.setInt(DistCpConstants.CONF_LABEL_SIMPLE_LISTING_SORTED_RUN_SIZE, 2);
+      Path listing = new Path("/tmp/listing.seq");
+      DistCpOptions options = new DistCpOptions(
+          Collections.singletonList(new Path("/tmp/in")), new Path("/tmp/out"));
+      options.setSyncFolder(true);
+      CopyListing copyListing = new SimpleCopyListing(conf, new Credentials());
+      copyListing.buildListing(listing, options);
+
+      Path sorted = DistCpUtils.getSortedListingPath(listing);
+      Assert.assertEquals(sorted.toString(), conf.get(
+          DistCpConstants.CONF_LABEL_SORTED_LISTING_FILE_PATH));
+      List<String> keys = readKeys(sorted);
+      List<String> expected = new ArrayList<String>(keys);
+      Collections.sort(expected);
+      Assert.assertEquals(expected, keys);
+      Assert.assertEquals(copyListing.getNumberOfPaths(), keys.size());
+      Assert.assertEquals(sorted,
+          DistCpUtils.getSortedListing(fs, conf, listing));
+    } finally {
+      TestDistCpUtils.delete(fs, "/tmp");
+    }
+  }
+
+  /**
+   * Write a listing of random keys, building the sorted listing alongside
+   * with the given run size unless it is 0.
+   */
+  private List<String> writeListing(Path listing, int entries, int runSize)
+      throws IOException {
+    Random random = new Random(entries);
+    List<String> keys = new ArrayList<String>(entries);
+    SortedListingBuilder builder = runSize > 0 ?
+        new SortedListingBuilder(config, listing, runSize) : null;
+    SequenceFile.Writer writer = SequenceFile.createWriter(config,
+        SequenceFile.Writer.file(listing),
+        SequenceFile.Writer.keyClass(Text.class),
+        SequenceFile.Writer.valueClass(CopyListingFileStatus.class),
+        SequenceFile.Writer.compression(SequenceFile.CompressionType.NONE));
+    try {
+      for (int i = 0; i < entries; i++) {
+        String key = "/dir" + random.nextInt(100) + "/file" + random.nextLong();
+        CopyListingFileStatus status = new CopyListingFileStatus(
+            new FileStatus(1024, false, 3, 128 * 1024 * 1024, 0,
+                new Path("/tmp/src" + key)));
+        Text relPath = new Text(key);
+        writer.append(relPath, status);
+        if (builder != null) {
+          builder.add(relPath, status);
+        }
+        keys.add(key);
+      }
+      writer.close();
+      writer = null;
+      if (builder != null) {
+        builder.finish();
+      }
+    } finally {
+      IOUtils.cleanup(LOG, writer);
+    }
+    return keys;
+  }
+
+  private List<String> readKeys(Path path) throws IOException {
+    List<String> keys = new ArrayList<String>();
+    SequenceFile.Reader reader = new SequenceFile.Reader(config,
+        SequenceFile.Reader.file(path));
+    try {
+      Text key = new Text();
+      while (reader.next(key)) {
+        keys.add(key.toString());
+      }
+    } finally {
+      IOUtils.closeStream(reader);
+    }
+    return keys;
+  }
+}
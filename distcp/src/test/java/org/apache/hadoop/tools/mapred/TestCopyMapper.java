@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -38,6 +39,7 @@ import org.apache.hadoop.fs.Options.ChecksumOpt;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.permission.FsAction;
 import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.hdfs.DistributedFileSystem;
 import org.apache.hadoop.hdfs.MiniDFSCluster;
 import org.apache.hadoop.io.IOUtils;
 import org.apache.hadoop.io.Text;
@@ -1139,6 +1141,136 @@ public class TestCopyMapper {
     }
   }
 
+  /**
+   * DistributedFileSystem that counts the metadata RPCs issued against the
+   * target directory.
+   */
+  public static class CountingDistributedFileSystem
+      extends DistributedFileSystem {
+    static final AtomicInteger GET_FILE_STATUS = new AtomicInteger();
+    static final AtomicInteger SET_PERMISSION = new AtomicInteger();
+    static final AtomicInteger SET_OWNER = new AtomicInteger();
+    static final AtomicInteger SET_TIMES = new AtomicInteger();
+
+    static void reset() {
+      GET_FILE_STATUS.set(0);
+      SET_PERMISSION.set(0);
+      SET_OWNER.set(0);
+      SET_TIMES.set(0);
+    }
+
+    private static void count(AtomicInteger counter, Path p) {
+      if (p.toUri().getPath().startsWith(TARGET_PATH)) {
+        counter.incrementAndGet();
+      }
+    }
+
+    @Override
+    public FileStatus getFileStatus(Path f) throws IOException {
+      count(GET_FILE_STATUS, f);
+      return super.getFileStatus(f);
+    }
+
+    @Override
+    public void setPermission(Path p, FsPermission permission)
+        throws IOException {
+      count(SET_PERMISSION, p);
+      super.setPermission(p, permission);
+    }
+
+    @Override
+    public void setOwner(Path p, String username, String groupname)
+        throws IOException {
+      count(SET_OWNER, p);
+      super.setOwner(p, username, groupname);
+    }
+
+    @Override
+    public void setTimes(Path p, long mtime, long atime) throws IOException {
+      count(SET_TIMES, p);
+      super.setTimes(p, mtime, atime);
+    }
+  }
+
+  @Test(timeout=40000)
+  public void testPreserveMetadataOnlyUpdate() throws Exception {
+    deleteState();
+    createSourceData();
+
+    FileSystem fs = cluster.getFileSystem();
+    EnumSet<DistCpOptions.FileAttribute> fileAttributes = EnumSet.of(
+        DistCpOptions.FileAttribute.PERMISSION,
+        DistCpOptions.FileAttribute.USER,
+        DistCpOptions.FileAttribute.GROUP,
+        DistCpOptions.FileAttribute.TIMES);
+
+    CopyMapper copyMapper = new CopyMapper();
+    StubContext stubContext = new StubContext(getConfiguration(), null, 0);
+    Mapper<Text, CopyListingFileStatus, Text, Text>.Context context
+            = stubContext.getContext();
+    context.getConfiguration().set(
+        DistCpOptionSwitch.PRESERVE_STATUS.getConfigLabel(),
+        DistCpUtils.packAttributes(fileAttributes));
+    copyMapper.setup(context);
+    for (Path path : pathList) {
+      copyMapper.map(
+          new Text(DistCpUtils.getRelativePath(new Path(SOURCE_PATH), path)),
+          new CopyListingFileStatus(fs.getFileStatus(path)), context);
+    }
+    Assert.assertEquals(nFiles, stubContext.getReporter()
+        .getCounter(CopyMapper.Counter.COPY).getValue());
+
+    // Only the permission of one source file changes before the next run.
+    Path changed = new Path(SOURCE_PATH + "/5/6");
+    FsPermission newPermission = new FsPermission((short) 0600);
+    fs.setPermission(changed, newPermission);
+
+    copyMapper = new CopyMapper();
+    stubContext = new StubContext(getConfiguration(), null, 0);
+    context = stubContext.getContext();
+    Configuration configuration = context.getConfiguration();
+    configuration.set(DistCpOptionSwitch.PRESERVE_STATUS.getConfigLabel(),
+        DistCpUtils.packAttributes(fileAttributes));
+    configuration.setClass("fs.hdfs.impl", CountingDistributedFileSystem.class,
+        FileSystem.class);
+    configuration.setBoolean("fs.hdfs.impl.disable.cache", true);
+    copyMapper.setup(context);
+
+    CountingDistributedFileSystem.reset();
+    for (Path path : pathList) {
+      if (fs.getFileStatus(path).isFile()) {
+        copyMapper.map(
+            new Text(DistCpUtils.getRelativePath(new Path(SOURCE_PATH), path)),
+            new CopyListingFileStatus(fs.getFileStatus(path)), context);
+      }
+    }
+
+    Assert.assertEquals(nFiles, stubContext.getReporter()
+        .getCounter(CopyMapper.Counter.SKIP).getValue());
+    // The mapper's own lookup of each target is reused by preserve, times
+    // are already in sync and only the changed permission is set.
+    Assert.assertEquals(nFiles,
+        CountingDistributedFileSystem.GET_FILE_STATUS.get());
+    Assert.assertEquals(0, CountingDistributedFileSystem.SET_TIMES.get());
+    Assert.assertEquals(0, CountingDistributedFileSystem.SET_OWNER.get());
+    Assert.assertEquals(1, CountingDistributedFileSystem.SET_PERMISSION.get());
+    Assert.assertEquals(2 * nFiles, stubContext.getReporter()
+        .getCounter(CopyMapper.Counter.PRESERVE_RPCS_AVOIDED).getValue());
+
+    for (Path path : pathList) {
+      final FileStatus source = fs.getFileStatus(path);
+      if (source.isFile()) {
+        final FileStatus target = fs.getFileStatus(new Path(path.toString()
+            .replaceAll(SOURCE_PATH, TARGET_PATH)));
+        Assert.assertEquals(source.getPermission(), target.getPermission());
+        Assert.assertEquals(source.getModificationTime(),
+            target.getModificationTime());
+      }
+    }
+    Assert.assertEquals(newPermission, fs.getFileStatus(new Path(
+        TARGET_PATH + "/5/6")).getPermission());
+  }
+
   @Test
   public void testVerboseLogging() throws Exception {
     deleteState();
@@ -0,0 +1,253 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.tools.mapred.lib;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputFormat;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.JobID;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.TaskType;
+import org.apache.hadoop.mapreduce.task.JobContextImpl;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.apache.hadoop.tools.CopyListingFileStatus;
+import org.apache.hadoop.tools.DistCpConstants;
+import org.apache.hadoop.tools.StubContext;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class TestCoordinatedInputFormat {
+  private static final Log LOG
+                = LogFactory.getLog(TestCoordinatedInputFormat.class);
+  private static final int N_RECORDS = 10000;
+  private static final int NUM_SPLITS = 10;
+
+  private Configuration configuration;
+  private Set<String> expectedKeys;
+
+  @Before
+  public void setup() throws Exception {
+    configuration = new Configuration();
+    FileSystem fs = FileSystem.getLocal(configuration);
+    Path root = fs.makeQualified(new Path(
+        System.getProperty("test.build.data", "target/tmp"),
+        "TestCoordinatedInputFormat"));
+    fs.delete(root, true);
+    Path listingPath = new Path(root, "fileList.seq");
+    expectedKeys = writeListing(fs, listingPath, N_RECORDS);
+
+    configuration.set(DistCpConstants.CONF_LABEL_LISTING_FILE_PATH,
+                      listingPath.toString());
+    configuration.setInt(DistCpConstants.CONF_LABEL_TOTAL_NUMBER_OF_RECORDS,
+                         N_RECORDS);
+    configuration.setInt(JobContext.NUM_MAPS, NUM_SPLITS);
+  }
+
+  @Test
+  public void testAllRecordsReadOnce() throws Exception {
+    JobContext jobContext = new JobContextImpl(configuration, new JobID());
+    CoordinatedInputFormat<Text, CopyListingFileStatus> inputFormat =
+        new CoordinatedInputFormat<Text, CopyListingFileStatus>();
+    List<InputSplit> splits = inputFormat.getSplits(jobContext);
+    Assert.assertEquals(NUM_SPLITS, splits.size());
+    Configuration jobConf = jobContext.getConfiguration();
+
+    // Step the maps in turn, so that they claim from and steal into each
+    // other's regions.
+    List<RecordReader<Text, CopyListingFileStatus>> readers =
+        new ArrayList<RecordReader<Text, CopyListingFileStatus>>();
+    for (int taskId = 0; taskId < splits.size(); ++taskId) {
+      readers.add(createReader(inputFormat, splits.get(taskId),
+          new StubContext(jobConf, null, taskId).getContext()));
+    }
+    float[] previousProgress = new float[readers.size()];
+    Set<String> seen = new HashSet<String>();
+    boolean more = true;
+    while (more) {
+      more = false;
+      for (int i = 0; i < readers.size(); ++i) {
+        // Task 0 takes several records at a time, as a faster map would.
+        int steps = i == 0 ? 5 : 1;
+        RecordReader<Text, CopyListingFileStatus> reader = readers.get(i);
+        while (steps-- > 0 && reader.nextKeyValue()) {
+          Assert.assertTrue(seen.add(reader.getCurrentKey().toString()));
+          float progress = reader.getProgress();
+          Assert.assertTrue(progress >= previousProgress[i]);
+          Assert.assertTrue(progress <= 1.0f);
+          previousProgress[i] = progress;
+          more = true;
+        }
+      }
+    }
+    for (RecordReader<Text, CopyListingFileStatus> reader : readers) {
+      Assert.assertTrue(reader.getProgress() == 1.0f);
+      reader.close();
+    }
+    Assert.assertEquals(expectedKeys, seen);
+  }
+
+  @Test
+  public void testRetriedAttemptResumesClaimedChunk() throws Exception {
+    JobContext jobContext = new JobContextImpl(configuration, new JobID());
+    CoordinatedInputFormat<Text, CopyListingFileStatus> inputFormat =
+        new CoordinatedInputFormat<Text, CopyListingFileStatus>();
+    List<InputSplit> splits = inputFormat.getSplits(jobContext);
+    Configuration jobConf = jobContext.getConfiguration();
+    int numRecordsPerChunk = DynamicInputFormat.getNumEntriesPerChunk(jobConf);
+
+    // The first attempt moves past its pre-assigned chunk, and then fails.
+    RecordReader<Text, CopyListingFileStatus> failedAttempt = createReader(
+        inputFormat, splits.get(0),
+        new StubContext(jobConf, null, 0).getContext());
+    List<String> failedAttemptKeys = new ArrayList<String>();
+    while (failedAttemptKeys.size() < 3 * numRecordsPerChunk
+        && failedAttempt.nextKeyValue()) {
+      failedAttemptKeys.add(failedAttempt.getCurrentKey().toString());
+    }
+    failedAttempt.close();
+
+    TaskAttemptContext retryContext = new TaskAttemptContextImpl(
+        jobConf, new TaskAttemptID("", 0, TaskType.MAP, 0, 1));
+    RecordReader<Text, CopyListingFileStatus> retry = createReader(
+        inputFormat, splits.get(0), retryContext);
+    Set<String> seen = new HashSet<String>(failedAttemptKeys);
+    Assert.assertTrue(retry.nextKeyValue());
+    String resumedKey = retry.getCurrentKey().toString();
+    Assert.assertTrue(seen.contains(resumedKey));
+    Assert.assertFalse(failedAttemptKeys.get(0).equals(resumedKey));
+    int numRecordsRead = failedAttemptKeys.size() + 1;
+    while (retry.nextKeyValue()) {
+      seen.add(retry.getCurrentKey().toString());
+      ++numRecordsRead;
+    }
+    retry.close();
+
+    for (int taskId = 1; taskId < splits.size(); ++taskId) {
+      RecordReader<Text, CopyListingFileStatus> reader = createReader(
+          inputFormat, splits.get(taskId),
+          new StubContext(jobConf, null, taskId).getContext());
+      while (reader.nextKeyValue()) {
+        Assert.assertTrue(seen.add(reader.getCurrentKey().toString()));
+        ++numRecordsRead;
+      }
+      reader.close();
+    }
+    Assert.assertEquals(expectedKeys, seen);
+    // Only the chunk that was resumed is read twice.
+    Assert.assertTrue(numRecordsRead < N_RECORDS + 2 * numRecordsPerChunk);
+  }
+
+  @Test
+  public void testEmptyClaimLeftByDeadAttempt() throws Exception {
+    JobContext jobContext = new JobContextImpl(configuration, new JobID());
+    CoordinatedInputFormat<Text, CopyListingFileStatus> inputFormat =
+        new CoordinatedInputFormat<Text, CopyListingFileStatus>();
+    List<InputSplit> splits = inputFormat.getSplits(jobContext);
+    Configuration jobConf = jobContext.getConfiguration();
+
+    // The first attempt reads its pre-assigned chunk, and dies while claiming
+    // the next one, leaving its claim empty.
+    TaskAttemptContext failedContext =
+        new StubContext(jobConf, null, 0).getContext();
+    RecordReader<Text, CopyListingFileStatus> failedAttempt = createReader(
+        inputFormat, splits.get(0), failedContext);
+    Set<String> seen = new HashSet<String>();
+    int numRecordsPerChunk = DynamicInputFormat.getNumEntriesPerChunk(jobConf);
+    while (seen.size() < numRecordsPerChunk && failedAttempt.nextKeyValue()) {
+      seen.add(failedAttempt.getCurrentKey().toString());
+    }
+    failedAttempt.close();
+    Path listingPath = DynamicInputFormat.getListingFilePath(jobConf);
+    FileSystem fs = listingPath.getFileSystem(jobConf);
+    Path emptyClaim = ChunkCoordinator.getPendingClaimPath(listingPath,
+        failedContext.getTaskAttemptID().getTaskID().toString());
+    fs.create(emptyClaim, true).close();
+    Assert.assertEquals(0, fs.getFileStatus(emptyClaim).getLen());
+
+    TaskAttemptContext retryContext = new TaskAttemptContextImpl(
+        jobConf, new TaskAttemptID("", 0, TaskType.MAP, 0, 1));
+    RecordReader<Text, CopyListingFileStatus> retry = createReader(
+        inputFormat, splits.get(0), retryContext);
+    while (retry.nextKeyValue()) {
+      seen.add(retry.getCurrentKey().toString());
+    }
+    retry.close();
+    for (int taskId = 1; taskId < splits.size(); ++taskId) {
+      RecordReader<Text, CopyListingFileStatus> reader = createReader(
+          inputFormat, splits.get(taskId),
+          new StubContext(jobConf, null, taskId).getContext());
+      while (reader.nextKeyValue()) {
+        Assert.assertTrue(seen.add(reader.getCurrentKey().toString()));
+      }
+      reader.close();
+    }
+    // No chunk is left behind as claimed by the dead attempt.
+    Assert.assertEquals(expectedKeys, seen);
+  }
+
+  private static RecordReader<Text, CopyListingFileStatus> createReader(
+      InputFormat<Text, CopyListingFileStatus> inputFormat, InputSplit split,
+      TaskAttemptContext taskAttemptContext) throws Exception {
+    RecordReader<Text, CopyListingFileStatus> reader =
+        inputFormat.createRecordReader(split, taskAttemptContext);
+    reader.initialize(split, taskAttemptContext);
+    return reader;
+  }
+
+  private static Set<String> writeListing(FileSystem fs, Path listing,
+      int numRecords) throws IOException {
+    Set<String> keys = new HashSet<String>();
+    SequenceFile.Writer writer = SequenceFile.createWriter(fs.getConf(),
+        SequenceFile.Writer.file(listing),
+        SequenceFile.Writer.keyClass(Text.class),
+        SequenceFile.Writer.valueClass(CopyListingFileStatus.class),
+        SequenceFile.Writer.compression(SequenceFile.CompressionType.NONE));
+    try {
+      for (int i = 0; i < numRecords; ++i) {
+        String key = "/source/" + i;
+        writer.append(new Text(key), new CopyListingFileStatus(
+            new FileStatus(0, false, 1, 1024, 0, new Path("/tmp" + key))));
+        keys.add(key);
+      }
+      writer.close();
+      writer = null;
+    } finally {
+      IOUtils.cleanup(LOG, writer);
+    }
+    return keys;
+  }
+}
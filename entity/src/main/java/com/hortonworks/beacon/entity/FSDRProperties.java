@@ -38,6 +38,7 @@ public enum FSDRProperties {
     RETRY_ATTEMPTS("retryAttempts", "retry count", false),
     RETRY_DELAY("retryDelay", "retry delay", false),
     QUEUE_NAME("queueName", "queue name", false),
+    PRIORITY("priority", "Scheduling priority of the policy jobs, higher runs first", false),
 
     TARGET_NN("targetNN", "Target cluster Namenode", false),
     TARGET_DATASET("targetDataset", "Location of target path", false),
@@ -69,6 +69,9 @@ public enum HiveDRProperties {
     // Queue name
     QUEUE_NAME("queueName", "queue name", false),
 
+    // Scheduling priority
+    PRIORITY("priority", "Scheduling priority of the policy jobs, higher runs first", false),
+
     // num events
     MAX_EVENTS("maxEvents", "number of events to process in this run", false),
 
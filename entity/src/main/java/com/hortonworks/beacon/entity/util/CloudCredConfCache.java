@@ -0,0 +1,148 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+package com.hortonworks.beacon.entity.util;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheBuilder;
+import com.hortonworks.beacon.entity.BeaconCloudCred;
+import com.hortonworks.beacon.exceptions.BeaconException;
+import org.apache.hadoop.conf.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hortonworks.beacon.util.FSUtils.merge;
+
+/**
+ * Cache of the prepared hadoop configuration of each cloud credential.
+ * Cached configurations are never handed out, callers always get their own copy.
+ * Entries are invalidated when the cloud credential is updated or deleted, a load that overlaps an
+ * invalidation is not kept. The least recently used entries are evicted beyond {@link #MAX_ENTRIES}.
+ */
+public final class CloudCredConfCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CloudCredConfCache.class);
+    static final int MAX_ENTRIES = 1000;
+    private static final CloudCredConfCache INSTANCE = new CloudCredConfCache(new CloudCredDao(), MAX_ENTRIES);
+
+    private final CloudCredDao cloudCredDao;
+    private final ConcurrentMap<String, CachedCloudCred> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    @VisibleForTesting
+    CloudCredConfCache(CloudCredDao cloudCredDao, int maxEntries) {
+        this.cloudCredDao = cloudCredDao;
+        this.cache = CacheBuilder.newBuilder().maximumSize(maxEntries).<String, CachedCloudCred>build().asMap();
+    }
+
+    public static CloudCredConfCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the cloud credential configuration along with the encryption and bucket endpoint
+     * configuration for the given cloud path.
+     */
+    public Configuration getConfiguration(String cloudCredId, Properties properties, String cloudPath)
+            throws BeaconException {
+        CachedCloudCred cachedCloudCred = getCachedCloudCred(cloudCredId);
+        Configuration conf = new Configuration(cachedCloudCred.hadoopConf);
+        merge(conf, cachedCloudCred.cloudCred.getCloudEncryptionTypeConf(properties, cloudPath));
+        merge(conf, getBucketEndpointConf(cachedCloudCred, cloudPath));
+        return conf;
+    }
+
+    public void invalidate(String cloudCredId) {
+        generation.incrementAndGet();
+        if (cache.remove(cloudCredId) != null) {
+            LOG.debug("Invalidated cached configuration for cloud cred: {}", cloudCredId);
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    @VisibleForTesting
+    BeaconCloudCred getCloudCred(String cloudCredId) {
+        return getCachedCloudCred(cloudCredId).cloudCred;
+    }
+
+    private CachedCloudCred getCachedCloudCred(String cloudCredId) {
+        CachedCloudCred cachedCloudCred = cache.get(cloudCredId);
+        if (cachedCloudCred == null) {
+            LOG.debug("Loading configuration for cloud cred: {}", cloudCredId);
+            long loadGeneration = generation.get();
+            BeaconCloudCred cloudCred = new BeaconCloudCred(cloudCredDao.getCloudCred(cloudCredId));
+            CachedCloudCred loaded = new CachedCloudCred(cloudCred, cloudCred.getHadoopConf(false));
+            cachedCloudCred = cache.putIfAbsent(cloudCredId, loaded);
+            if (cachedCloudCred == null) {
+                cachedCloudCred = loaded;
+                // An invalidation that started after the load may have missed this entry, so drop it here.
+                if (generation.get() != loadGeneration) {
+                    cache.remove(cloudCredId, loaded);
+                }
+            }
+        }
+        return cachedCloudCred;
+    }
+
+    private Configuration getBucketEndpointConf(CachedCloudCred cachedCloudCred, String cloudPath)
+            throws BeaconException {
+        String bucket;
+        try {
+            bucket = new URI(cloudPath).getHost();
+        } catch (URISyntaxException e) {
+            throw new BeaconException("Path not correct: {}", cloudPath, e);
+        }
+        if (bucket == null) {
+            return cachedCloudCred.cloudCred.getBucketEndpointConf(cloudPath);
+        }
+        Configuration endpointConf = cachedCloudCred.bucketEndpoints.get(bucket);
+        if (endpointConf == null) {
+            endpointConf = cachedCloudCred.cloudCred.getBucketEndpointConf(cloudPath);
+            cachedCloudCred.bucketEndpoints.putIfAbsent(bucket, endpointConf);
+        }
+        return endpointConf;
+    }
+
+    /**
+     * Cloud cred with its prepared configuration. The configurations are only read after construction.
+     */
+    private static final class CachedCloudCred {
+        private final BeaconCloudCred cloudCred;
+        private final Configuration hadoopConf;
+        private final ConcurrentMap<String, Configuration> bucketEndpoints = new ConcurrentHashMap<>();
+
+        private CachedCloudCred(BeaconCloudCred cloudCred, Configuration hadoopConf) {
+            this.cloudCred = cloudCred;
+            this.hadoopConf = hadoopConf;
+        }
+    }
+}
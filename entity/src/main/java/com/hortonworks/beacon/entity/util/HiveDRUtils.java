@@ -29,7 +29,6 @@ import com.hortonworks.beacon.client.entity.ReplicationPolicy.ReplicationPolicyF
 import com.hortonworks.beacon.config.BeaconConfig;
 import com.hortonworks.beacon.config.Engine;
 import com.hortonworks.beacon.constants.BeaconConstants;
-import com.hortonworks.beacon.entity.BeaconCloudCred;
 import com.hortonworks.beacon.entity.FSDRProperties;
 import com.hortonworks.beacon.entity.HiveDRProperties;
 import com.hortonworks.beacon.exceptions.BeaconException;
@@ -168,18 +167,8 @@ public final class HiveDRUtils {
             String cloudCredId = properties.getProperty(ReplicationPolicyFields.CLOUDCRED.getName());
             String warehouseDir = properties.getProperty(ClusterFields.HIVE_WAREHOUSE.getName());
             if (StringUtils.isNotBlank(cloudCredId)) {
-                BeaconCloudCred cloudCred = new BeaconCloudCred(new CloudCredDao().getCloudCred(cloudCredId));
-                Configuration cloudConf = cloudCred.getHadoopConf(false);
-                appendConfig(builder, cloudConf);
-
-                appendConfig(builder, cloudCred.getBucketEndpointConf(warehouseDir));
-            }
-            String cloudEncryptionAlgorithm = properties.getProperty(
-                    FSDRProperties.CLOUD_ENCRYPTIONALGORITHM.getName());
-
-            if (StringUtils.isNotBlank(cloudEncryptionAlgorithm)) {
-                appendConfig(builder, new BeaconCloudCred(new CloudCredDao().getCloudCred(cloudCredId))
-                        .getCloudEncryptionTypeConf(properties, warehouseDir));
+                appendConfig(builder, CloudCredConfCache.get().getConfiguration(cloudCredId, properties,
+                        warehouseDir));
             }
             setHMSKerberosProperties(builder, properties);
         }
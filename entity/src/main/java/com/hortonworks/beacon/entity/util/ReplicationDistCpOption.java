@@ -40,7 +40,8 @@ public enum ReplicationDistCpOption {
     DISTCP_OPTION_PRESERVE_CHECKSUM_TYPE("preserveChecksumType", "c"),
     DISTCP_OPTION_PRESERVE_ACL("preserveAcl", "a"),
     DISTCP_OPTION_PRESERVE_XATTR("preserveXattr", "x"),
-    DISTCP_OPTION_PRESERVE_TIMES("preserveTimes", "t");
+    DISTCP_OPTION_PRESERVE_TIMES("preserveTimes", "t"),
+    DISTCP_OPTION_COPY_STRATEGY("copyStrategy", "strategy");
 
     private final String name;
     private final String sName;
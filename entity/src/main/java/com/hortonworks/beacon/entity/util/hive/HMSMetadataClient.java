@@ -32,11 +32,14 @@ import org.apache.hadoop.hive.metastore.HiveMetaStoreClient;
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
+import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.hive.org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Hive Metastore client.
@@ -152,4 +155,55 @@ public class HMSMetadataClient implements HiveMetadataClient {
             throw new BeaconException(e);
         }
     }
+
+    @Override
+    public void dropTables(String dbName, List<String> tableNames) throws BeaconException {
+        try {
+            for (String tableName : tableNames) {
+                client.dropTable(dbName, tableName, true, true);
+            }
+        } catch (TException e) {
+            throw new BeaconException(e);
+        }
+    }
+
+    @Override
+    public void dropFunctions(String dbName, List<String> functionNames) throws BeaconException {
+        for (String functionName : functionNames) {
+            try {
+                client.dropFunction(dbName, functionName);
+            } catch (NoSuchObjectException e) {
+                LOG.debug("Function {}.{} is already dropped", dbName, functionName);
+            } catch (TException e) {
+                throw new BeaconException(e);
+            }
+        }
+    }
+
+    @Override
+    public String getDatabaseParameter(String dbName, String key) throws BeaconException {
+        try {
+            Map<String, String> parameters = client.getDatabase(dbName).getParameters();
+            return parameters == null ? null : parameters.get(key);
+        } catch (NoSuchObjectException e) {
+            return null;
+        } catch (TException e) {
+            throw new BeaconException(e);
+        }
+    }
+
+    @Override
+    public Map<String, String> getTableParameters(String dbName, List<String> tableNames, String key)
+            throws BeaconException {
+        Map<String, String> values = new HashMap<>();
+        try {
+            for (Table table : client.getTableObjectsByName(dbName, tableNames)) {
+                Map<String, String> parameters = table.getParameters();
+                values.put(table.getTableName(), parameters == null ? null : parameters.get(key));
+            }
+        } catch (TException e) {
+            throw new BeaconException(e);
+        }
+        return values;
+    }
 }
@@ -42,13 +42,17 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Hive server metadata client using jdbc.
  */
 public class HS2Client implements HiveMetadataClient, HiveServerClient {
     private static final String DESC_DATABASE = "DESC DATABASE ";
+    private static final String DESC_DATABASE_EXTENDED = "DESC DATABASE EXTENDED ";
+    private static final String SHOW_TBLPROPERTIES = "SHOW TBLPROPERTIES ";
     private static final String SHOW_DATABASES = "SHOW DATABASES";
     private static final String SHOW_TABLES = "SHOW TABLES";
     private static final String SHOW_FUNCTIONS = "SHOW FUNCTIONS";
@@ -59,6 +63,8 @@ public class HS2Client implements HiveMetadataClient, HiveServerClient {
 
     private static final int DB_NOT_EXIST_EC = 10072;
     private static final String DB_NOT_EXIST_STATE = "42000";
+    private static final int TABLE_NOT_EXIST_EC = 10001;
+    private static final int DB_PARAMETERS_COLUMN = 6;
 
     private static final String USE = "USE ";
     private static final Logger LOG = LoggerFactory.getLogger(HS2Client.class);
@@ -269,6 +275,111 @@ public class HS2Client implements HiveMetadataClient, HiveServerClient {
         }
     }
 
+    @Override
+    public void dropTables(String dbName, List<String> tableNames) throws BeaconException {
+        dbName = PolicyHelper.escapeDataSet(dbName);
+        Statement statement = null;
+        try {
+            statement = getConnection().createStatement();
+            for (String tableName : tableNames) {
+                statement.execute(DROP_TABLE + ' ' + dbName + '.' + tableName);
+            }
+        } catch (SQLException e) {
+            throw new BeaconException(e);
+        } finally {
+            close(statement);
+        }
+    }
+
+    @Override
+    public void dropFunctions(String dbName, List<String> functionNames) throws BeaconException {
+        dbName = PolicyHelper.escapeDataSet(dbName);
+        Statement statement = null;
+        try {
+            statement = getConnection().createStatement();
+            for (String functionName : functionNames) {
+                statement.execute(DROP_FUNCTION + ' ' + dbName + '.' + functionName);
+            }
+        } catch (SQLException e) {
+            throw new BeaconException(e);
+        } finally {
+            close(statement);
+        }
+    }
+
+    @Override
+    public String getDatabaseParameter(String dbName, String key) throws BeaconException {
+        dbName = PolicyHelper.escapeDataSet(dbName);
+        Statement statement = null;
+        ResultSet res = null;
+        try {
+            statement = getConnection().createStatement();
+            res = statement.executeQuery(DESC_DATABASE_EXTENDED + dbName);
+            if (res.next()) {
+                return getParameter(res.getString(DB_PARAMETERS_COLUMN), key);
+            }
+            return null;
+        } catch (SQLException e) {
+            if (e.getErrorCode() == DB_NOT_EXIST_EC && e.getSQLState().equalsIgnoreCase(DB_NOT_EXIST_STATE)) {
+                return null;
+            }
+            throw new BeaconException(e);
+        } finally {
+            close(res);
+            close(statement);
+        }
+    }
+
+    // Database parameters are listed as {key1=value1, key2=value2}
+    private static String getParameter(String parameters, String key) {
+        if (parameters == null) {
+            return null;
+        }
+        String trimmed = parameters.trim();
+        if (trimmed.startsWith("{") && trimmed.endsWith("}")) {
+            trimmed = trimmed.substring(1, trimmed.length() - 1);
+        }
+        for (String parameter : trimmed.split(", ")) {
+            int index = parameter.indexOf('=');
+            if (index > 0 && parameter.substring(0, index).equals(key)) {
+                return parameter.substring(index + 1);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Map<String, String> getTableParameters(String dbName, List<String> tableNames, String key)
+            throws BeaconException {
+        dbName = PolicyHelper.escapeDataSet(dbName);
+        Map<String, String> values = new HashMap<>();
+        Statement statement = null;
+        try {
+            statement = getConnection().createStatement();
+            for (String tableName : tableNames) {
+                String query = SHOW_TBLPROPERTIES + dbName + '.' + tableName + "(\"" + key + "\")";
+                try (ResultSet res = statement.executeQuery(query)) {
+                    String value = null;
+                    // Missing property is reported as a single message column instead of key and value
+                    if (res.next() && key.equals(res.getString(1))) {
+                        value = res.getString(2);
+                    }
+                    values.put(tableName, value);
+                } catch (SQLException e) {
+                    if (e.getErrorCode() != TABLE_NOT_EXIST_EC) {
+                        throw e;
+                    }
+                    LOG.debug("Table {}.{} doesn't exist", dbName, tableName);
+                }
+            }
+        } catch (SQLException e) {
+            throw new BeaconException(e);
+        } finally {
+            close(statement);
+        }
+        return values;
+    }
+
     private void initializeDriveClass() throws BeaconException {
         try {
             Class.forName(DRIVER_NAME);
@@ -25,6 +25,7 @@ import com.hortonworks.beacon.exceptions.BeaconException;
 import org.apache.hadoop.fs.Path;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Hive Metadata client interface.
@@ -47,4 +48,16 @@ public interface HiveMetadataClient {
     void dropDatabase(String dbName) throws BeaconException;
 
     void dropFunction(String dbName, String functionName) throws BeaconException;
+
+    void dropTables(String dbName, List<String> tableNames) throws BeaconException;
+
+    void dropFunctions(String dbName, List<String> functionNames) throws BeaconException;
+
+    String getDatabaseParameter(String dbName, String key) throws BeaconException;
+
+    /**
+     * Returns the value of the parameter for each of the given tables that exists, null if it is not set.
+     */
+    Map<String, String> getTableParameters(String dbName, List<String> tableNames, String key)
+            throws BeaconException;
 }
@@ -0,0 +1,104 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+package com.hortonworks.beacon.entity.util;
+
+import com.hortonworks.beacon.client.entity.CloudCred;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.HashMap;
+
+/**
+ * Test for the cloud cred configuration cache.
+ */
+public class CloudCredConfCacheTest {
+
+    private static final String CLOUD_CRED_ID = "cloud-cred-1";
+
+    private CloudCredDao cloudCredDao;
+    private CloudCredConfCache cache;
+
+    @Before
+    public void setup() {
+        cloudCredDao = Mockito.mock(CloudCredDao.class);
+        cache = new CloudCredConfCache(cloudCredDao, CloudCredConfCache.MAX_ENTRIES);
+    }
+
+    @Test
+    public void testLoadedOnce() {
+        Mockito.when(cloudCredDao.getCloudCred(CLOUD_CRED_ID)).thenReturn(createCloudCred("v1"));
+        Assert.assertEquals("v1", cache.getCloudCred(CLOUD_CRED_ID).getName());
+        Assert.assertEquals("v1", cache.getCloudCred(CLOUD_CRED_ID).getName());
+        Mockito.verify(cloudCredDao, Mockito.times(1)).getCloudCred(CLOUD_CRED_ID);
+    }
+
+    @Test
+    public void testInvalidate() {
+        Mockito.when(cloudCredDao.getCloudCred(CLOUD_CRED_ID))
+                .thenReturn(createCloudCred("v1"), createCloudCred("v2"));
+        Assert.assertEquals("v1", cache.getCloudCred(CLOUD_CRED_ID).getName());
+        cache.invalidate(CLOUD_CRED_ID);
+        Assert.assertEquals("v2", cache.getCloudCred(CLOUD_CRED_ID).getName());
+    }
+
+    @Test
+    public void testInvalidateDuringLoad() {
+        // The cloud cred is updated and invalidated after the loader has read the old version.
+        Mockito.when(cloudCredDao.getCloudCred(CLOUD_CRED_ID)).thenAnswer(new Answer<CloudCred>() {
+            @Override
+            public CloudCred answer(InvocationOnMock invocation) {
+                CloudCred stale = createCloudCred("v1");
+                cache.invalidate(CLOUD_CRED_ID);
+                return stale;
+            }
+        }).thenReturn(createCloudCred("v2"));
+
+        Assert.assertEquals("v1", cache.getCloudCred(CLOUD_CRED_ID).getName());
+        Assert.assertEquals("v2", cache.getCloudCred(CLOUD_CRED_ID).getName());
+        Assert.assertEquals("v2", cache.getCloudCred(CLOUD_CRED_ID).getName());
+        Mockito.verify(cloudCredDao, Mockito.times(2)).getCloudCred(CLOUD_CRED_ID);
+    }
+
+    @Test
+    public void testBounded() {
+        cache = new CloudCredConfCache(cloudCredDao, 1);
+        Mockito.when(cloudCredDao.getCloudCred(Mockito.anyString())).thenReturn(createCloudCred("v1"));
+        cache.getCloudCred("cloud-cred-1");
+        cache.getCloudCred("cloud-cred-2");
+        cache.getCloudCred("cloud-cred-1");
+        Mockito.verify(cloudCredDao, Mockito.times(2)).getCloudCred("cloud-cred-1");
+    }
+
+    private static CloudCred createCloudCred(String name) {
+        CloudCred cloudCred = new CloudCred();
+        cloudCred.setId(CLOUD_CRED_ID);
+        cloudCred.setName(name);
+        cloudCred.setProvider(CloudCred.Provider.AWS);
+        cloudCred.setAuthType(CloudCred.AuthType.AWS_INSTANCEPROFILE);
+        cloudCred.setConfigs(new HashMap<CloudCred.Config, String>());
+        return cloudCred;
+    }
+}
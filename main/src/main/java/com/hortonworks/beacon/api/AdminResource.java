@@ -22,12 +22,16 @@
 
 package com.hortonworks.beacon.api;
 
+import com.hortonworks.beacon.api.exception.BeaconWebException;
+import com.hortonworks.beacon.client.resource.AdmissionStatusResult;
 import com.hortonworks.beacon.client.resource.ServerStatusResult;
 import com.hortonworks.beacon.client.resource.ServerVersionResult;
 import com.hortonworks.beacon.config.PropertiesUtil;
 import com.hortonworks.beacon.constants.BeaconConstants;
+import com.hortonworks.beacon.exceptions.BeaconException;
 import com.hortonworks.beacon.main.BeaconServer;
 import com.hortonworks.beacon.plugin.service.PluginManagerService;
+import com.hortonworks.beacon.scheduler.admission.JobAdmissionFactory;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.ws.rs.GET;
@@ -56,6 +60,17 @@ public class AdminResource extends AbstractResourceManager {
         return getServerStatusInternal();
     }
 
+    @GET
+    @Path("scheduler/admission")
+    @Produces({MediaType.APPLICATION_JSON})
+    public AdmissionStatusResult getAdmissionStatus() {
+        try {
+            return JobAdmissionFactory.getJobAdmission().getStatus();
+        } catch (BeaconException e) {
+            throw BeaconWebException.newAPIException(e);
+        }
+    }
+
     private ServerVersionResult getServerVersionInternal() {
         ServerVersionResult result = new ServerVersionResult();
         result.setStatus("RUNNING");
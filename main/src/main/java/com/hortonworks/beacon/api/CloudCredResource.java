@@ -32,6 +32,7 @@ import com.hortonworks.beacon.client.resource.APIResult;
 import com.hortonworks.beacon.client.resource.CloudCredList;
 import com.hortonworks.beacon.client.util.CloudCredBuilder;
 import com.hortonworks.beacon.entity.exceptions.ValidationException;
+import com.hortonworks.beacon.entity.util.CloudCredConfCache;
 import com.hortonworks.beacon.exceptions.BeaconException;
 import com.hortonworks.beacon.util.PropertiesIgnoreCase;
 import org.apache.commons.lang3.StringUtils;
@@ -191,6 +192,7 @@ public class CloudCredResource extends AbstractResourceManager {
             BeaconCloudCred beaconCloudCred = new BeaconCloudCred(cloudCred);
             beaconCloudCred.deleteCredential();
             RequestContext.get().commitTransaction();
+            CloudCredConfCache.get().invalidate(cloudCredId);
         } catch (ValidationException e) {
             throw BeaconWebException.newAPIException(e, Response.Status.BAD_REQUEST);
         } catch(Throwable t) {
@@ -214,6 +216,7 @@ public class CloudCredResource extends AbstractResourceManager {
             RequestContext.get().startTransaction();
             cloudCredDao.update(newCloudCred);
             RequestContext.get().commitTransaction();
+            CloudCredConfCache.get().invalidate(cloudCredId);
         } catch (NoSuchElementException e) {
             throw BeaconWebException.newAPIException(e, Response.Status.NOT_FOUND);
         } catch (ValidationException e) {
@@ -22,11 +22,12 @@
 
 package com.hortonworks.beacon.api;
 
+import com.hortonworks.beacon.BeaconClientFactory;
 import com.hortonworks.beacon.RequestContext;
 import com.hortonworks.beacon.api.exception.BeaconWebException;
 import com.hortonworks.beacon.api.util.ValidationUtil;
+import com.hortonworks.beacon.client.BeaconClient;
 import com.hortonworks.beacon.client.BeaconClientException;
-import com.hortonworks.beacon.client.BeaconWebClient;
 import com.hortonworks.beacon.client.entity.Cluster;
 import com.hortonworks.beacon.client.entity.Entity;
 import com.hortonworks.beacon.client.entity.EntityType;
@@ -296,7 +297,7 @@ public class ClusterResource extends AbstractResourceManager {
                 clusterDao.pairCluster(localCluster, remoteCluster);
             }
             if (!isInternalPairing) {
-                BeaconWebClient remoteClient = new BeaconWebClient(remoteCluster.getBeaconEndpoint(),
+                BeaconClient remoteClient = BeaconClientFactory.getBeaconClient(remoteCluster.getBeaconEndpoint(),
                         remoteCluster.getKnoxGatewayURL());
                 pairClustersInRemote(remoteClient, remoteClusterName, localClusterName);
             }
@@ -333,7 +334,7 @@ public class ClusterResource extends AbstractResourceManager {
                 clusterDao.unpairPairedCluster(localCluster, remoteCluster);
             }
             if (!isInternalUnpairing) {
-                BeaconWebClient remoteClient = new BeaconWebClient(remoteCluster.getBeaconEndpoint(),
+                BeaconClient remoteClient = BeaconClientFactory.getBeaconClient(remoteCluster.getBeaconEndpoint(),
                         remoteCluster.getKnoxGatewayURL());
                 unpairClustersInRemote(remoteClient, remoteClusterName, localClusterName);
             }
@@ -494,7 +495,7 @@ public class ClusterResource extends AbstractResourceManager {
     }
 
     // TODO : In future when house keeping async is added ignore any errors as this will be retried async
-    private void pairClustersInRemote(BeaconWebClient remoteClient, String remoteClusterName,
+    private void pairClustersInRemote(BeaconClient remoteClient, String remoteClusterName,
                                       String localClusterName) {
         try {
             remoteClient.pairClusters(localClusterName, true);
@@ -508,7 +509,7 @@ public class ClusterResource extends AbstractResourceManager {
     }
 
     // TODO : In future when house keeping async is added ignore any errors as this will be retried async
-    private void unpairClustersInRemote(BeaconWebClient remoteClient, String remoteClusterName,
+    private void unpairClustersInRemote(BeaconClient remoteClient, String remoteClusterName,
                                         String localClusterName) {
         try {
             remoteClient.unpairClusters(localClusterName, true);
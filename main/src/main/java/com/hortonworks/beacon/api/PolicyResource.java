@@ -28,7 +28,6 @@ import com.hortonworks.beacon.api.exception.BeaconWebException;
 import com.hortonworks.beacon.api.util.ValidationUtil;
 import com.hortonworks.beacon.client.BeaconClient;
 import com.hortonworks.beacon.client.BeaconClientException;
-import com.hortonworks.beacon.client.BeaconWebClient;
 import com.hortonworks.beacon.client.entity.Entity;
 import com.hortonworks.beacon.client.entity.ReplicationPolicy;
 import com.hortonworks.beacon.client.resource.APIResult;
@@ -53,6 +52,7 @@ import com.hortonworks.beacon.replication.ReplicationJobDetails;
 import com.hortonworks.beacon.replication.ReplicationUtils;
 import com.hortonworks.beacon.scheduler.BeaconScheduler;
 import com.hortonworks.beacon.scheduler.internal.AdminJobService;
+import com.hortonworks.beacon.scheduler.internal.PolicyStatusSyncQueue;
 import com.hortonworks.beacon.scheduler.internal.SyncPolicyDeleteJob;
 import com.hortonworks.beacon.scheduler.internal.SyncStatusJob;
 import com.hortonworks.beacon.scheduler.quartz.BeaconQuartzScheduler;
@@ -81,6 +81,7 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Properties;
 
 /**
  * Beacon policy resource management operations as REST API. Root resource (exposed at "myresource" path).
@@ -330,6 +331,39 @@ public class PolicyResource extends AbstractResourceManager {
         }
     }
 
+    @POST
+    @Path("bulkSyncStatus")
+    @Produces({MediaType.APPLICATION_JSON, MediaType.TEXT_PLAIN})
+    public APIResult bulkSyncPolicyStatus(@Context HttpServletRequest request) {
+        Properties policyStatuses = new Properties();
+        try {
+            policyStatuses.load(request.getInputStream());
+            LOG.info("Request for bulk policy syncStatus is received. Policies: [{}]", policyStatuses.size());
+            List<String> failedPolicies = new ArrayList<>();
+            for (String policyName : policyStatuses.stringPropertyNames()) {
+                String status = policyStatuses.getProperty(policyName);
+                BeaconLogUtils.prefixPolicy(policyName);
+                try {
+                    syncPolicyStatusInternal(policyName, status, true);
+                } catch (Exception e) {
+                    LOG.error("Status sync failed for policy: [{}], status: [{}]", policyName, status, e);
+                    failedPolicies.add(policyName);
+                }
+            }
+            if (!failedPolicies.isEmpty()) {
+                throw BeaconWebException.newAPIException("Status sync failed for policies: {}", failedPolicies);
+            }
+            LOG.info("Request for bulk policy syncStatus is processed successfully. Policies: [{}]",
+                    policyStatuses.size());
+            return new APIResult(APIResult.Status.SUCCEEDED, "Update status succeeded for {} policies",
+                    policyStatuses.size());
+        } catch (BeaconWebException e) {
+            throw e;
+        } catch (Throwable throwable) {
+            throw BeaconWebException.newAPIException(throwable);
+        }
+    }
+
     @GET
     @Path("instance/list/{policy-name}")
     @Produces({MediaType.APPLICATION_JSON, MediaType.TEXT_PLAIN})
@@ -524,7 +558,6 @@ public class PolicyResource extends AbstractResourceManager {
                 scheduler.suspendPolicy(policy.getPolicyId());
                 policyDao.updatePolicyStatus(policy.getName(), policy.getType(),
                         JobStatus.SUSPENDED.name());
-                syncPolicyStatusInRemote(policy, JobStatus.SUSPENDED.name());
             } else {
                 throw BeaconWebException.newAPIException("{} ({}) cannot be suspended. Current status: {}",
                     policy.getName(), policy.getType(), policyStatus);
@@ -533,6 +566,7 @@ public class PolicyResource extends AbstractResourceManager {
             BeaconEvents.createEvents(Events.SUSPENDED, EventEntityType.POLICY,
                     policyDao.getPolicyBean(policy), getEventInfo(policy, false));
             RequestContext.get().commitTransaction();
+            syncPolicyStatusInRemote(policy, JobStatus.SUSPENDED.name());
             return new APIResult(APIResult.Status.SUCCEEDED, "{} ({}) suspended successfully", policy.getName(),
                     policy.getType());
         } catch (NoSuchElementException e) {
@@ -557,10 +591,8 @@ public class PolicyResource extends AbstractResourceManager {
             if (policyStatus.equalsIgnoreCase(Entity.EntityStatus.SUSPENDED.name())) {
                 BeaconScheduler scheduler = getScheduler();
                 scheduler.resumePolicy(policy.getPolicyId());
-                String status = Entity.EntityStatus.RUNNING.name();
                 policyDao.updatePolicyStatus(policy.getName(), policy.getType(),
                         JobStatus.RUNNING.name());
-                syncPolicyStatusInRemote(policy, status);
             } else {
                 throw new IllegalStateException(StringFormat.format("{} ({}) cannot be resumed. Current status: {}",
                     policy.getName(), policy.getType(), policyStatus));
@@ -568,6 +600,7 @@ public class PolicyResource extends AbstractResourceManager {
             BeaconEvents.createEvents(Events.RESUMED, EventEntityType.POLICY,
                     policyDao.getPolicyBean(policy), getEventInfo(policy, false));
             RequestContext.get().commitTransaction();
+            syncPolicyStatusInRemote(policy, Entity.EntityStatus.RUNNING.name());
             return new APIResult(APIResult.Status.SUCCEEDED, "{} ({}) resumed successfully", policy.getName(),
                     policy.getType());
         } catch (NoSuchElementException e) {
@@ -795,7 +828,7 @@ public class PolicyResource extends AbstractResourceManager {
         String remoteClusterName = PolicyHelper.getRemoteClusterName(policy);
         String remoteKnoxURL = PolicyHelper.getRemoteKnoxBaseURL(policy);
         try {
-            BeaconClient remoteClient = new BeaconWebClient(remoteEndPoint, remoteKnoxURL);
+            BeaconClient remoteClient = BeaconClientFactory.getBeaconClient(remoteEndPoint, remoteKnoxURL);
             remoteClient.deletePolicy(policy.getName(), true);
             checkAndDeleteSyncStatus(policy.getName());
         } catch (BeaconClientException e) {
@@ -807,6 +840,7 @@ public class PolicyResource extends AbstractResourceManager {
         }
     }
 
+    // The status is queued and sent to the remote cluster asynchronously, collapsed with other updates to it.
     private void syncPolicyStatusInRemote(ReplicationPolicy policy, String status) throws BeaconException {
         if (PolicyHelper.isPolicyHCFS(policy.getSourceDataset(), policy.getTargetDataset())) {
             // No policy status sync needed for HCFS
@@ -814,17 +848,7 @@ public class PolicyResource extends AbstractResourceManager {
         }
         String remoteBeaconEndpoint = PolicyHelper.getRemoteBeaconEndpoint(policy);
         String remoteKnoxURL = PolicyHelper.getRemoteKnoxBaseURL(policy);
-
-        try {
-            //TODO Check is there any sync status job scheduled. removed them and update it.
-            BeaconWebClient remoteClient = new BeaconWebClient(remoteBeaconEndpoint,
-                    PolicyHelper.getRemoteKnoxBaseURL(policy));
-            remoteClient.syncPolicyStatus(policy.getName(), status, true);
-            checkAndDeleteSyncStatus(policy.getName());
-        } catch (Exception e) {
-            LOG.error("Exception while sync status for policy: [{}].", policy.getName(), e);
-            scheduleSyncStatus(policy, status, remoteBeaconEndpoint, remoteKnoxURL, e);
-        }
+        PolicyStatusSyncQueue.get().enqueue(remoteBeaconEndpoint, remoteKnoxURL, policy.getName(), status);
     }
 
     private void syncPolicyInRemote(ReplicationPolicy policy) throws BeaconException {
@@ -887,21 +911,6 @@ public class PolicyResource extends AbstractResourceManager {
         }
     }
 
-    private void scheduleSyncStatus(ReplicationPolicy policy, String status, String remoteBeaconEndpoint,
-                                    String remoteKnoxURL, Exception e)
-            throws BeaconException {
-        AdminJobService adminJobService = getAdminJobService();
-        if (adminJobService != null) {
-            SyncStatusJob syncStatusJob = new SyncStatusJob(remoteBeaconEndpoint,
-                    remoteKnoxURL, policy.getName(), status);
-            int frequency = config.getScheduler().getHousekeepingSyncFrequency();
-            int maxRetry = config.getScheduler().getHousekeepingSyncMaxRetry();
-            adminJobService.checkAndSchedule(syncStatusJob, frequency, maxRetry);
-        } else {
-            throw new BeaconException(e);
-        }
-    }
-
     private AdminJobService getAdminJobService() {
         AdminJobService adminJobService = null;
         try {
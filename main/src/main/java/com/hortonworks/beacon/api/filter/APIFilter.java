@@ -48,11 +48,14 @@ public class APIFilter implements Filter {
 
     private static final Logger LOG = LoggerFactory.getLogger(APIFilter.class);
 
+    // Upper bound on the number of request body bytes written to the log.
+    private static final int MAX_LOGGED_BODY_LENGTH = 4096;
+
     private static final Set<String> MASKING_KEYWORDS = new HashSet<String>() {
         {
             add("aws.access.key");
             add("aws.secret.key");
-            add("cloud.encryptionKey");
+            add("cloud.encryptionkey");
         }
     };
 
@@ -74,9 +77,11 @@ public class APIFilter implements Filter {
             String apiPath = request.getPathInfo();
             LOG.info("ThreadId: {}, HTTP method: {}, Query Parameters: {}, APIPath: {}",
                     Thread.currentThread().getName(), request.getMethod(), queryString, apiPath);
-            String body = multiReadRequest.getRequestBody();
-            if (StringUtils.isNotBlank(body)) {
-                logRequestBody(body);
+            if (LOG.isInfoEnabled() && multiReadRequest.getRequestBodyLength() > 0) {
+                String body = multiReadRequest.getRequestBody(MAX_LOGGED_BODY_LENGTH);
+                if (StringUtils.isNotBlank(body)) {
+                    logRequestBody(body, multiReadRequest.getRequestBodyLength() > MAX_LOGGED_BODY_LENGTH);
+                }
             }
 
             filterChain.doFilter(multiReadRequest, servletResponse);
@@ -88,23 +93,30 @@ public class APIFilter implements Filter {
         }
     }
 
-    private void logRequestBody(String body) throws IOException {
-        StringBuilder builder = new StringBuilder();
-        for (String line : body.split(System.lineSeparator())) {
-            String[] pair = line.split(BeaconConstants.EQUAL_SEPARATOR, 2);
-            if (pair.length != 2) {
-                throw new IOException("Failed to parse [key=value] pair: " + line);
-            }
-            for (String s : MASKING_KEYWORDS) {
-                if (pair[0].trim().toLowerCase().equals(s)) {
-                    pair[1] = BeaconConstants.MASK;
+    private void logRequestBody(String body, boolean truncated) throws IOException {
+        StringBuilder builder = new StringBuilder(body.length());
+        String[] lines = StringUtils.split(body, "\r\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            int index = line.indexOf(BeaconConstants.EQUAL_SEPARATOR);
+            if (index < 0) {
+                // The last line of a truncated body can legitimately be cut before the separator.
+                if (truncated && i == lines.length - 1) {
                     break;
                 }
+                throw new IOException("Failed to parse [key=value] pair: " + line);
+            }
+            String key = line.substring(0, index);
+            builder.append(key).append(BeaconConstants.EQUAL_SEPARATOR);
+            if (MASKING_KEYWORDS.contains(key.trim().toLowerCase())) {
+                builder.append(BeaconConstants.MASK);
+            } else {
+                builder.append(line, index + BeaconConstants.EQUAL_SEPARATOR.length(), line.length());
             }
-            builder.append(pair[0])
-                    .append(BeaconConstants.EQUAL_SEPARATOR)
-                    .append(pair[1])
-                    .append(BeaconConstants.SEMICOLON_SEPARATOR);
+            builder.append(BeaconConstants.SEMICOLON_SEPARATOR);
+        }
+        if (truncated) {
+            builder.append("...");
         }
         LOG.info("Request body: {}", builder.toString());
     }
@@ -31,9 +31,6 @@ import com.hortonworks.beacon.authorize.BeaconAuthorizerFactory;
 import com.hortonworks.beacon.authorize.BeaconResourceTypes;
 import com.hortonworks.beacon.config.PropertiesUtil;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.security.Groups;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -106,7 +103,6 @@ public class BeaconAuthorizationFilter implements Filter {
         HttpServletRequest request = (HttpServletRequest) req;
         HttpServletResponse response = (HttpServletResponse) res;
         String pathInfo = request.getRequestURI();
-        Configuration conf = new Configuration();
         if (!Strings.isNullOrEmpty(pathInfo) && pathInfo.startsWith(BASE_URL)) {
             if (isDebugEnabled) {
                 LOG.debug("{} is a valid REST API request!!!", pathInfo);
@@ -122,12 +118,9 @@ public class BeaconAuthorizationFilter implements Filter {
                     LOG.debug("HDFS_SITE_FILE: {}", hdfsSiteFile);
                     if (!StringUtils.isEmpty(userName)) {
                         if (!StringUtils.isEmpty(coreSiteFile) && !StringUtils.isEmpty(hdfsSiteFile)) {
-                            conf.addResource(new Path(coreSiteFile));
-                            conf.addResource(new Path(hdfsSiteFile));
-                            Groups groupObj=new Groups(conf);
                             List<String> userGroups=null;
                             try{
-                                userGroups=groupObj.getGroups(userName);
+                                userGroups=UserGroupsCache.get().getGroups(userName);
                             } catch(Exception ex) {
                                 LOG.error("No groups found for user: {}", userName, ex.getMessage());
                             }
@@ -56,6 +56,7 @@ import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSObject;
 import com.nimbusds.jose.JWSVerifier;
 import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 /**
  * This enforces knox sso authentication as part of the filter before processing the request.
@@ -73,12 +74,15 @@ public class BeaconKnoxSSOAuthenticationFilter implements Filter {
     public static final String JWT_ORIGINAL_URL_QUERY_PARAM_DEFAULT = "originalUrl";
     public static final String DEFAULT_BROWSER_USERAGENT = "beacon.sso.knox.default.browser-useragents";
     public static final String LOCAL_LOGIN_URL = "locallogin";
+    public static final String TOKEN_CACHE_SIZE = "beacon.sso.knox.token.cache.size";
+    public static final int TOKEN_CACHE_SIZE_DEFAULT = 1000;
     private String originalUrlQueryParam = "originalUrl";
     private String cookieName = "hadoop-jwt";
     private SSOAuthenticationProperties jwtProperties;
     private String authenticationProviderUrl = null;
     private RSAPublicKey publicKey = null;
     private JWSVerifier verifier = null;
+    private VerifiedTokenCache tokenCache = new VerifiedTokenCache(TOKEN_CACHE_SIZE_DEFAULT);
     private static final PropertiesUtil AUTHCONFIG=PropertiesUtil.getInstance();
 
     public BeaconKnoxSSOAuthenticationFilter() {
@@ -86,14 +90,21 @@ public class BeaconKnoxSSOAuthenticationFilter implements Filter {
             LOG.debug("Security Config:"+PropertiesUtil.getPropertiesMap().toString());
             jwtProperties = loadJwtProperties();
             setJwtProperties();
+            tokenCache = new VerifiedTokenCache(Integer.parseInt(
+                    AUTHCONFIG.getProperty(TOKEN_CACHE_SIZE, String.valueOf(TOKEN_CACHE_SIZE_DEFAULT))));
         } catch (Exception e) {
             LOG.error("Error while getting application properties.", e);
         }
     }
 
     public BeaconKnoxSSOAuthenticationFilter(SSOAuthenticationProperties jwtProperties) {
+        this(jwtProperties, TOKEN_CACHE_SIZE_DEFAULT);
+    }
+
+    public BeaconKnoxSSOAuthenticationFilter(SSOAuthenticationProperties jwtProperties, int tokenCacheSize) {
         this.jwtProperties = jwtProperties;
         setJwtProperties();
+        tokenCache = new VerifiedTokenCache(tokenCacheSize);
     }
 
     @Override
@@ -146,13 +157,11 @@ public class BeaconKnoxSSOAuthenticationFilter implements Filter {
                 String serializedJWT = getJWTFromCookie(httpRequest);
                 // if we get the hadoop-jwt token from the cookies then will process it further
                 if (serializedJWT != null) {
-                    SignedJWT jwtToken = null;
                     try {
-                        jwtToken = SignedJWT.parse(serializedJWT);
-                        boolean valid = validateToken(jwtToken);
+                        VerifiedTokenCache.VerifiedToken verifiedToken = verifyToken(serializedJWT);
                         //if the public key provide is correct and also token is not expired the process token
-                        if (valid) {
-                            final String userName = jwtToken.getJWTClaimsSet().getSubject();
+                        if (verifiedToken != null) {
+                            final String userName = verifiedToken.getSubject();
                             String requestURL = httpRequest.getRequestURL()+"?"+httpRequest.getQueryString();
                             LOG.debug("Knox SSO user: [{}]", userName);
                             LOG.debug("Request URI: {}", requestURL);
@@ -345,6 +354,31 @@ public class BeaconKnoxSSOAuthenticationFilter implements Filter {
         return (originalQueryString == null) ? "" : "?" + originalQueryString;
     }
 
+    /**
+     * Returns the verified token for the serialized JWT. The token cache is consulted before parsing the
+     * token and verifying its signature, and tokens that pass validation are added to it.
+     *
+     * @param serializedJWT the serialized token from the cookie
+     * @return the verified token, null if the token is not valid
+     */
+    public VerifiedTokenCache.VerifiedToken verifyToken(String serializedJWT) throws ParseException {
+        VerifiedTokenCache.VerifiedToken verifiedToken = tokenCache.get(serializedJWT);
+        if (verifiedToken == null) {
+            SignedJWT jwtToken = SignedJWT.parse(serializedJWT);
+            if (validateToken(jwtToken)) {
+                JWTClaimsSet claims = jwtToken.getJWTClaimsSet();
+                verifiedToken = tokenCache.put(serializedJWT, claims.getSubject(), claims.getExpirationTime());
+            }
+        } else {
+            LOG.debug("SSO token found in the verified token cache");
+        }
+        return verifiedToken;
+    }
+
+    public VerifiedTokenCache getTokenCache() {
+        return tokenCache;
+    }
+
     /**
      * This method provides a single method for validating the JWT for use in
      * request processing. It provides for the override of specific aspects of
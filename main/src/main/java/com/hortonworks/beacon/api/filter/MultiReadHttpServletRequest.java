@@ -22,6 +22,8 @@
 
 package com.hortonworks.beacon.api.filter;
 
+import org.apache.commons.io.IOUtils;
+
 import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
@@ -29,39 +31,72 @@ import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Wrapper for reading servlet request multiple times.
+ * The raw request bytes are captured once and every subsequent stream is served from the same buffer.
  */
 public class MultiReadHttpServletRequest extends HttpServletRequestWrapper {
-    private StringBuilder requestBody = new StringBuilder();
+    private final byte[] requestBody;
+    private final Charset charset;
 
     MultiReadHttpServletRequest(HttpServletRequest request) throws IOException {
         super(request);
-        BufferedReader bufferedReader = request.getReader();
-        String line;
-        while ((line = bufferedReader.readLine()) != null){
-            requestBody.append(line);
-            requestBody.append(System.lineSeparator());
-        }
+        requestBody = IOUtils.toByteArray(request.getInputStream());
+        String encoding = request.getCharacterEncoding();
+        charset = encoding != null && Charset.isSupported(encoding)
+                ? Charset.forName(encoding) : StandardCharsets.UTF_8;
     }
 
     @Override
     public ServletInputStream getInputStream() {
-        final ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(requestBody.toString().getBytes());
+        final ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(requestBody);
         return new ServletInputStream() {
-            public int read() throws IOException {
+            @Override
+            public int read() {
                 return byteArrayInputStream.read();
             }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return byteArrayInputStream.read(b, off, len);
+            }
+
+            @Override
+            public int available() {
+                return byteArrayInputStream.available();
+            }
         };
     }
 
     @Override
     public BufferedReader getReader() {
-        return new BufferedReader(new InputStreamReader(this.getInputStream()));
+        return new BufferedReader(new InputStreamReader(this.getInputStream(), charset));
+    }
+
+    int getRequestBodyLength() {
+        return requestBody.length;
     }
 
-    String getRequestBody() {
-        return requestBody.toString();
+    /**
+     * Returns the text of at most maxLength bytes of the request body. A character whose encoding does not fit
+     * completely within maxLength bytes is left out, so a multi-byte character is never split.
+     */
+    String getRequestBody(int maxLength) {
+        int length = Math.min(maxLength, requestBody.length);
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer text = CharBuffer.allocate((int) Math.ceil(length * (double) decoder.maxCharsPerByte()));
+        // Not the end of input, so an incomplete trailing sequence stays undecoded.
+        decoder.decode(ByteBuffer.wrap(requestBody, 0, length), text, length == requestBody.length);
+        text.flip();
+        return text.toString();
     }
 }
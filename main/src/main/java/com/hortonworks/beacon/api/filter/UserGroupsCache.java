@@ -0,0 +1,199 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+package com.hortonworks.beacon.api.filter;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.hortonworks.beacon.config.PropertiesUtil;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.CommonConfigurationKeys;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.security.GroupMappingServiceProvider;
+import org.apache.hadoop.security.ShellBasedUnixGroupsMapping;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process wide cache of user to groups mappings used for authorization.
+ * Groups are resolved with the group mapping configured in core-site.xml and kept for
+ * hadoop.security.groups.cache.secs. After that they are refreshed in the background on the next lookup, while the
+ * cached groups are still returned. Entries that are not looked up for ten times that interval expire. Users without
+ * groups are remembered for hadoop.security.groups.negative-cache.secs.
+ */
+public final class UserGroupsCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserGroupsCache.class);
+    private static final PropertiesUtil AUTHCONFIG = PropertiesUtil.getInstance();
+
+    // Entries that are not refreshed expire after this many cache intervals.
+    private static final int EXPIRY_FACTOR = 10;
+
+    private static UserGroupsCache instance;
+
+    private final GroupMappingServiceProvider groupMapping;
+    private final LoadingCache<String, List<String>> groupsCache;
+    private final Cache<String, Boolean> negativeCache;
+    private final ExecutorService refreshExecutor;
+
+    UserGroupsCache(GroupMappingServiceProvider groupMapping, long cacheMillis, long negativeCacheMillis,
+                    Ticker ticker) {
+        this.groupMapping = groupMapping;
+        this.refreshExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("beacon-groups-refresh-%d").setDaemon(true).build());
+        CacheBuilder<Object, Object> groupsCacheBuilder = CacheBuilder.newBuilder().ticker(ticker);
+        if (cacheMillis > 0) {
+            groupsCacheBuilder.refreshAfterWrite(cacheMillis, TimeUnit.MILLISECONDS)
+                    .expireAfterWrite(EXPIRY_FACTOR * cacheMillis, TimeUnit.MILLISECONDS);
+        } else {
+            groupsCacheBuilder.maximumSize(0);
+        }
+        this.groupsCache = groupsCacheBuilder.build(new GroupsLoader());
+        this.negativeCache = CacheBuilder.newBuilder()
+                .ticker(ticker)
+                .expireAfterWrite(negativeCacheMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Returns the process wide cache, creating it from core-site.xml and hdfs-site.xml on first use.
+     */
+    public static synchronized UserGroupsCache get() {
+        if (instance == null) {
+            Configuration conf = new Configuration();
+            String coreSiteFile = AUTHCONFIG.getResourceFileName("core-site.xml");
+            String hdfsSiteFile = AUTHCONFIG.getResourceFileName("hdfs-site.xml");
+            if (StringUtils.isNotEmpty(coreSiteFile)) {
+                conf.addResource(new Path(coreSiteFile));
+            }
+            if (StringUtils.isNotEmpty(hdfsSiteFile)) {
+                conf.addResource(new Path(hdfsSiteFile));
+            }
+            GroupMappingServiceProvider groupMapping = ReflectionUtils.newInstance(
+                    conf.getClass(CommonConfigurationKeys.HADOOP_SECURITY_GROUP_MAPPING,
+                            ShellBasedUnixGroupsMapping.class, GroupMappingServiceProvider.class), conf);
+            long cacheMillis = TimeUnit.SECONDS.toMillis(conf.getLong(
+                    CommonConfigurationKeys.HADOOP_SECURITY_GROUPS_CACHE_SECS,
+                    CommonConfigurationKeys.HADOOP_SECURITY_GROUPS_CACHE_SECS_DEFAULT));
+            long negativeCacheMillis = TimeUnit.SECONDS.toMillis(conf.getLong(
+                    CommonConfigurationKeys.HADOOP_SECURITY_GROUPS_NEGATIVE_CACHE_SECS,
+                    CommonConfigurationKeys.HADOOP_SECURITY_GROUPS_NEGATIVE_CACHE_SECS_DEFAULT));
+            LOG.info("Group mapping: {}, cache timeout: {} ms, negative cache timeout: {} ms",
+                    groupMapping.getClass().getName(), cacheMillis, negativeCacheMillis);
+            instance = new UserGroupsCache(groupMapping, cacheMillis, negativeCacheMillis, Ticker.systemTicker());
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the groups of the user, an empty list if the user has none.
+     *
+     * @param user user name
+     * @return groups of the user
+     * @throws IOException if the groups could not be resolved
+     */
+    public List<String> getGroups(String user) throws IOException {
+        if (negativeCache.getIfPresent(user) != null) {
+            return Collections.emptyList();
+        }
+        try {
+            return groupsCache.get(user);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof NoGroupsFoundException) {
+                negativeCache.put(user, Boolean.TRUE);
+                return Collections.emptyList();
+            }
+            throw new IOException("Unable to resolve groups for user " + user, e.getCause());
+        }
+    }
+
+    /**
+     * Drops all cached groups, so they are resolved again on the next lookup.
+     */
+    public void invalidateAll() {
+        groupsCache.invalidateAll();
+        negativeCache.invalidateAll();
+    }
+
+    void close() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private List<String> fetchGroups(String user) throws IOException {
+        List<String> groups = groupMapping.getGroups(user);
+        if (groups == null || groups.isEmpty()) {
+            throw new NoGroupsFoundException(user);
+        }
+        LOG.debug("Resolved groups {} for user {}", groups, user);
+        return Collections.unmodifiableList(groups);
+    }
+
+    /**
+     * Loads groups on a miss and refreshes them on the refresh thread, so lookups are not blocked by a refresh.
+     */
+    private final class GroupsLoader extends CacheLoader<String, List<String>> {
+        @Override
+        public List<String> load(String user) throws IOException {
+            return fetchGroups(user);
+        }
+
+        @Override
+        public ListenableFuture<List<String>> reload(final String user, List<String> oldGroups) {
+            ListenableFutureTask<List<String>> task = ListenableFutureTask.create(new Callable<List<String>>() {
+                @Override
+                public List<String> call() throws IOException {
+                    return fetchGroups(user);
+                }
+            });
+            refreshExecutor.execute(task);
+            return task;
+        }
+    }
+
+    /**
+     * Thrown by the loader when the group mapping returns no groups for a user.
+     */
+    private static final class NoGroupsFoundException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        NoGroupsFoundException(String user) {
+            super("No groups found for user " + user);
+        }
+    }
+}
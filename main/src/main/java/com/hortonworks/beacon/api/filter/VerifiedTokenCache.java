@@ -0,0 +1,139 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+package com.hortonworks.beacon.api.filter;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of JWT tokens whose signature has already been verified.
+ * Tokens are keyed by the SHA-256 digest of their serialized form and are never returned after they expire.
+ */
+public class VerifiedTokenCache {
+
+    // Tokens without an expiration time are re-verified after this interval.
+    private static final long MAX_ENTRY_LIFETIME = TimeUnit.MINUTES.toMillis(10);
+
+    private final int maxSize;
+    private final Map<String, VerifiedToken> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public VerifiedTokenCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.cache = new LinkedHashMap<String, VerifiedToken>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the verified token for the serialized JWT, null if it is not cached or has expired.
+     */
+    public VerifiedToken get(String serializedJWT) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        String key = DigestUtils.sha256Hex(serializedJWT);
+        VerifiedToken token;
+        synchronized (cache) {
+            token = cache.get(key);
+            if (token != null && token.isExpired(System.currentTimeMillis())) {
+                cache.remove(key);
+                token = null;
+            }
+        }
+        if (token == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return token;
+    }
+
+    /**
+     * Caches a token that passed signature and expiration validation.
+     */
+    public VerifiedToken put(String serializedJWT, String subject, Date expirationTime) {
+        long now = System.currentTimeMillis();
+        long expiry = now + MAX_ENTRY_LIFETIME;
+        if (expirationTime != null) {
+            expiry = Math.min(expiry, expirationTime.getTime());
+        }
+        VerifiedToken token = new VerifiedToken(subject, expiry);
+        if (maxSize > 0) {
+            String key = DigestUtils.sha256Hex(serializedJWT);
+            synchronized (cache) {
+                cache.put(key, token);
+            }
+        }
+        return token;
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Subject and expiry of a verified token.
+     */
+    public static final class VerifiedToken {
+        private final String subject;
+        private final long expiry;
+
+        VerifiedToken(String subject, long expiry) {
+            this.subject = subject;
+            this.expiry = expiry;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiry;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+package com.hortonworks.beacon.authorize.simple;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.hortonworks.beacon.authorize.BeaconResourceTypes;
+
+/**
+ * Permission map of one action and accessor type, compiled for lookup.
+ * Accessors are looked up by hash, exact resource values are kept in a hash set and all the
+ * wildcard resource values of an accessor and resource type are combined into one pattern.
+ */
+final class CompiledPermissionMap {
+
+    private static final String WILDCARD_ASTERISK = "*";
+
+    private final Map<String, Map<BeaconResourceTypes, ResourceMatcher>> permissions = new HashMap<>();
+    private final boolean ignoreCase;
+
+    CompiledPermissionMap(Map<String, Map<BeaconResourceTypes, List<String>>> permissionMap, boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+        if (permissionMap != null) {
+            for (Map.Entry<String, Map<BeaconResourceTypes, List<String>>> entry : permissionMap.entrySet()) {
+                Map<BeaconResourceTypes, ResourceMatcher> matchers = new EnumMap<>(BeaconResourceTypes.class);
+                for (Map.Entry<BeaconResourceTypes, List<String>> resources : entry.getValue().entrySet()) {
+                    if (resources.getValue() != null) {
+                        matchers.put(resources.getKey(), new ResourceMatcher(resources.getValue(), ignoreCase));
+                    }
+                }
+                permissions.put(entry.getKey(), matchers);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the accessor is allowed on the resource for every one of the resource types.
+     */
+    boolean isAllowed(String accessor, Set<BeaconResourceTypes> resourceTypes, String resource) {
+        Map<BeaconResourceTypes, ResourceMatcher> matchers = permissions.get(accessor);
+        if (matchers == null) {
+            return false;
+        }
+        boolean allValuesRequested = StringUtils.isEmpty(resource) || WILDCARD_ASTERISK.equals(resource);
+        String value = normalize(resource);
+        for (BeaconResourceTypes resourceType : resourceTypes) {
+            ResourceMatcher matcher = matchers.get(resourceType);
+            if (matcher == null || !matcher.isMatch(resource, value, allValuesRequested)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean isEmpty() {
+        return permissions.isEmpty();
+    }
+
+    private String normalize(String value) {
+        return ignoreCase && value != null ? value.toLowerCase(Locale.ENGLISH) : value;
+    }
+
+    /**
+     * Resource values of one accessor and resource type.
+     */
+    private static final class ResourceMatcher {
+        private final boolean matchAny;
+        private final Set<String> exactValues = new HashSet<>();
+        private final Pattern wildcardPattern;
+
+        private ResourceMatcher(List<String> policyValues, boolean ignoreCase) {
+            boolean any = false;
+            List<String> wildcards = new ArrayList<>();
+            for (String policyValue : policyValues) {
+                if (StringUtils.isEmpty(policyValue)) {
+                    continue;
+                }
+                if (StringUtils.containsOnly(policyValue, WILDCARD_ASTERISK)) {
+                    any = true;
+                } else if (policyValue.contains(WILDCARD_ASTERISK)) {
+                    wildcards.add(policyValue);
+                } else {
+                    exactValues.add(ignoreCase ? policyValue.toLowerCase(Locale.ENGLISH) : policyValue);
+                }
+            }
+            matchAny = any;
+            wildcardPattern = wildcards.isEmpty() ? null : compile(wildcards, ignoreCase);
+        }
+
+        private boolean isMatch(String resource, String normalizedResource, boolean allValuesRequested) {
+            if (allValuesRequested || matchAny) {
+                return matchAny;
+            }
+            return exactValues.contains(normalizedResource)
+                    || (wildcardPattern != null && wildcardPattern.matcher(resource).matches());
+        }
+
+        private static Pattern compile(List<String> wildcards, boolean ignoreCase) {
+            StringBuilder regex = new StringBuilder();
+            for (String wildcard : wildcards) {
+                if (regex.length() > 0) {
+                    regex.append('|');
+                }
+                regex.append("(?:");
+                StringBuilder literal = new StringBuilder();
+                for (char c : wildcard.toCharArray()) {
+                    if (c == '*' || c == '?') {
+                        if (literal.length() > 0) {
+                            regex.append(Pattern.quote(literal.toString()));
+                            literal.setLength(0);
+                        }
+                        regex.append(c == '*' ? ".*" : ".");
+                    } else {
+                        literal.append(c);
+                    }
+                }
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                }
+                regex.append(')');
+            }
+            int flags = Pattern.DOTALL;
+            if (ignoreCase) {
+                flags |= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+            }
+            return Pattern.compile(regex.toString(), flags);
+        }
+    }
+}
@@ -24,14 +24,15 @@ package com.hortonworks.beacon.authorize.simple;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.commons.collections.CollectionUtils;
-import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOCase;
-import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,6 +45,8 @@ import com.hortonworks.beacon.authorize.BeaconResourceTypes;
 import com.hortonworks.beacon.config.PropertiesUtil;
 
 /** This class contains simple implementation of BeaconAuthorizer class.
+ * The policies are compiled into per action lookup maps when loaded, and the decisions are cached
+ * per user, groups, action and resource.
  */
 
 public final class SimpleBeaconAuthorizer implements BeaconAuthorizer {
@@ -56,27 +59,30 @@ public final class SimpleBeaconAuthorizer implements BeaconAuthorizer {
         USER, GROUP
     }
 
-    private static final String WILDCARD_ASTERISK = "*";
-    private static final String WILDCARDS = "*?";
-
     private static final Logger LOG = LoggerFactory.getLogger(SimpleBeaconAuthorizer.class);
     private boolean isDebugEnabled = LOG.isDebugEnabled();
 
     private boolean optIgnoreCase = false;
 
-    private Map<String, Map<BeaconResourceTypes, List<String>>> userReadMap = null;
-    private Map<String, Map<BeaconResourceTypes, List<String>>> userWriteMap = null;
-    private Map<String, Map<BeaconResourceTypes, List<String>>> userUpdateMap = null;
-    private Map<String, Map<BeaconResourceTypes, List<String>>> userDeleteMap = null;
-    private Map<String, Map<BeaconResourceTypes, List<String>>> groupReadMap = null;
-    private Map<String, Map<BeaconResourceTypes, List<String>>> groupWriteMap = null;
-    private Map<String, Map<BeaconResourceTypes, List<String>>> groupUpdateMap = null;
-    private Map<String, Map<BeaconResourceTypes, List<String>>> groupDeleteMap = null;
+    private Map<BeaconActionTypes, CompiledPermissionMap> userPermissions = new EnumMap<>(BeaconActionTypes.class);
+    private Map<BeaconActionTypes, CompiledPermissionMap> groupPermissions = new EnumMap<>(BeaconActionTypes.class);
+    private Map<DecisionKey, Boolean> decisionCache;
 
     private static final PropertiesUtil AUTHCONFIG=PropertiesUtil.getInstance();
     private static final String BEACON_AUTH_POLICY_FILE="beacon.authorization.policy.file";
     private static final String BEACON_AUTH_POLICY_DEFAULT_FILE="policy-store.txt";
+    private static final String BEACON_AUTH_DECISION_CACHE_SIZE="beacon.authorization.decision.cache.size";
+    private static final int BEACON_AUTH_DECISION_CACHE_DEFAULT_SIZE = 1000;
+    private static final BeaconActionTypes[] POLICY_ACTIONS = {
+        BeaconActionTypes.READ, BeaconActionTypes.CREATE, BeaconActionTypes.UPDATE, BeaconActionTypes.DELETE
+    };
+
     public SimpleBeaconAuthorizer() {
+        this(BEACON_AUTH_DECISION_CACHE_DEFAULT_SIZE);
+    }
+
+    public SimpleBeaconAuthorizer(int decisionCacheSize) {
+        setDecisionCacheSize(decisionCacheSize);
     }
 
     @Override
@@ -88,6 +94,8 @@ public final class SimpleBeaconAuthorizer implements BeaconAuthorizer {
 
             PolicyParser parser = new PolicyParser();
             optIgnoreCase = Boolean.valueOf(AUTHCONFIG.getProperty("optIgnoreCase", "false"));
+            setDecisionCacheSize(Integer.parseInt(AUTHCONFIG.getProperty(BEACON_AUTH_DECISION_CACHE_SIZE,
+                    String.valueOf(BEACON_AUTH_DECISION_CACHE_DEFAULT_SIZE))));
 
             if (isDebugEnabled) {
                 LOG.debug("Read from PropertiesUtil --> optIgnoreCase :: {}", optIgnoreCase);
@@ -107,29 +115,15 @@ public final class SimpleBeaconAuthorizer implements BeaconAuthorizer {
             if (policies!=null) {
                 List<PolicyDef> policyDef = parser.parsePolicies(policies);
 
-                userReadMap = PolicyUtil.createPermissionMap(policyDef, BeaconActionTypes.READ,
-                        BeaconAccessorTypes.USER);
-                userWriteMap = PolicyUtil.createPermissionMap(policyDef, BeaconActionTypes.CREATE,
-                        BeaconAccessorTypes.USER);
-                userUpdateMap = PolicyUtil.createPermissionMap(policyDef, BeaconActionTypes.UPDATE,
-                        BeaconAccessorTypes.USER);
-                userDeleteMap = PolicyUtil.createPermissionMap(policyDef, BeaconActionTypes.DELETE,
-                        BeaconAccessorTypes.USER);
-
-                groupReadMap = PolicyUtil.createPermissionMap(policyDef, BeaconActionTypes.READ,
-                        BeaconAccessorTypes.GROUP);
-                groupWriteMap = PolicyUtil.createPermissionMap(policyDef, BeaconActionTypes.CREATE,
-                        BeaconAccessorTypes.GROUP);
-                groupUpdateMap = PolicyUtil.createPermissionMap(policyDef, BeaconActionTypes.UPDATE,
-                        BeaconAccessorTypes.GROUP);
-                groupDeleteMap = PolicyUtil.createPermissionMap(policyDef, BeaconActionTypes.DELETE,
-                        BeaconAccessorTypes.GROUP);
-
-                if (isDebugEnabled) {
-                    LOG.debug("\n\nUserReadMap :: {}\nGroupReadMap :: {}", userReadMap, groupReadMap);
-                    LOG.debug("\n\nUserWriteMap :: {}\nGroupWriteMap :: {}", userWriteMap, groupWriteMap);
-                    LOG.debug("\n\nUserUpdateMap :: {}\nGroupUpdateMap :: {}", userUpdateMap, groupUpdateMap);
-                    LOG.debug("\n\nUserDeleteMap :: {}\nGroupDeleteMap :: {}", userDeleteMap, groupDeleteMap);
+                for (BeaconActionTypes action : POLICY_ACTIONS) {
+                    Map<String, Map<BeaconResourceTypes, List<String>>> userMap =
+                            PolicyUtil.createPermissionMap(policyDef, action, BeaconAccessorTypes.USER);
+                    Map<String, Map<BeaconResourceTypes, List<String>>> groupMap =
+                            PolicyUtil.createPermissionMap(policyDef, action, BeaconAccessorTypes.GROUP);
+                    if (isDebugEnabled) {
+                        LOG.debug("\n\nUser{}Map :: {}\nGroup{}Map :: {}", action, userMap, action, groupMap);
+                    }
+                    setPermissions(userMap, groupMap, action);
                 }
             }
 
@@ -143,23 +137,17 @@ public final class SimpleBeaconAuthorizer implements BeaconAuthorizer {
 
     @Override
     public boolean isAccessAllowed(BeaconAccessRequest request) throws BeaconAuthorizationException {
-        LOG.info("==> SimpleBeaconAuthorizer isAccessAllowed");
         if (isDebugEnabled) {
-            LOG.debug("isAccessAllowd({})", request);
+            LOG.debug("==> SimpleBeaconAuthorizer isAccessAllowed({})", request);
         }
         String user = request.getUser();
         Set<String> groups = request.getUserGroups();
         BeaconActionTypes action = request.getAction();
         String resource = request.getResource();
         Set<BeaconResourceTypes> resourceTypes = request.getResourceTypes();
-        LOG.info("Checking for :: \nUser :: {}\nGroups :: {}\nAction :: {}\nResource :: {}", user, groups, action,
+        LOG.info("Checking for :: User :: {}, Groups :: {}, Action :: {}, Resource :: {}", user, groups, action,
                 resource);
-        if (isDebugEnabled) {
-            LOG.debug("Checking for :: \nUser :: {}\nGroups :: {}\nAction :: {}\nResource :: {}", user, groups,
-                action, resource);
-        }
 
-        boolean isAccessAllowed = false;
         boolean isUser = user != null;
         boolean isGroup = groups != null;
 
@@ -167,184 +155,100 @@ public final class SimpleBeaconAuthorizer implements BeaconAuthorizer {
             if (isDebugEnabled) {
                 LOG.debug("Please check the formation BeaconAccessRequest.");
             }
-            return isAccessAllowed;
-        } else {
+            return false;
+        }
+        if (action != BeaconActionTypes.READ && action != BeaconActionTypes.CREATE
+                && action != BeaconActionTypes.UPDATE && action != BeaconActionTypes.DELETE) {
             if (isDebugEnabled) {
-                LOG.debug("checkAccess for Operation :: {} on Resource {}:{}", action, resourceTypes, resource);
-            }
-            switch (action) {
-                case READ:
-                    isAccessAllowed = checkAccess(user, resourceTypes, resource, userReadMap);
-                    isAccessAllowed =
-                            isAccessAllowed || checkAccessForGroups(groups, resourceTypes, resource, groupReadMap);
-                    break;
-                case CREATE:
-                    isAccessAllowed = checkAccess(user, resourceTypes, resource, userWriteMap);
-                    isAccessAllowed =
-                            isAccessAllowed || checkAccessForGroups(groups, resourceTypes, resource, groupWriteMap);
-                    break;
-                case UPDATE:
-                    isAccessAllowed = checkAccess(user, resourceTypes, resource, userUpdateMap);
-                    isAccessAllowed =
-                            isAccessAllowed || checkAccessForGroups(groups, resourceTypes, resource, groupUpdateMap);
-                    break;
-                case DELETE:
-                    isAccessAllowed = checkAccess(user, resourceTypes, resource, userDeleteMap);
-                    isAccessAllowed =
-                            isAccessAllowed || checkAccessForGroups(groups, resourceTypes, resource, groupDeleteMap);
-                    break;
-                default:
-                    if (isDebugEnabled) {
-                        LOG.debug("Invalid Action {}\nRaising BeaconAuthorizationException!!!", action);
-                    }
-                    throw new BeaconAuthorizationException("Invalid action: '{}'", action);
+                LOG.debug("Invalid Action {}\nRaising BeaconAuthorizationException!!!", action);
             }
+            throw new BeaconAuthorizationException("Invalid action: '{}'", action);
         }
 
-        if (isDebugEnabled) {
-            LOG.debug("<== SimpleBeaconAuthorizer isAccessAllowed = {}", isAccessAllowed);
-        }
-
-        return isAccessAllowed;
-    }
-
-    private boolean checkAccess(String accessor, Set<BeaconResourceTypes> resourceTypes, String resource,
-        Map<String, Map<BeaconResourceTypes, List<String>>> map) {
-        if (isDebugEnabled) {
-            LOG.debug("==> SimpleBeaconAuthorizer checkAccess");
-            LOG.debug("Now checking access for accessor : {}\nResource Types : {}\nResource : {}\nMap : {}",
-                accessor, resourceTypes, resource, map);
-        }
-        boolean result = true;
-        Map<BeaconResourceTypes, List<String>> rescMap = map.get(accessor);
-        if (rescMap != null) {
-            for (BeaconResourceTypes resourceType : resourceTypes) {
-                List<String> accessList = rescMap.get(resourceType);
+        DecisionKey key = null;
+        if (decisionCache != null) {
+            key = new DecisionKey(user, groups, action, resourceTypes, resource);
+            Boolean decision;
+            synchronized (decisionCache) {
+                decision = decisionCache.get(key);
+            }
+            if (decision != null) {
                 if (isDebugEnabled) {
-                    LOG.debug("\nChecking for resource : {} in list : {}\n", resource, accessList);
-                }
-                if (accessList != null) {
-                    result = result && isMatch(resource, accessList);
-                } else {
-                    result = false;
+                    LOG.debug("<== SimpleBeaconAuthorizer isAccessAllowed = {} (cached)", decision);
                 }
-            }
-        } else {
-            result = false;
-            if (isDebugEnabled) {
-                LOG.debug("Key {} missing. Returning with result : {}", accessor, result);
+                return decision;
             }
         }
 
         if (isDebugEnabled) {
-            LOG.debug("Check for {} :: {}", accessor, result);
-            LOG.debug("<== SimpleBeaconAuthorizer checkAccess");
+            LOG.debug("checkAccess for Operation :: {} on Resource {}:{}", action, resourceTypes, resource);
         }
-        return result;
-    }
+        boolean isAccessAllowed = checkAccess(user, resourceTypes, resource, userPermissions.get(action))
+                || checkAccessForGroups(groups, resourceTypes, resource, groupPermissions.get(action));
 
-    private boolean checkAccessForGroups(Set<String> groups, Set<BeaconResourceTypes> resourceType, String resource,
-        Map<String, Map<BeaconResourceTypes, List<String>>> map) {
-        boolean isAccessAllowed = false;
-        if (isDebugEnabled) {
-            LOG.debug("==> SimpleBeaconAuthorizer checkAccessForGroups");
-        }
-
-        if (CollectionUtils.isNotEmpty(groups)) {
-            for (String group : groups) {
-                isAccessAllowed = checkAccess(group, resourceType, resource, map);
-                if (isAccessAllowed) {
-                    break;
-                }
+        if (key != null) {
+            synchronized (decisionCache) {
+                decisionCache.put(key, isAccessAllowed);
             }
         }
-
         if (isDebugEnabled) {
-            LOG.debug("<== SimpleBeaconAuthorizer checkAccessForGroups");
+            LOG.debug("<== SimpleBeaconAuthorizer isAccessAllowed = {}", isAccessAllowed);
         }
+
         return isAccessAllowed;
     }
 
-    private boolean resourceMatchHelper(List<String> policyResource) {
-        boolean isMatchAny = false;
+    private boolean checkAccess(String accessor, Set<BeaconResourceTypes> resourceTypes, String resource,
+        CompiledPermissionMap permissions) {
+        boolean result = accessor != null && permissions != null
+                && permissions.isAllowed(accessor, resourceTypes, resource);
         if (isDebugEnabled) {
-            LOG.debug("==> SimpleBeaconAuthorizer resourceMatchHelper");
+            LOG.debug("Check for {} on resource types {} and resource {} :: {}", accessor, resourceTypes, resource,
+                    result);
         }
+        return result;
+    }
 
-        if (policyResource != null) {
-            boolean isWildCardPresent = false;
-            for (String policyValue : policyResource) {
-                if (StringUtils.isEmpty(policyValue)) {
-                    continue;
-                }
-                if (StringUtils.containsOnly(policyValue, WILDCARD_ASTERISK)) {
-                    isMatchAny = true;
-                } else if (!isWildCardPresent && StringUtils.containsAny(policyValue, WILDCARDS)) {
-                    isWildCardPresent = true;
-                }
-            }
-        } else {
-            isMatchAny = false;
+    private boolean checkAccessForGroups(Set<String> groups, Set<BeaconResourceTypes> resourceType, String resource,
+        CompiledPermissionMap permissions) {
+        if (permissions == null || permissions.isEmpty() || CollectionUtils.isEmpty(groups)) {
+            return false;
         }
-
-        if (isDebugEnabled) {
-            LOG.debug("<== SimpleBeaconAuthorizer resourceMatchHelper");
+        for (String group : groups) {
+            if (checkAccess(group, resourceType, resource, permissions)) {
+                return true;
+            }
         }
-        return isMatchAny;
+        return false;
     }
 
-    private boolean isMatch(String resource, List<String> policyValues) {
-        if (isDebugEnabled) {
-            LOG.debug("==> SimpleBeaconAuthorizer isMatch");
-        }
-        boolean isMatchAny = resourceMatchHelper(policyValues);
-        boolean isMatch = false;
-        boolean allValuesRequested = isAllValuesRequested(resource);
+    private void setPermissions(Map<String, Map<BeaconResourceTypes, List<String>>> userMap,
+                                Map<String, Map<BeaconResourceTypes, List<String>>> groupMap,
+                                BeaconActionTypes action) {
+        userPermissions.put(action, new CompiledPermissionMap(userMap, optIgnoreCase));
+        groupPermissions.put(action, new CompiledPermissionMap(groupMap, optIgnoreCase));
+        clearDecisionCache();
+    }
 
-        if (allValuesRequested || isMatchAny) {
-            isMatch = isMatchAny;
-        } else {
-            for (String policyValue : policyValues) {
-                if (policyValue.contains("*")) {
-                    isMatch =
-                        optIgnoreCase ? FilenameUtils.wildcardMatch(resource, policyValue, IOCase.INSENSITIVE)
-                            : FilenameUtils.wildcardMatch(resource, policyValue, IOCase.SENSITIVE);
-                } else {
-                    isMatch =
-                        optIgnoreCase ? StringUtils.equalsIgnoreCase(resource, policyValue) : StringUtils.equals(
-                            resource, policyValue);
-                }
-                if (isMatch) {
-                    break;
+    private void setDecisionCacheSize(final int decisionCacheSize) {
+        if (decisionCacheSize > 0) {
+            decisionCache = new LinkedHashMap<DecisionKey, Boolean>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<DecisionKey, Boolean> eldest) {
+                    return size() > decisionCacheSize;
                 }
-            }
+            };
+        } else {
+            decisionCache = null;
         }
+    }
 
-        if (!isMatch) {
-            if (isDebugEnabled) {
-                StringBuilder sb = new StringBuilder();
-                sb.append("[");
-                for (String policyValue : policyValues) {
-                    sb.append(policyValue);
-                    sb.append(" ");
-                }
-                sb.append("]");
-
-                LOG.debug("BeaconDefaultResourceMatcher.isMatch returns FALSE, (resource={}, policyValues={})",
-                        resource, sb.toString());
+    private void clearDecisionCache() {
+        if (decisionCache != null) {
+            synchronized (decisionCache) {
+                decisionCache.clear();
             }
-
         }
-
-        if (isDebugEnabled) {
-            LOG.debug("<== SimpleBeaconAuthorizer isMatch({}): {}", resource, isMatch);
-        }
-
-        return isMatch;
-    }
-
-    private boolean isAllValuesRequested(String resource) {
-        return StringUtils.isEmpty(resource) || WILDCARD_ASTERISK.equals(resource);
     }
 
     @Override
@@ -352,14 +256,9 @@ public final class SimpleBeaconAuthorizer implements BeaconAuthorizer {
         if (isDebugEnabled) {
             LOG.debug("==> +SimpleBeaconAuthorizer cleanUp");
         }
-        userReadMap = null;
-        userWriteMap = null;
-        userUpdateMap = null;
-        userDeleteMap = null;
-        groupReadMap = null;
-        groupWriteMap = null;
-        groupUpdateMap = null;
-        groupDeleteMap = null;
+        userPermissions.clear();
+        groupPermissions.clear();
+        clearDecisionCache();
         if (isDebugEnabled) {
             LOG.debug("<== +SimpleBeaconAuthorizer cleanUp");
         }
@@ -374,24 +273,10 @@ public final class SimpleBeaconAuthorizer implements BeaconAuthorizer {
 
         switch (actionTypes) {
             case READ:
-                this.userReadMap = userMap;
-                this.groupReadMap = groupMap;
-                break;
-
             case CREATE:
-
-                this.userWriteMap = userMap;
-                this.groupWriteMap = groupMap;
-                break;
             case UPDATE:
-
-                this.userUpdateMap = userMap;
-                this.groupUpdateMap = groupMap;
-                break;
             case DELETE:
-
-                this.userDeleteMap = userMap;
-                this.groupDeleteMap = groupMap;
+                setPermissions(userMap, groupMap, actionTypes);
                 break;
 
             default:
@@ -402,6 +287,53 @@ public final class SimpleBeaconAuthorizer implements BeaconAuthorizer {
         }
     }
 
-}
+    /**
+     * Key of a cached authorization decision.
+     */
+    private static final class DecisionKey {
+        private final String user;
+        private final Set<String> groups;
+        private final BeaconActionTypes action;
+        private final Set<BeaconResourceTypes> resourceTypes;
+        private final String resource;
+        private final int hashCode;
+
+        private DecisionKey(String user, Set<String> groups, BeaconActionTypes action,
+                            Set<BeaconResourceTypes> resourceTypes, String resource) {
+            this.user = user;
+            this.groups = groups == null ? Collections.<String>emptySet() : new TreeSet<>(groups);
+            this.action = action;
+            this.resourceTypes = resourceTypes == null
+                    ? Collections.<BeaconResourceTypes>emptySet() : new TreeSet<>(resourceTypes);
+            this.resource = resource;
+            int result = user == null ? 0 : user.hashCode();
+            result = 31 * result + this.groups.hashCode();
+            result = 31 * result + action.hashCode();
+            result = 31 * result + this.resourceTypes.hashCode();
+            result = 31 * result + resource.hashCode();
+            this.hashCode = result;
+        }
 
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            DecisionKey that = (DecisionKey) o;
+            return hashCode == that.hashCode
+                    && action == that.action
+                    && resource.equals(that.resource)
+                    && (user == null ? that.user == null : user.equals(that.user))
+                    && groups.equals(that.groups)
+                    && resourceTypes.equals(that.resourceTypes);
+        }
 
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -30,6 +30,7 @@ import com.hortonworks.beacon.events.BeaconEvents;
 import com.hortonworks.beacon.events.EventEntityType;
 import com.hortonworks.beacon.events.Events;
 import com.hortonworks.beacon.exceptions.BeaconException;
+import com.hortonworks.beacon.replication.fs.SnapshotEvictionService;
 import com.hortonworks.beacon.scheduler.quartz.BeaconQuartzScheduler;
 import com.hortonworks.beacon.service.BeaconStoreService;
 import com.hortonworks.beacon.service.ServiceManager;
@@ -71,6 +72,7 @@ public final class Beacon {
     private static final List<String> DEFAULT_SERVICES = new ArrayList<String>() {
         {
             add(BeaconStoreService.class.getName());
+            add(SnapshotEvictionService.class.getName());
         }
     };
 
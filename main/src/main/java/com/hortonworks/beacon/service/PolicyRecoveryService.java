@@ -28,7 +28,9 @@ import com.hortonworks.beacon.config.BeaconConfig;
 import com.hortonworks.beacon.entity.util.ClusterHelper;
 import com.hortonworks.beacon.entity.util.PolicyDao;
 import com.hortonworks.beacon.exceptions.BeaconException;
+import com.hortonworks.beacon.plugin.service.PluginManagerService;
 import com.hortonworks.beacon.scheduler.HousekeepingScheduler;
+import com.hortonworks.beacon.scheduler.internal.AdminJobService;
 import com.hortonworks.beacon.scheduler.quartz.BeaconQuartzScheduler;
 import com.hortonworks.beacon.store.bean.PolicyBean;
 import com.hortonworks.beacon.store.executors.PolicyExecutor;
@@ -36,6 +38,7 @@ import com.hortonworks.beacon.store.executors.PolicyExecutor.PolicyQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
@@ -43,7 +46,7 @@ import java.util.concurrent.TimeUnit;
 /**
  * Check submitted polices and schedule them into scheduler.
  */
-public class PolicyRecoveryService implements Callable<Void>, BeaconService {
+public class PolicyRecoveryService implements Callable<Void>, DependentService {
 
     private static final Logger LOG = LoggerFactory.getLogger(PolicyRecoveryService.class);
 
@@ -58,6 +61,13 @@ public class PolicyRecoveryService implements Callable<Void>, BeaconService {
         HousekeepingScheduler.schedule(this, frequency, 0, TimeUnit.MINUTES);
     }
 
+    @Override
+    public List<String> getDependencies() {
+        // Scheduling a policy builds its plugin jobs, and its jobs report their completion through the admin jobs.
+        return Arrays.asList(BeaconQuartzScheduler.class.getName(), AdminJobService.class.getName(),
+                PluginManagerService.class.getName());
+    }
+
     @Override
     public void destroy() {
         scheduler = null;
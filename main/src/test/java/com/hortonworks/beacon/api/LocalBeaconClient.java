@@ -38,6 +38,8 @@ import com.hortonworks.beacon.client.resource.UserPrivilegesResult;
 import com.hortonworks.beacon.client.result.DBListResult;
 import com.hortonworks.beacon.client.result.FileListResult;
 
+import java.util.Map;
+
 /**
  * Local beacon client that calls resource's methods in the same JVM.
  */
@@ -130,6 +132,11 @@ public class LocalBeaconClient implements BeaconClient {
 
     }
 
+    @Override
+    public void syncPolicyStatus(Map<String, String> policyStatuses) throws BeaconClientException {
+
+    }
+
     @Override
     public ServerStatusResult getServiceStatus() throws BeaconClientException {
         return null;
@@ -0,0 +1,102 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+package com.hortonworks.beacon.api.filter;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Date;
+
+/**
+ * Tests verified token caching of BeaconKnoxSSOAuthenticationFilter.
+ */
+public class BeaconKnoxSSOAuthenticationFilterTest {
+
+    private KeyPair keyPair;
+    private SSOAuthenticationProperties properties;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+        properties = new SSOAuthenticationProperties();
+        properties.setAuthenticationProviderUrl("https://localhost:8443/gateway/knoxsso/api/v1/websso");
+        properties.setPublicKey((RSAPublicKey) keyPair.getPublic());
+    }
+
+    @Test
+    public void testVerifiedTokenIsCached() throws Exception {
+        BeaconKnoxSSOAuthenticationFilter filter = new BeaconKnoxSSOAuthenticationFilter(properties);
+        String token = createToken("beacon-user", new Date(System.currentTimeMillis() + 60 * 60 * 1000));
+
+        Assert.assertEquals(filter.verifyToken(token).getSubject(), "beacon-user");
+        Assert.assertEquals(filter.verifyToken(token).getSubject(), "beacon-user");
+        Assert.assertEquals(filter.getTokenCache().getMissCount(), 1);
+        Assert.assertEquals(filter.getTokenCache().getHitCount(), 1);
+    }
+
+    @Test
+    public void testInvalidTokenIsNotCached() throws Exception {
+        BeaconKnoxSSOAuthenticationFilter filter = new BeaconKnoxSSOAuthenticationFilter(properties);
+        String expired = createToken("beacon-user", new Date(System.currentTimeMillis() - 1000));
+
+        Assert.assertNull(filter.verifyToken(expired));
+        Assert.assertNull(filter.verifyToken(expired));
+        Assert.assertEquals(filter.getTokenCache().size(), 0);
+        Assert.assertEquals(filter.getTokenCache().getMissCount(), 2);
+    }
+
+    @Test
+    public void testCacheExpiryAndBound() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(2);
+        cache.put("token1", "user1", new Date(System.currentTimeMillis() - 1));
+        Assert.assertNull(cache.get("token1"));
+
+        cache.put("token2", "user2", null);
+        cache.put("token3", "user3", null);
+        cache.put("token4", "user4", null);
+        Assert.assertEquals(cache.size(), 2);
+        Assert.assertNull(cache.get("token2"));
+        Assert.assertEquals(cache.get("token4").getSubject(), "user4");
+    }
+
+    private String createToken(String subject, Date expirationTime) throws Exception {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject(subject)
+                .issuer("KNOXSSO")
+                .expirationTime(expirationTime)
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.RS256), claims);
+        jwt.sign(new RSASSASigner(keyPair.getPrivate()));
+        return jwt.serialize();
+    }
+}
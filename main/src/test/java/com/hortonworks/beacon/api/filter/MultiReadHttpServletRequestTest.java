@@ -0,0 +1,107 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.api.filter;
+
+import org.apache.commons.io.IOUtils;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test for capturing the request body once and capping the logged part of it.
+ */
+public class MultiReadHttpServletRequestTest {
+
+    @Test
+    public void testBodyReadMultipleTimes() throws Exception {
+        String body = "name=policy;type=FS";
+        MultiReadHttpServletRequest request = new MultiReadHttpServletRequest(createRequest(body, null));
+
+        Assert.assertEquals(IOUtils.toString(request.getInputStream(), StandardCharsets.UTF_8), body);
+        Assert.assertEquals(IOUtils.toString(request.getReader()), body);
+        Assert.assertEquals(request.getRequestBodyLength(), body.length());
+        Assert.assertEquals(request.getRequestBody(4096), body);
+    }
+
+    @Test
+    public void testCapDoesNotSplitCharacter() throws Exception {
+        // The accented character takes two bytes in UTF-8, bytes 5 and 6 of the body.
+        String body = "name=\u00e9t\u00e9";
+        MultiReadHttpServletRequest request = new MultiReadHttpServletRequest(createRequest(body, "UTF-8"));
+
+        Assert.assertEquals(request.getRequestBodyLength(), 9);
+        Assert.assertEquals(request.getRequestBody(5), "name=");
+        Assert.assertEquals(request.getRequestBody(6), "name=");
+        Assert.assertEquals(request.getRequestBody(7), "name=\u00e9");
+        Assert.assertEquals(request.getRequestBody(9), body);
+        Assert.assertEquals(request.getRequestBody(100), body);
+    }
+
+    @Test
+    public void testFilterPassesFullBodyBeyondLogCap() throws Exception {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; builder.length() < 10000; i++) {
+            builder.append("key").append(i).append("=\u00e9value\n");
+        }
+        final String body = builder.toString();
+        final List<String> received = new ArrayList<>();
+        FilterChain chain = new FilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+                received.add(IOUtils.toString(request.getReader()));
+                received.add(IOUtils.toString(request.getReader()));
+            }
+        };
+
+        new APIFilter().doFilter(createRequest(body, "UTF-8"), Mockito.mock(HttpServletResponse.class), chain);
+        Assert.assertEquals(received.size(), 2);
+        Assert.assertEquals(received.get(0), body);
+        Assert.assertEquals(received.get(1), body);
+    }
+
+    private static HttpServletRequest createRequest(String body, String encoding) throws IOException {
+        final ByteArrayInputStream input = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getCharacterEncoding()).thenReturn(encoding);
+        Mockito.when(request.getMethod()).thenReturn("POST");
+        Mockito.when(request.getInputStream()).thenReturn(new ServletInputStream() {
+            @Override
+            public int read() {
+                return input.read();
+            }
+        });
+        return request;
+    }
+}
@@ -0,0 +1,235 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+package com.hortonworks.beacon.api.filter;
+
+import com.google.common.base.Ticker;
+import org.apache.hadoop.security.GroupMappingServiceProvider;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests caching of user groups by UserGroupsCache.
+ */
+public class UserGroupsCacheTest {
+
+    private static final long CACHE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long NEGATIVE_CACHE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private CountingGroupsMapping groupsMapping;
+    private FakeTicker ticker;
+    private UserGroupsCache groupsCache;
+
+    @BeforeMethod
+    public void setup() {
+        groupsMapping = new CountingGroupsMapping();
+        ticker = new FakeTicker();
+        groupsCache = new UserGroupsCache(groupsMapping, CACHE_MILLIS, NEGATIVE_CACHE_MILLIS, ticker);
+    }
+
+    @AfterMethod
+    public void cleanup() {
+        groupsCache.close();
+    }
+
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        final int users = 20;
+        for (int i = 0; i < users; i++) {
+            groupsMapping.setGroups("user" + i, Arrays.asList("group" + i, "users"));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        int resolved = 0;
+                        for (int i = 0; i < 1000; i++) {
+                            int user = i % users;
+                            List<String> groups = groupsCache.getGroups("user" + user);
+                            Assert.assertEquals(groups, Arrays.asList("group" + user, "users"));
+                            resolved++;
+                        }
+                        return resolved;
+                    }
+                }));
+            }
+            for (Future<Integer> result : results) {
+                Assert.assertEquals(result.get().intValue(), 1000);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(groupsMapping.getLookups(), users);
+    }
+
+    @Test
+    public void testNegativeCache() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(groupsCache.getGroups("nobody").isEmpty());
+        }
+        Assert.assertEquals(groupsMapping.getLookups(), 1);
+
+        ticker.advance(NEGATIVE_CACHE_MILLIS + 1);
+        Assert.assertTrue(groupsCache.getGroups("nobody").isEmpty());
+        Assert.assertEquals(groupsMapping.getLookups(), 2);
+    }
+
+    @Test
+    public void testBackgroundRefresh() throws Exception {
+        groupsMapping.setGroups("alice", Collections.singletonList("old"));
+        Assert.assertEquals(groupsCache.getGroups("alice"), Collections.singletonList("old"));
+
+        // The refresh blocks in the group mapping, while lookups keep returning the cached groups.
+        CountDownLatch refreshGate = new CountDownLatch(1);
+        groupsMapping.setGate(refreshGate);
+        groupsMapping.setGroups("alice", Collections.singletonList("new"));
+        ticker.advance(CACHE_MILLIS + 1);
+        Assert.assertEquals(groupsCache.getGroups("alice"), Collections.singletonList("old"));
+        Assert.assertEquals(groupsCache.getGroups("alice"), Collections.singletonList("old"));
+
+        refreshGate.countDown();
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!groupsCache.getGroups("alice").equals(Collections.singletonList("new"))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(groupsCache.getGroups("alice"), Collections.singletonList("new"));
+        Assert.assertEquals(groupsMapping.getLookups(), 2);
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        groupsMapping.setGroups("bob", Collections.singletonList("staff"));
+        groupsCache.getGroups("bob");
+        ticker.advance(10 * CACHE_MILLIS + 1);
+        groupsMapping.setGroups("bob", Collections.singletonList("admin"));
+        Assert.assertEquals(groupsCache.getGroups("bob"), Collections.singletonList("admin"));
+        Assert.assertEquals(groupsMapping.getLookups(), 2);
+    }
+
+    @Test
+    public void testLookupFailureIsNotCached() throws Exception {
+        groupsMapping.setFailing(true);
+        for (int i = 0; i < 2; i++) {
+            try {
+                groupsCache.getGroups("carol");
+                Assert.fail("Lookup should have failed");
+            } catch (IOException e) {
+                // expected
+            }
+        }
+        Assert.assertEquals(groupsMapping.getLookups(), 2);
+
+        groupsMapping.setFailing(false);
+        groupsMapping.setGroups("carol", Collections.singletonList("users"));
+        Assert.assertEquals(groupsCache.getGroups("carol"), Collections.singletonList("users"));
+    }
+
+    /**
+     * Group mapping that counts its lookups.
+     */
+    private static class CountingGroupsMapping implements GroupMappingServiceProvider {
+        private final Map<String, List<String>> groups = new ConcurrentHashMap<>();
+        private final AtomicInteger lookups = new AtomicInteger();
+        private volatile CountDownLatch gate;
+        private volatile boolean failing;
+
+        void setGroups(String user, List<String> userGroups) {
+            groups.put(user, userGroups);
+        }
+
+        void setGate(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        void setFailing(boolean failing) {
+            this.failing = failing;
+        }
+
+        int getLookups() {
+            return lookups.get();
+        }
+
+        @Override
+        public List<String> getGroups(String user) throws IOException {
+            lookups.incrementAndGet();
+            CountDownLatch currentGate = gate;
+            if (currentGate != null) {
+                try {
+                    currentGate.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            if (failing) {
+                throw new IOException("Group lookup failed for " + user);
+            }
+            List<String> userGroups = groups.get(user);
+            return userGroups == null ? new ArrayList<String>() : new ArrayList<>(userGroups);
+        }
+
+        @Override
+        public void cacheGroupsRefresh() throws IOException {
+        }
+
+        @Override
+        public void cacheGroupsAdd(List<String> userGroups) throws IOException {
+        }
+    }
+
+    /**
+     * Ticker moved forward by the tests.
+     */
+    private static class FakeTicker extends Ticker {
+        private final AtomicLong nanos = new AtomicLong();
+
+        void advance(long millis) {
+            nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+package com.hortonworks.beacon.authorize.simple;
+
+import com.hortonworks.beacon.authorize.BeaconAccessRequest;
+import com.hortonworks.beacon.authorize.BeaconActionTypes;
+import com.hortonworks.beacon.authorize.BeaconResourceTypes;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tests compiled permission lookup of SimpleBeaconAuthorizer.
+ */
+public class SimpleBeaconAuthorizerTest {
+
+    private static final Set<BeaconResourceTypes> POLICY = EnumSet.of(BeaconResourceTypes.POLICY);
+
+    @Test
+    public void testUserAndGroupAccess() throws Exception {
+        SimpleBeaconAuthorizer authorizer = createAuthorizer(1000);
+
+        Assert.assertTrue(authorizer.isAccessAllowed(request("alice", null, "policy1")));
+        Assert.assertTrue(authorizer.isAccessAllowed(request("alice", null, "hdfs-policy")));
+        Assert.assertFalse(authorizer.isAccessAllowed(request("alice", null, "policy2")));
+        Assert.assertTrue(authorizer.isAccessAllowed(request("bob", groups("dev", "ops"), "policy2")));
+        Assert.assertTrue(authorizer.isAccessAllowed(request("bob", groups("dev", "ops"), "*")));
+        Assert.assertFalse(authorizer.isAccessAllowed(request("bob", groups("dev"), "policy2")));
+        Assert.assertFalse(authorizer.isAccessAllowed(request("alice", null, "*")));
+        Assert.assertFalse(authorizer.isAccessAllowed(
+                new BeaconAccessRequest(EnumSet.of(BeaconResourceTypes.POLICY, BeaconResourceTypes.CLUSTER),
+                        "policy1", BeaconActionTypes.READ, "alice", null, null)));
+    }
+
+    @Test
+    public void testWildcardMatching() throws Exception {
+        SimpleBeaconAuthorizer authorizer = createAuthorizer(0);
+
+        Assert.assertTrue(authorizer.isAccessAllowed(request("carol", null, "db.1")));
+        Assert.assertFalse(authorizer.isAccessAllowed(request("carol", null, "db.12")));
+        Assert.assertFalse(authorizer.isAccessAllowed(request("carol", null, "dbx1")));
+        Assert.assertTrue(authorizer.isAccessAllowed(request("carol", null, "db.1-archive")));
+    }
+
+    @Test
+    public void testDecisionCacheIsResetOnPolicyChange() throws Exception {
+        SimpleBeaconAuthorizer authorizer = createAuthorizer(1000);
+        Assert.assertTrue(authorizer.isAccessAllowed(request("alice", null, "policy1")));
+
+        authorizer.setResourcesForTesting(Collections.<String, Map<BeaconResourceTypes, List<String>>>emptyMap(),
+                Collections.<String, Map<BeaconResourceTypes, List<String>>>emptyMap(), BeaconActionTypes.READ);
+        Assert.assertFalse(authorizer.isAccessAllowed(request("alice", null, "policy1")));
+    }
+
+    private SimpleBeaconAuthorizer createAuthorizer(int decisionCacheSize) {
+        Map<String, Map<BeaconResourceTypes, List<String>>> userMap = new HashMap<>();
+        userMap.put("alice", resources("policy1", "hdfs-*"));
+        userMap.put("carol", resources("db.?", "db.?-*"));
+        Map<String, Map<BeaconResourceTypes, List<String>>> groupMap = new HashMap<>();
+        groupMap.put("ops", resources("*"));
+        SimpleBeaconAuthorizer authorizer = new SimpleBeaconAuthorizer(decisionCacheSize);
+        authorizer.setResourcesForTesting(userMap, groupMap, BeaconActionTypes.READ);
+        return authorizer;
+    }
+
+    private static Map<BeaconResourceTypes, List<String>> resources(String... values) {
+        Map<BeaconResourceTypes, List<String>> resources = new EnumMap<>(BeaconResourceTypes.class);
+        resources.put(BeaconResourceTypes.POLICY, Arrays.asList(values));
+        return resources;
+    }
+
+    private static Set<String> groups(String... groups) {
+        return new HashSet<>(Arrays.asList(groups));
+    }
+
+    private static BeaconAccessRequest request(String user, Set<String> groups, String resource) {
+        return new BeaconAccessRequest(POLICY, resource, BeaconActionTypes.READ, user, groups, null);
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+package com.hortonworks.beacon.client;
+
+import com.hortonworks.beacon.BeaconClientFactory;
+import org.mortbay.jetty.Request;
+import org.mortbay.jetty.Server;
+import org.mortbay.jetty.bio.SocketConnector;
+import org.mortbay.jetty.handler.AbstractHandler;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test of the shared Beacon client against an in-process Jetty stub of a peer Beacon server.
+ */
+public class BeaconWebClientLoadTest {
+
+    private static final int MAX_CONNECTIONS = 4;
+    private static final int THREADS = 16;
+    private static final int REQUESTS_PER_THREAD = 50;
+
+    private Server server;
+    private String endpoint;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+    private final Set<Integer> clientPorts = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+    @BeforeClass
+    public void setup() throws Exception {
+        server = new Server();
+        SocketConnector connector = new SocketConnector();
+        connector.setHost("localhost");
+        connector.setPort(0);
+        server.addConnector(connector);
+        server.setHandler(new AbstractHandler() {
+            @Override
+            public void handle(String target, HttpServletRequest request, HttpServletResponse response,
+                               int dispatch) throws IOException {
+                int current = active.incrementAndGet();
+                try {
+                    int max = maxActive.get();
+                    while (current > max && !maxActive.compareAndSet(max, current)) {
+                        max = maxActive.get();
+                    }
+                    clientPorts.add(request.getRemotePort());
+                    Thread.sleep(5);
+                    response.setStatus(HttpServletResponse.SC_OK);
+                    response.setContentType("application/json");
+                    response.getWriter().write("{\"status\":\"SUCCEEDED\",\"message\":\"ok\"}");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                } finally {
+                    active.decrementAndGet();
+                    ((Request) request).setHandled(true);
+                }
+            }
+        });
+        server.start();
+        endpoint = "http://localhost:" + connector.getLocalPort();
+    }
+
+    @AfterClass
+    public void tearDown() throws Exception {
+        BeaconClientFactory.clearClients();
+        server.stop();
+    }
+
+    @Test
+    public void testFactorySharesClientPerEndpoint() throws Exception {
+        BeaconClient client = BeaconClientFactory.getBeaconClient(endpoint, null);
+        Assert.assertSame(BeaconClientFactory.getBeaconClient(endpoint + "/", null), client);
+        Assert.assertNotSame(BeaconClientFactory.getBeaconClient(endpoint, "https://knox:8443/gateway"), client);
+    }
+
+    @Test
+    public void testConcurrentSyncIsBoundedAndReusesConnections() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(BeaconWebClient.MAX_CONNECTIONS, String.valueOf(MAX_CONNECTIONS));
+        properties.setProperty(BeaconWebClient.CONNECTION_WAIT_TIMEOUT, "60000");
+        final BeaconWebClient client = new BeaconWebClient(endpoint, null, properties);
+        clientPorts.clear();
+        maxActive.set(0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                final int thread = i;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int j = 0; j < REQUESTS_PER_THREAD; j++) {
+                            client.syncPolicyStatus("policy-" + thread + "-" + j, "RUNNING", true);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        BeaconClientMetrics metrics = client.getMetrics();
+        Assert.assertEquals(metrics.getRequests(), THREADS * REQUESTS_PER_THREAD);
+        Assert.assertEquals(metrics.getFailures(), 0);
+        Assert.assertEquals(metrics.getWaitTimeouts(), 0);
+        Assert.assertEquals(metrics.getInFlight(), 0);
+        Assert.assertTrue(maxActive.get() <= MAX_CONNECTIONS, "Concurrent requests: " + maxActive.get());
+        Assert.assertTrue(clientPorts.size() < THREADS * REQUESTS_PER_THREAD / 10,
+                "Connections opened: " + clientPorts.size());
+    }
+}
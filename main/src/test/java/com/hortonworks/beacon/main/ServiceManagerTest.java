@@ -24,6 +24,8 @@ package com.hortonworks.beacon.main;
 
 
 import com.hortonworks.beacon.plugin.service.PluginManagerService;
+import com.hortonworks.beacon.scheduler.quartz.BeaconQuartzScheduler;
+import com.hortonworks.beacon.service.PolicyRecoveryService;
 import com.hortonworks.beacon.service.ServiceManager;
 import com.hortonworks.beacon.service.Services;
 import junit.framework.Assert;
@@ -58,4 +60,11 @@ public class ServiceManagerTest {
         }
     }
 
+    @Test
+    public void testPolicyRecoveryDependencies() {
+        // Scheduling the recovered policies builds their plugin jobs, the plugins have to be loaded first.
+        List<String> dependencies = new PolicyRecoveryService().getDependencies();
+        Assert.assertTrue(dependencies.contains(PluginManagerService.class.getName()));
+        Assert.assertTrue(dependencies.contains(BeaconQuartzScheduler.class.getName()));
+    }
 }
@@ -24,6 +24,8 @@ package com.hortonworks.beacon.metrics;
 
 import com.google.gson.Gson;
 
+import java.util.Map;
+
 /**
  * Replication metrics.
  */
@@ -32,6 +34,7 @@ public class ReplicationMetrics {
     private String jobId;
     private JobType jobType;
     private Progress progress;
+    private Map<String, Long> pluginStats;
 
     /**
      * Enum for replication job type.
@@ -68,6 +71,14 @@ public class ReplicationMetrics {
         this.progress = progress;
     }
 
+    public Map<String, Long> getPluginStats() {
+        return pluginStats;
+    }
+
+    public void setPluginStats(Map<String, Long> pluginStats) {
+        this.pluginStats = pluginStats;
+    }
+
     public String toJsonString() {
         return new Gson().toJson(this);
     }
@@ -84,6 +95,7 @@ public class ReplicationMetrics {
                 + "jobId='" + jobId + '\''
                 + "jobType='" + jobType + '\''
                 + "progress='" +progress.toString()
+                + "pluginStats='" + pluginStats
                 + '}';
     }
 }
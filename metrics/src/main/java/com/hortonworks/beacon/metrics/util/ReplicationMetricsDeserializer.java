@@ -23,6 +23,8 @@
 package com.hortonworks.beacon.metrics.util;
 
 import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonDeserializer;
@@ -80,6 +82,14 @@ public class ReplicationMetricsDeserializer implements JsonDeserializer<Replicat
         progress.setJobProgress(progressJsonObject.get("jobProgress").getAsLong());
 
         replicationMetrics.setProgress(progress);
+
+        if (jsonObject.get("pluginStats") != null) {
+            Map<String, Long> pluginStats = new LinkedHashMap<>();
+            for (Map.Entry<String, JsonElement> entry : jsonObject.get("pluginStats").getAsJsonObject().entrySet()) {
+                pluginStats.put(entry.getKey(), entry.getValue().getAsLong());
+            }
+            replicationMetrics.setPluginStats(pluginStats);
+        }
         return replicationMetrics;
     }
 }
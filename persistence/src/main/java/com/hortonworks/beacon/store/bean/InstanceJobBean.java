@@ -31,6 +31,7 @@ import javax.persistence.IdClass;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import java.util.Date;
 
 /**
@@ -44,21 +45,25 @@ import java.util.Date;
         @NamedQuery(name = "GET_INSTANCE_JOB", query = "select OBJECT(b) from InstanceJobBean b "
                 + " where b.instanceId = :instanceId AND b.offset = :offset"),
         @NamedQuery(name = "UPDATE_STATUS_START", query = "update InstanceJobBean b set b.status = :status, "
-                + "b.startTime = :startTime where b.instanceId = :instanceId AND b.offset = :offset"),
-        @NamedQuery(name = "INSTANCE_JOB_UPDATE_STATUS", query = "update InstanceJobBean b set b.status = :status "
-                + "where b.instanceId = :instanceId AND b.endTime IS NULL"),
+                + "b.startTime = :startTime, b.rowVersion = b.rowVersion + 1 "
+                + "where b.instanceId = :instanceId AND b.offset = :offset"),
+        @NamedQuery(name = "INSTANCE_JOB_UPDATE_STATUS", query = "update InstanceJobBean b set b.status = :status, "
+                + "b.rowVersion = b.rowVersion + 1 where b.instanceId = :instanceId AND b.endTime IS NULL"),
         @NamedQuery(name = "INSTANCE_JOB_REMAIN_RETIRE", query = "update InstanceJobBean b set b.status = :status, "
-                + "b.retirementTime = :retirementTime  where b.instanceId = :instanceId AND b.endTime IS NULL"),
+                + "b.retirementTime = :retirementTime, b.rowVersion = b.rowVersion + 1 "
+                + "where b.instanceId = :instanceId AND b.endTime IS NULL"),
         @NamedQuery(name = "UPDATE_JOB_COMPLETE", query = "update InstanceJobBean b set b.status = :status, "
-                + "b.message = :message, b.endTime = :endTime, b.contextData = :contextData "
-                + "where b.instanceId = :instanceId AND b.offset = :offset"),
+                + "b.message = :message, b.endTime = :endTime, b.contextData = :contextData, "
+                + "b.rowVersion = b.rowVersion + 1 where b.instanceId = :instanceId AND b.offset = :offset"),
         @NamedQuery(name = "UPDATE_JOB_FAIL_RETIRE", query = "update InstanceJobBean b set b.status = :status, "
                 + "b.message = :message, b.endTime = :endTime, b.contextData = :contextData, "
-                + "b.retirementTime = :retirementTime where b.instanceId = :instanceId AND b.offset = :offset"),
-        @NamedQuery(name = "UPDATE_JOB_RETRY_COUNT", query = "update InstanceJobBean b set b.runCount = :runCount "
+                + "b.retirementTime = :retirementTime, b.rowVersion = b.rowVersion + 1 "
                 + "where b.instanceId = :instanceId AND b.offset = :offset"),
+        @NamedQuery(name = "UPDATE_JOB_RETRY_COUNT", query = "update InstanceJobBean b set b.runCount = :runCount, "
+                + "b.rowVersion = b.rowVersion + 1 "
+                + "where b.instanceId = :instanceId AND b.offset = :offset AND b.rowVersion = :rowVersion"),
         @NamedQuery(name = "DELETE_INSTANCE_JOB", query = "update InstanceJobBean b "
-                + "set b.retirementTime = :retirementTime "
+                + "set b.retirementTime = :retirementTime, b.rowVersion = b.rowVersion + 1 "
                 + "where b.instanceId = :instanceId AND b.retirementTime IS NULL"),
         @NamedQuery(name = "DELETE_RETIRED_JOBS", query = "delete from InstanceJobBean b "
                 + "where b.retirementTime < :retirementTime")
@@ -94,6 +99,10 @@ public class InstanceJobBean {
     @Column(name = "context_data")
     private String contextData;
 
+    @Version
+    @Column(name = "row_version")
+    private int rowVersion;
+
     public String getInstanceId() {
         return instanceId;
     }
@@ -181,6 +190,14 @@ public class InstanceJobBean {
         this.contextData = contextData;
     }
 
+    public int getRowVersion() {
+        return rowVersion;
+    }
+
+    public void setRowVersion(int rowVersion) {
+        this.rowVersion = rowVersion;
+    }
+
     public InstanceJobBean() {
     }
 
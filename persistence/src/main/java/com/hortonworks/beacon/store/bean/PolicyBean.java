@@ -30,6 +30,7 @@ import javax.persistence.Id;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import java.util.Date;
 import java.util.List;
 
@@ -59,21 +60,22 @@ import java.util.List;
         @NamedQuery(name = "GET_ARCHIVED_POLICY", query = "select OBJECT(b) from PolicyBean b "
                 + "where b.name = :name AND b.retirementTime IS NOT NULL order by b.creationTime DESC"),
         @NamedQuery(name = "DELETE_POLICY", query = "update PolicyBean b set b.retirementTime = :retirementTime, "
-                + "b.status = :status where b.name = :name AND b.retirementTime IS NULL"),
+                + "b.status = :status, b.rowVersion = b.rowVersion + 1 "
+                + "where b.name = :name AND b.retirementTime IS NULL"),
         @NamedQuery(name = "UPDATE_STATUS", query = "update PolicyBean b set b.status = :status, "
-                + "b.lastModifiedTime = :lastModifiedTime "
+                + "b.lastModifiedTime = :lastModifiedTime, b.rowVersion = b.rowVersion + 1 "
                 + "where b.name = :name AND b.type = :policyType AND b.retirementTime IS NULL"),
         @NamedQuery(name = "UPDATE_JOBS", query = "update PolicyBean b set b.jobs = :jobs, "
-                + "b.lastModifiedTime = :lastModifiedTime where b.id = :id"),
+                + "b.lastModifiedTime = :lastModifiedTime, b.rowVersion = b.rowVersion + 1 where b.id = :id"),
         @NamedQuery(name = "UPDATE_POLICY_LAST_INS_STATUS", query = "update PolicyBean b "
-                + "set b.lastInstanceStatus = :lastInstanceStatus "
+                + "set b.lastInstanceStatus = :lastInstanceStatus, b.rowVersion = b.rowVersion + 1 "
                 + "where b.id = :id AND b.retirementTime IS NULL"),
         @NamedQuery(name = "DELETE_RETIRED_POLICY", query = "delete from PolicyBean b "
                 + "where b.retirementTime < :retirementTime"),
         @NamedQuery(name = "UPDATE_FINAL_STATUS", query = "update PolicyBean b set b.status = :status, "
-                + "b.lastModifiedTime = :lastModifiedTime where b.id = :id"),
+                + "b.lastModifiedTime = :lastModifiedTime, b.rowVersion = b.rowVersion + 1 where b.id = :id"),
         @NamedQuery(name = "UPDATE_POLICY_RETIREMENT", query = "update PolicyBean b "
-                + "set b.retirementTime = :retirementTime where b.id = :id"),
+                + "set b.retirementTime = :retirementTime, b.rowVersion = b.rowVersion + 1 where b.id = :id"),
         @NamedQuery(name = "GET_POLICY_RECOVERY", query = "select OBJECT(b) from PolicyBean b "
                 + "where b.status = 'SUBMITTED'")
     })
@@ -158,6 +160,10 @@ public class PolicyBean {
     @Column(name = "username")
     private String user;
 
+    @Version
+    @Column(name = "row_version")
+    private int rowVersion;
+
     private List<PolicyPropertiesBean> customProperties;
 
     public String getId() {
@@ -394,6 +400,14 @@ public class PolicyBean {
         this.user = user;
     }
 
+    public int getRowVersion() {
+        return rowVersion;
+    }
+
+    public void setRowVersion(int rowVersion) {
+        this.rowVersion = rowVersion;
+    }
+
     public PolicyBean() {
     }
 
@@ -30,6 +30,7 @@ import javax.persistence.Id;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import java.util.Date;
 
 /**
@@ -40,28 +41,36 @@ import java.util.Date;
 @Table(name = "BEACON_POLICY_INSTANCE")
 @NamedQueries({
         @NamedQuery(name = "UPDATE_INSTANCE_COMPLETE", query = "update PolicyInstanceBean b "
-                + "set b.endTime = :endTime, b.status = :status, b.message = :message "
-                + "where b.instanceId =: instanceId"),
+                + "set b.endTime = :endTime, b.status = :status, b.message = :message, "
+                + "b.rowVersion = b.rowVersion + 1 where b.instanceId =: instanceId"),
         @NamedQuery(name = "UPDATE_INSTANCE_FAIL_RETIRE", query = "update PolicyInstanceBean b "
                 + "set b.endTime = :endTime, b.status = :status, b.message = :message, "
-                + "b.retirementTime = :retirementTime where b.instanceId =: instanceId"),
+                + "b.retirementTime = :retirementTime, b.rowVersion = b.rowVersion + 1 "
+                + "where b.instanceId =: instanceId"),
         @NamedQuery(name = "SELECT_POLICY_INSTANCE", query = "select OBJECT(b) from PolicyInstanceBean b "
                 + "where b.policyId = :policyId AND b.retirementTime IS NULL"),
         @NamedQuery(name ="DELETE_POLICY_INSTANCE", query = "update PolicyInstanceBean b "
-                + "set b.retirementTime = :retirementTime "
+                + "set b.retirementTime = :retirementTime, b.rowVersion = b.rowVersion + 1 "
                 + "where b.policyId = :policyId AND b.retirementTime IS NULL"),
         @NamedQuery(name = "UPDATE_CURRENT_OFFSET", query = "update PolicyInstanceBean b "
-                + "set b.currentOffset = :currentOffset where b.instanceId = :instanceId"),
+                + "set b.currentOffset = :currentOffset, b.rowVersion = b.rowVersion + 1 "
+                + "where b.instanceId = :instanceId"),
         @NamedQuery(name = "DELETE_RETIRED_INSTANCE", query = "delete from PolicyInstanceBean b "
                 + "where b.retirementTime < :retirementTime"),
         @NamedQuery(name = "GET_INSTANCE_TRACKING_INFO", query = "select OBJECT(b) from PolicyInstanceBean b "
                 + "where b.instanceId = :instanceId"),
         @NamedQuery(name = "UPDATE_INSTANCE_TRACKING_INFO", query = "update PolicyInstanceBean b "
-                + "set b.trackingInfo = :trackingInfo where b.instanceId = :instanceId"),
+                + "set b.trackingInfo = :trackingInfo, b.rowVersion = b.rowVersion + 1 "
+                + "where b.instanceId = :instanceId"),
         @NamedQuery(name = "SELECT_INSTANCE_RUNNING", query = "select OBJECT(b) from PolicyInstanceBean b "
                 + "where b.status = :status AND b.retirementTime IS NULL"),
+        @NamedQuery(name = "SELECT_POLICY_INSTANCE_RUNNING", query = "select OBJECT(b) from PolicyInstanceBean b "
+                + "where b.policyId = :policyId AND b.status = :status AND b.retirementTime IS NULL"),
         @NamedQuery(name = "GET_INSTANCE_FAILED", query = "select OBJECT(b) from PolicyInstanceBean b "
                 + "where b.policyId = :policyId AND b.status = :status order by b.endTime DESC"),
+        @NamedQuery(name = "GET_INSTANCE_SUCCEEDED_AFTER", query = "select OBJECT(b) from PolicyInstanceBean b "
+                + "where b.policyId = :policyId AND b.status = :status AND b.endTime > :endTime "
+                + "order by b.endTime"),
         @NamedQuery(name = "GET_INSTANCE_RECENT", query = "select OBJECT(b) from PolicyInstanceBean b "
                 + "where b.policyId = :policyId order by b.startTime DESC"),
         @NamedQuery(name = "GET_INSTANCE_FOR_RERUN", query = "select b.instanceId, b.currentOffset, b.status "
@@ -70,15 +79,17 @@ import java.util.Date;
         @NamedQuery(name = "GET_INSTANCE_BY_ID", query = "select OBJECT(b) from PolicyInstanceBean b "
                 + "where b.instanceId = :instanceId"),
         @NamedQuery(name = "UPDATE_INSTANCE_RETRY_COUNT", query = "update PolicyInstanceBean b "
-                + "set b.runCount = :runCount where b.instanceId = :instanceId"),
+                + "set b.runCount = :runCount, b.rowVersion = b.rowVersion + 1 "
+                + "where b.instanceId = :instanceId AND b.rowVersion = :rowVersion"),
         @NamedQuery(name = "UPDATE_INSTANCE_STATUS", query = "update PolicyInstanceBean b "
-                + "set b.status = :status where b.policyId = :policyId AND b.status = 'RUNNING'"),
+                + "set b.status = :status, b.rowVersion = b.rowVersion + 1 "
+                + "where b.policyId = :policyId AND b.status = 'RUNNING'"),
         @NamedQuery(name = "UPDATE_INSTANCE_STATUS_RETIRE", query = "update PolicyInstanceBean b "
-                + "set b.status = :status, b.retirementTime = :retirementTime "
+                + "set b.status = :status, b.retirementTime = :retirementTime, b.rowVersion = b.rowVersion + 1 "
                 + "where b.instanceId = :instanceId and b.retirementTime IS NULL"),
         @NamedQuery(name = "UPDATE_INSTANCE_RERUN", query = "update PolicyInstanceBean b "
-                + "set b.status = :status, b.endTime = :endTime, b.message = :message, b.runCount = b.runCount+1 "
-                + "where b.instanceId = :instanceId"),
+                + "set b.status = :status, b.endTime = :endTime, b.message = :message, b.runCount = b.runCount+1, "
+                + "b.rowVersion = b.rowVersion + 1 where b.instanceId = :instanceId"),
         @NamedQuery(name = "GET_INSTANCE_STATUS_RECENT", query = "select b.status, max (b.startTime) as startTime "
                 + "from PolicyInstanceBean b "
                 + "where b.policyId = :policyId group by b.status order by startTime DESC"),
@@ -120,6 +131,10 @@ public class PolicyInstanceBean {
     @Column(name = "tracking_info")
     private String trackingInfo;
 
+    @Version
+    @Column(name = "row_version")
+    private int rowVersion;
+
     public String getInstanceId() {
         return instanceId;
     }
@@ -202,6 +217,14 @@ public class PolicyInstanceBean {
         this.trackingInfo = trackingInfo;
     }
 
+    public int getRowVersion() {
+        return rowVersion;
+    }
+
+    public void setRowVersion(int rowVersion) {
+        this.rowVersion = rowVersion;
+    }
+
     public PolicyInstanceBean() {
     }
 
@@ -63,10 +63,11 @@ public class InstanceJobExecutor extends BaseExecutor {
         getEntityManager().persist(bean);
     }
 
-    public void executeUpdate(InstanceJobQuery namedQuery) {
+    public int executeUpdate(InstanceJobQuery namedQuery) {
         Query query = getQuery(namedQuery);
         int update = query.executeUpdate();
         LOG.debug("Records updated for InstanceJobBean table namedQuery [{}], count [{}]", namedQuery, update);
+        return update;
     }
 
     private Query getQuery(InstanceJobQuery namedQuery) {
@@ -108,6 +109,7 @@ public class InstanceJobExecutor extends BaseExecutor {
                 query.setParameter("instanceId", bean.getInstanceId());
                 query.setParameter("offset", bean.getOffset());
                 query.setParameter("runCount", bean.getRunCount());
+                query.setParameter("rowVersion", bean.getRowVersion());
                 break;
             case GET_INSTANCE_JOB:
                 query.setParameter("instanceId", bean.getInstanceId());
@@ -55,7 +55,9 @@ public class PolicyInstanceExecutor extends BaseExecutor {
         GET_INSTANCE_TRACKING_INFO,
         UPDATE_INSTANCE_TRACKING_INFO,
         SELECT_INSTANCE_RUNNING,
+        SELECT_POLICY_INSTANCE_RUNNING,
         GET_INSTANCE_FAILED,
+        GET_INSTANCE_SUCCEEDED_AFTER,
         GET_INSTANCE_RECENT,
         GET_INSTANCE_FOR_RERUN,
         GET_INSTANCE_BY_ID,
@@ -77,10 +79,11 @@ public class PolicyInstanceExecutor extends BaseExecutor {
         getEntityManager().persist(bean);
     }
 
-    public void executeUpdate(PolicyInstanceQuery namedQuery) {
+    public int executeUpdate(PolicyInstanceQuery namedQuery) {
         Query query = getQuery(namedQuery);
         int update = query.executeUpdate();
         LOG.debug("Records updated for PolicyInstanceBean table namedQuery [{}], count [{}]", namedQuery, update);
+        return update;
     }
 
     private Query getQuery(PolicyInstanceQuery namedQuery) {
@@ -123,10 +126,19 @@ public class PolicyInstanceExecutor extends BaseExecutor {
             case SELECT_INSTANCE_RUNNING:
                 query.setParameter("status", bean.getStatus());
                 break;
+            case SELECT_POLICY_INSTANCE_RUNNING:
+                query.setParameter("policyId", bean.getPolicyId());
+                query.setParameter("status", bean.getStatus());
+                break;
             case GET_INSTANCE_FAILED:
                 query.setParameter("policyId", bean.getPolicyId());
                 query.setParameter("status", bean.getStatus());
                 break;
+            case GET_INSTANCE_SUCCEEDED_AFTER:
+                query.setParameter("policyId", bean.getPolicyId());
+                query.setParameter("status", bean.getStatus());
+                query.setParameter("endTime", new Timestamp(bean.getEndTime().getTime()));
+                break;
             case GET_INSTANCE_RECENT:
                 query.setParameter("policyId", bean.getPolicyId());
                 break;
@@ -142,6 +154,7 @@ public class PolicyInstanceExecutor extends BaseExecutor {
             case UPDATE_INSTANCE_RETRY_COUNT:
                 query.setParameter("instanceId", bean.getInstanceId());
                 query.setParameter("runCount", bean.getRunCount());
+                query.setParameter("rowVersion", bean.getRowVersion());
                 break;
             case UPDATE_INSTANCE_STATUS:
                 query.setParameter("policyId", bean.getPolicyId());
@@ -0,0 +1,76 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.store.executors;
+
+import com.hortonworks.beacon.util.StringFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.persistence.LockModeType;
+import javax.persistence.OptimisticLockException;
+
+/**
+ * Beacon store executor for read-modify-write updates of a versioned bean. The update is made conditional on the
+ * row version the bean was read with, so no lock is held between the read and the update. When another writer
+ * has changed the row in between, the bean is read again under a row lock and the update is retried.
+ */
+public class VersionedUpdateExecutor extends BaseExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VersionedUpdateExecutor.class);
+
+    static final int MAX_ATTEMPTS = 5;
+
+    /**
+     * Update of the row, built from the current state of the bean.
+     */
+    public interface VersionedUpdate {
+        /**
+         * @return number of rows updated, 0 when the row version did not match.
+         */
+        int execute();
+    }
+
+    private Object bean;
+
+    public VersionedUpdateExecutor(Object bean) {
+        this.bean = bean;
+    }
+
+    public void execute(VersionedUpdate update) {
+        boolean refreshed = false;
+        for (int attempt = 1; update.execute() == 0; attempt++) {
+            if (attempt == MAX_ATTEMPTS) {
+                throw new OptimisticLockException(StringFormat.format(
+                        "Row of {} was changed concurrently in all {} update attempts",
+                        bean.getClass().getSimpleName(), MAX_ATTEMPTS), null, bean);
+            }
+            LOG.debug("Row version conflict for [{}], attempt [{}]", bean.getClass().getSimpleName(), attempt);
+            getEntityManager().refresh(bean, LockModeType.PESSIMISTIC_WRITE);
+            refreshed = true;
+        }
+        if (refreshed) {
+            // The locked bean is version checked on commit, so it has to carry the version just written.
+            getEntityManager().refresh(bean);
+        }
+    }
+}
@@ -22,23 +22,31 @@
 
 package com.hortonworks.beacon.plugin.ranger;
 
+import com.hortonworks.beacon.client.entity.Cluster;
 import com.hortonworks.beacon.config.BeaconConfig;
 import com.hortonworks.beacon.exceptions.BeaconException;
 import com.hortonworks.beacon.plugin.BeaconInfo;
+import com.hortonworks.beacon.plugin.ChangeDetectingPlugin;
 import com.hortonworks.beacon.plugin.DataSet;
+import com.hortonworks.beacon.plugin.ExportFingerprint;
 import com.hortonworks.beacon.plugin.Plugin;
 import com.hortonworks.beacon.plugin.PluginInfo;
 import com.hortonworks.beacon.plugin.PluginStats;
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.hsqldb.lib.StringUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 /**
  * A simple plugin provider interface for DLM.
@@ -57,7 +65,7 @@ import java.util.List;
  * Failure to invoke the plugin aborts the replication (should we relax this for
  * Atlas)
  */
-public class BeaconRangerPluginImpl implements Plugin{
+public class BeaconRangerPluginImpl implements ChangeDetectingPlugin {
 
     /**
      * Get plugin status.   Valid statuses are ACTIVE, INACTIVE, INITIALIZING, ERROR
@@ -106,27 +114,14 @@ public class BeaconRangerPluginImpl implements Plugin{
             return null;
         }
 
-        Path filePath=null;
         Path stagingDirPath = new Path(dataset.getStagingPath());
         RangerAdminRESTClient rangerAdminRESTClient = new RangerAdminRESTClient();
         LOG.info("Ranger policy export started");
-        RangerExportPolicyList rangerExportPolicyList=rangerAdminRESTClient.exportRangerPolicies(dataset);
-        List<RangerPolicy> rangerPolicies =rangerExportPolicyList.getPolicies();
-        if (rangerPolicies.isEmpty()) {
-            LOG.info("Ranger policy export request returned empty list or failed, Please refer Ranger admin logs.");
-            rangerExportPolicyList=new RangerExportPolicyList();
+        Path filePath = rangerAdminRESTClient.exportRangerPoliciesToFile(dataset, stagingDirPath);
+        if (filePath!=null) {
+            LOG.info("Ranger policy export finished successfully");
         } else {
-            rangerPolicies=rangerAdminRESTClient.removeMutilResourcePolicies(dataset, rangerPolicies);
-        }
-        if (!CollectionUtils.isEmpty(rangerPolicies)){
-            rangerExportPolicyList.setPolicies(rangerPolicies);
-            filePath=rangerAdminRESTClient.saveRangerPoliciesToFile(dataset, rangerExportPolicyList,
-                    stagingDirPath);
-            if (filePath!=null) {
-                LOG.info("Ranger policy export finished successfully");
-            } else {
-                throw new BeaconException("Unable to save exported Ranger policies");
-            }
+            LOG.info("Ranger policy export request returned empty list or failed, Please refer Ranger admin logs.");
         }
         LOG.debug("Ranger policy export filePath:"+filePath);
         return filePath;
@@ -154,31 +149,81 @@ public class BeaconRangerPluginImpl implements Plugin{
         }
 
         RangerAdminRESTClient rangerAdminRESTClient = new RangerAdminRESTClient();
-        RangerExportPolicyList rangerExportPolicyList=null;
-        List<RangerPolicy> rangerPolicies=null;
+        Path importPath = rangerAdminRESTClient.prepareRangerPoliciesForImport(dataset, exportedDataPath);
+        if (importPath != null) {
+            rangerAdminRESTClient.importRangerPolicies(dataset, importPath);
+            deleteQuietly(importPath);
+            LOG.info("Ranger policy import finished");
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            path.getFileSystem(new Configuration()).delete(path, false);
+        } catch (IOException e) {
+            LOG.warn("Unable to delete {}", path, e);
+        }
+    }
 
+    /**
+     * Fingerprint of the exported policies together with everything of the dataset that the import rewrite
+     * depends on.  The export metadata, which carries the export time, is not part of the fingerprint.
+     *
+     * @param dataset
+     * @param exportedDataPath  Data that was exported by export command.
+     * @return fingerprint of the exported policies
+     * @throws BeaconException
+     */
+    @Override
+    public ExportFingerprint getFingerprint(DataSet dataset, Path exportedDataPath) throws BeaconException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new BeaconException("Unable to fingerprint exported Ranger policies", e);
+        }
+        StringBuilder content = new StringBuilder();
+        content.append(dataset.getType()).append('\n')
+                .append(dataset.getSourceDataSet()).append('\n')
+                .append(dataset.getTargetDataSet()).append('\n')
+                .append(getTargetRangerEndpoint(dataset)).append('\n');
+        appendClusterInfo(content, dataset.getSourceCluster(), dataset.getType());
+        appendClusterInfo(content, dataset.getTargetCluster(), dataset.getType());
+        digest.update(content.toString().getBytes(StandardCharsets.UTF_8));
+
+        int policyCount = 0;
         if (exportedDataPath != null) {
-            rangerExportPolicyList = rangerAdminRESTClient.readRangerPoliciesFromJsonFile(exportedDataPath);
-            if (rangerExportPolicyList != null && !CollectionUtils.isEmpty(rangerExportPolicyList.getPolicies())) {
-                rangerPolicies = rangerExportPolicyList.getPolicies();
+            try (Reader reader = new InputStreamReader(
+                    exportedDataPath.getFileSystem(new Configuration()).open(exportedDataPath),
+                    StandardCharsets.UTF_8)) {
+                // Only the policies go into the digest, they are visited one at a time.
+                policyCount = RangerPolicyJsonStream.transform(reader, null,
+                        new RangerPolicyJsonStream.PolicyTransformer() {
+                            @Override
+                            public RangerPolicy transform(RangerPolicy policy) {
+                                String json = RangerPolicyJsonStream.GSON.toJson(policy) + '\n';
+                                digest.update(json.getBytes(StandardCharsets.UTF_8));
+                                return policy;
+                            }
+                        }, null);
+            } catch (IOException | RuntimeException e) {
+                throw new BeaconException("Error reading file :" + exportedDataPath, e);
             }
         }
+        return new ExportFingerprint(String.format("%064x", new BigInteger(1, digest.digest())), policyCount);
+    }
 
-        if (CollectionUtils.isEmpty(rangerPolicies)) {
-            rangerPolicies=new ArrayList<RangerPolicy>();
+    private static void appendClusterInfo(StringBuilder content, Cluster cluster, DataSet.DataSetType type) {
+        if (cluster == null) {
+            content.append('\n');
+            return;
         }
-        List<RangerPolicy> rangerPoliciesWithDenyPolicy = rangerAdminRESTClient.addSingleDenyPolicies(dataset,
-                rangerPolicies);
-        List<RangerPolicy> updatedRangerPolicies = rangerAdminRESTClient.changeDataSet(dataset,
-                rangerPoliciesWithDenyPolicy);
-        if (!CollectionUtils.isEmpty(updatedRangerPolicies)){
-            if (rangerExportPolicyList==null) {
-                rangerExportPolicyList=new RangerExportPolicyList();
-            }
-            rangerExportPolicyList.setPolicies(updatedRangerPolicies);
-            rangerAdminRESTClient.importRangerPolicies(dataset, rangerExportPolicyList);
-            LOG.info("Ranger policy import finished");
+        String serviceName = null;
+        if (cluster.getCustomProperties() != null) {
+            serviceName = cluster.getCustomProperties().getProperty(type == DataSet.DataSetType.HIVE
+                    ? "rangerHIVEServiceName" : "rangerHDFSServiceName");
         }
+        content.append(cluster.getName()).append(':').append(serviceName).append('\n');
     }
 
     public static String getSourceRangerEndpoint(DataSet dataSet) {
@@ -22,8 +22,7 @@
 
 package com.hortonworks.beacon.plugin.ranger;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.hortonworks.beacon.client.SessionHostnameVerifier;
 import com.hortonworks.beacon.client.entity.Cluster;
 import com.hortonworks.beacon.config.BeaconConfig;
 import com.hortonworks.beacon.config.PropertiesUtil;
@@ -36,9 +35,10 @@ import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.WebResource;
 import com.sun.jersey.api.client.config.ClientConfig;
-import com.sun.jersey.api.client.config.DefaultClientConfig;
 import com.sun.jersey.api.client.filter.HTTPBasicAuthFilter;
-import com.sun.jersey.client.urlconnection.HTTPSProperties;
+import com.sun.jersey.client.apache4.ApacheHttpClient4;
+import com.sun.jersey.client.apache4.config.ApacheHttpClient4Config;
+import com.sun.jersey.client.apache4.config.DefaultApacheHttpClient4Config;
 import com.sun.jersey.multipart.FormDataMultiPart;
 import com.sun.jersey.multipart.MultiPart;
 import com.sun.jersey.multipart.file.StreamDataBodyPart;
@@ -46,11 +46,24 @@ import com.sun.jersey.multipart.impl.MultiPartWriter;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.security.SecureClientLogin;
 import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.Credentials;
+import org.apache.http.client.config.AuthSchemes;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.conn.ssl.X509HostnameVerifier;
+import org.apache.http.impl.auth.SPNegoSchemeFactory;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,6 +77,7 @@ import javax.net.ssl.TrustManagerFactory;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.core.Cookie;
 import javax.ws.rs.core.MediaType;
+import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -73,9 +87,14 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
-import java.nio.charset.Charset;
+import java.io.StringReader;
+import java.io.Writer;
+import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
 import java.security.PrivilegedExceptionAction;
 import java.security.SecureRandom;
 import java.util.ArrayList;
@@ -85,6 +104,9 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * RangerAdminRESTClient to connect to Ranger and export policies.
@@ -92,7 +114,6 @@ import java.util.Properties;
  */
 public class RangerAdminRESTClient {
     private static final Logger LOG = LoggerFactory.getLogger(RangerAdminRESTClient.class);
-    private static final String RANGER_REST_URL_GET_POLICIES = "/service/plugins/policies/service/name/";
     private static final String RANGER_REST_URL_EXPORTJSONFILE = "/service/plugins/policies/exportJson";
     private static final String RANGER_REST_URL_IMPORTJSONFILE =
             "/service/plugins/policies/importPoliciesFromFile?updateIfExists=true";
@@ -104,13 +125,6 @@ public class RangerAdminRESTClient {
     private static final String NAME_RULES = "beacon.kerberos.namerules.auth_to_local";
     private static final String DEFAULT_NAME_RULE = "DEFAULT";
     private static final String KERBEROS_TYPE = "kerberos";
-    private String keyStoreFile = null;
-    private String keyStoreFilepwd = null;
-    private String trustStoreFile = null;
-    private String trustStoreFilepwd = null;
-    private String keyStoreType = null;
-    private String trustStoreType = null;
-    private HostnameVerifier hv = null;
     private static final PropertiesUtil AUTHCONFIG=PropertiesUtil.getInstance();
     private String principal = AUTHCONFIG.getProperty(BEACON_USER_PRINCIPAL);
     private String keytab = AUTHCONFIG.getProperty(BEACON_USER_KEYTAB);
@@ -120,73 +134,159 @@ public class RangerAdminRESTClient {
     private static final String BEACON_RANGER_PASSWORD = "beacon.ranger.password";
     private static final String HDFS_RANGER_POLICIES_FILE_NAME = "source_ranger_hdfs_exported_policies";
     private static final String HIVE_RANGER_POLICIES_FILE_NAME = "source_ranger_hive_exported_policies";
+    private static final String HDFS_RANGER_IMPORT_POLICIES_FILE_NAME = "target_ranger_hdfs_import_policies";
+    private static final String HIVE_RANGER_IMPORT_POLICIES_FILE_NAME = "target_ranger_hive_import_policies";
+    private static final String BEACON_RANGER_CLIENT_MAX_CONNECTIONS = "beacon.ranger.client.max.connections";
+    private static final int DEFAULT_RANGER_CLIENT_MAX_CONNECTIONS = 10;
+    private static final String BEACON_RANGER_CLIENT_CONNECT_TIMEOUT = "beacon.ranger.client.connect.timeout";
+    private static final String BEACON_RANGER_CLIENT_READ_TIMEOUT = "beacon.ranger.client.read.timeout";
+    private static final String BEACON_RANGER_CLIENT_CONNECTION_WAIT_TIMEOUT =
+            "beacon.ranger.client.connection.wait.timeout";
+    private static final int DEFAULT_RANGER_CLIENT_TIMEOUT = 180000;
 
-    public RangerExportPolicyList exportRangerPolicies(DataSet dataset) throws BeaconException {
-        RangerExportPolicyList rangerExportPolicyList = null;
+    // SPNEGO uses the Kerberos credentials of the current subject, there is no user or password.
+    private static final Credentials KERBEROS_CREDENTIALS = new Credentials() {
+        @Override
+        public Principal getUserPrincipal() {
+            return null;
+        }
+
+        @Override
+        public String getPassword() {
+            return null;
+        }
+    };
+
+    // Jersey clients are kept per Ranger endpoint and proxy mode, so the SSL and auth setup is done once.
+    private static final ConcurrentMap<String, RangerClient> RANGER_CLIENTS = new ConcurrentHashMap<>();
+    private static final AtomicInteger DESTROYED_CLIENTS = new AtomicInteger();
+
+    /**
+     * Exports the Ranger policies of the dataset with a single resource to a file in the staging directory.
+     * The policies are streamed from the Ranger response to the file one at a time.
+     *
+     * @param dataset dataset to export the policies of
+     * @param stagingDirPath staging directory
+     * @return path of the exported policies, or null if there are no policies to export
+     * @throws BeaconException
+     */
+    public Path exportRangerPoliciesToFile(DataSet dataset, Path stagingDirPath) throws BeaconException {
         if (isSpnegoEnable() && !BeaconConfig.getInstance().getEngine().isKnoxProxyEnabled()
                 && SecureClientLogin.isKerberosCredentialExists(principal, keytab)) {
             try {
-                final DataSet finaDataset = dataset;
-                rangerExportPolicyList = UserGroupInformation.getLoginUser()
-                        .doAs(new PrivilegedExceptionAction<RangerExportPolicyList>() {
-                            @Override
-                            public RangerExportPolicyList run() throws BeaconException {
-                                return getRangerPoliciesFromFile(finaDataset, true);
-                            }
-                        });
-                return rangerExportPolicyList;
+                final DataSet finalDataset = dataset;
+                final Path finalStagingDirPath = stagingDirPath;
+                return UserGroupInformation.getLoginUser().doAs(new PrivilegedExceptionAction<Path>() {
+                    @Override
+                    public Path run() throws BeaconException {
+                        return getRangerPoliciesFromExportREST(finalDataset, finalStagingDirPath);
+                    }
+                });
             } catch (Exception e) {
                 throw new BeaconException("Failed to export Ranger policies", e);
             }
         } else {
-            return getRangerPoliciesFromFile(dataset, true);
+            return getRangerPoliciesFromExportREST(dataset, stagingDirPath);
         }
     }
 
-    public RangerExportPolicyList importRangerPolicies(DataSet dataset,
-            RangerExportPolicyList rangerExportPolicyList) throws BeaconException {
-        RangerExportPolicyList result = null;
+    /**
+     * Writes the policies to import on the target Ranger to a file in the staging directory: the exported
+     * policies changed for the target dataset, followed by the deny policy of the dataset.
+     *
+     * @param dataset dataset to import the policies for
+     * @param exportedDataPath exported policies, can be null
+     * @return path of the policies to import, or null if there is nothing to import
+     * @throws BeaconException
+     */
+    public Path prepareRangerPoliciesForImport(final DataSet dataset, Path exportedDataPath)
+            throws BeaconException {
+        final String source = getSourceName(dataset);
+        final String importDate = DateUtil.formatDate(new Date());
+        List<RangerPolicy> denyPolicies = new ArrayList<RangerPolicy>();
+        RangerPolicy denyRangerPolicy = getDenyPolicy(dataset, source, importDate);
+        if (denyRangerPolicy != null) {
+            denyPolicies.add(denyRangerPolicy);
+        }
+        Path filePath = new Path(dataset.getStagingPath()).suffix(File.separator + getImportFileName(dataset));
+        RangerPolicyJsonStream.PolicyTransformer transformer = new RangerPolicyJsonStream.PolicyTransformer() {
+            @Override
+            public RangerPolicy transform(RangerPolicy policy) {
+                setImportDescription(policy, source, importDate);
+                changeDataSet(dataset, policy);
+                return policy;
+            }
+        };
+        int count;
+        if (exportedDataPath != null) {
+            try (Reader reader = new InputStreamReader(getFileSystem(exportedDataPath).open(exportedDataPath),
+                    StandardCharsets.UTF_8)) {
+                count = writePoliciesToFile(reader, filePath, transformer, denyPolicies);
+            } catch (IOException e) {
+                throw new BeaconException("Error reading file :" + exportedDataPath, e);
+            }
+        } else {
+            count = writePoliciesToFile(new StringReader(""), filePath, transformer, denyPolicies);
+        }
+        LOG.debug("{} Ranger policies to import written to {}", count, filePath);
+        return count > 0 ? filePath : null;
+    }
+
+    /**
+     * Imports the policies in the given file on the target Ranger.  The file is streamed to Ranger.
+     *
+     * @param dataset dataset to import the policies for
+     * @param policiesPath policies written by {@link #prepareRangerPoliciesForImport(DataSet, Path)}
+     * @throws BeaconException
+     */
+    public void importRangerPolicies(DataSet dataset, Path policiesPath) throws BeaconException {
         if (isSpnegoEnable() && SecureClientLogin.isKerberosCredentialExists(principal, keytab)) {
             try {
-                final DataSet finaDataset = dataset;
-                final RangerExportPolicyList finalList=rangerExportPolicyList;
-                result = UserGroupInformation.getLoginUser()
-                        .doAs(new PrivilegedExceptionAction<RangerExportPolicyList>() {
-                            @Override
-                            public RangerExportPolicyList run() throws BeaconException {
-                                return importRangerPoliciesFromFile(finaDataset, finalList);
-                            }
-                        });
+                final DataSet finalDataset = dataset;
+                final Path finalPoliciesPath = policiesPath;
+                UserGroupInformation.getLoginUser().doAs(new PrivilegedExceptionAction<Void>() {
+                    @Override
+                    public Void run() throws BeaconException {
+                        importRangerPoliciesFromPath(finalDataset, finalPoliciesPath);
+                        return null;
+                    }
+                });
             } catch (Exception e) {
                 throw new BeaconException("Ranger policy import failed, Please refer target Ranger admin logs.", e);
             }
-            return result;
         } else {
-            return importRangerPoliciesFromFile(dataset, rangerExportPolicyList);
+            importRangerPoliciesFromPath(dataset, policiesPath);
         }
     }
 
-    private RangerExportPolicyList getRangerPoliciesFromFile(DataSet dataset, boolean exportRestAPI)
-            throws  BeaconException {
-        RangerExportPolicyList rangerExportPolicyList = new RangerExportPolicyList();
-        if (exportRestAPI) {
-            rangerExportPolicyList=getRangerPoliciesFromExportREST(dataset);
-        } else {
-            Map<String, Object> metaDataInfo = new LinkedHashMap<String, Object>();
-            metaDataInfo.put("Host name", "");
-            metaDataInfo.put("Exported by", "");
-            metaDataInfo.put("Export time", "");
-            metaDataInfo.put("Ranger apache version", "");
-            rangerExportPolicyList.setMetaDataInfo(metaDataInfo);
-            rangerExportPolicyList.setPolicies(getRangerPolicies(dataset));
-        }
-        return rangerExportPolicyList;
+    private Path getRangerPoliciesFromExportREST(final DataSet dataset, final Path stagingDirPath)
+            throws BeaconException {
+        return exportFromREST(dataset, new ExportResponseHandler<Path>() {
+            @Override
+            public Path onEmpty() {
+                return null;
+            }
+
+            @Override
+            public Path onResponse(InputStream response) throws BeaconException {
+                Path filePath = stagingDirPath.suffix(File.separator + getExportFileName(dataset));
+                Reader reader = new InputStreamReader(response, StandardCharsets.UTF_8);
+                int count = writePoliciesToFile(reader, filePath, new RangerPolicyJsonStream.PolicyTransformer() {
+                    @Override
+                    public RangerPolicy transform(RangerPolicy policy) {
+                        return isSingleResourcePolicy(dataset, policy) ? policy : null;
+                    }
+                }, null);
+                LOG.info("Exported {} Ranger policies to {}", count, filePath);
+                return count > 0 ? filePath : null;
+            }
+        });
     }
 
-    private RangerExportPolicyList getRangerPoliciesFromExportREST(DataSet dataset) throws BeaconException {
+    private <T> T exportFromREST(DataSet dataset, ExportResponseHandler<T> handler) throws BeaconException {
         String sourceRangerEndpoint = BeaconRangerPluginImpl.getSourceRangerEndpoint(dataset);
         if (sourceRangerEndpoint == null) {
-            return new RangerExportPolicyList();
+            return handler.onEmpty();
         }
 
         boolean shouldProxy = BeaconConfig.getInstance().getEngine().isKnoxProxyEnabled();
@@ -206,7 +306,6 @@ public class RangerAdminRESTClient {
             rangerHDFSServiceName = clusterProperties.getProperty("rangerHDFSServiceName");
             rangerHIVEServiceName = clusterProperties.getProperty("rangerHIVEServiceName");
         }
-        Client rangerClient = getRangerClient(dataset.getSourceCluster(), shouldProxy);
         ClientResponse clientResp = null;
         String uri = null;
         String sourceDataSet=dataset.getSourceDataSet();
@@ -232,164 +331,67 @@ public class RangerAdminRESTClient {
         }
         String url = sourceRangerEndpoint + (uri.startsWith("/") ? uri : ("/" + uri));
         LOG.debug("URL to export policies from source Ranger: {}", url);
-        RangerExportPolicyList rangerExportPolicyList = new RangerExportPolicyList();
-        WebResource webResource = rangerClient.resource(url);
-        if (shouldProxy) {
-            Cookie cookie =
-                    new Cookie("hadoop-jwt", getSSOToken(dataset.getSourceCluster().getKnoxGatewayURL()));
+        RangerClient rangerClient = acquireRangerClient(dataset.getSourceCluster(), shouldProxy);
+        try {
+            WebResource webResource = rangerClient.getClient().resource(url);
+            if (shouldProxy) {
+                Cookie cookie =
+                        new Cookie("hadoop-jwt", getSSOToken(dataset.getSourceCluster().getKnoxGatewayURL()));
 
-            WebResource.Builder builder = webResource.getRequestBuilder().cookie(cookie);
-            clientResp = builder.get(ClientResponse.class);
-        } else {
-            clientResp = webResource.get(ClientResponse.class);
-        }
-        String response = null;
-        if (clientResp!=null) {
-            if (clientResp.getStatus()==HttpServletResponse.SC_OK) {
-                Gson gson = new GsonBuilder().create();
-                response = clientResp.getEntity(String.class);
-                if (StringUtils.isNotEmpty(response)) {
-                    rangerExportPolicyList = gson.fromJson(response, RangerExportPolicyList.class);
-                    return rangerExportPolicyList;
+                WebResource.Builder builder = webResource.getRequestBuilder().cookie(cookie);
+                clientResp = builder.get(ClientResponse.class);
+            } else {
+                clientResp = webResource.get(ClientResponse.class);
+            }
+            if (clientResp!=null) {
+                if (clientResp.getStatus()==HttpServletResponse.SC_OK) {
+                    // The response is parsed while it is read, it is never held in memory as a whole.
+                    return handler.onResponse(clientResp.getEntityInputStream());
+                } else if (clientResp.getStatus()==HttpServletResponse.SC_NO_CONTENT) {
+                    LOG.debug("Ranger policy export request returned empty list");
+                    return handler.onEmpty();
+                } else if (clientResp.getStatus()==HttpServletResponse.SC_UNAUTHORIZED) {
+                    throw new BeaconException("Authentication Failure while communicating to Ranger admin");
+                } else if (clientResp.getStatus()==HttpServletResponse.SC_FORBIDDEN) {
+                    throw new BeaconException("Authorization Failure while communicating to Ranger admin");
                 }
-            } else if (clientResp.getStatus()==HttpServletResponse.SC_NO_CONTENT) {
-                LOG.debug("Ranger policy export request returned empty list");
-                return rangerExportPolicyList;
-            } else if (clientResp.getStatus()==HttpServletResponse.SC_UNAUTHORIZED) {
-                throw new BeaconException("Authentication Failure while communicating to Ranger admin");
-            } else if (clientResp.getStatus()==HttpServletResponse.SC_FORBIDDEN) {
-                throw new BeaconException("Authorization Failure while communicating to Ranger admin");
             }
+        } catch (IOException e) {
+            throw new BeaconException("Failed to read Ranger policies exported from " + url, e);
+        } finally {
+            closeResponse(clientResp);
+            rangerClient.release();
         }
-        if (StringUtils.isEmpty(response)) {
-            LOG.debug("Ranger policy export request returned empty list or failed, Please refer Ranger admin logs.");
-        }
-        return rangerExportPolicyList;
+        LOG.debug("Ranger policy export request returned empty list or failed, Please refer Ranger admin logs.");
+        return handler.onEmpty();
     }
 
-    private List<RangerPolicy> getRangerPolicies(DataSet dataset) throws BeaconException {
-        String sourceRangerEndpoint = BeaconRangerPluginImpl.getSourceRangerEndpoint(dataset);
-        if (sourceRangerEndpoint == null) {
-            return new ArrayList<RangerPolicy>();
-        }
-
-        boolean shouldProxy = BeaconConfig.getInstance().getEngine().isKnoxProxyEnabled();
-
-        if (shouldProxy) {
-            sourceRangerEndpoint =
-                    KnoxTokenUtils.getKnoxProxiedURL(dataset.getSourceCluster().getKnoxGatewayURL(),
-                            "ranger");
-        }
-        LOG.info("Ranger endpoint for cluster " + dataset.getSourceCluster().getName() + " is " + sourceRangerEndpoint);
-
-        Properties clusterProperties = dataset.getSourceCluster().getCustomProperties();
-        String rangerHIVEServiceName = null;
-        String rangerHDFSServiceName = null;
-        if (clusterProperties != null) {
-            rangerHDFSServiceName = clusterProperties.getProperty("rangerHDFSServiceName");
-            rangerHIVEServiceName = clusterProperties.getProperty("rangerHIVEServiceName");
-        }
-        Client rangerClient = getRangerClient(dataset.getSourceCluster(), shouldProxy);
-        ClientResponse clientResp = null;
-        String uri = null;
-        String sourceDataSet=dataset.getSourceDataSet();
-        if (sourceDataSet.endsWith("/")) {
-            sourceDataSet=StringUtils.removePattern(sourceDataSet, "/+$");
+    private static boolean isSingleResourcePolicy(DataSet dataset, RangerPolicy rangerPolicy) {
+        if (rangerPolicy==null || rangerPolicy.getResources()==null) {
+            return false;
         }
+        RangerPolicy.RangerPolicyResource rangerPolicyResource=null;
         if (dataset.getType().equals(DataSet.DataSetType.HDFS)) {
-            if (!StringUtils.isEmpty(rangerHDFSServiceName)) {
-                uri = RANGER_REST_URL_GET_POLICIES + rangerHDFSServiceName + "?resource:path="
-                        + sourceDataSet
-                        + "&serviceType=hdfs&policyType=0&resourceMatchScope=self_or_ancestor";
-            }
-        }
-        if (dataset.getType().equals(DataSet.DataSetType.HIVE)) {
-            if (!StringUtils.isEmpty(rangerHIVEServiceName)) {
-                uri = RANGER_REST_URL_GET_POLICIES + rangerHIVEServiceName + "?resource:database="
-                        + sourceDataSet
-                        + "&serviceType=hive&policyType=0&resourceMatchScope=self_or_ancestor";
-            }
-        }
-        if (sourceRangerEndpoint.endsWith("/")) {
-            sourceRangerEndpoint=StringUtils.removePattern(sourceRangerEndpoint, "/+$");
+            rangerPolicyResource=rangerPolicy.getResources().get("path");
+        } else if (dataset.getType().equals(DataSet.DataSetType.HIVE)) {
+            rangerPolicyResource=rangerPolicy.getResources().get("database");
         }
-        String url = sourceRangerEndpoint + (uri.startsWith("/") ? uri : ("/" + uri));
-        LOG.debug("URL to export policies from source Ranger: {}", url);
-        RangerPolicyList rangerPolicies = new RangerPolicyList();
-
-        WebResource webResource = rangerClient.resource(url);
-        if (shouldProxy) {
-            Cookie cookie =
-                    new Cookie("hadoop-jwt", getSSOToken(dataset.getSourceCluster().getKnoxGatewayURL()));
+        return rangerPolicyResource!=null && CollectionUtils.isNotEmpty(rangerPolicyResource.getValues())
+                && rangerPolicyResource.getValues().size()==1;
+    }
 
-            WebResource.Builder builder = webResource.getRequestBuilder().cookie(cookie);
-            clientResp = builder.accept(MediaType.APPLICATION_JSON_TYPE).get(ClientResponse.class);
-        } else {
-            clientResp = webResource.accept(MediaType.APPLICATION_JSON_TYPE).get(ClientResponse.class);
-        }
-        if (clientResp!=null) {
-            if (clientResp.getStatus()==HttpServletResponse.SC_OK) {
-                Gson gson = new GsonBuilder().create();
-                String response = clientResp.getEntity(String.class);
-                if (StringUtils.isNotEmpty(response)) {
-                    rangerPolicies = gson.fromJson(response, RangerPolicyList.class);
-                }
-            } else if (clientResp.getStatus()==HttpServletResponse.SC_NO_CONTENT) {
-                LOG.debug("Ranger policy export request returned empty list");
-            } else if (clientResp.getStatus()==HttpServletResponse.SC_UNAUTHORIZED) {
-                throw new BeaconException("Authentication Failure while communicating to Ranger admin");
-            } else if (clientResp.getStatus()==HttpServletResponse.SC_FORBIDDEN) {
-                throw new BeaconException("Authorization Failure while communicating to Ranger admin");
-            }
-        }
-        if (!CollectionUtils.isEmpty(rangerPolicies.getPolicies())) {
-            return rangerPolicies.getPolicies();
-        } else {
-            return new ArrayList<RangerPolicy>();
-        }
+    private static String getSourceName(DataSet dataset) {
+        return dataset.getSourceCluster() != null ? dataset.getSourceCluster().getName() : "source";
     }
 
-    public List<RangerPolicy> removeMutilResourcePolicies(DataSet dataset, List<RangerPolicy> rangerPolicies) {
-        List<RangerPolicy> rangerPoliciesToImport = new ArrayList<RangerPolicy>();
-        if (CollectionUtils.isNotEmpty(rangerPolicies)) {
-            Map<String, RangerPolicy.RangerPolicyResource> rangerPolicyResourceMap=null;
-            RangerPolicy.RangerPolicyResource rangerPolicyResource=null;
-            List<String> resourceNameList=null;
-            for (RangerPolicy rangerPolicy : rangerPolicies) {
-                if (rangerPolicy!=null) {
-                    rangerPolicyResourceMap=rangerPolicy.getResources();
-                    if (rangerPolicyResourceMap!=null) {
-                        if (dataset.getType().equals(DataSet.DataSetType.HDFS)) {
-                            rangerPolicyResource=rangerPolicyResourceMap.get("path");
-                        } else if (dataset.getType().equals(DataSet.DataSetType.HIVE)) {
-                            rangerPolicyResource=rangerPolicyResourceMap.get("database");
-                        }
-                        if (rangerPolicyResource!=null) {
-                            resourceNameList=rangerPolicyResource.getValues();
-                            if (CollectionUtils.isNotEmpty(resourceNameList) && resourceNameList.size()==1) {
-                                rangerPoliciesToImport.add(rangerPolicy);
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return rangerPoliciesToImport;
+    private static void setImportDescription(RangerPolicy rangerPolicy, String source, String importDate) {
+        rangerPolicy.setDescription(rangerPolicy.getName() + " created by beacon while importing from "
+                + source + " on " + importDate);
     }
 
-    //Dataset.getTargetCluster can't be null
-    public List<RangerPolicy> addSingleDenyPolicies(DataSet dataset, List<RangerPolicy> rangerPolicies) {
-        String source= dataset.getSourceCluster() != null ? dataset.getSourceCluster().getName() : "source";
-        List<RangerPolicy> rangerPoliciesToImport = new ArrayList<RangerPolicy>();
-        if (CollectionUtils.isNotEmpty(rangerPolicies)) {
-            for (RangerPolicy rangerPolicy : rangerPolicies) {
-                rangerPolicy.setDescription(rangerPolicy.getName() + " created by beacon while importing from "
-                        + source + " on " + DateUtil.formatDate(new Date()));
-                rangerPoliciesToImport.add(rangerPolicy);
-            }
-        }
+    private RangerPolicy getDenyPolicy(DataSet dataset, String source, String importDate) {
         if (!createDenyPolicy) {
-            return rangerPoliciesToImport;
+            return null;
         }
         RangerPolicy denyRangerPolicy = null;
         Properties clusterProperties = null;
@@ -423,7 +425,7 @@ public class RangerAdminRESTClient {
             denyRangerPolicy.setService(rangerServiceName);
             denyRangerPolicy.setName(source + "_beacon deny policy for " + targetDataSet);
             denyRangerPolicy.setDescription("Deny policy created by beacon while importing from " + source + " on "
-                    + DateUtil.formatDate(new Date()));
+                    + importDate);
         }
         if (denyRangerPolicy!=null) {
             Map<String, RangerPolicy.RangerPolicyResource> rangerPolicyResourceMap =
@@ -511,17 +513,22 @@ public class RangerAdminRESTClient {
                 denyExceptionsPolicyItem.setUsers(denyExceptionsPolicyItemsUsers);
                 denyRangerPolicy.setDenyExceptions(denyExceptionsItemsForBeaconUser);
             }
-            rangerPoliciesToImport.add(denyRangerPolicy);
         }
-        return rangerPoliciesToImport;
+        return denyRangerPolicy;
+    }
+
+    private void importRangerPoliciesFromPath(DataSet dataset, Path policiesPath) throws BeaconException {
+        try (InputStream policies = getFileSystem(policiesPath).open(policiesPath)) {
+            importRangerPoliciesFromStream(dataset, policies);
+        } catch (IOException e) {
+            throw new BeaconException("Error reading file :" + policiesPath, e);
+        }
     }
 
-    //dataset.getTargetCluster() != null
-    public RangerExportPolicyList importRangerPoliciesFromFile(DataSet dataset,
-            RangerExportPolicyList rangerExportPolicyList) throws BeaconException {
+    private void importRangerPoliciesFromStream(DataSet dataset, InputStream policies) throws BeaconException {
         String targetRangerEndpoint = BeaconRangerPluginImpl.getTargetRangerEndpoint(dataset);
         if (targetRangerEndpoint == null) {
-            return rangerExportPolicyList;
+            return;
         }
 
         Properties targetClusterProperties = dataset.getTargetCluster().getCustomProperties();
@@ -564,10 +571,7 @@ public class RangerAdminRESTClient {
             serviceMap.put(sourceClusterServiceName, targetClusterServiceName);
         }
 
-        Gson gson = new GsonBuilder().create();
-        String jsonServiceMap = gson.toJson(serviceMap);
-
-        String jsonRangerExportPolicyList = gson.toJson(rangerExportPolicyList);
+        String jsonServiceMap = RangerPolicyJsonStream.GSON.toJson(serviceMap);
 
         if (targetRangerEndpoint.endsWith("/")) {
             targetRangerEndpoint=StringUtils.removePattern(targetRangerEndpoint, "/+$");
@@ -583,13 +587,9 @@ public class RangerAdminRESTClient {
         String url = targetRangerEndpoint + (uri.startsWith("/") ? uri : ("/" + uri));
 
         LOG.debug("URL to import policies on target Ranger: {}", url);
-        Client rangerClient = getRangerClient(dataset.getTargetCluster(), shouldProxy);
         ClientResponse clientResp = null;
-        WebResource webResource = rangerClient.resource(url);
 
-        StreamDataBodyPart filePartPolicies = new StreamDataBodyPart("file",
-                new ByteArrayInputStream(jsonRangerExportPolicyList.getBytes(StandardCharsets.UTF_8)),
-                rangerPoliciesJsonFileName);
+        StreamDataBodyPart filePartPolicies = new StreamDataBodyPart("file", policies, rangerPoliciesJsonFileName);
         StreamDataBodyPart filePartServiceMap = new StreamDataBodyPart("servicesMapJson",
                 new ByteArrayInputStream(jsonServiceMap.getBytes(StandardCharsets.UTF_8)), serviceMapJsonFileName);
 
@@ -597,7 +597,9 @@ public class RangerAdminRESTClient {
         MultiPart multipartEntity=null;
         try {
             multipartEntity = formDataMultiPart.bodyPart(filePartPolicies).bodyPart(filePartServiceMap);
+            RangerClient rangerClient = acquireRangerClient(dataset.getTargetCluster(), shouldProxy);
             try {
+                WebResource webResource = rangerClient.getClient().resource(url);
                 if (shouldProxy) {
                     Cookie cookie =
                             new Cookie("hadoop-jwt", getSSOToken(dataset.getTargetCluster().getKnoxGatewayURL()));
@@ -613,6 +615,9 @@ public class RangerAdminRESTClient {
                 if (clientResp==null) {
                     throw new BeaconException("Ranger policy import failed, Please refer target Ranger admin logs.", t);
                 }
+            } finally {
+                closeResponse(clientResp);
+                rangerClient.release();
             }
             if (clientResp!=null) {
                 if (clientResp.getStatus()==HttpServletResponse.SC_NO_CONTENT) {
@@ -641,26 +646,109 @@ public class RangerAdminRESTClient {
                 LOG.error("Exception occurred while closing resources: {}", e);
             }
         }
-        return rangerExportPolicyList;
     }
 
-    private synchronized Client getRangerClient(Cluster cluster, boolean shouldProxy) throws BeaconException {
-        Client ret = null;
+    /**
+     * Client of the cluster's Ranger admin, in use until {@link RangerClient#release()}.
+     */
+    private RangerClient acquireRangerClient(Cluster cluster, boolean shouldProxy) throws BeaconException {
+        while (true) {
+            RangerClient rangerClient = getRangerClient(cluster, shouldProxy);
+            if (rangerClient.acquire()) {
+                return rangerClient;
+            }
+            // Replaced by another job after a cluster update and destroyed in the meantime, use its replacement.
+        }
+    }
+
+    private RangerClient getRangerClient(Cluster cluster, boolean shouldProxy) throws BeaconException {
         String rangerEndpoint = shouldProxy
                 ? KnoxTokenUtils.getKnoxProxiedURL(cluster.getKnoxGatewayURL(), "ranger")
                 :  cluster.getRangerEndpoint();
+        String clientKey = cluster.getName() + "|" + rangerEndpoint + "|" + shouldProxy;
+        String[] credentials = getBasicAuthCredentials();
+        String credentialsDigest = getCredentialsDigest(credentials);
+        RangerClient rangerClient = RANGER_CLIENTS.get(clientKey);
+        if (rangerClient != null && rangerClient.getClusterVersion() == cluster.getVersion()
+                && rangerClient.getCredentialsDigest().equals(credentialsDigest)) {
+            return rangerClient;
+        }
+        ApacheHttpClient4 client = createRangerClient(cluster, rangerEndpoint, shouldProxy, credentials);
+        if (client == null) {
+            throw new BeaconException("Unable to create client for communication to Ranger admin {}",
+                    rangerEndpoint);
+        }
+        RangerClient newClient = new RangerClient(client, cluster.getVersion(), credentialsDigest);
+        boolean added = rangerClient == null
+                ? RANGER_CLIENTS.putIfAbsent(clientKey, newClient) == null
+                : RANGER_CLIENTS.replace(clientKey, rangerClient, newClient);
+        if (!added) {
+            // Another job created the client for this endpoint concurrently.
+            newClient.destroy();
+            return getRangerClient(cluster, shouldProxy);
+        }
+        if (rangerClient != null) {
+            // Cluster or credentials were updated, the replaced client is destroyed once it is not in use.
+            rangerClient.retire();
+        }
+        LOG.debug("Created Ranger admin client for cluster {} and endpoint {}", cluster.getName(), rangerEndpoint);
+        return newClient;
+    }
+
+    /**
+     * @return user and password of the basic authentication with Ranger admin, null if it is not used
+     */
+    private String[] getBasicAuthCredentials() throws BeaconException {
+        if (isSpnegoEnable() && SecureClientLogin.isKerberosCredentialExists(principal, keytab)) {
+            return null;
+        }
+        String remoteRangerAdmin = AUTHCONFIG.getProperty(BEACON_RANGER_USER);
+        LOG.debug("Beacon Ranger User: {}", remoteRangerAdmin);
+        String remoteRangerPassword=null;
+        try {
+            remoteRangerPassword = AUTHCONFIG.resolvePassword(BEACON_RANGER_PASSWORD);
+        } catch (BeaconException e) {
+            remoteRangerPassword=null;
+        }
+        if (StringUtils.isEmpty(remoteRangerPassword)) {
+            remoteRangerPassword=AUTHCONFIG.getProperty(BEACON_RANGER_PASSWORD);
+        }
+        if (StringUtils.isEmpty(remoteRangerAdmin) || StringUtils.isEmpty(remoteRangerPassword)) {
+            return null;
+        }
+        return new String[] {remoteRangerAdmin, remoteRangerPassword};
+    }
+
+    // The password is not kept with the cached client, only a digest to detect a change.
+    private static String getCredentialsDigest(String[] credentials) throws BeaconException {
+        if (credentials == null) {
+            return "";
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(credentials[0].getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(credentials[1].getBytes(StandardCharsets.UTF_8));
+            return String.format("%064x", new BigInteger(1, digest.digest()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new BeaconException("Unable to compute the Ranger admin credentials digest", e);
+        }
+    }
+
+    private ApacheHttpClient4 createRangerClient(Cluster cluster, String rangerEndpoint, boolean shouldProxy,
+                                                 String[] credentials) throws BeaconException {
         Properties clusterProperties = cluster.getCustomProperties();
-        ClientConfig config = new DefaultClientConfig();
-        config.getClasses().add(MultiPartWriter.class);
+        SSLContext sslContext = null;
+        HostnameVerifier hv = null;
         if (StringUtils.startsWith(rangerEndpoint, "https://")) {
-            SSLContext sslContext = shouldProxy ? SSLUtils.getSSLContext() : null;
+            sslContext = shouldProxy ? SSLUtils.getSSLContext() : null;
             if (sslContext == null) {
                 try {
                     KeyManager[] kmList = null;
                     TrustManager[] tmList = null;
-                    keyStoreFile = clusterProperties.getProperty("SSLKeyStoreFile");
-                    keyStoreFilepwd = clusterProperties.getProperty("SSLKeyStoreFilePassword");
-                    keyStoreType = KeyStore.getDefaultType();
+                    String keyStoreFile = clusterProperties.getProperty("SSLKeyStoreFile");
+                    String keyStoreFilepwd = clusterProperties.getProperty("SSLKeyStoreFilePassword");
+                    String keyStoreType = KeyStore.getDefaultType();
                     LOG.debug("SSLKeyStoreFile: {}", keyStoreFile);
                     if (keyStoreFile != null && keyStoreFilepwd != null) {
                         KeyStore keyStore = KeyStore.getInstance(keyStoreType);
@@ -669,7 +757,7 @@ public class RangerAdminRESTClient {
                             in = getFileInputStream(keyStoreFile);
                             if (in == null) {
                                 LOG.error("SSLKeyStoreFile: {}", keyStoreFile);
-                                return ret;
+                                return null;
                             }
                             keyStore.load(in, keyStoreFilepwd.toCharArray());
                             KeyManagerFactory keyManagerFactory = KeyManagerFactory
@@ -683,10 +771,10 @@ public class RangerAdminRESTClient {
                         }
                     }
 
-                    trustStoreFile = clusterProperties.getProperty("SSLTrustStoreFile");
-                    trustStoreFilepwd = clusterProperties.getProperty("SSLTrustStoreFilePassword");
+                    String trustStoreFile = clusterProperties.getProperty("SSLTrustStoreFile");
+                    String trustStoreFilepwd = clusterProperties.getProperty("SSLTrustStoreFilePassword");
                     LOG.debug("SSLTrustStoreFile: {}", trustStoreFile);
-                    trustStoreType = KeyStore.getDefaultType();
+                    String trustStoreType = KeyStore.getDefaultType();
                     if (trustStoreFile != null && trustStoreFilepwd != null) {
                         KeyStore trustStore = KeyStore.getInstance(trustStoreType);
                         InputStream in = null;
@@ -694,7 +782,7 @@ public class RangerAdminRESTClient {
                             in = getFileInputStream(trustStoreFile);
                             if (in == null) {
                                 LOG.error("Unable to obtain keystore from file: {}", keyStoreFile);
-                                return ret;
+                                return null;
                             }
                             trustStore.load(in, trustStoreFilepwd.toCharArray());
                             TrustManagerFactory trustManagerFactory = TrustManagerFactory
@@ -718,33 +806,156 @@ public class RangerAdminRESTClient {
                     throw new BeaconException("Unable to create SSLConext for communication to Ranger admin", t);
                 }
             }
-            config.getProperties().put(HTTPSProperties.PROPERTY_HTTPS_PROPERTIES, new HTTPSProperties(hv, sslContext));
-            ret = Client.create(config);
+        }
+        // Requests wait for a pooled connection at most this long.
+        HttpParams httpParams = new BasicHttpParams();
+        httpParams.setLongParameter(ClientPNames.CONN_MANAGER_TIMEOUT,
+                getIntProperty(BEACON_RANGER_CLIENT_CONNECTION_WAIT_TIMEOUT, DEFAULT_RANGER_CLIENT_TIMEOUT));
+        DefaultApacheHttpClient4Config config = new DefaultApacheHttpClient4Config();
+        config.getClasses().add(MultiPartWriter.class);
+        config.getProperties().put(ApacheHttpClient4Config.PROPERTY_CONNECTION_MANAGER,
+                createConnectionManager(sslContext, hv, getIntProperty(BEACON_RANGER_CLIENT_MAX_CONNECTIONS,
+                        DEFAULT_RANGER_CLIENT_MAX_CONNECTIONS)));
+        config.getProperties().put(ApacheHttpClient4Config.PROPERTY_HTTP_PARAMS, httpParams);
+        // The client is shared between jobs, the auth cookies are set on every request instead.
+        config.getProperties().put(ApacheHttpClient4Config.PROPERTY_DISABLE_COOKIES, true);
+        config.getProperties().put(ClientConfig.PROPERTY_FOLLOW_REDIRECTS, true);
+        ApacheHttpClient4 ret = ApacheHttpClient4.create(config);
+        ret.setConnectTimeout(getIntProperty(BEACON_RANGER_CLIENT_CONNECT_TIMEOUT, DEFAULT_RANGER_CLIENT_TIMEOUT));
+        ret.setReadTimeout(getIntProperty(BEACON_RANGER_CLIENT_READ_TIMEOUT, DEFAULT_RANGER_CLIENT_TIMEOUT));
+        if (credentials != null) {
+            ret.addFilter(new HTTPBasicAuthFilter(credentials[0], credentials[1]));
         } else {
-            config.getProperties().put(ClientConfig.PROPERTY_FOLLOW_REDIRECTS, true);
-            ret = Client.create(config);
-        }
-        if (!(isSpnegoEnable() && SecureClientLogin.isKerberosCredentialExists(principal, keytab))) {
-            if (ret != null) {
-                String remoteRangerAdmin = AUTHCONFIG.getProperty(BEACON_RANGER_USER);
-                LOG.debug("Beacon Ranger User: {}", remoteRangerAdmin);
-                String remoteRangerPassword=null;
-                try {
-                    remoteRangerPassword = AUTHCONFIG.resolvePassword(BEACON_RANGER_PASSWORD);
-                } catch (BeaconException e) {
-                    remoteRangerPassword=null;
-                }
-                if (StringUtils.isEmpty(remoteRangerPassword)) {
-                    remoteRangerPassword=AUTHCONFIG.getProperty(BEACON_RANGER_PASSWORD);
-                }
-                if (!StringUtils.isEmpty(remoteRangerAdmin) && !StringUtils.isEmpty(remoteRangerPassword)) {
-                    ret.addFilter(new HTTPBasicAuthFilter(remoteRangerAdmin, remoteRangerPassword));
-                }
-            }
+            // Negotiate with the Kerberos credentials of the login user, the requests are sent within its doAs.
+            DefaultHttpClient httpClient = (DefaultHttpClient) ret.getClientHandler().getHttpClient();
+            httpClient.getAuthSchemes().register(AuthSchemes.SPNEGO, new SPNegoSchemeFactory(true));
+            httpClient.getCredentialsProvider().setCredentials(AuthScope.ANY, KERBEROS_CREDENTIALS);
         }
         return ret;
     }
 
+    /**
+     * Pooled connection manager bounding the connections to the Ranger admin. The connections are kept alive in
+     * the pool and go back to it once the response entity is read or closed.
+     */
+    private static PoolingClientConnectionManager createConnectionManager(SSLContext sslContext,
+                                                                          HostnameVerifier hv, int maxConnections) {
+        SchemeRegistry schemeRegistry = SchemeRegistryFactory.createDefault();
+        if (sslContext != null) {
+            X509HostnameVerifier verifier = hv != null
+                    ? new SessionHostnameVerifier(hv) : SSLSocketFactory.BROWSER_COMPATIBLE_HOSTNAME_VERIFIER;
+            schemeRegistry.register(new Scheme("https", 443, new SSLSocketFactory(sslContext, verifier)));
+        }
+        PoolingClientConnectionManager manager = new PoolingClientConnectionManager(schemeRegistry);
+        manager.setMaxTotal(maxConnections);
+        manager.setDefaultMaxPerRoute(maxConnections);
+        return manager;
+    }
+
+    /**
+     * Handles the response of a Ranger policy export request.
+     */
+    private interface ExportResponseHandler<T> {
+        T onEmpty() throws BeaconException;
+
+        T onResponse(InputStream response) throws IOException, BeaconException;
+    }
+
+    private static int getIntProperty(String name, int defaultValue) {
+        String value = AUTHCONFIG.getProperty(name);
+        if (StringUtils.isNotEmpty(value)) {
+            try {
+                return Math.max(1, Integer.parseInt(value.trim()));
+            } catch (NumberFormatException e) {
+                LOG.warn("Invalid value {} for {}, using default {}", value, name, defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
+    private static void closeResponse(ClientResponse clientResp) {
+        if (clientResp != null) {
+            try {
+                clientResp.close();
+            } catch (Exception e) {
+                LOG.debug("Exception occurred while closing Ranger admin response: {}", e.getMessage());
+            }
+        }
+    }
+
+    static int getCachedClientCount() {
+        return RANGER_CLIENTS.size();
+    }
+
+    static int getDestroyedClientCount() {
+        return DESTROYED_CLIENTS.get();
+    }
+
+    /**
+     * Cached Jersey client for a Ranger endpoint, the connections in use at a time are bounded by its pool.
+     */
+    private static final class RangerClient {
+        private final ApacheHttpClient4 client;
+        private final int clusterVersion;
+        private final String credentialsDigest;
+        // Guarded by this.
+        private int inUse;
+        private boolean retired;
+        private boolean destroyed;
+
+        private RangerClient(ApacheHttpClient4 client, int clusterVersion, String credentialsDigest) {
+            this.client = client;
+            this.clusterVersion = clusterVersion;
+            this.credentialsDigest = credentialsDigest;
+        }
+
+        private Client getClient() {
+            return client;
+        }
+
+        private int getClusterVersion() {
+            return clusterVersion;
+        }
+
+        private String getCredentialsDigest() {
+            return credentialsDigest;
+        }
+
+        /**
+         * @return false if the client was destroyed after it was replaced, it can't be used anymore
+         */
+        private synchronized boolean acquire() {
+            if (destroyed) {
+                return false;
+            }
+            inUse++;
+            return true;
+        }
+
+        private synchronized void release() {
+            inUse--;
+            destroyIfRetired();
+        }
+
+        private synchronized void retire() {
+            retired = true;
+            destroyIfRetired();
+        }
+
+        private void destroyIfRetired() {
+            if (retired && inUse == 0 && !destroyed) {
+                destroy();
+                DESTROYED_CLIENTS.incrementAndGet();
+            }
+        }
+
+        private synchronized void destroy() {
+            destroyed = true;
+            client.destroy();
+            client.getClientHandler().getHttpClient().getConnectionManager().shutdown();
+        }
+    }
+
     private InputStream getFileInputStream(String path) throws FileNotFoundException {
         InputStream ret = null;
         File f = new File(path);
@@ -793,7 +1004,7 @@ public class RangerAdminRESTClient {
         return isKerberos;
     }
 
-    public List<RangerPolicy> changeDataSet(DataSet dataset, List<RangerPolicy> rangerPolicies) {
+    private static void changeDataSet(DataSet dataset, RangerPolicy rangerPolicy) {
         String targetDataSet=dataset.getTargetDataSet();
         String sourceDataSet=dataset.getSourceDataSet();
         if (sourceDataSet.endsWith("/")) {
@@ -802,51 +1013,41 @@ public class RangerAdminRESTClient {
         if (targetDataSet.endsWith("/")) {
             targetDataSet=StringUtils.removePattern(targetDataSet, "/+$");
         }
-        if (targetDataSet.equals(sourceDataSet)) {
-            return rangerPolicies;
-        }
-        if (CollectionUtils.isNotEmpty(rangerPolicies)) {
-            Map<String, RangerPolicy.RangerPolicyResource> rangerPolicyResourceMap=null;
-            RangerPolicy.RangerPolicyResource rangerPolicyResource=null;
-            List<String> resourceNameList=null;
-            for (RangerPolicy rangerPolicy : rangerPolicies) {
-                if (rangerPolicy!=null) {
-                    rangerPolicyResourceMap=rangerPolicy.getResources();
-                    if (rangerPolicyResourceMap!=null) {
-                        if (dataset.getType().equals(DataSet.DataSetType.HDFS)) {
-                            rangerPolicyResource=rangerPolicyResourceMap.get("path");
-                            if (rangerPolicyResource!=null) {
-                                resourceNameList=rangerPolicyResource.getValues();
-                                if (CollectionUtils.isNotEmpty(resourceNameList)) {
-                                    for (int i=0; i< resourceNameList.size(); i++) {
-                                        String resourceName=resourceNameList.get(i);
-                                        if (resourceName.startsWith(sourceDataSet)) {
-                                            String temp=resourceName.substring(sourceDataSet.length());
-                                            String newResourceName=targetDataSet.concat(temp);
-                                            resourceNameList.set(i, newResourceName);
-                                        }
-                                    }
-                                }
-                            }
-                        } else if (dataset.getType().equals(DataSet.DataSetType.HIVE)) {
-                            rangerPolicyResource=rangerPolicyResourceMap.get("database");
-                            if (rangerPolicyResource!=null) {
-                                resourceNameList=rangerPolicyResource.getValues();
-                                if (CollectionUtils.isNotEmpty(resourceNameList)) {
-                                    for (int i=0; i< resourceNameList.size(); i++) {
-                                        String resourceName=resourceNameList.get(i);
-                                        if (resourceName.equals(sourceDataSet)) {
-                                            resourceNameList.set(i, targetDataSet);
-                                        }
-                                    }
-                                }
-                            }
+        if (targetDataSet.equals(sourceDataSet) || rangerPolicy==null || rangerPolicy.getResources()==null) {
+            return;
+        }
+        Map<String, RangerPolicy.RangerPolicyResource> rangerPolicyResourceMap=rangerPolicy.getResources();
+        RangerPolicy.RangerPolicyResource rangerPolicyResource=null;
+        List<String> resourceNameList=null;
+        if (dataset.getType().equals(DataSet.DataSetType.HDFS)) {
+            rangerPolicyResource=rangerPolicyResourceMap.get("path");
+            if (rangerPolicyResource!=null) {
+                resourceNameList=rangerPolicyResource.getValues();
+                if (CollectionUtils.isNotEmpty(resourceNameList)) {
+                    for (int i=0; i< resourceNameList.size(); i++) {
+                        String resourceName=resourceNameList.get(i);
+                        if (resourceName.startsWith(sourceDataSet)) {
+                            String temp=resourceName.substring(sourceDataSet.length());
+                            String newResourceName=targetDataSet.concat(temp);
+                            resourceNameList.set(i, newResourceName);
+                        }
+                    }
+                }
+            }
+        } else if (dataset.getType().equals(DataSet.DataSetType.HIVE)) {
+            rangerPolicyResource=rangerPolicyResourceMap.get("database");
+            if (rangerPolicyResource!=null) {
+                resourceNameList=rangerPolicyResource.getValues();
+                if (CollectionUtils.isNotEmpty(resourceNameList)) {
+                    for (int i=0; i< resourceNameList.size(); i++) {
+                        String resourceName=resourceNameList.get(i);
+                        if (resourceName.equals(sourceDataSet)) {
+                            resourceNameList.set(i, targetDataSet);
                         }
                     }
                 }
             }
         }
-        return rangerPolicies;
     }
 
     private String getSSOToken(String knoxBaseURL) {
@@ -861,81 +1062,46 @@ public class RangerAdminRESTClient {
         return null;
     }
 
-    private Path writeExportedRangerPoliciesToJsonFile(String jsonString, String fileName, Path stagingDirPath)
-            throws BeaconException {
-        String filePath= "";
-        Path newPath=null;
-        FSDataOutputStream outStream=null;
-        OutputStreamWriter writer=null;
-        try {
-            if (!StringUtils.isEmpty(jsonString)) {
-                FileSystem fileSystem=getFileSystem(stagingDirPath);
-                if (fileSystem!=null) {
-                    if (!fileSystem.exists(stagingDirPath)) {
-                        fileSystem.mkdirs(stagingDirPath);
-                    }
-                    newPath=stagingDirPath.suffix(File.separator + fileName);
-                    outStream = fileSystem.create(newPath, true);
-                    writer = new OutputStreamWriter(outStream);
-                    writer.write(jsonString);
-                }
-            }
-        } catch (IOException ex) {
-            if (newPath!=null) {
-                filePath=newPath.toString();
-            }
-            throw new BeaconException("Failed to write json string to file:"+filePath, ex);
-        } catch (Exception ex) {
-            if (newPath!=null) {
-                filePath=newPath.toString();
-            }
-            throw new BeaconException("Failed to write json string to file:"+filePath, ex);
-        } finally {
-            try{
-                if (writer!=null) {
-                    writer.close();
-                }
-                if (outStream!=null) {
-                    outStream.close();
-                }
-            }catch(Exception ex) {
-                LOG.error("Unable to close writer/outStream.", ex);
-            }
-        }
-        return newPath;
-    }
-
     private FileSystem getFileSystem(Path path) throws IOException {
         Configuration conf = new Configuration();
         FileSystem fileSystem = path.getFileSystem(conf);
         return fileSystem;
     }
 
-    public Path saveRangerPoliciesToFile(DataSet dataset,
-        RangerExportPolicyList rangerExportPolicyList, Path stagingDirPath) throws BeaconException{
+    private static String getExportFileName(DataSet dataset) {
         String rangerPoliciesJsonFileName = null;
         if (dataset.getType().equals(DataSet.DataSetType.HDFS)) {
             rangerPoliciesJsonFileName = HDFS_RANGER_POLICIES_FILE_NAME + ".json";
         } else if (dataset.getType().equals(DataSet.DataSetType.HIVE)) {
             rangerPoliciesJsonFileName = HIVE_RANGER_POLICIES_FILE_NAME + ".json";
         }
-        Gson gson = new GsonBuilder().create();
-        String jsonRangerExportPolicyList = gson.toJson(rangerExportPolicyList);
-        return writeExportedRangerPoliciesToJsonFile(jsonRangerExportPolicyList, rangerPoliciesJsonFileName,
-                stagingDirPath);
+        return rangerPoliciesJsonFileName;
     }
 
-    public RangerExportPolicyList readRangerPoliciesFromJsonFile(Path filePath) throws BeaconException {
-        RangerExportPolicyList rangerExportPolicyList =null;
-        Gson gsonBuilder = new GsonBuilder().setDateFormat("yyyyMMdd-HH:mm:ss.SSS-Z").setPrettyPrinting().create();
+    private static String getImportFileName(DataSet dataset) {
+        return dataset.getType().equals(DataSet.DataSetType.HIVE)
+                ? HIVE_RANGER_IMPORT_POLICIES_FILE_NAME + ".json" : HDFS_RANGER_IMPORT_POLICIES_FILE_NAME + ".json";
+    }
+
+    private int writePoliciesToFile(Reader reader, Path filePath,
+                                    RangerPolicyJsonStream.PolicyTransformer transformer,
+                                    List<RangerPolicy> additionalPolicies) throws BeaconException {
         try {
-            FileSystem fs=getFileSystem(filePath);
-            InputStream inputStream = fs.open(filePath);
-            Reader reader = new InputStreamReader(inputStream, Charset.forName("UTF-8"));
-            rangerExportPolicyList = gsonBuilder.fromJson(reader, RangerExportPolicyList.class);
-        } catch(Exception ex){
-            throw new BeaconException("Error reading file :"+filePath, ex);
-        }
-        return rangerExportPolicyList;
+            FileSystem fileSystem = getFileSystem(filePath);
+            if (!fileSystem.exists(filePath.getParent())) {
+                fileSystem.mkdirs(filePath.getParent());
+            }
+            int count;
+            try (Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(fileSystem.create(filePath, true), StandardCharsets.UTF_8))) {
+                count = RangerPolicyJsonStream.transform(reader, writer, transformer, additionalPolicies);
+            }
+            if (count == 0) {
+                fileSystem.delete(filePath, false);
+            }
+            return count;
+        } catch (IOException | RuntimeException e) {
+            throw new BeaconException(e, "Failed to write Ranger policies to file: {}", filePath);
+        }
     }
 }
@@ -0,0 +1,155 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.plugin.ranger;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Streams an exported Ranger policy list from a reader to a writer one policy at a time, so that the whole
+ * list is never held in memory.  Fields other than the policies, like the export metadata, are copied as is.
+ */
+public final class RangerPolicyJsonStream {
+
+    private static final String POLICIES = "policies";
+
+    // Gson instances are thread safe, so one is shared by all exports and imports.
+    static final Gson GSON = new GsonBuilder().setDateFormat("yyyyMMdd-HH:mm:ss.SSS-Z").create();
+
+    /**
+     * Transformation applied to each policy while it is streamed.
+     */
+    public interface PolicyTransformer {
+        /**
+         * @param policy policy read from the export
+         * @return policy to write, or null to drop the policy
+         */
+        RangerPolicy transform(RangerPolicy policy);
+    }
+
+    private RangerPolicyJsonStream() {
+    }
+
+    /**
+     * Reads the exported policy list from <i>in</i> and writes the transformed policies to <i>out</i>,
+     * followed by the <i>additionalPolicies</i>.  The streams are not closed.
+     *
+     * @param in exported policy list
+     * @param out where the transformed policy list is written, can be null to only visit the policies
+     * @param transformer transformation of each policy
+     * @param additionalPolicies policies appended after the transformed ones, can be null
+     * @return number of policies written
+     * @throws IOException
+     */
+    public static int transform(Reader in, Writer out, PolicyTransformer transformer,
+                                List<RangerPolicy> additionalPolicies) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        reader.setLenient(true);
+        JsonWriter writer = out == null ? null : new JsonWriter(out);
+        int count = 0;
+        boolean policiesWritten = false;
+        if (writer != null) {
+            writer.beginObject();
+        }
+        if (hasContent(reader)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (POLICIES.equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    count += writePolicies(reader, writer, transformer, additionalPolicies);
+                    policiesWritten = true;
+                } else if (writer != null) {
+                    writer.name(name);
+                    GSON.toJson(GSON.fromJson(reader, JsonElement.class), writer);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        if (!policiesWritten) {
+            count += writePolicies(null, writer, transformer, additionalPolicies);
+        }
+        if (writer != null) {
+            writer.endObject();
+            writer.flush();
+        }
+        return count;
+    }
+
+    private static boolean hasContent(JsonReader reader) throws IOException {
+        try {
+            return reader.peek() != JsonToken.END_DOCUMENT;
+        } catch (EOFException e) {
+            // Empty export
+            return false;
+        }
+    }
+
+    private static int writePolicies(JsonReader reader, JsonWriter writer, PolicyTransformer transformer,
+                                     List<RangerPolicy> additionalPolicies) throws IOException {
+        int count = 0;
+        if (writer != null) {
+            writer.name(POLICIES);
+            writer.beginArray();
+        }
+        if (reader != null) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                RangerPolicy policy = GSON.fromJson(reader, RangerPolicy.class);
+                RangerPolicy transformed = policy == null ? null : transformer.transform(policy);
+                if (transformed != null) {
+                    writePolicy(writer, transformed);
+                    count++;
+                }
+            }
+            reader.endArray();
+        }
+        if (additionalPolicies != null) {
+            for (RangerPolicy policy : additionalPolicies) {
+                writePolicy(writer, policy);
+                count++;
+            }
+        }
+        if (writer != null) {
+            writer.endArray();
+        }
+        return count;
+    }
+
+    private static void writePolicy(JsonWriter writer, RangerPolicy policy) {
+        if (writer != null) {
+            GSON.toJson(policy, RangerPolicy.class, writer);
+        }
+    }
+}
@@ -29,7 +29,9 @@ import com.hortonworks.beacon.entity.util.PolicyHelper;
 import com.hortonworks.beacon.exceptions.BeaconException;
 import com.hortonworks.beacon.job.JobContext;
 import com.hortonworks.beacon.job.JobStatus;
+import com.hortonworks.beacon.plugin.ChangeDetectingPlugin;
 import com.hortonworks.beacon.plugin.DataSet;
+import com.hortonworks.beacon.plugin.ExportFingerprint;
 import com.hortonworks.beacon.plugin.Plugin;
 import com.hortonworks.beacon.replication.InstanceReplication;
 import com.hortonworks.beacon.replication.ReplicationJobDetails;
@@ -38,6 +40,9 @@ import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -46,6 +51,21 @@ import java.util.Properties;
 public class PluginJobManager extends InstanceReplication {
     private static final Logger LOG = LoggerFactory.getLogger(PluginJobManager.class);
     private static final String PLUGIN_STAGING_PATH = "PLUGIN_STAGINGPATH";
+    static final String APPLIED_STAT = ".applied";
+    static final String SKIPPED_STAT = ".skipped";
+
+    private static final int MAX_LAST_IMPORTS = 1000;
+
+    // Fingerprint of the last successful import per plugin and dataset. It is kept in memory only, so the first
+    // import after a restart is always performed. Least recently used entries are dropped beyond
+    // MAX_LAST_IMPORTS, e.g. the ones of deleted policies, which only costs a full import of that dataset.
+    private static final Map<String, String> LAST_IMPORTS = Collections.synchronizedMap(
+            new LinkedHashMap<String, String>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > MAX_LAST_IMPORTS;
+                }
+            });
 
     public PluginJobManager(ReplicationJobDetails details) {
         super(details);
@@ -104,7 +124,7 @@ public class PluginJobManager extends InstanceReplication {
                 LOG.debug("Plugin policies imported from {}", stagingPathStr);
                 Path stagingPath = (StringUtils.isEmpty(stagingPathStr) || stagingPathStr.equals("null")) ? null
                         : new Path(stagingPathStr);
-                plugin.importData(pluginDataset, stagingPath);
+                importData(plugin, pluginName, pluginDataset, stagingPath, jobContext);
                 break;
 
             default:
@@ -113,6 +133,47 @@ public class PluginJobManager extends InstanceReplication {
         setInstanceExecutionDetails(jobContext, JobStatus.SUCCESS);
     }
 
+    /**
+     * Imports the exported data, unless the plugin detects changes and the data is unchanged since the last
+     * successful import for the dataset.
+     */
+    static void importData(Plugin plugin, String pluginName, DataSet dataset, Path stagingPath,
+                           JobContext jobContext) throws BeaconException {
+        if (!(plugin instanceof ChangeDetectingPlugin)) {
+            plugin.importData(dataset, stagingPath);
+            return;
+        }
+
+        ExportFingerprint fingerprint = ((ChangeDetectingPlugin) plugin).getFingerprint(dataset, stagingPath);
+        String importKey = getImportKey(pluginName, dataset);
+        if (fingerprint.getDigest().equals(LAST_IMPORTS.get(importKey))) {
+            LOG.info("Plugin {} data for dataset {} is unchanged since the last import, skipping import",
+                    pluginName, dataset.getTargetDataSet());
+            setPluginStats(jobContext, pluginName, 0, fingerprint.getItemCount());
+            return;
+        }
+
+        // Forget the previous import first, a failed import may have partially applied the new data.
+        LAST_IMPORTS.remove(importKey);
+        plugin.importData(dataset, stagingPath);
+        LAST_IMPORTS.put(importKey, fingerprint.getDigest());
+        LOG.debug("Plugin {} data imported with fingerprint {}", pluginName, fingerprint);
+        setPluginStats(jobContext, pluginName, fingerprint.getItemCount(), 0);
+    }
+
+    private static String getImportKey(String pluginName, DataSet dataset) {
+        return pluginName
+                + "|" + (dataset.getSourceCluster() != null ? dataset.getSourceCluster().getName() : null)
+                + "|" + dataset.getSourceDataSet()
+                + "|" + (dataset.getTargetCluster() != null ? dataset.getTargetCluster().getName() : null)
+                + "|" + dataset.getTargetDataSet();
+    }
+
+    private static void setPluginStats(JobContext jobContext, String pluginName, long applied, long skipped) {
+        jobContext.getJobContextMap().put(PLUGIN_STATS_PREFIX + pluginName + APPLIED_STAT, String.valueOf(applied));
+        jobContext.getJobContextMap().put(PLUGIN_STATS_PREFIX + pluginName + SKIPPED_STAT, String.valueOf(skipped));
+    }
+
     @Override
     public void cleanUp(JobContext jobContext) {
 
@@ -28,12 +28,14 @@ import com.hortonworks.beacon.entity.util.ClusterHelper;
 import com.hortonworks.beacon.exceptions.BeaconException;
 import com.hortonworks.beacon.plugin.Plugin;
 import com.hortonworks.beacon.plugin.PluginInfo;
-import com.hortonworks.beacon.service.BeaconService;
+import com.hortonworks.beacon.service.BeaconStoreService;
+import com.hortonworks.beacon.service.DependentService;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -44,7 +46,7 @@ import java.util.ServiceLoader;
 /**
  *  Plugin Manager for managing plugins.
  */
-public final class PluginManagerService implements BeaconService {
+public final class PluginManagerService implements DependentService {
     private static final Logger LOG = LoggerFactory.getLogger(PluginManagerService.class);
 
     private static ServiceLoader<Plugin> pluginServiceLoader;
@@ -90,6 +92,11 @@ public final class PluginManagerService implements BeaconService {
         }
     }
 
+    @Override
+    public List<String> getDependencies() {
+        return Collections.singletonList(BeaconStoreService.class.getName());
+    }
+
     @Override
     public void destroy() {
     }
@@ -0,0 +1,237 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.plugin.ranger;
+
+import com.google.gson.GsonBuilder;
+import com.hortonworks.beacon.client.entity.Cluster;
+import com.hortonworks.beacon.plugin.DataSet;
+import com.hortonworks.beacon.plugin.service.DatasetImpl;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hadoop.fs.FileUtil;
+import org.apache.hadoop.fs.Path;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test concurrent use of the cached Ranger admin client against a stub Ranger admin.
+ */
+public class RangerAdminRESTClientTest {
+
+    private static final int THREADS = 16;
+    private static final int EXPORTS_PER_THREAD = 5;
+    private static final int POLICY_COUNT = 3;
+
+    private HttpServer rangerServer;
+    private ExecutorService serverExecutor;
+    private File stagingRoot;
+    private final AtomicInteger exports = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @BeforeClass
+    public void setup() throws IOException {
+        stagingRoot = Files.createTempDirectory("ranger-export").toFile();
+        final byte[] body = createExportedPolicies().getBytes(StandardCharsets.UTF_8);
+        rangerServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        rangerServer.createContext("/service/plugins/policies/exportJson", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requests.incrementAndGet();
+                int current = inFlight.incrementAndGet();
+                int max = maxInFlight.get();
+                while (current > max && !maxInFlight.compareAndSet(max, current)) {
+                    max = maxInFlight.get();
+                }
+                try {
+                    Thread.sleep(20);
+                    exchange.getResponseHeaders().add("Content-Type", "application/json");
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        });
+        serverExecutor = Executors.newFixedThreadPool(THREADS);
+        rangerServer.setExecutor(serverExecutor);
+        rangerServer.start();
+    }
+
+    @AfterClass
+    public void teardown() {
+        rangerServer.stop(0);
+        serverExecutor.shutdownNow();
+        FileUtil.fullyDelete(stagingRoot);
+    }
+
+    @Test
+    public void testConcurrentExports() throws Exception {
+        final DataSet dataset = createDataset();
+        int cachedClients = RangerAdminRESTClient.getCachedClientCount();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        int policies = 0;
+                        for (int j = 0; j < EXPORTS_PER_THREAD; j++) {
+                            policies += exportPolicies(dataset);
+                        }
+                        return policies;
+                    }
+                }));
+            }
+            for (Future<Integer> result : results) {
+                Assert.assertEquals(result.get().intValue(), EXPORTS_PER_THREAD * POLICY_COUNT);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(requests.get(), THREADS * EXPORTS_PER_THREAD);
+        Assert.assertEquals(RangerAdminRESTClient.getCachedClientCount(), cachedClients + 1);
+        Assert.assertTrue(maxInFlight.get() > 1, "Exports were serialized: " + maxInFlight.get());
+        Assert.assertTrue(maxInFlight.get() <= 10, "Too many connections in use: " + maxInFlight.get());
+    }
+
+    @Test(dependsOnMethods = "testConcurrentExports")
+    public void testUpdatedClusterReplacesClient() throws Exception {
+        DataSet dataset = createDataset();
+        exportPolicies(dataset);
+        int cachedClients = RangerAdminRESTClient.getCachedClientCount();
+        int destroyedClients = RangerAdminRESTClient.getDestroyedClientCount();
+
+        dataset.getSourceCluster().setVersion(dataset.getSourceCluster().getVersion() + 1);
+        Assert.assertEquals(exportPolicies(dataset), POLICY_COUNT);
+        Assert.assertEquals(RangerAdminRESTClient.getCachedClientCount(), cachedClients);
+        // The client of the previous cluster version is not in use, it is destroyed right away.
+        Assert.assertEquals(RangerAdminRESTClient.getDestroyedClientCount(), destroyedClients + 1);
+
+        exportPolicies(dataset);
+        Assert.assertEquals(RangerAdminRESTClient.getDestroyedClientCount(), destroyedClients + 1);
+    }
+
+    @Test(dependsOnMethods = "testUpdatedClusterReplacesClient")
+    public void testConcurrentClusterUpdates() throws Exception {
+        final int version = createDataset().getSourceCluster().getVersion();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                final int thread = i;
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        // The jobs see different cluster versions, each of them replaces the client of the others.
+                        DataSet dataset = createDataset();
+                        int policies = 0;
+                        for (int j = 0; j < EXPORTS_PER_THREAD; j++) {
+                            dataset.getSourceCluster().setVersion(version + (thread + j) % 2);
+                            policies += exportPolicies(dataset);
+                        }
+                        return policies;
+                    }
+                }));
+            }
+            for (Future<Integer> result : results) {
+                Assert.assertEquals(result.get().intValue(), EXPORTS_PER_THREAD * POLICY_COUNT);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Each export has its own staging directory, the exported file name only depends on the dataset type.
+    private int exportPolicies(DataSet dataset) throws Exception {
+        Path stagingDir = new Path(stagingRoot.toURI().toString(), "export-" + exports.incrementAndGet());
+        Path exported = new RangerAdminRESTClient().exportRangerPoliciesToFile(dataset, stagingDir);
+        if (exported == null) {
+            return 0;
+        }
+        try (Reader reader = new InputStreamReader(new FileInputStream(new File(exported.toUri())),
+                StandardCharsets.UTF_8)) {
+            return RangerPolicyJsonStream.GSON.fromJson(reader, RangerExportPolicyList.class).getPolicies().size();
+        }
+    }
+
+    private DataSet createDataset() {
+        String rangerEndpoint = "http://localhost:" + rangerServer.getAddress().getPort();
+        Properties properties = new Properties();
+        properties.setProperty("rangerHDFSServiceName", "concurrent_hadoop");
+        Cluster sourceCluster = new Cluster(new Cluster.Builder("concurrent-source", "source cluster",
+                "http://localhost:25968").fsEndpoint("file:///").rangerEndpoint(rangerEndpoint)
+                .customProperties(properties));
+        Cluster targetCluster = new Cluster(new Cluster.Builder("concurrent-target", "target cluster",
+                "http://localhost:25969").fsEndpoint("file:///").rangerEndpoint(rangerEndpoint)
+                .customProperties(properties));
+        return new DatasetImpl("/data/concurrent", "/data/concurrent", DataSet.DataSetType.HDFS, sourceCluster,
+                targetCluster, null);
+    }
+
+    private static String createExportedPolicies() {
+        List<RangerPolicy> policies = new ArrayList<>();
+        for (int i = 0; i < POLICY_COUNT; i++) {
+            Map<String, RangerPolicy.RangerPolicyResource> resources = new HashMap<>();
+            resources.put("path", new RangerPolicy.RangerPolicyResource(
+                    Collections.singletonList("/data/concurrent/" + i), false, true));
+            RangerPolicy policy = new RangerPolicy("concurrent_hadoop", "policy-" + i, 0, "policy " + i,
+                    resources, new ArrayList<RangerPolicy.RangerPolicyItem>(), null);
+            policy.setId((long) i);
+            policies.add(policy);
+        }
+        RangerExportPolicyList policyList = new RangerExportPolicyList();
+        policyList.setPolicies(policies);
+        return new GsonBuilder().create().toJson(policyList);
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.plugin.ranger;
+
+import com.google.gson.GsonBuilder;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test streaming of exported Ranger policies.
+ */
+public class RangerPolicyJsonStreamTest {
+
+    private static final RangerPolicyJsonStream.PolicyTransformer SINGLE_PATH =
+            new RangerPolicyJsonStream.PolicyTransformer() {
+                @Override
+                public RangerPolicy transform(RangerPolicy policy) {
+                    if (policy.getResources().get("path").getValues().size() != 1) {
+                        return null;
+                    }
+                    policy.setDescription("imported " + policy.getName());
+                    return policy;
+                }
+            };
+
+    @Test
+    public void testTransform() throws Exception {
+        RangerExportPolicyList policyList = new RangerExportPolicyList();
+        Map<String, Object> metaDataInfo = new LinkedHashMap<>();
+        metaDataInfo.put("Host name", "ranger.example.com");
+        metaDataInfo.put("Export time", "20180101-10:00:00.000-+0000");
+        policyList.setMetaDataInfo(metaDataInfo);
+        policyList.setPolicies(Arrays.asList(createPolicy(1, "/data/a"), createPolicy(2, "/data/b", "/data/c"),
+                createPolicy(3, "/data/d")));
+        String json = new GsonBuilder().create().toJson(policyList);
+
+        StringWriter out = new StringWriter();
+        int count = RangerPolicyJsonStream.transform(new StringReader(json), out, SINGLE_PATH,
+                Collections.singletonList(createPolicy(4, "/data/e")));
+        Assert.assertEquals(count, 3);
+
+        RangerExportPolicyList result = RangerPolicyJsonStream.GSON.fromJson(out.toString(),
+                RangerExportPolicyList.class);
+        Assert.assertEquals(result.getMetaDataInfo(), metaDataInfo);
+        List<String> names = new ArrayList<>();
+        for (RangerPolicy policy : result.getPolicies()) {
+            names.add(policy.getName());
+        }
+        Assert.assertEquals(names, Arrays.asList("policy-1", "policy-3", "policy-4"));
+        Assert.assertEquals(result.getPolicies().get(0).getDescription(), "imported policy-1");
+        Assert.assertEquals(result.getPolicies().get(1).getResources().get("path").getValues(),
+                Collections.singletonList("/data/d"));
+    }
+
+    @Test
+    public void testVisitOnly() throws Exception {
+        RangerExportPolicyList policyList = new RangerExportPolicyList();
+        policyList.setPolicies(Arrays.asList(createPolicy(1, "/data/a"), createPolicy(2, "/data/b")));
+        String json = new GsonBuilder().create().toJson(policyList);
+
+        int count = RangerPolicyJsonStream.transform(new StringReader(json), null, SINGLE_PATH, null);
+        Assert.assertEquals(count, 2);
+    }
+
+    @Test
+    public void testEmptyExport() throws Exception {
+        StringWriter out = new StringWriter();
+        int count = RangerPolicyJsonStream.transform(new StringReader(""), out, SINGLE_PATH,
+                Collections.singletonList(createPolicy(1, "/data/a")));
+        Assert.assertEquals(count, 1);
+        RangerExportPolicyList result = RangerPolicyJsonStream.GSON.fromJson(out.toString(),
+                RangerExportPolicyList.class);
+        Assert.assertEquals(result.getPolicies().size(), 1);
+
+        out = new StringWriter();
+        count = RangerPolicyJsonStream.transform(new StringReader("{}"), out, SINGLE_PATH, null);
+        Assert.assertEquals(count, 0);
+        Assert.assertEquals(out.toString(), "{\"policies\":[]}");
+    }
+
+    private static RangerPolicy createPolicy(int id, String... paths) {
+        Map<String, RangerPolicy.RangerPolicyResource> resources = new HashMap<>();
+        resources.put("path", new RangerPolicy.RangerPolicyResource(Arrays.asList(paths), false, true));
+        RangerPolicy policy = new RangerPolicy("cl1_hadoop", "policy-" + id, 0, null, resources,
+                new ArrayList<RangerPolicy.RangerPolicyItem>(), null);
+        policy.setId((long) id);
+        return policy;
+    }
+}
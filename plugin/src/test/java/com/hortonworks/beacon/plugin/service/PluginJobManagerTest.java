@@ -0,0 +1,216 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.plugin.service;
+
+import com.google.gson.GsonBuilder;
+import com.hortonworks.beacon.client.entity.Cluster;
+import com.hortonworks.beacon.job.JobContext;
+import com.hortonworks.beacon.metrics.Progress;
+import com.hortonworks.beacon.metrics.ReplicationMetrics;
+import com.hortonworks.beacon.metrics.util.ReplicationMetricsUtils;
+import com.hortonworks.beacon.plugin.DataSet;
+import com.hortonworks.beacon.plugin.ranger.BeaconRangerPluginImpl;
+import com.hortonworks.beacon.plugin.ranger.RangerExportPolicyList;
+import com.hortonworks.beacon.plugin.ranger.RangerPolicy;
+import com.hortonworks.beacon.replication.InstanceReplication;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hadoop.fs.Path;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test change detection of plugin imports against a stub Ranger admin.
+ */
+public class PluginJobManagerTest {
+
+    private static final String PLUGIN_NAME = "ranger";
+    private static final String APPLIED = InstanceReplication.PLUGIN_STATS_PREFIX + PLUGIN_NAME
+            + PluginJobManager.APPLIED_STAT;
+    private static final String SKIPPED = InstanceReplication.PLUGIN_STATS_PREFIX + PLUGIN_NAME
+            + PluginJobManager.SKIPPED_STAT;
+
+    private HttpServer rangerServer;
+    private final AtomicInteger exportRequests = new AtomicInteger();
+    private final AtomicInteger importRequests = new AtomicInteger();
+    private volatile String exportedPolicies;
+    private File stagingDir;
+    private final BeaconRangerPluginImpl plugin = new BeaconRangerPluginImpl();
+
+    @BeforeClass
+    public void setup() throws IOException {
+        rangerServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        rangerServer.createContext("/service/plugins/policies/exportJson", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exportRequests.incrementAndGet();
+                byte[] body = exportedPolicies.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+        rangerServer.createContext("/service/plugins/policies/importPoliciesFromFile", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                importRequests.incrementAndGet();
+                try (InputStream in = exchange.getRequestBody()) {
+                    byte[] buffer = new byte[4096];
+                    while (in.read(buffer) != -1) {
+                        // Drain the uploaded policies.
+                    }
+                }
+                exchange.sendResponseHeaders(204, -1);
+                exchange.close();
+            }
+        });
+        rangerServer.start();
+        stagingDir = Files.createTempDirectory("ranger-staging").toFile();
+    }
+
+    @AfterClass
+    public void teardown() {
+        rangerServer.stop(0);
+        for (File file : stagingDir.listFiles()) {
+            file.delete();
+        }
+        stagingDir.delete();
+    }
+
+    @Test
+    public void testUnchangedPoliciesSkipImport() throws Exception {
+        DataSet dataset = createDataset("/data/unchanged");
+        exportedPolicies = createExportedPolicies("/data/unchanged", 2, 1L);
+
+        JobContext jobContext = exportAndImport(dataset);
+        Assert.assertEquals(importRequests.get(), 1);
+        Assert.assertEquals(jobContext.getJobContextMap().get(APPLIED), "2");
+        Assert.assertEquals(jobContext.getJobContextMap().get(SKIPPED), "0");
+
+        jobContext = exportAndImport(dataset);
+        Assert.assertEquals(exportRequests.get(), 2);
+        Assert.assertEquals(importRequests.get(), 1);
+        Assert.assertEquals(jobContext.getJobContextMap().get(APPLIED), "0");
+        Assert.assertEquals(jobContext.getJobContextMap().get(SKIPPED), "2");
+
+        // A policy updated on the source Ranger has to be imported again.
+        exportedPolicies = createExportedPolicies("/data/unchanged", 2, 2L);
+        jobContext = exportAndImport(dataset);
+        Assert.assertEquals(importRequests.get(), 2);
+        Assert.assertEquals(jobContext.getJobContextMap().get(APPLIED), "2");
+        Assert.assertEquals(jobContext.getJobContextMap().get(SKIPPED), "0");
+    }
+
+    @Test(dependsOnMethods = "testUnchangedPoliciesSkipImport")
+    public void testSameExportImportedForEachDataset() throws Exception {
+        exportedPolicies = createExportedPolicies("/data/unchanged", 2, 2L);
+        int imports = importRequests.get();
+
+        exportAndImport(createDataset("/data/unchanged"));
+        Assert.assertEquals(importRequests.get(), imports);
+        exportAndImport(createDataset("/data/other"));
+        Assert.assertEquals(importRequests.get(), imports + 1);
+    }
+
+    @Test
+    public void testPluginStatsInTrackingInfo() {
+        ReplicationMetrics metrics = new ReplicationMetrics();
+        metrics.updateReplicationMetricsDetails("job_1510000000000_0001", ReplicationMetrics.JobType.MAIN,
+                new Progress());
+        Map<String, Long> pluginStats = new HashMap<>();
+        pluginStats.put(PLUGIN_NAME + PluginJobManager.APPLIED_STAT, 0L);
+        pluginStats.put(PLUGIN_NAME + PluginJobManager.SKIPPED_STAT, 2L);
+        metrics.setPluginStats(pluginStats);
+
+        List<ReplicationMetrics> parsed = ReplicationMetricsUtils.getListOfReplicationMetrics(metrics.toJsonString());
+        Assert.assertEquals(parsed.size(), 1);
+        Assert.assertEquals(parsed.get(0).getPluginStats(), pluginStats);
+    }
+
+    private JobContext exportAndImport(DataSet dataset) throws Exception {
+        Path exportedPath = plugin.exportData(dataset);
+        Assert.assertNotNull(exportedPath);
+        JobContext jobContext = new JobContext();
+        PluginJobManager.importData(plugin, PLUGIN_NAME, dataset, exportedPath, jobContext);
+        return jobContext;
+    }
+
+    private DataSet createDataset(String dataset) {
+        String rangerEndpoint = "http://localhost:" + rangerServer.getAddress().getPort();
+        Properties sourceProperties = new Properties();
+        sourceProperties.setProperty("rangerHDFSServiceName", "source_hadoop");
+        Properties targetProperties = new Properties();
+        targetProperties.setProperty("rangerHDFSServiceName", "target_hadoop");
+        Cluster sourceCluster = new Cluster(new Cluster.Builder("source", "source cluster", "http://localhost:25968")
+                .fsEndpoint("file:///").rangerEndpoint(rangerEndpoint).customProperties(sourceProperties));
+        Cluster targetCluster = new Cluster(new Cluster.Builder("target", "target cluster", "http://localhost:25969")
+                .fsEndpoint("file:///").rangerEndpoint(rangerEndpoint).customProperties(targetProperties));
+        return new DatasetImpl(dataset, dataset, DataSet.DataSetType.HDFS, sourceCluster, targetCluster,
+                stagingDir.toURI().toString());
+    }
+
+    private static String createExportedPolicies(String dataset, int count, long version) {
+        List<RangerPolicy> policies = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Map<String, RangerPolicy.RangerPolicyResource> resources = new HashMap<>();
+            resources.put("path", new RangerPolicy.RangerPolicyResource(Collections.singletonList(dataset + "/" + i),
+                    false, true));
+            List<RangerPolicy.RangerPolicyItem> policyItems = new ArrayList<>();
+            policyItems.add(new RangerPolicy.RangerPolicyItem(
+                    Collections.singletonList(new RangerPolicy.RangerPolicyItemAccess("read", true)),
+                    Collections.singletonList("analyst"), new ArrayList<String>(),
+                    new ArrayList<RangerPolicy.RangerPolicyItemCondition>(), false));
+            RangerPolicy policy = new RangerPolicy("source_hadoop", "policy-" + i, 0, "policy " + i, resources,
+                    policyItems, null);
+            policy.setId((long) i);
+            policy.setVersion(version);
+            policies.add(policy);
+        }
+        RangerExportPolicyList policyList = new RangerExportPolicyList();
+        policyList.setPolicies(policies);
+        Map<String, Object> metaDataInfo = new HashMap<>();
+        metaDataInfo.put("Export time", String.valueOf(System.nanoTime()));
+        policyList.setMetaDataInfo(metaDataInfo);
+        return new GsonBuilder().create().toJson(policyList);
+    }
+}
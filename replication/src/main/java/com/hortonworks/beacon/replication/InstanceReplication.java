@@ -58,14 +58,17 @@ import org.apache.hive.jdbc.HiveStatement;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.hortonworks.beacon.replication.ReplicationUtils.getInstanceTrackingInfo;
 
@@ -76,8 +79,12 @@ import static com.hortonworks.beacon.replication.ReplicationUtils.getInstanceTra
 public abstract class InstanceReplication implements BeaconJob {
     private static final Logger LOG = LoggerFactory.getLogger(InstanceReplication.class);
 
-    protected static final String DUMP_DIRECTORY = "dumpDirectory";
+    public static final String DUMP_DIRECTORY = "dumpDirectory";
     public static final String INSTANCE_EXECUTION_STATUS = "instanceExecutionStatus";
+    /**
+     * Prefix of the job context entries holding plugin counters, reported with the instance tracking info.
+     */
+    public static final String PLUGIN_STATS_PREFIX = "pluginStats.";
 
     private ReplicationJobDetails details;
     protected Properties properties;
@@ -86,6 +93,9 @@ public abstract class InstanceReplication implements BeaconJob {
     protected FileSystem sourceFs;
     protected FileSystem targetFs;
 
+    // Statement currently executed on HiveServer2, cancelled when the job is interrupted.
+    private final AtomicReference<Statement> runningStatement = new AtomicReference<>();
+
     public InstanceReplication(ReplicationJobDetails details) {
         this.details = details;
         this.properties = details.getProperties();
@@ -140,19 +150,21 @@ public abstract class InstanceReplication implements BeaconJob {
         return ((job != null) && (job.getJobID() != null)) ? job.getJobID().toString() : null;
     }
 
-    private String getTrackingInfoAsJsonString(String jobId, String instanceId,
+    private String getTrackingInfoAsJsonString(String jobId, JobContext jobContext,
                                                ReplicationMetrics.JobType jobType,
                                                Progress jobProgress) throws BeaconException {
         ReplicationMetrics replicationMetrics = new ReplicationMetrics();
         replicationMetrics.updateReplicationMetricsDetails(jobId, jobType, jobProgress);
-        return getTrackingInfoAsJsonString(instanceId, jobType, replicationMetrics);
+        replicationMetrics.setPluginStats(getPluginStats(jobContext));
+        return getTrackingInfoAsJsonString(jobContext.getJobInstanceId(), jobType, replicationMetrics);
     }
 
-    private String getTrackingInfoAsJsonString(Progress progress,
+    private String getTrackingInfoAsJsonString(JobContext jobContext, Progress progress,
                                                ProgressUnit progressUnit) throws BeaconException {
         ReplicationMetrics replicationMetrics = new ReplicationMetrics();
         progress.setUnit(progressUnit.getName());
         replicationMetrics.setProgress(progress);
+        replicationMetrics.setPluginStats(getPluginStats(jobContext));
         String trackingInfo = replicationMetrics.toJsonString();
         LOG.debug("Metrics tracking info: {}", trackingInfo);
         return trackingInfo;
@@ -193,6 +205,20 @@ public abstract class InstanceReplication implements BeaconJob {
         return replicationMetrics.toJsonString();
     }
 
+    private static Map<String, Long> getPluginStats(JobContext jobContext) {
+        Map<String, Long> pluginStats = null;
+        for (Map.Entry<String, String> entry : jobContext.getJobContextMap().entrySet()) {
+            if (entry.getKey().startsWith(PLUGIN_STATS_PREFIX)) {
+                if (pluginStats == null) {
+                    pluginStats = new TreeMap<>();
+                }
+                pluginStats.put(entry.getKey().substring(PLUGIN_STATS_PREFIX.length()),
+                        Long.valueOf(entry.getValue()));
+            }
+        }
+        return pluginStats;
+    }
+
     protected void captureFSReplicationMetrics(Job job, ReplicationMetrics.JobType jobType,
                                                JobContext jobContext,
                                                boolean isJobComplete) {
@@ -202,7 +228,7 @@ public abstract class InstanceReplication implements BeaconJob {
             Progress progress = fsReplicationMetrics.getProgress();
             LOG.info("FS Job Progress: {}", progress);
             String replicationMetricsJsonString = getTrackingInfoAsJsonString(getJob(job),
-                    jobContext.getJobInstanceId(), jobType, progress);
+                    jobContext, jobType, progress);
             ReplicationUtils.storeTrackingInfo(jobContext, replicationMetricsJsonString);
         } catch (Exception e) {
             LOG.error("Exception occurred while populating metrics periodically", e);
@@ -243,7 +269,7 @@ public abstract class InstanceReplication implements BeaconJob {
             if (queryLog.size() != 0 || complete) {
                 hiveReplicationMetrics.obtainJobMetrics(jobContext, queryLog, actionType);
                 Progress progress = hiveReplicationMetrics.getJobProgress();
-                String replicationMetricsJsonString = getTrackingInfoAsJsonString(progress,
+                String replicationMetricsJsonString = getTrackingInfoAsJsonString(jobContext, progress,
                         (bootstrap ? ProgressUnit.TABLE : ProgressUnit.EVENTS));
                 LOG.info("Hive Job Progress: {}", progress);
                 ReplicationUtils.storeTrackingInfo(jobContext, replicationMetricsJsonString);
@@ -270,6 +296,58 @@ public abstract class InstanceReplication implements BeaconJob {
         }, 0, replicationMetricsInterval, TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * Registers the statement about to be executed, so that {@link #cancelRunningStatement()} can cancel it.
+     * An interrupt that comes after this check may cancel the statement before the execute reaches the server, so
+     * the statement is then run to completion; {@link #completeStatement} reports such a statement as interrupted.
+     */
+    protected void startStatement(JobContext jobContext, Statement statement, String interruptPoint)
+            throws InterruptedException {
+        runningStatement.set(statement);
+        if (jobContext.shouldInterrupt().get()) {
+            runningStatement.compareAndSet(statement, null);
+            throw new InterruptedException(interruptPoint);
+        }
+    }
+
+    protected void endStatement(Statement statement) {
+        runningStatement.compareAndSet(statement, null);
+    }
+
+    /**
+     * Unregisters a statement whose execute returned, and fails it if the job was interrupted meanwhile.
+     */
+    protected void completeStatement(JobContext jobContext, Statement statement, String interruptPoint)
+            throws InterruptedException {
+        endStatement(statement);
+        if (jobContext.shouldInterrupt().get()) {
+            LOG.info("Hive statement completed after interrupt");
+            throw new InterruptedException(interruptPoint);
+        }
+    }
+
+    protected void cancelRunningStatement() throws BeaconException {
+        Statement statement = runningStatement.get();
+        if (statement != null) {
+            LOG.info("Cancelling running Hive statement for instance interrupt");
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                throw new BeaconException(e, "Failed to cancel running Hive statement");
+            }
+        }
+    }
+
+    /**
+     * A statement that fails once the job is interrupted was cancelled, so the failure is reported as interrupt.
+     */
+    protected static void checkCancelled(JobContext jobContext, Exception e) throws InterruptedException {
+        if (jobContext.shouldInterrupt().get()) {
+            LOG.info("Hive statement ended after interrupt: {}", e.getMessage());
+            throw new InterruptedException("during hive statement");
+        }
+    }
+
     protected void initializeProperties() throws BeaconException {
         String sourceCN = properties.getProperty(HiveDRProperties.SOURCE_CLUSTER_NAME.getName());
         String targetCN = properties.getProperty(HiveDRProperties.TARGET_CLUSTER_NAME.getName());
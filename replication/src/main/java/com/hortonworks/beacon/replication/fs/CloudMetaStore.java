@@ -0,0 +1,448 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+package com.hortonworks.beacon.replication.fs;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FileUtil;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.tools.CopyListingFileStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Partitioned store for the file metadata preserved under the cloud dataset's .dlm-engine directory.
+ *
+ * Entries are sharded by the hash of their parent directory, so an incremental listing only touches the shards
+ * of the directories that changed. Every touched shard gets a new sorted delta file; a shard whose file count
+ * exceeds the configured limit is compacted back into a single base file by a separate {@link #compact()} call.
+ * The MANIFEST names the live files of every shard and is written last, so a run becomes visible in one step and
+ * a failed run leaves the previous state intact.
+ *
+ * The legacy fileList.seq_sorted is never removed. With {@link #WRITE_LEGACY_LISTING} enabled it is also rewritten
+ * from the shards on every update, so a downgraded engine or an external reader still sees the full listing.
+ */
+public class CloudMetaStore {
+    private static final Logger LOG = LoggerFactory.getLogger(CloudMetaStore.class);
+
+    public static final String NUM_SHARDS = "dlm-engine.meta.shards";
+    public static final String MAX_SHARD_FILES = "dlm-engine.meta.maxShardFiles";
+    public static final String WRITE_LEGACY_LISTING = "dlm-engine.meta.writeLegacyListing";
+
+    static final String META_DIR = "meta";
+    static final String MANIFEST = "MANIFEST";
+    static final String LEGACY_SORTED_LISTING = "fileList.seq_sorted";
+
+    private static final int DEFAULT_NUM_SHARDS = 64;
+    private static final int DEFAULT_MAX_SHARD_FILES = 8;
+    private static final String MANIFEST_VERSION = "1";
+    private static final String VERSION_KEY = "version";
+    private static final String GENERATION_KEY = "generation";
+    private static final String NUM_SHARDS_KEY = "numShards";
+    private static final String SHARD_KEY_PREFIX = "shard.";
+    private static final String FILE_SEPARATOR = ",";
+
+    private final FileSystem cloudFs;
+    private final Configuration cloudConf;
+    private final Path metaRoot;
+    private final Path storePath;
+    private final FileSystem localFs;
+    private final Configuration localConf;
+    private final int maxShardFiles;
+    private final boolean writeLegacyListing;
+
+    private int numShards;
+    private long generation;
+    private Map<Integer, List<String>> shards = new TreeMap<>();
+
+    /**
+     * Creates the store rooted at the given .dlm-engine directory.
+     *
+     * @param cloudFs file system of the cloud dataset
+     * @param cloudConf configuration used to access the cloud dataset
+     * @param metaRoot the .dlm-engine directory of the cloud dataset
+     * @param localFs file system used for staging the shard files
+     * @param localConf configuration used to access the staging file system
+     */
+    public CloudMetaStore(FileSystem cloudFs, Configuration cloudConf, Path metaRoot,
+                          FileSystem localFs, Configuration localConf) {
+        this.cloudFs = cloudFs;
+        this.cloudConf = cloudConf;
+        this.metaRoot = metaRoot;
+        this.storePath = new Path(metaRoot, META_DIR);
+        this.localFs = localFs;
+        this.localConf = localConf;
+        this.numShards = Math.max(1, cloudConf.getInt(NUM_SHARDS, DEFAULT_NUM_SHARDS));
+        this.maxShardFiles = Math.max(1, cloudConf.getInt(MAX_SHARD_FILES, DEFAULT_MAX_SHARD_FILES));
+        this.writeLegacyListing = cloudConf.getBoolean(WRITE_LEGACY_LISTING, false);
+    }
+
+    /**
+     * Merges the entries of the given listing into the store. The listing does not have to be sorted.
+     *
+     * @param listing copy listing of the current replication, on the staging file system
+     * @param workDir scratch directory on the staging file system, removed before returning
+     * @return number of shards rewritten by this update
+     */
+    public int update(Path listing, Path workDir) throws IOException {
+        Path legacyListing = new Path(metaRoot, LEGACY_SORTED_LISTING);
+        boolean migrateLegacy = !load() && cloudFs.exists(legacyListing);
+        try {
+            long newGeneration = generation + 1;
+            if (migrateLegacy) {
+                // The legacy listing is already sorted, so partitioning it keeps every shard sorted as well.
+                LOG.info("Migrating legacy meta file {} to partitioned layout", legacyListing);
+                Map<Integer, Path> migrated = partition(legacyListing, cloudConf, new Path(workDir, "legacy"));
+                publish(migrated, newGeneration, "base");
+            }
+
+            Map<Integer, Path> partitioned = partition(listing, localConf, new Path(workDir, "listing"));
+            Map<Integer, Path> sorted = new HashMap<>();
+            for (Map.Entry<Integer, Path> entry : partitioned.entrySet()) {
+                sorted.put(entry.getKey(), sort(entry.getValue()));
+            }
+            publish(sorted, newGeneration, "delta");
+            generation = newGeneration;
+            writeManifest();
+            LOG.info("Updated {} of {} meta shards, generation: {}", sorted.size(), numShards, generation);
+            if (writeLegacyListing) {
+                writeLegacyListing(legacyListing);
+            }
+            return sorted.size();
+        } finally {
+            localFs.delete(workDir, true);
+        }
+    }
+
+    /**
+     * Rewrites every shard holding more than the configured number of files into a single base file. Replaced
+     * files are removed only once the new manifest no longer references them.
+     *
+     * @return number of shards compacted
+     */
+    public int compact() throws IOException {
+        List<String> obsoleteFiles = new ArrayList<>();
+        int compacted = 0;
+        long newGeneration = generation + 1;
+        for (Map.Entry<Integer, List<String>> entry : shards.entrySet()) {
+            List<String> files = entry.getValue();
+            if (files.size() <= maxShardFiles) {
+                continue;
+            }
+            String fileName = shardName(entry.getKey()) + "-base-" + newGeneration + ".seq";
+            MetaReader reader = open(entry.getKey());
+            SequenceFile.Writer writer = null;
+            try {
+                writer = createWriter(new Path(storePath, fileName), cloudConf);
+                while (reader.next()) {
+                    writer.append(reader.getRelPath(), reader.getFileStatus());
+                }
+            } finally {
+                IOUtils.closeStream(reader);
+                IOUtils.cleanupWithLogger(LOG, writer);
+            }
+            obsoleteFiles.addAll(files);
+            entry.setValue(new ArrayList<>(Arrays.asList(fileName)));
+            compacted++;
+        }
+        if (compacted > 0) {
+            generation = newGeneration;
+            writeManifest();
+            LOG.info("Compacted {} meta shards, generation: {}", compacted, generation);
+            deleteQuietly(obsoleteFiles);
+        }
+        return compacted;
+    }
+
+    /**
+     * Opens a reader over all the entries of a shard, resolving updates in favour of the newest file.
+     */
+    public MetaReader open(int shard) throws IOException {
+        List<String> files = shards.get(shard);
+        List<Path> paths = new ArrayList<>();
+        if (files != null) {
+            for (String file : files) {
+                paths.add(new Path(storePath, file));
+            }
+        }
+        return new MetaReader(paths, cloudConf);
+    }
+
+    /**
+     * Loads the manifest.
+     *
+     * @return true if the store already exists
+     */
+    boolean load() throws IOException {
+        Path manifestPath = new Path(storePath, MANIFEST);
+        shards = new TreeMap<>();
+        generation = 0;
+        if (!cloudFs.exists(manifestPath)) {
+            return false;
+        }
+        Properties manifest = new Properties();
+        FSDataInputStream in = cloudFs.open(manifestPath);
+        try {
+            manifest.load(in);
+        } finally {
+            IOUtils.closeStream(in);
+        }
+        if (!MANIFEST_VERSION.equals(manifest.getProperty(VERSION_KEY))) {
+            throw new IOException("Unsupported meta manifest version: " + manifest.getProperty(VERSION_KEY));
+        }
+        generation = Long.parseLong(manifest.getProperty(GENERATION_KEY));
+        numShards = Integer.parseInt(manifest.getProperty(NUM_SHARDS_KEY));
+        for (String key : manifest.stringPropertyNames()) {
+            if (key.startsWith(SHARD_KEY_PREFIX)) {
+                int shard = Integer.parseInt(key.substring(SHARD_KEY_PREFIX.length()));
+                shards.put(shard, new ArrayList<>(Arrays.asList(manifest.getProperty(key).split(FILE_SEPARATOR))));
+            }
+        }
+        return true;
+    }
+
+    int getNumShards() {
+        return numShards;
+    }
+
+    long getGeneration() {
+        return generation;
+    }
+
+    List<String> getShardFiles(int shard) {
+        return shards.get(shard);
+    }
+
+    int getShard(Text relPath) {
+        String path = relPath.toString();
+        int index = path.lastIndexOf(Path.SEPARATOR_CHAR);
+        String parent = index > 0 ? path.substring(0, index) : "";
+        return (parent.hashCode() & Integer.MAX_VALUE) % numShards;
+    }
+
+    private Map<Integer, Path> partition(Path listing, Configuration conf, Path outputDir) throws IOException {
+        Map<Integer, SequenceFile.Writer> writers = new HashMap<>();
+        Map<Integer, Path> outputs = new HashMap<>();
+        SequenceFile.Reader reader = null;
+        try {
+            reader = new SequenceFile.Reader(conf, SequenceFile.Reader.file(listing));
+            Text relPath = new Text();
+            CopyListingFileStatus fileStatus = new CopyListingFileStatus();
+            while (reader.next(relPath, fileStatus)) {
+                int shard = getShard(relPath);
+                SequenceFile.Writer writer = writers.get(shard);
+                if (writer == null) {
+                    Path output = new Path(outputDir, shardName(shard));
+                    writer = createWriter(output, localConf);
+                    writers.put(shard, writer);
+                    outputs.put(shard, output);
+                }
+                writer.append(relPath, fileStatus);
+            }
+        } finally {
+            IOUtils.closeStream(reader);
+            for (SequenceFile.Writer writer : writers.values()) {
+                IOUtils.cleanupWithLogger(LOG, writer);
+            }
+        }
+        return outputs;
+    }
+
+    private Path sort(Path shardFile) throws IOException {
+        SequenceFile.Sorter sorter = new SequenceFile.Sorter(localFs, Text.class,
+                CopyListingFileStatus.class, localConf);
+        Path output = shardFile.suffix("_sorted");
+        sorter.sort(shardFile, output);
+        return output;
+    }
+
+    private void publish(Map<Integer, Path> shardFiles, long newGeneration, String kind) throws IOException {
+        for (Map.Entry<Integer, Path> entry : shardFiles.entrySet()) {
+            int shard = entry.getKey();
+            String fileName = shardName(shard) + "-" + kind + "-" + newGeneration + ".seq";
+            Path target = new Path(storePath, fileName);
+            if (!FileUtil.copy(localFs, entry.getValue(), cloudFs, target, true, cloudConf)) {
+                throw new IOException("Unable to copy meta shard " + entry.getValue() + " to " + target);
+            }
+            List<String> files = shards.get(shard);
+            if (files == null) {
+                files = new ArrayList<>();
+                shards.put(shard, files);
+            }
+            files.add(fileName);
+        }
+    }
+
+    private void writeLegacyListing(Path legacyListing) throws IOException {
+        // Shards hold disjoint paths, so merging the files of all shards yields one globally sorted listing.
+        List<Path> paths = new ArrayList<>();
+        for (List<String> files : shards.values()) {
+            for (String file : files) {
+                paths.add(new Path(storePath, file));
+            }
+        }
+        MetaReader reader = new MetaReader(paths, cloudConf);
+        SequenceFile.Writer writer = null;
+        try {
+            writer = createWriter(legacyListing, cloudConf);
+            while (reader.next()) {
+                writer.append(reader.getRelPath(), reader.getFileStatus());
+            }
+        } finally {
+            IOUtils.closeStream(reader);
+            IOUtils.cleanupWithLogger(LOG, writer);
+        }
+    }
+
+    private void writeManifest() throws IOException {
+        Properties manifest = new Properties();
+        manifest.setProperty(VERSION_KEY, MANIFEST_VERSION);
+        manifest.setProperty(GENERATION_KEY, String.valueOf(generation));
+        manifest.setProperty(NUM_SHARDS_KEY, String.valueOf(numShards));
+        for (Map.Entry<Integer, List<String>> entry : shards.entrySet()) {
+            StringBuilder files = new StringBuilder();
+            for (String file : entry.getValue()) {
+                if (files.length() > 0) {
+                    files.append(FILE_SEPARATOR);
+                }
+                files.append(file);
+            }
+            manifest.setProperty(SHARD_KEY_PREFIX + entry.getKey(), files.toString());
+        }
+        // A single object write is atomic on the object stores, readers either see the old or the new manifest.
+        FSDataOutputStream out = cloudFs.create(new Path(storePath, MANIFEST), true);
+        try {
+            manifest.store(out, null);
+        } finally {
+            IOUtils.closeStream(out);
+        }
+    }
+
+    private void deleteQuietly(List<String> files) {
+        for (String file : files) {
+            Path path = new Path(storePath, file);
+            try {
+                cloudFs.delete(path, false);
+            } catch (IOException e) {
+                LOG.warn("Unable to delete obsolete meta file: {}", path, e);
+            }
+        }
+    }
+
+    private static String shardName(int shard) {
+        return String.format("shard-%05d", shard);
+    }
+
+    private static SequenceFile.Writer createWriter(Path path, Configuration conf) throws IOException {
+        return SequenceFile.createWriter(conf,
+                SequenceFile.Writer.file(path),
+                SequenceFile.Writer.keyClass(Text.class),
+                SequenceFile.Writer.valueClass(CopyListingFileStatus.class),
+                SequenceFile.Writer.compression(SequenceFile.CompressionType.NONE));
+    }
+
+    /**
+     * Merging reader over the sorted files of a shard. For paths present in more than one file the entry
+     * from the newest file wins.
+     */
+    public static final class MetaReader implements Closeable {
+        private final SequenceFile.Reader[] readers;
+        private final Text[] paths;
+        private final CopyListingFileStatus[] statuses;
+        private final boolean[] available;
+        private Text relPath;
+        private CopyListingFileStatus fileStatus;
+
+        MetaReader(List<Path> files, Configuration conf) throws IOException {
+            int size = files.size();
+            readers = new SequenceFile.Reader[size];
+            paths = new Text[size];
+            statuses = new CopyListingFileStatus[size];
+            available = new boolean[size];
+            try {
+                for (int i = 0; i < size; i++) {
+                    readers[i] = new SequenceFile.Reader(conf, SequenceFile.Reader.file(files.get(i)));
+                    paths[i] = new Text();
+                    statuses[i] = new CopyListingFileStatus();
+                    available[i] = readers[i].next(paths[i], statuses[i]);
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        public boolean next() throws IOException {
+            int newest = -1;
+            for (int i = readers.length - 1; i >= 0; i--) {
+                if (available[i] && (newest < 0 || paths[i].compareTo(paths[newest]) < 0)) {
+                    newest = i;
+                }
+            }
+            if (newest < 0) {
+                return false;
+            }
+            relPath = new Text(paths[newest]);
+            fileStatus = statuses[newest];
+            // Skip older versions of the same path, and advance the winner.
+            for (int i = 0; i < readers.length; i++) {
+                if (available[i] && paths[i].equals(relPath)) {
+                    if (i == newest) {
+                        statuses[i] = new CopyListingFileStatus();
+                    }
+                    available[i] = readers[i].next(paths[i], statuses[i]);
+                }
+            }
+            return true;
+        }
+
+        public Text getRelPath() {
+            return relPath;
+        }
+
+        public CopyListingFileStatus getFileStatus() {
+            return fileStatus;
+        }
+
+        @Override
+        public void close() {
+            for (SequenceFile.Reader reader : readers) {
+                IOUtils.closeStream(reader);
+            }
+        }
+    }
+}
@@ -76,6 +76,12 @@ final class DistCpOptionsUtil {
             distcpOptions.setMapBandwidth(Integer.parseInt(maxBandwidth));
         }
 
+        String copyStrategy = fsDRProperties.getProperty(
+                ReplicationDistCpOption.DISTCP_OPTION_COPY_STRATEGY.getName());
+        if (StringUtils.isNotBlank(copyStrategy)) {
+            distcpOptions.setCopyStrategy(copyStrategy);
+        }
+
         LOG.info("HCFS DistCp options submitted: [{}]", distcpOptions.toString());
         return distcpOptions;
     }
@@ -209,6 +215,12 @@ final class DistCpOptionsUtil {
         if (maxBandwidth != null) {
             distcpOptions.setMapBandwidth(Integer.parseInt(maxBandwidth));
         }
+
+        String copyStrategy = fsDRProperties.getProperty(
+                ReplicationDistCpOption.DISTCP_OPTION_COPY_STRATEGY.getName());
+        if (StringUtils.isNotBlank(copyStrategy)) {
+            distcpOptions.setCopyStrategy(copyStrategy);
+        }
         LOG.info("DistCp options submitted: [{}]", distcpOptions.toString());
         return distcpOptions;
     }
@@ -23,6 +23,7 @@
 package com.hortonworks.beacon.replication.fs;
 
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 
@@ -35,6 +36,7 @@ import com.hortonworks.beacon.entity.util.PolicyHelper;
 import com.hortonworks.beacon.entity.util.ReplicationPolicyBuilder;
 import com.hortonworks.beacon.util.FSUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,6 +57,7 @@ import com.hortonworks.beacon.config.BeaconConfig;
 public final class FSPolicyHelper {
     private static final Logger LOG = LoggerFactory.getLogger(FSPolicyHelper.class);
     private static BeaconConfig config = BeaconConfig.getInstance();
+    private static final String DISTCP_DEFAULT_XML = "distcp-default.xml";
     private FSPolicyHelper() {
     }
 
@@ -142,6 +145,21 @@ public final class FSPolicyHelper {
                 FSDRProperties.SOURCE_SNAPSHOT_RETENTION_AGE_LIMIT.getName()));
         validateRetentionAgeLimit(properties.getProperty(
                 FSDRProperties.TARGET_SNAPSHOT_RETENTION_AGE_LIMIT.getName()));
+        validateCopyStrategy(properties.getProperty(
+                ReplicationDistCpOption.DISTCP_OPTION_COPY_STRATEGY.getName()));
+    }
+
+    private static void validateCopyStrategy(String copyStrategy) throws BeaconException {
+        if (StringUtils.isBlank(copyStrategy)) {
+            return;
+        }
+        // DistCp looks the strategy up the same way, and falls back to uniformsize for unknown names.
+        Configuration distcpConf = new Configuration(false);
+        distcpConf.addResource(DISTCP_DEFAULT_XML);
+        String strategyLabel = "distcp." + copyStrategy.toLowerCase(Locale.ENGLISH) + ".strategy.impl";
+        if (distcpConf.get(strategyLabel) == null) {
+            throw new BeaconException("Unsupported DistCp copy strategy: {}", copyStrategy);
+        }
     }
 
     private static void validateRetentionAgeLimit(String ageLimit) throws BeaconException {
@@ -26,6 +26,7 @@ import com.hortonworks.beacon.client.entity.Cluster;
 import com.hortonworks.beacon.entity.FSDRProperties;
 import com.hortonworks.beacon.entity.util.ClusterHelper;
 import com.hortonworks.beacon.exceptions.BeaconException;
+import com.hortonworks.beacon.service.Services;
 import com.hortonworks.beacon.util.EvictionHelper;
 import com.hortonworks.beacon.util.FSUtils;
 import com.hortonworks.beacon.util.FileSystemClientFactory;
@@ -47,11 +48,17 @@ import javax.servlet.jsp.el.ELException;
 import java.io.IOException;
 import java.net.URI;
 import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import static com.hortonworks.beacon.constants.BeaconConstants.SNAPSHOT_DIR_PREFIX;
 import static com.hortonworks.beacon.constants.BeaconConstants.SNAPSHOT_PREFIX;
@@ -64,6 +71,15 @@ public final class FSSnapshotUtils {
 
     public static final String TEMP_REPLICATION_SNAPSHOT = "tempReplicationSnapshot";
 
+    // Guards the check and delete of a snapshot, deletes of different snapshots mostly take different locks.
+    private static final Object[] SNAPSHOT_LOCKS = new Object[64];
+
+    static {
+        for (int i = 0; i < SNAPSHOT_LOCKS.length; i++) {
+            SNAPSHOT_LOCKS[i] = new Object();
+        }
+    }
+
     private FSSnapshotUtils() {
     }
 
@@ -210,8 +226,31 @@ public final class FSSnapshotUtils {
         }
     }
 
-    static void evictSnapshots(DistributedFileSystem fs, String dirName, String ageLimit, int numSnapshots)
+    /**
+     * Evict the snapshots of the directory on the snapshot eviction service. A pass already queued for the same
+     * directory is returned instead of queuing another one, a pass already running is followed by a new one.
+     * @param fs HDFS file system
+     * @param dirName snapshottable directory
+     * @param ageLimit age after which a snapshot can be evicted
+     * @param numSnapshots number of most recent snapshots to retain
+     * @return future of the eviction pass
+     * @throws BeaconException if the previous eviction pass on the directory failed
+     */
+    static Future<EvictionResult> evictSnapshotsAsync(final DistributedFileSystem fs, final String dirName,
+                                                      final String ageLimit, final int numSnapshots)
             throws BeaconException {
+        String key = fs.getUri() + StringUtils.removeEnd(dirName, Path.SEPARATOR);
+        return Services.get().getService(SnapshotEvictionService.class).submit(key,
+                new Callable<EvictionResult>() {
+                    @Override
+                    public EvictionResult call() throws BeaconException {
+                        return evictSnapshots(fs, dirName, ageLimit, numSnapshots);
+                    }
+                });
+    }
+
+    static EvictionResult evictSnapshots(DistributedFileSystem fs, String dirName, String ageLimit,
+                                         int numSnapshots) throws BeaconException {
         try {
             LOG.info("Started evicting snapshots on dir {}, agelimit {}, numSnapshot {}", dirName, ageLimit,
                 numSnapshots);
@@ -225,7 +264,7 @@ public final class FSSnapshotUtils {
                 LOG.info("No eviction required as number of snapshots: {} is less than numSnapshots: {}",
                     snapshots.length, numSnapshots);
                 // no eviction needed
-                return;
+                return new EvictionResult(snapshots.length, 0);
             }
 
             // Sort by last modified time, ascending order.
@@ -236,19 +275,17 @@ public final class FSSnapshotUtils {
                 }
             });
 
+            List<String> expiredSnapshots = new ArrayList<>();
             for (int i = 0; i < (snapshots.length - numSnapshots); i++) {
                 // delete if older than ageLimit while retaining numSnapshots
                 if (snapshots[i].getModificationTime() < evictionTime) {
-                    LOG.info("Deleting snapshots with path: {} and snapshot path: {}", new Path(dirName),
-                        snapshots[i].getPath().getName());
-                    synchronized (FSSnapshotUtils.class) {
-                        if (fs.exists(new Path(snapshotDir, snapshots[i].getPath().getName()))) {
-                            fs.deleteSnapshot(new Path(dirName), snapshots[i].getPath().getName());
-                        }
-                    }
+                    expiredSnapshots.add(snapshots[i].getPath().getName());
                 }
             }
-
+            int deleted = deleteSnapshots(fs, dirName, expiredSnapshots);
+            LOG.info("Finished evicting snapshots on dir {}, considered: {}, deleted: {}", dirName,
+                snapshots.length, deleted);
+            return new EvictionResult(snapshots.length, deleted);
         } catch (ELException ele) {
             LOG.warn("Unable to parse retention age limit: {} {}", ageLimit, ele.getMessage());
             throw new BeaconException(ele, "Unable to parse retention age limit: {} {}", ele.getMessage(), ageLimit);
@@ -258,6 +295,56 @@ public final class FSSnapshotUtils {
         }
     }
 
+    private static int deleteSnapshots(final DistributedFileSystem fs, String dirName, List<String> snapshotNames)
+            throws BeaconException {
+        final Path dir = new Path(dirName);
+        final String snapshotDir = getSnapshotDir(dirName);
+        List<Future<Boolean>> deletes = new ArrayList<>(snapshotNames.size());
+        ExecutorService deletePool = Services.get().getService(SnapshotEvictionService.class).getDeletePool();
+        for (final String snapshotName : snapshotNames) {
+            deletes.add(deletePool.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws IOException {
+                    synchronized (getSnapshotLock(fs, snapshotDir, snapshotName)) {
+                        if (!fs.exists(new Path(snapshotDir, snapshotName))) {
+                            return false;
+                        }
+                        LOG.info("Deleting snapshots with path: {} and snapshot path: {}", dir, snapshotName);
+                        fs.deleteSnapshot(dir, snapshotName);
+                        return true;
+                    }
+                }
+            }));
+        }
+
+        int deleted = 0;
+        Throwable failure = null;
+        for (Future<Boolean> delete : deletes) {
+            try {
+                if (delete.get()) {
+                    deleted++;
+                }
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BeaconException(e, "Interrupted while evicting snapshots from dir {}", dirName);
+            }
+        }
+        if (failure != null) {
+            LOG.warn("Deleted {} of {} snapshots from dir {} before failure", deleted, snapshotNames.size(), dirName);
+            throw new BeaconException(failure, "Unable to evict snapshots from dir {}", dirName);
+        }
+        return deleted;
+    }
+
+    private static Object getSnapshotLock(DistributedFileSystem fs, String snapshotDir, String snapshotName) {
+        int hash = (fs.getUri() + snapshotDir + snapshotName).hashCode();
+        return SNAPSHOT_LOCKS[(hash & Integer.MAX_VALUE) % SNAPSHOT_LOCKS.length];
+    }
+
     public static void deleteAllSnapshots(DistributedFileSystem fs, String dirName, final String prefix)
             throws BeaconException {
         try {
@@ -285,14 +372,14 @@ public final class FSSnapshotUtils {
         FSSnapshotUtils.createSnapshotInFileSystem(stagingURI, fsReplicationName, fs);
     }
 
-    static void handleSnapshotEviction(FileSystem fs, Properties fsDRProperties, String staginURI)
+    static Future<EvictionResult> handleSnapshotEviction(FileSystem fs, Properties fsDRProperties, String staginURI)
             throws BeaconException {
         String ageLimit = fsDRProperties.getProperty(
                 FSDRProperties.SOURCE_SNAPSHOT_RETENTION_AGE_LIMIT.getName());
         int numSnapshots = Integer.parseInt(
                 fsDRProperties.getProperty(FSDRProperties.SOURCE_SNAPSHOT_RETENTION_NUMBER.getName()));
         LOG.info("Snapshots eviction on FS: {}", fs.toString());
-        FSSnapshotUtils.evictSnapshots((DistributedFileSystem) fs, staginURI, ageLimit, numSnapshots);
+        return FSSnapshotUtils.evictSnapshotsAsync((DistributedFileSystem) fs, staginURI, ageLimit, numSnapshots);
     }
 
     private static String getSnapshotDir(String dirName) {
@@ -357,4 +444,30 @@ public final class FSSnapshotUtils {
                 .concat(String.valueOf(System.currentTimeMillis()));
         return fsReplicationName;
     }
+
+    /**
+     * Outcome of a snapshot eviction pass.
+     */
+    static final class EvictionResult {
+        private final int considered;
+        private final int deleted;
+
+        EvictionResult(int considered, int deleted) {
+            this.considered = considered;
+            this.deleted = deleted;
+        }
+
+        int getConsidered() {
+            return considered;
+        }
+
+        int getDeleted() {
+            return deleted;
+        }
+
+        @Override
+        public String toString() {
+            return "considered: " + considered + ", deleted: " + deleted;
+        }
+    }
 }
@@ -26,9 +26,8 @@ import com.hortonworks.beacon.ExecutionType;
 import com.hortonworks.beacon.client.entity.Cluster;
 import com.hortonworks.beacon.config.BeaconConfig;
 import com.hortonworks.beacon.constants.BeaconConstants;
-import com.hortonworks.beacon.entity.BeaconCloudCred;
 import com.hortonworks.beacon.entity.FSDRProperties;
-import com.hortonworks.beacon.entity.util.CloudCredDao;
+import com.hortonworks.beacon.entity.util.CloudCredConfCache;
 import com.hortonworks.beacon.entity.util.ClusterHelper;
 import com.hortonworks.beacon.entity.util.PolicyHelper;
 import com.hortonworks.beacon.exceptions.BeaconException;
@@ -72,6 +71,7 @@ import static org.apache.hadoop.tools.DistCpConstants.CONF_LABEL_LISTSTATUS_THRE
 public class HCFSReplication extends FSReplication {
 
     private static final Logger LOG = LoggerFactory.getLogger(HCFSReplication.class);
+    private static final String META_DIR = ".dlm-engine";
     private boolean isPushRepl;
 
     public HCFSReplication(ReplicationJobDetails details) {
@@ -98,20 +98,20 @@ public class HCFSReplication extends FSReplication {
 
 
     private void performPreserveMeta(String metaLocation) throws BeaconException {
+        CloudMetaStore metaStore = null;
         try {
             Path metaPath = new Path(metaLocation, "fileList.seq");
-            String sortedChildPath = ".dlm-engine/fileList.seq_sorted";
-            FileSystem cloudtargetFs = new Path(targetStagingUri).getFileSystem(getHCFSConfiguration());
+            Configuration cloudConf = getHCFSConfiguration();
+            FileSystem cloudtargetFs = new Path(targetStagingUri).getFileSystem(cloudConf);
             ExecutionType executionType = ExecutionType.valueOf(properties.getProperty(FSDRProperties.EXECUTION_TYPE
                     .getName()));
-            Path cloudMetaPath = new Path(targetStagingUri, sortedChildPath);
             if (executionType == ExecutionType.FS_HCFS_SNAPSHOT) {
-                LOG.debug("Source Path: {} Target Path: {}", metaPath.toString(), cloudMetaPath.toString());
-                Configuration conf = getConfiguration();
-                Path sortedSourceListing = DistCpUtils.sortListing(sourceFs, conf, metaPath);
-                if (cloudtargetFs.exists(cloudMetaPath)) {
-                    mergeMeta(sourceFs, sortedSourceListing, cloudMetaPath);
-                }
+                Path metaRoot = new Path(targetStagingUri, META_DIR);
+                LOG.debug("Source Path: {} Target Path: {}", metaPath.toString(), metaRoot.toString());
+                metaStore = new CloudMetaStore(cloudtargetFs, cloudConf, metaRoot,
+                        sourceFs, getConfiguration());
+                Path workDir = sourceFs.makeQualified(new Path(metaLocation, "_shards"));
+                metaStore.update(metaPath, workDir);
                 try {
                     boolean deleteSuccessful = sourceFs.delete(metaPath, false);
                     if (!deleteSuccessful) {
@@ -123,21 +123,34 @@ public class HCFSReplication extends FSReplication {
             }
             createMeta(metaLocation);
             Path[] metaFilePath = listFiles(metaLocation);
-            copyMeta(cloudtargetFs, metaFilePath);
+            copyMeta(cloudtargetFs, cloudConf, metaFilePath);
         } catch (IOException e) {
             throw new BeaconException("Error while preserving the meta information", e);
         }
+        if (metaStore != null) {
+            compactMeta(metaStore);
+        }
     }
 
-    private void copyMeta(FileSystem cloudtargetFs, Path[] metaFilePath) throws BeaconException {
-        Path targetPath = new Path(targetStagingUri, ".dlm-engine");
+    private void compactMeta(CloudMetaStore metaStore) {
+        // The meta information is already preserved, a failed compaction is retried on the next run.
+        try {
+            metaStore.compact();
+        } catch (IOException e) {
+            LOG.warn("Unable to compact the meta information", e);
+        }
+    }
+
+    private void copyMeta(FileSystem cloudtargetFs, Configuration cloudConf, Path[] metaFilePath)
+            throws BeaconException {
+        Path targetPath = new Path(targetStagingUri, META_DIR);
         LOG.debug("Copying meta files from [{}] to {}.", Arrays.toString(metaFilePath), targetPath.toString());
         try {
             if (!cloudtargetFs.exists(targetPath)) {
                 cloudtargetFs.mkdirs(targetPath);
             }
             boolean copySuccessful = FileUtil.copy(sourceFs, metaFilePath, cloudtargetFs, targetPath,
-                    true, true, getHCFSConfiguration());
+                    true, true, cloudConf);
             if (!copySuccessful) {
                 throw new BeaconException("Unable to move meta directory to {}.", targetPath.toString());
             }
@@ -156,7 +169,7 @@ public class HCFSReplication extends FSReplication {
             CopyListingFileStatus fileStatus = new CopyListingFileStatus();
             Text relPath = new Text();
             while (reader.next(relPath, fileStatus)) {
-                LOG.info("Path: {}, File Status: {}", relPath, fileStatus);
+                LOG.debug("Path: {}, File Status: {}", relPath, fileStatus);
             }
         } catch (IOException e) {
             LOG.error("Error while reading the meta file: {}", metaFilePath.toString(), e);
@@ -198,59 +211,6 @@ public class HCFSReplication extends FSReplication {
         }
     }
 
-    private void mergeMeta(FileSystem sourceFs, Path sortedSourceListing, Path cloudMetaPath) throws BeaconException {
-        SequenceFile.Reader existingReader = null;
-        SequenceFile.Reader modifiedReader = null;
-        SequenceFile.Writer writer = null;
-        try {
-            Path path = new Path(sortedSourceListing.getParent(), "final.seq");
-            LOG.debug("Final output path: {}", path.toString());
-            existingReader = new SequenceFile.Reader(getHCFSConfiguration(),
-                    SequenceFile.Reader.file(cloudMetaPath));
-            modifiedReader = new SequenceFile.Reader(getConfiguration(),
-                    SequenceFile.Reader.file(sortedSourceListing));
-            CopyListingFileStatus existingFileStatus = new CopyListingFileStatus();
-            Text existingRelPath = new Text();
-            CopyListingFileStatus modifiedFileStatus = new CopyListingFileStatus();
-            Text modifiedRelPath = new Text();
-            writer = getWriter(path, getConfiguration());
-
-            boolean modifiedAvailable = modifiedReader.next(modifiedRelPath, modifiedFileStatus);
-            boolean existingAvailable = existingReader.next(existingRelPath, existingFileStatus);
-            while (existingAvailable) {
-                // Replace the one which got modified in the current replication.
-                if (modifiedAvailable && modifiedRelPath.compareTo(existingRelPath) <= 0) {
-                    LOG.debug("Path modified: {}, Meta: {}", modifiedRelPath.toString(), modifiedFileStatus.toString());
-                    writer.append(modifiedRelPath, modifiedFileStatus);
-                    modifiedAvailable = modifiedReader.next(modifiedRelPath, modifiedFileStatus);
-                } else {
-                    LOG.debug("Path not modified: {}, Meta: {}", existingRelPath.toString(),
-                            existingFileStatus.toString());
-                    writer.append(existingRelPath, existingFileStatus);
-                    existingAvailable = existingReader.next(existingRelPath, existingFileStatus);
-                }
-            }
-            while (modifiedAvailable) {
-                LOG.debug("Path modified: {}, Meta: {}", modifiedRelPath.toString(), modifiedFileStatus.toString());
-                writer.append(modifiedRelPath, modifiedFileStatus);
-                modifiedAvailable = modifiedReader.next(modifiedRelPath, modifiedFileStatus);
-            }
-            writer.close();
-            boolean copySuccessful = FileUtil.copy(sourceFs, path, sourceFs, sortedSourceListing, true,
-                    getConfiguration());
-            if (!copySuccessful) {
-                throw new BeaconException("Unable to move meta file {} to {}.", path.toString(), sortedSourceListing
-                        .toString());
-            }
-        } catch (IOException e) {
-            throw new BeaconException(e);
-        } finally {
-            IOUtils.closeStream(existingReader);
-            IOUtils.closeStream(modifiedReader);
-            IOUtils.cleanupWithLogger(LOG, writer);
-        }
-    }
-
     private Job performCopy(JobContext jobContext, ReplicationMetrics.JobType jobType)
             throws BeaconException, InterruptedException {
         try {
@@ -274,16 +234,7 @@ public class HCFSReplication extends FSReplication {
     private Configuration getHCFSConfiguration() throws BeaconException {
         Configuration conf = getConfiguration();
         String cloudCredId = properties.getProperty(FSDRProperties.CLOUD_CRED.getName());
-        BeaconCloudCred cloudCred = new BeaconCloudCred(new CloudCredDao().getCloudCred(cloudCredId));
-        Configuration cloudConf = cloudCred.getHadoopConf(false);
-        String cloudPath = getCloudPath();
-        merge(cloudConf, cloudCred.getCloudEncryptionTypeConf(properties, cloudPath));
-        merge(cloudConf, getConfigurationWithBucketEndPoint(cloudCred));
-        return merge(conf, cloudConf);
-    }
-
-    private Configuration getConfigurationWithBucketEndPoint(BeaconCloudCred cloudCred) throws BeaconException {
-        return cloudCred.getBucketEndpointConf(getCloudPath());
+        return merge(conf, CloudCredConfCache.get().getConfiguration(cloudCredId, properties, getCloudPath()));
     }
 
     private String getCloudPath() throws BeaconException {
@@ -0,0 +1,216 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.replication.fs;
+
+import com.hortonworks.beacon.config.BeaconConfig;
+import com.hortonworks.beacon.config.Engine;
+import com.hortonworks.beacon.exceptions.BeaconException;
+import com.hortonworks.beacon.replication.fs.FSSnapshotUtils.EvictionResult;
+import com.hortonworks.beacon.service.BeaconService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the snapshot eviction passes and their snapshot deletes on bounded pools.
+ * At most one pass runs per directory. A request while a pass is queued shares the queued pass, a request while
+ * a pass is running queues a follow-up pass. A failed pass is reported to the next request for the directory.
+ */
+public class SnapshotEvictionService implements BeaconService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotEvictionService.class);
+    private static final long DESTROY_TIMEOUT_SECONDS = 30;
+
+    private final Map<String, DirectoryEvictions> evictions = new HashMap<>();
+    private ExecutorService evictionPool;
+    private ExecutorService deletePool;
+
+    @Override
+    public synchronized void init() {
+        Engine engine = BeaconConfig.getInstance().getEngine();
+        evictionPool = newPool("snapshot-eviction-", engine.getSnapshotEvictionThreads());
+        deletePool = newPool("snapshot-delete-", engine.getSnapshotEvictionParallelDeletes());
+        LOG.info("Snapshot eviction threads: [{}], parallel deletes: [{}]", engine.getSnapshotEvictionThreads(),
+                engine.getSnapshotEvictionParallelDeletes());
+    }
+
+    @Override
+    public void destroy() throws BeaconException {
+        ExecutorService eviction;
+        ExecutorService delete;
+        synchronized (this) {
+            for (DirectoryEvictions directory : evictions.values()) {
+                if (directory.queued != null) {
+                    directory.queued.cancel(false);
+                }
+            }
+            evictions.clear();
+            eviction = evictionPool;
+            delete = deletePool;
+        }
+        if (eviction == null) {
+            return;
+        }
+        eviction.shutdown();
+        try {
+            if (!eviction.awaitTermination(DESTROY_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOG.warn("Snapshot eviction did not finish in {} seconds, interrupting it.",
+                        DESTROY_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            eviction.shutdownNow();
+            delete.shutdownNow();
+        }
+    }
+
+    /**
+     * Requests an eviction pass on the directory.
+     * @param key directory key, including the file system
+     * @param pass eviction pass
+     * @return future of the pass which covers this request
+     * @throws BeaconException if the previous pass on the directory failed, the new pass is queued regardless
+     */
+    synchronized Future<EvictionResult> submit(String key, Callable<EvictionResult> pass) throws BeaconException {
+        if (evictionPool == null || evictionPool.isShutdown()) {
+            throw new BeaconException("Snapshot eviction service is not running");
+        }
+        DirectoryEvictions directory = evictions.get(key);
+        if (directory == null) {
+            directory = new DirectoryEvictions();
+            evictions.put(key, directory);
+        }
+        Future<EvictionResult> future = directory.queued;
+        if (future != null) {
+            LOG.info("Snapshot eviction on dir {} is already queued", key);
+        } else {
+            directory.queued = newPass(key, directory, pass);
+            future = directory.queued;
+            if (directory.running) {
+                LOG.info("Snapshot eviction on dir {} is running, queued a follow-up pass", key);
+            } else {
+                start(key, directory);
+            }
+        }
+        Throwable failure = directory.failure;
+        if (failure != null) {
+            directory.failure = null;
+            throw new BeaconException(failure, "Previous snapshot eviction on dir {} failed", key);
+        }
+        return future;
+    }
+
+    ExecutorService getDeletePool() {
+        return deletePool;
+    }
+
+    private void start(String key, DirectoryEvictions directory) {
+        directory.running = true;
+        try {
+            evictionPool.execute(directory.queued);
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Snapshot eviction on dir {} was rejected", key);
+            directory.running = false;
+            directory.queued.cancel(false);
+            directory.queued = null;
+        }
+    }
+
+    // A directory has a single pass on the pool, so the starting pass is the queued one.
+    private synchronized void started(DirectoryEvictions directory) {
+        directory.queued = null;
+    }
+
+    private synchronized void finished(String key, DirectoryEvictions directory, Throwable failure) {
+        directory.running = false;
+        if (failure != null) {
+            directory.failure = failure;
+        }
+        if (evictions.get(key) != directory) {
+            // Service was destroyed.
+            return;
+        }
+        if (directory.queued != null) {
+            start(key, directory);
+        } else if (directory.failure == null) {
+            evictions.remove(key);
+        }
+    }
+
+    // Completes the pass before its future does, so that a caller waiting for it sees the directory state updated.
+    private FutureTask<EvictionResult> newPass(final String key, final DirectoryEvictions directory,
+                                               final Callable<EvictionResult> pass) {
+        return new FutureTask<>(new Callable<EvictionResult>() {
+            @Override
+            public EvictionResult call() throws Exception {
+                started(directory);
+                Throwable failure = null;
+                try {
+                    return pass.call();
+                } catch (Exception e) {
+                    failure = e;
+                    LOG.warn("Snapshot eviction failed on dir {}", key, e);
+                    throw e;
+                } finally {
+                    finished(key, directory, failure);
+                }
+            }
+        });
+    }
+
+    private static ExecutorService newPool(final String namePrefix, int threads) {
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, namePrefix + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Eviction state of a directory, guarded by the service.
+     */
+    private static final class DirectoryEvictions {
+        // Pass which has not started yet.
+        private FutureTask<EvictionResult> queued;
+        private boolean running;
+        // Failure of a pass not yet reported to a request.
+        private Throwable failure;
+    }
+}
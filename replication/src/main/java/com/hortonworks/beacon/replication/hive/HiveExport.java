@@ -106,7 +106,9 @@ public class HiveExport extends InstanceReplication {
             targetHiveClient = HiveClientFactory.getHiveServerClient(targetConnectionString);
 
             targetStatement = targetHiveClient.createStatement();
+            startStatement(jobContext, targetStatement, "before repl status");
             long lastReplEventId = replCommand.getReplicatedEventId(targetStatement, properties);
+            completeStatement(jobContext, targetStatement, "after repl status");
             LOG.debug("Last replicated event id for database: {} is {}", database, lastReplEventId);
             if (lastReplEventId == -1L || lastReplEventId == 0) {
                 jobContext.getJobContextMap().put(HiveDRUtils.BOOTSTRAP, "true");
@@ -119,7 +121,9 @@ public class HiveExport extends InstanceReplication {
             getHiveReplicationProgress(timer, jobContext, HiveActionType.EXPORT,
                     ReplicationUtils.getReplicationMetricsInterval(), sourceStatement);
 
+            startStatement(jobContext, sourceStatement, "before repl dump");
             res = sourceStatement.executeQuery(replDump);
+            completeStatement(jobContext, sourceStatement, "after repl dump");
             if (res.next()) {
                 dumpDirectory = sourceNN + res.getString(1);
                 currReplEventId = Long.parseLong(res.getString(2));
@@ -128,11 +132,15 @@ public class HiveExport extends InstanceReplication {
             LOG.info("Source Current Repl Event id : {} , Target Last Repl Event id : {}", currReplEventId,
                 lastReplEventId);
         } catch (SQLException e) {
+            checkCancelled(jobContext, e);
             throw new BeaconException(e, "SQL Exception occurred");
         } catch (BeaconException e) {
+            checkCancelled(jobContext, e);
             LOG.error("Exception occurred for export statement", e);
             throw new BeaconException(e.getMessage());
         } finally {
+            endStatement(sourceStatement);
+            endStatement(targetStatement);
             timer.shutdown();
             close(res);
             close(sourceStatement);
@@ -153,6 +161,6 @@ public class HiveExport extends InstanceReplication {
 
     @Override
     public void interrupt() throws BeaconException {
-        //do nothing, can't interrupt hive replication
+        cancelRunningStatement();
     }
 }
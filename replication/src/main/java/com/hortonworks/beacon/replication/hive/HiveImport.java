@@ -23,6 +23,7 @@
 package com.hortonworks.beacon.replication.hive;
 
 import com.hortonworks.beacon.client.entity.Cluster;
+import com.hortonworks.beacon.config.BeaconConfig;
 import com.hortonworks.beacon.constants.BeaconConstants;
 import com.hortonworks.beacon.entity.HiveDRProperties;
 import com.hortonworks.beacon.entity.util.ClusterHelper;
@@ -37,12 +38,15 @@ import com.hortonworks.beacon.replication.ReplicationJobDetails;
 import com.hortonworks.beacon.replication.ReplicationUtils;
 import com.hortonworks.beacon.util.HiveActionType;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 /**
@@ -51,6 +55,10 @@ import java.util.concurrent.ScheduledThreadPoolExecutor;
 public class HiveImport extends InstanceReplication {
 
     private static final Logger LOG = LoggerFactory.getLogger(HiveImport.class);
+
+    // Set by REPL LOAD to the dump directory on the database and on every table it has completely loaded
+    static final String REPL_CHECKPOINT_KEY = "hive.repl.ckpt.key";
+
     private String database;
 
     public HiveImport(ReplicationJobDetails details) {
@@ -106,10 +114,14 @@ public class HiveImport extends InstanceReplication {
             targetStatement = hiveServerClient.createStatement();
             getHiveReplicationProgress(timer, jobContext, HiveActionType.IMPORT,
                     ReplicationUtils.getReplicationMetricsInterval(), targetStatement);
+            startStatement(jobContext, targetStatement, "before repl load");
             targetStatement.execute(replLoad);
+            completeStatement(jobContext, targetStatement, "after repl load");
         } catch (SQLException  e) {
+            checkCancelled(jobContext, e);
             throw new BeaconException(e);
         } finally {
+            endStatement(targetStatement);
             LOG.debug("Capturing hive import metrics after job execution");
             jobContext.getJobContextMap().put(BeaconConstants.END_TIME,
                     String.valueOf(System.currentTimeMillis()));
@@ -130,23 +142,23 @@ public class HiveImport extends InstanceReplication {
         boolean isBootStrap = Boolean.parseBoolean(jobContext.getJobContextMap().get(HiveDRUtils.BOOTSTRAP));
         LOG.info("Recovering replication in bootstrap process (true|false): {}", isBootStrap);
         if (isBootStrap) {
+            BootstrapRecoveryMode recoveryMode = getBootstrapRecoveryMode();
+            LOG.info("Bootstrap recovery mode: {}", recoveryMode);
             String targetCluster = properties.getProperty(HiveDRProperties.TARGET_CLUSTER_NAME.getName());
             Cluster cluster = ClusterHelper.getActiveCluster(targetCluster);
             HiveMetadataClient hiveMetaDataClient = HiveClientFactory.getMetadataClient(cluster);
             try {
-                if (database.equals(HiveDRUtils.DEFAULT)) {
+                String dumpDirectory = jobContext.getJobContextMap().get(DUMP_DIRECTORY);
+                if (recoveryMode == BootstrapRecoveryMode.RESUME
+                        && isCheckpointed(hiveMetaDataClient, dumpDirectory)) {
+                    //REPL LOAD of the same dump skips the checkpointed tables, so only drop the incomplete ones.
+                    dropIncompleteTables(hiveMetaDataClient, dumpDirectory);
+                } else if (database.equals(HiveDRUtils.DEFAULT)) {
                     //default database can't be dropped, so drop each table.
-                    List<String> tables = hiveMetaDataClient.getTables(database);
-                    for (String table: tables) {
-                        hiveMetaDataClient.dropTable(database, table);
-                    }
+                    dropTables(hiveMetaDataClient, hiveMetaDataClient.getTables(database), recoveryMode);
 
                     //Drop default database user defined functions
-                    List<String> functions = hiveMetaDataClient.getFunctions(database);
-                    for (String function: functions) {
-                        LOG.info("Drop function: {}", function);
-                        hiveMetaDataClient.dropFunction(database, function);
-                    }
+                    dropFunctions(hiveMetaDataClient, hiveMetaDataClient.getFunctions(database), recoveryMode);
                 } else {
                     LOG.info("Drop database: {}", database);
                     hiveMetaDataClient.dropDatabase(database);
@@ -158,8 +170,101 @@ public class HiveImport extends InstanceReplication {
         jobContext.setPerformJobAfterRecovery(true);
     }
 
+    private static BootstrapRecoveryMode getBootstrapRecoveryMode() throws BeaconException {
+        String mode = BeaconConfig.getInstance().getEngine().getHiveBootstrapRecoveryMode();
+        if (StringUtils.isBlank(mode)) {
+            return BootstrapRecoveryMode.RESUME;
+        }
+        try {
+            return BootstrapRecoveryMode.valueOf(mode.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BeaconException(e, "Invalid hive bootstrap recovery mode: {}", mode);
+        }
+    }
+
+    private boolean isCheckpointed(HiveMetadataClient hiveMetaDataClient, String dumpDirectory)
+            throws BeaconException {
+        if (StringUtils.isBlank(dumpDirectory)) {
+            return false;
+        }
+        String checkpoint = hiveMetaDataClient.getDatabaseParameter(database, REPL_CHECKPOINT_KEY);
+        LOG.info("Database: {}, checkpoint: {}, dump directory: {}", database, checkpoint, dumpDirectory);
+        return isSameDump(checkpoint, dumpDirectory);
+    }
+
+    private static boolean isSameDump(String checkpoint, String dumpDirectory) {
+        // The checkpoint may or may not be qualified with the file system of the dump directory
+        return StringUtils.isNotBlank(checkpoint)
+                && new Path(checkpoint).toUri().getPath().equals(new Path(dumpDirectory).toUri().getPath());
+    }
+
+    private void dropIncompleteTables(HiveMetadataClient hiveMetaDataClient, String dumpDirectory)
+            throws BeaconException {
+        List<String> tables = hiveMetaDataClient.getTables(database);
+        List<String> incompleteTables = new ArrayList<>();
+        int batchSize = BeaconConfig.getInstance().getEngine().getHiveBootstrapRecoveryBatchSize();
+        for (int i = 0; i < tables.size(); i += batchSize) {
+            List<String> batch = tables.subList(i, Math.min(i + batchSize, tables.size()));
+            Map<String, String> checkpoints = hiveMetaDataClient.getTableParameters(database, batch,
+                    REPL_CHECKPOINT_KEY);
+            for (Map.Entry<String, String> checkpoint : checkpoints.entrySet()) {
+                if (!isSameDump(checkpoint.getValue(), dumpDirectory)) {
+                    incompleteTables.add(checkpoint.getKey());
+                }
+            }
+        }
+        LOG.info("Resuming bootstrap of database: {}, tables checkpointed: {}, incomplete: {}", database,
+                tables.size() - incompleteTables.size(), incompleteTables.size());
+        dropTables(hiveMetaDataClient, incompleteTables, BootstrapRecoveryMode.BATCH_DROP);
+    }
+
+    private void dropTables(HiveMetadataClient hiveMetaDataClient, List<String> tables,
+                            BootstrapRecoveryMode recoveryMode) throws BeaconException {
+        if (recoveryMode == BootstrapRecoveryMode.DROP) {
+            for (String table : tables) {
+                hiveMetaDataClient.dropTable(database, table);
+            }
+            return;
+        }
+        int batchSize = BeaconConfig.getInstance().getEngine().getHiveBootstrapRecoveryBatchSize();
+        for (int i = 0; i < tables.size(); i += batchSize) {
+            List<String> batch = tables.subList(i, Math.min(i + batchSize, tables.size()));
+            hiveMetaDataClient.dropTables(database, batch);
+            LOG.info("Dropped {} of {} tables of database: {}", i + batch.size(), tables.size(), database);
+        }
+    }
+
+    private void dropFunctions(HiveMetadataClient hiveMetaDataClient, List<String> functions,
+                               BootstrapRecoveryMode recoveryMode) throws BeaconException {
+        if (recoveryMode == BootstrapRecoveryMode.DROP) {
+            for (String function : functions) {
+                LOG.info("Drop function: {}", function);
+                hiveMetaDataClient.dropFunction(database, function);
+            }
+            return;
+        }
+        int batchSize = BeaconConfig.getInstance().getEngine().getHiveBootstrapRecoveryBatchSize();
+        for (int i = 0; i < functions.size(); i += batchSize) {
+            List<String> batch = functions.subList(i, Math.min(i + batchSize, functions.size()));
+            LOG.info("Drop functions: {}", batch);
+            hiveMetaDataClient.dropFunctions(database, batch);
+        }
+    }
+
     @Override
     public void interrupt() throws BeaconException {
-        //do nothing, can't interrupt hive replication
+        cancelRunningStatement();
+    }
+
+    /**
+     * How the target of a failed bootstrap is cleaned up before the bootstrap is retried.
+     */
+    enum BootstrapRecoveryMode {
+        // Keep the checkpointed tables and drop the rest, falls back to BATCH_DROP without a checkpoint
+        RESUME,
+        // Drop the database, or every table and function of the default database one at a time
+        DROP,
+        // Drop the database, or the tables and functions of the default database in batches
+        BATCH_DROP
     }
 }
@@ -0,0 +1,192 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+package com.hortonworks.beacon.replication.fs;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.tools.CopyListingFileStatus;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Test partitioned cloud meta store.
+ */
+public class CloudMetaStoreTest {
+
+    private FileSystem fs;
+    private Configuration conf;
+    private Path root;
+    private Path metaRoot;
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        conf = new Configuration();
+        conf.setInt(CloudMetaStore.NUM_SHARDS, 4);
+        conf.setInt(CloudMetaStore.MAX_SHARD_FILES, 2);
+        fs = FileSystem.getLocal(conf);
+        root = fs.makeQualified(new Path(System.getProperty("java.io.tmpdir"), "cloudMetaStoreTest"));
+        fs.delete(root, true);
+        metaRoot = new Path(root, "cloud/.dlm-engine");
+    }
+
+    @AfterMethod
+    public void cleanup() throws IOException {
+        fs.delete(root, true);
+    }
+
+    @Test
+    public void testIncrementalUpdate() throws Exception {
+        CloudMetaStore store = newStore();
+        store.update(writeListing("/d1/b", 1L, "/d1/a", 1L, "/d2/a", 1L), new Path(root, "work"));
+        Assert.assertEquals(store.getGeneration(), 1);
+        Assert.assertEquals(readAll(store).size(), 3);
+
+        store = newStore();
+        int updated = store.update(writeListing("/d1/a", 2L), new Path(root, "work"));
+        Assert.assertEquals(updated, 1);
+        Map<String, Long> entries = readAll(store);
+        Assert.assertEquals(entries.size(), 3);
+        Assert.assertEquals(entries.get("/d1/a").longValue(), 2L);
+        Assert.assertEquals(entries.get("/d1/b").longValue(), 1L);
+        Assert.assertFalse(fs.exists(new Path(root, "work")));
+    }
+
+    @Test
+    public void testCompaction() throws Exception {
+        CloudMetaStore store = null;
+        for (long i = 1; i <= 3; i++) {
+            store = newStore();
+            store.update(writeListing("/d1/a", i), new Path(root, "work"));
+        }
+        int shard = store.getShard(new Text("/d1/a"));
+        // Updates never compact on their own.
+        Assert.assertEquals(store.getShardFiles(shard).size(), 3);
+        Assert.assertEquals(store.compact(), 1);
+        Assert.assertEquals(store.compact(), 0);
+
+        store = newStore();
+        Assert.assertTrue(store.load());
+        Assert.assertEquals(store.getShardFiles(shard).size(), 1);
+        Assert.assertEquals(readAll(store).get("/d1/a").longValue(), 3L);
+
+        FileStatus[] files = fs.listStatus(new Path(metaRoot, CloudMetaStore.META_DIR));
+        // One compacted shard file plus the manifest.
+        Assert.assertEquals(files.length, 2);
+    }
+
+    @Test
+    public void testLegacyMigration() throws Exception {
+        Path legacy = new Path(metaRoot, CloudMetaStore.LEGACY_SORTED_LISTING);
+        writeListingTo(legacy, "/d1/a", 1L, "/d1/b", 1L, "/d2/a", 1L);
+
+        CloudMetaStore store = newStore();
+        store.update(writeListing("/d2/a", 2L), new Path(root, "work"));
+        Map<String, Long> entries = readAll(store);
+        Assert.assertEquals(entries.size(), 3);
+        Assert.assertEquals(entries.get("/d2/a").longValue(), 2L);
+        // The legacy listing stays in place for a downgraded engine, untouched unless explicitly rewritten.
+        Assert.assertEquals(readListing(legacy).get("/d2/a").longValue(), 1L);
+    }
+
+    @Test
+    public void testWriteLegacyListing() throws Exception {
+        conf.setBoolean(CloudMetaStore.WRITE_LEGACY_LISTING, true);
+        Path legacy = new Path(metaRoot, CloudMetaStore.LEGACY_SORTED_LISTING);
+        newStore().update(writeListing("/d2/a", 1L, "/d1/b", 1L, "/d1/a", 1L, "/d3/a", 1L), new Path(root, "work"));
+        newStore().update(writeListing("/d1/b", 2L), new Path(root, "work"));
+
+        Map<String, Long> entries = readListing(legacy);
+        Assert.assertEquals(entries.keySet().toString(), "[/d1/a, /d1/b, /d2/a, /d3/a]");
+        Assert.assertEquals(entries.get("/d1/b").longValue(), 2L);
+    }
+
+    private CloudMetaStore newStore() {
+        return new CloudMetaStore(fs, conf, metaRoot, fs, conf);
+    }
+
+    private Map<String, Long> readAll(CloudMetaStore store) throws IOException {
+        Assert.assertTrue(store.load());
+        Map<String, Long> entries = new HashMap<>();
+        for (int i = 0; i < store.getNumShards(); i++) {
+            CloudMetaStore.MetaReader reader = store.open(i);
+            try {
+                while (reader.next()) {
+                    entries.put(reader.getRelPath().toString(), reader.getFileStatus().getModificationTime());
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return entries;
+    }
+
+    private Map<String, Long> readListing(Path listing) throws IOException {
+        Map<String, Long> entries = new LinkedHashMap<>();
+        SequenceFile.Reader reader = new SequenceFile.Reader(conf, SequenceFile.Reader.file(listing));
+        try {
+            Text relPath = new Text();
+            CopyListingFileStatus fileStatus = new CopyListingFileStatus();
+            while (reader.next(relPath, fileStatus)) {
+                entries.put(relPath.toString(), fileStatus.getModificationTime());
+            }
+        } finally {
+            IOUtils.closeStream(reader);
+        }
+        return entries;
+    }
+
+    private Path writeListing(Object... entries) throws IOException {
+        Path listing = new Path(root, "staging/fileList.seq");
+        writeListingTo(listing, entries);
+        return listing;
+    }
+
+    private void writeListingTo(Path listing, Object... entries) throws IOException {
+        fs.delete(listing, false);
+        SequenceFile.Writer writer = SequenceFile.createWriter(conf,
+                SequenceFile.Writer.file(listing),
+                SequenceFile.Writer.keyClass(Text.class),
+                SequenceFile.Writer.valueClass(CopyListingFileStatus.class));
+        try {
+            for (int i = 0; i < entries.length; i += 2) {
+                String relPath = (String) entries[i];
+                long modificationTime = (Long) entries[i + 1];
+                FileStatus status = new FileStatus(0, false, 1, 0, modificationTime, new Path(root, relPath));
+                writer.append(new Text(relPath), new CopyListingFileStatus(status));
+            }
+        } finally {
+            IOUtils.closeStream(writer);
+        }
+    }
+}
@@ -45,6 +45,7 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Properties;
 import java.util.UUID;
@@ -97,7 +98,8 @@ public class FSTDEReplicationTest {
 
     @BeforeClass
     public void init() throws Exception {
-        ServiceManager.getInstance().initialize(Collections.singletonList(BeaconStoreService.class.getName()), null);
+        ServiceManager.getInstance().initialize(Arrays.asList(BeaconStoreService.class.getName(),
+                SnapshotEvictionService.class.getName()), null);
         for (String[] sourceAttr : sourceAttrs) {
             sourceClusterProps.setProperty(sourceAttr[0], sourceAttr[1]);
         }
@@ -31,6 +31,7 @@ import com.hortonworks.beacon.entity.FSDRProperties;
 import com.hortonworks.beacon.entity.util.ClusterBuilder;
 import com.hortonworks.beacon.entity.util.ClusterDao;
 import com.hortonworks.beacon.entity.util.ClusterHelper;
+import com.hortonworks.beacon.exceptions.BeaconException;
 import com.hortonworks.beacon.job.JobContext;
 import com.hortonworks.beacon.metrics.ReplicationMetrics;
 import com.hortonworks.beacon.replication.ReplicationJobDetails;
@@ -62,6 +63,9 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  *  Test class to test the FS Replication functionality.
@@ -111,7 +115,8 @@ public class HDFSReplicationTest {
     @BeforeClass
     public void init() throws Exception {
         RequestContext.setInitialValue();
-        ServiceManager.getInstance().initialize(Collections.singletonList(BeaconStoreService.class.getName()), null);
+        ServiceManager.getInstance().initialize(Arrays.asList(BeaconStoreService.class.getName(),
+                SnapshotEvictionService.class.getName()), null);
         for (String[] sourceAttr : sourceAttrs) {
             sourceClusterProps.setProperty(sourceAttr[0], sourceAttr[1]);
         }
@@ -354,20 +359,66 @@ public class HDFSReplicationTest {
         FileStatus[] fileStatuses = miniDfs.listStatus(snapshotDir);
         Assert.assertEquals(fileStatuses.length, NUM_FILES);
 
-        FSSnapshotUtils.evictSnapshots(miniDfs, evictionDir.toString(), "minutes(1)",
-                NUM_FILES + 1);
+        FSSnapshotUtils.EvictionResult result = FSSnapshotUtils.evictSnapshots(miniDfs, evictionDir.toString(),
+                "minutes(1)", NUM_FILES + 1);
         fileStatuses = miniDfs.listStatus(snapshotDir);
         Assert.assertEquals(fileStatuses.length, NUM_FILES);
+        Assert.assertEquals(result.getConsidered(), NUM_FILES);
+        Assert.assertEquals(result.getDeleted(), 0);
 
-        FSSnapshotUtils.evictSnapshots(miniDfs, evictionDir.toString(), "minutes(1)",
+        result = FSSnapshotUtils.evictSnapshots(miniDfs, evictionDir.toString(), "minutes(1)",
                 NUM_FILES - 1);
         fileStatuses = miniDfs.listStatus(snapshotDir);
         Assert.assertEquals(fileStatuses.length, NUM_FILES - 1);
+        Assert.assertEquals(result.getConsidered(), NUM_FILES);
+        Assert.assertEquals(result.getDeleted(), 1);
 
-        FSSnapshotUtils.evictSnapshots(miniDfs, evictionDir.toString(), "minutes(1)",
+        result = FSSnapshotUtils.evictSnapshots(miniDfs, evictionDir.toString(), "minutes(1)",
                 2);
         fileStatuses = miniDfs.listStatus(snapshotDir);
         Assert.assertTrue(fileStatuses.length >= 5);
+        Assert.assertEquals(result.getConsidered(), NUM_FILES - 1);
+        Assert.assertEquals(result.getDeleted(), NUM_FILES - 1 - fileStatuses.length);
+    }
+
+    @Test(dependsOnMethods = "testEvictSnapshots")
+    public void testEvictSnapshotsAsync() throws Exception {
+        Path snapshotDir = new Path(evictionDir, ".snapshot");
+        int numSnapshots = miniDfs.listStatus(snapshotDir).length;
+
+        Future<FSSnapshotUtils.EvictionResult> first = FSSnapshotUtils.evictSnapshotsAsync(miniDfs,
+                evictionDir.toString(), "minutes(0)", 1);
+        Future<FSSnapshotUtils.EvictionResult> second = FSSnapshotUtils.evictSnapshotsAsync(miniDfs,
+                evictionDir.toString(), "minutes(0)", 1);
+        FSSnapshotUtils.EvictionResult result = first.get(1, TimeUnit.MINUTES);
+        second.get(1, TimeUnit.MINUTES);
+
+        Assert.assertEquals(result.getConsidered(), numSnapshots);
+        Assert.assertEquals(result.getDeleted(), numSnapshots - 1);
+        Assert.assertEquals(miniDfs.listStatus(snapshotDir).length, 1);
+    }
+
+    @Test(dependsOnMethods = "testEvictSnapshotsAsync")
+    public void testEvictSnapshotsFailureReported() throws Exception {
+        Future<FSSnapshotUtils.EvictionResult> failed = FSSnapshotUtils.evictSnapshotsAsync(miniDfs,
+                evictionDir.toString(), "unknown(1)", 1);
+        try {
+            failed.get(1, TimeUnit.MINUTES);
+            Assert.fail("Eviction with an invalid age limit should fail.");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof BeaconException);
+        }
+
+        // Failure is reported to the next request, which still queues its pass.
+        try {
+            FSSnapshotUtils.evictSnapshotsAsync(miniDfs, evictionDir.toString(), "minutes(0)", 1);
+            Assert.fail("Failure of the previous eviction should be reported.");
+        } catch (BeaconException e) {
+            Assert.assertTrue(e.getCause() instanceof BeaconException);
+        }
+        FSSnapshotUtils.EvictionResult result = FSSnapshotUtils.evictSnapshotsAsync(miniDfs,
+                evictionDir.toString(), "minutes(0)", 1).get(1, TimeUnit.MINUTES);
+        Assert.assertEquals(result.getDeleted(), 0);
     }
 
     @AfterClass
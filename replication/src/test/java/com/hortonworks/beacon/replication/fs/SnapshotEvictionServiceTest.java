@@ -0,0 +1,102 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.replication.fs;
+
+import com.hortonworks.beacon.exceptions.BeaconException;
+import com.hortonworks.beacon.replication.fs.FSSnapshotUtils.EvictionResult;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the queuing of the snapshot eviction passes.
+ */
+public class SnapshotEvictionServiceTest {
+
+    private static final String DIR = "hdfs://localhost:8020/data/eviction";
+
+    private SnapshotEvictionService service;
+
+    @BeforeMethod
+    public void setup() {
+        service = new SnapshotEvictionService();
+        service.init();
+    }
+
+    @AfterMethod
+    public void teardown() throws BeaconException {
+        service.destroy();
+    }
+
+    @Test
+    public void testFollowUpPassQueuedWhileRunning() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger passes = new AtomicInteger();
+        Callable<EvictionResult> pass = new Callable<EvictionResult>() {
+            @Override
+            public EvictionResult call() throws InterruptedException {
+                int count = passes.incrementAndGet();
+                started.countDown();
+                release.await();
+                return new EvictionResult(count, 0);
+            }
+        };
+
+        Future<EvictionResult> running = service.submit(DIR, pass);
+        Assert.assertTrue(started.await(1, TimeUnit.MINUTES));
+        // Request while a pass is running is not dropped, it gets a follow-up pass.
+        Future<EvictionResult> followUp = service.submit(DIR, pass);
+        Assert.assertNotSame(followUp, running);
+        // Further requests share the queued follow-up pass.
+        Assert.assertSame(service.submit(DIR, pass), followUp);
+
+        release.countDown();
+        Assert.assertEquals(running.get(1, TimeUnit.MINUTES).getConsidered(), 1);
+        Assert.assertEquals(followUp.get(1, TimeUnit.MINUTES).getConsidered(), 2);
+        Assert.assertEquals(passes.get(), 2);
+    }
+
+    @Test
+    public void testSubmitAfterDestroy() throws Exception {
+        service.destroy();
+        try {
+            service.submit(DIR, new Callable<EvictionResult>() {
+                @Override
+                public EvictionResult call() {
+                    return new EvictionResult(0, 0);
+                }
+            });
+            Assert.fail("Eviction should not be accepted after the service is destroyed.");
+        } catch (BeaconException e) {
+            // expected
+        }
+    }
+}
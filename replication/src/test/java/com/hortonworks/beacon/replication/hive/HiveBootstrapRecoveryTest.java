@@ -0,0 +1,277 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.replication.hive;
+
+import com.hortonworks.beacon.RequestContext;
+import com.hortonworks.beacon.client.entity.Cluster;
+import com.hortonworks.beacon.config.BeaconConfig;
+import com.hortonworks.beacon.config.Engine;
+import com.hortonworks.beacon.entity.HiveDRProperties;
+import com.hortonworks.beacon.entity.util.ClusterBuilder;
+import com.hortonworks.beacon.entity.util.ClusterDao;
+import com.hortonworks.beacon.entity.util.HiveDRUtils;
+import com.hortonworks.beacon.entity.util.hive.HiveClientFactory;
+import com.hortonworks.beacon.entity.util.hive.HiveMetadataClient;
+import com.hortonworks.beacon.job.JobContext;
+import com.hortonworks.beacon.replication.ReplicationJobDetails;
+import com.hortonworks.beacon.replication.fs.HDFSReplicationTest;
+import com.hortonworks.beacon.service.BeaconStoreService;
+import com.hortonworks.beacon.service.ServiceManager;
+import com.hortonworks.beacon.util.PropertiesIgnoreCase;
+import org.apache.hadoop.fs.Path;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Test recovery of a failed Hive bootstrap import.
+ */
+public class HiveBootstrapRecoveryTest {
+
+    private static final String TARGET = "hive-recovery-target";
+    private static final String DUMP_DIRECTORY = "hdfs://localhost:8020/apps/hive/repl/dump/1";
+
+    private String recoveryMode;
+    private int batchSize;
+
+    @BeforeClass
+    public void init() throws Exception {
+        RequestContext.setInitialValue();
+        ServiceManager.getInstance().initialize(Collections.singletonList(BeaconStoreService.class.getName()), null);
+        HDFSReplicationTest.createDBSchema();
+        PropertiesIgnoreCase clusterProps = new PropertiesIgnoreCase();
+        clusterProps.setProperty(Cluster.ClusterFields.NAME.getName(), TARGET);
+        clusterProps.setProperty(Cluster.ClusterFields.FSENDPOINT.getName(), "hdfs://localhost:8020");
+        clusterProps.setProperty(Cluster.ClusterFields.BEACONENDPOINT.getName(), "http://localhost:55000");
+        clusterProps.setProperty(Cluster.ClusterFields.DESCRIPTION.getName(), "hive target cluster");
+        RequestContext.get().startTransaction();
+        new ClusterDao().submitCluster(ClusterBuilder.buildCluster(clusterProps, TARGET));
+        RequestContext.get().commitTransaction();
+
+        Engine engine = BeaconConfig.getInstance().getEngine();
+        recoveryMode = engine.getHiveBootstrapRecoveryMode();
+        batchSize = engine.getHiveBootstrapRecoveryBatchSize();
+    }
+
+    @AfterMethod
+    public void reset() {
+        HiveClientFactory.setHiveMetadataClient(null);
+        Engine engine = BeaconConfig.getInstance().getEngine();
+        engine.setHiveBootstrapRecoveryMode(recoveryMode);
+        engine.setHiveBootstrapRecoveryBatchSize(batchSize);
+    }
+
+    @AfterClass
+    public void teardown() {
+        RequestContext.get().clear();
+    }
+
+    @Test
+    public void testResumeDropsOnlyIncompleteTables() throws Exception {
+        InMemoryMetadataClient client = new InMemoryMetadataClient("sales", DUMP_DIRECTORY);
+        client.addTable("loaded", "/apps/hive/repl/dump/1");
+        client.addTable("loaded_qualified", DUMP_DIRECTORY);
+        client.addTable("previous_dump", "hdfs://localhost:8020/apps/hive/repl/dump/0");
+        client.addTable("partially_loaded", null);
+        HiveClientFactory.setHiveMetadataClient(client);
+
+        JobContext jobContext = recover("sales");
+
+        Assert.assertTrue(jobContext.isPerformJobAfterRecovery());
+        Assert.assertFalse(client.databaseDropped);
+        Assert.assertEquals(client.tables.keySet(), new HashSet<>(Arrays.asList("loaded", "loaded_qualified")));
+        Assert.assertEquals(client.singleDrops, 0);
+    }
+
+    @Test
+    public void testResumeWithoutCheckpointDropsDatabase() throws Exception {
+        InMemoryMetadataClient client = new InMemoryMetadataClient("sales", null);
+        client.addTable("partially_loaded", null);
+        HiveClientFactory.setHiveMetadataClient(client);
+
+        JobContext jobContext = recover("sales");
+
+        Assert.assertTrue(jobContext.isPerformJobAfterRecovery());
+        Assert.assertTrue(client.databaseDropped);
+    }
+
+    @Test
+    public void testBatchDropDefaultDatabase() throws Exception {
+        Engine engine = BeaconConfig.getInstance().getEngine();
+        engine.setHiveBootstrapRecoveryMode("batch_drop");
+        engine.setHiveBootstrapRecoveryBatchSize(2);
+        InMemoryMetadataClient client = new InMemoryMetadataClient(HiveDRUtils.DEFAULT, DUMP_DIRECTORY);
+        for (int i = 0; i < 5; i++) {
+            client.addTable("table" + i, DUMP_DIRECTORY);
+        }
+        client.functions.addAll(Arrays.asList("f1", "f2", "f3"));
+        HiveClientFactory.setHiveMetadataClient(client);
+
+        recover(HiveDRUtils.DEFAULT);
+
+        Assert.assertTrue(client.tables.isEmpty());
+        Assert.assertTrue(client.functions.isEmpty());
+        Assert.assertEquals(client.batchDrops, Arrays.asList(2, 2, 1, 2, 1));
+        Assert.assertEquals(client.singleDrops, 0);
+    }
+
+    @Test
+    public void testDropDefaultDatabaseOneObjectAtATime() throws Exception {
+        BeaconConfig.getInstance().getEngine().setHiveBootstrapRecoveryMode("DROP");
+        InMemoryMetadataClient client = new InMemoryMetadataClient(HiveDRUtils.DEFAULT, DUMP_DIRECTORY);
+        client.addTable("table1", DUMP_DIRECTORY);
+        client.addTable("table2", null);
+        client.functions.add("f1");
+        HiveClientFactory.setHiveMetadataClient(client);
+
+        recover(HiveDRUtils.DEFAULT);
+
+        Assert.assertTrue(client.tables.isEmpty());
+        Assert.assertTrue(client.functions.isEmpty());
+        Assert.assertEquals(client.singleDrops, 3);
+        Assert.assertTrue(client.batchDrops.isEmpty());
+    }
+
+    private JobContext recover(String database) throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(HiveDRProperties.TARGET_DATASET.getName(), database);
+        properties.setProperty(HiveDRProperties.TARGET_CLUSTER_NAME.getName(), TARGET);
+        HiveImport hiveImport = new HiveImport(new ReplicationJobDetails("import", "policy", "HIVE", properties));
+        JobContext jobContext = new JobContext();
+        jobContext.setJobInstanceId("policy@1");
+        jobContext.getJobContextMap().put(HiveDRUtils.BOOTSTRAP, "true");
+        jobContext.getJobContextMap().put("dumpDirectory", DUMP_DIRECTORY);
+        hiveImport.recover(jobContext);
+        return jobContext;
+    }
+
+    /**
+     * Metadata client over a single in-memory database, counting the drop calls.
+     */
+    private static final class InMemoryMetadataClient implements HiveMetadataClient {
+        private final String database;
+        private final String checkpoint;
+        private final Map<String, String> tables = new LinkedHashMap<>();
+        private final List<String> functions = new ArrayList<>();
+        private final List<Integer> batchDrops = new ArrayList<>();
+        private int singleDrops;
+        private boolean databaseDropped;
+
+        private InMemoryMetadataClient(String database, String checkpoint) {
+            this.database = database;
+            this.checkpoint = checkpoint;
+        }
+
+        private void addTable(String table, String tableCheckpoint) {
+            tables.put(table, tableCheckpoint);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public List<String> listDatabases() {
+            return Collections.singletonList(database);
+        }
+
+        @Override
+        public Path getDatabaseLocation(String dbName) {
+            return new Path("/warehouse", dbName);
+        }
+
+        @Override
+        public List<String> getTables(String dbName) {
+            return new ArrayList<>(tables.keySet());
+        }
+
+        @Override
+        public List<String> getFunctions(String dbName) {
+            return new ArrayList<>(functions);
+        }
+
+        @Override
+        public boolean doesDBExist(String dbName) {
+            return !databaseDropped;
+        }
+
+        @Override
+        public void dropTable(String dbName, String tableName) {
+            singleDrops++;
+            tables.remove(tableName);
+        }
+
+        @Override
+        public void dropDatabase(String dbName) {
+            databaseDropped = true;
+            tables.clear();
+            functions.clear();
+        }
+
+        @Override
+        public void dropFunction(String dbName, String functionName) {
+            singleDrops++;
+            functions.remove(functionName);
+        }
+
+        @Override
+        public void dropTables(String dbName, List<String> tableNames) {
+            batchDrops.add(tableNames.size());
+            tables.keySet().removeAll(tableNames);
+        }
+
+        @Override
+        public void dropFunctions(String dbName, List<String> functionNames) {
+            batchDrops.add(functionNames.size());
+            functions.removeAll(functionNames);
+        }
+
+        @Override
+        public String getDatabaseParameter(String dbName, String key) {
+            Assert.assertEquals(key, HiveImport.REPL_CHECKPOINT_KEY);
+            return checkpoint;
+        }
+
+        @Override
+        public Map<String, String> getTableParameters(String dbName, List<String> tableNames, String key) {
+            Assert.assertEquals(key, HiveImport.REPL_CHECKPOINT_KEY);
+            Map<String, String> values = new HashMap<>();
+            for (String tableName : tableNames) {
+                values.put(tableName, tables.get(tableName));
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.replication.hive;
+
+import com.hortonworks.beacon.entity.HiveDRProperties;
+import com.hortonworks.beacon.entity.util.hive.HiveClientFactory;
+import com.hortonworks.beacon.entity.util.hive.HiveServerClient;
+import com.hortonworks.beacon.job.BeaconJob;
+import com.hortonworks.beacon.job.JobContext;
+import com.hortonworks.beacon.replication.ReplicationJobDetails;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test that interrupting a Hive export or import cancels the running REPL statement.
+ */
+public class HiveReplicationInterruptTest {
+
+    private static final long TIMEOUT_SECS = 30;
+
+    private ExecutorService executor;
+    private BlockingHiveServerClient hiveServerClient;
+
+    @BeforeClass
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterMethod
+    public void resetClient() {
+        HiveClientFactory.setHiveServerClient(null);
+    }
+
+    @AfterClass
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testInterruptReplLoad() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(HiveDRProperties.TARGET_DATASET.getName(), "sales");
+        properties.setProperty(HiveDRProperties.TARGET_HS2_URI.getName(), "hive2://localhost:10000");
+        HiveImport hiveImport = new HiveImport(new ReplicationJobDetails("import", "policy", "HIVE", properties));
+        JobContext jobContext = createJobContext();
+        jobContext.getJobContextMap().put("dumpDirectory", "hdfs://localhost:8020/apps/hive/repl/dump");
+
+        assertInterrupted(hiveImport, jobContext, "REPL LOAD");
+    }
+
+    @Test
+    public void testInterruptReplDump() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(HiveDRProperties.SOURCE_DATASET.getName(), "sales");
+        properties.setProperty(HiveDRProperties.MAX_EVENTS.getName(), "100");
+        properties.setProperty(HiveDRProperties.SOURCE_NN.getName(), "hdfs://localhost:8020");
+        HiveExport hiveExport = new HiveExport(new ReplicationJobDetails("export", "policy", "HIVE", properties));
+
+        assertInterrupted(hiveExport, createJobContext(), "REPL DUMP");
+    }
+
+    @Test
+    public void testInterruptBeforeStatementStarts() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(HiveDRProperties.TARGET_DATASET.getName(), "sales");
+        properties.setProperty(HiveDRProperties.TARGET_HS2_URI.getName(), "hive2://localhost:10000");
+        HiveImport hiveImport = new HiveImport(new ReplicationJobDetails("import", "policy", "HIVE", properties));
+        JobContext jobContext = createJobContext();
+        jobContext.getJobContextMap().put("dumpDirectory", "hdfs://localhost:8020/apps/hive/repl/dump");
+
+        // The cancel reaches the statement before the server runs it, so REPL LOAD completes
+        assertInterrupted(hiveImport, jobContext, new BlockingHiveServerClient("REPL LOAD", false));
+    }
+
+    @Test
+    public void testInterruptWithoutRunningStatement() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(HiveDRProperties.TARGET_DATASET.getName(), "sales");
+        new HiveImport(new ReplicationJobDetails("import", "policy", "HIVE", properties)).interrupt();
+    }
+
+    private void assertInterrupted(BeaconJob job, JobContext jobContext, String blockingCommand)
+            throws Exception {
+        assertInterrupted(job, jobContext, new BlockingHiveServerClient(blockingCommand, true));
+    }
+
+    private void assertInterrupted(final BeaconJob job, final JobContext jobContext,
+                                   BlockingHiveServerClient client) throws Exception {
+        hiveServerClient = client;
+        String blockingCommand = client.blockingCommand;
+        HiveClientFactory.setHiveServerClient(hiveServerClient);
+        Future<Void> result = executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                job.perform(jobContext);
+                return null;
+            }
+        });
+        Assert.assertTrue(hiveServerClient.started.await(TIMEOUT_SECS, TimeUnit.SECONDS),
+                blockingCommand + " was not executed");
+
+        // Same order as QuartzJob.interrupt
+        jobContext.shouldInterrupt().set(true);
+        job.interrupt();
+        try {
+            result.get(TIMEOUT_SECS, TimeUnit.SECONDS);
+            Assert.fail("Interrupted job should not complete");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof InterruptedException, "Unexpected failure: " + e.getCause());
+        }
+        Assert.assertEquals(hiveServerClient.cancelled.getCount(), 0);
+    }
+
+    private static JobContext createJobContext() {
+        JobContext jobContext = new JobContext();
+        jobContext.setJobInstanceId("policy@1");
+        return jobContext;
+    }
+
+    /**
+     * Hive server client with statements that block the given command until they are cancelled.
+     * Unless the cancel fails the command, the command completes normally once cancelled.
+     */
+    private static final class BlockingHiveServerClient implements HiveServerClient {
+        private final String blockingCommand;
+        private final boolean cancelFails;
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch cancelled = new CountDownLatch(1);
+
+        private BlockingHiveServerClient(String blockingCommand, boolean cancelFails) {
+            this.blockingCommand = blockingCommand;
+            this.cancelFails = cancelFails;
+        }
+
+        @Override
+        public Statement createStatement() {
+            return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Statement.class},
+                    new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                            switch (method.getName()) {
+                                case "execute":
+                                case "executeQuery":
+                                    return execute(method, (String) args[0]);
+                                case "cancel":
+                                    cancelled.countDown();
+                                    return null;
+                                case "isClosed":
+                                    return false;
+                                default:
+                                    return null;
+                            }
+                        }
+                    });
+        }
+
+        private Object execute(Method method, String command) throws SQLException, InterruptedException {
+            if (command.startsWith(blockingCommand)) {
+                started.countDown();
+                if (!cancelled.await(TIMEOUT_SECS, TimeUnit.SECONDS)) {
+                    throw new SQLException("Statement was not cancelled");
+                }
+                if (cancelFails) {
+                    throw new SQLException("Query was cancelled");
+                }
+            }
+            if (method.getReturnType() == ResultSet.class) {
+                return emptyResultSet();
+            }
+            return false;
+        }
+
+        private static ResultSet emptyResultSet() {
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) {
+                            return method.getReturnType() == boolean.class ? false : null;
+                        }
+                    });
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -25,8 +25,9 @@ package com.hortonworks.beacon.scheduler;
 import com.hortonworks.beacon.RequestContext;
 import com.hortonworks.beacon.exceptions.BeaconException;
 import com.hortonworks.beacon.job.JobStatus;
+import com.hortonworks.beacon.scheduler.internal.AdminJobService;
 import com.hortonworks.beacon.scheduler.quartz.BeaconQuartzScheduler;
-import com.hortonworks.beacon.service.BeaconService;
+import com.hortonworks.beacon.service.DependentService;
 import com.hortonworks.beacon.service.Services;
 import com.hortonworks.beacon.store.bean.InstanceJobBean;
 import com.hortonworks.beacon.store.bean.PolicyBean;
@@ -40,17 +41,26 @@ import com.hortonworks.beacon.store.executors.PolicyInstanceExecutor.PolicyInsta
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Beacon policy instance recovery service upon beacon server restart.
  */
-public class RecoveryService implements BeaconService {
+public class RecoveryService implements DependentService {
 
     private static final Logger LOG = LoggerFactory.getLogger(RecoveryService.class);
 
     @Override
     public void init() throws BeaconException {
+        BeaconQuartzScheduler quartzScheduler = BeaconQuartzScheduler.get();
+        boolean clustered = quartzScheduler.isClustered();
+        if (clustered && !quartzScheduler.hasRecoveryRequested()) {
+            // Running instances may belong to other live servers, the clustered job store recovers the jobs
+            // of failed servers.
+            LOG.info("Beacon scheduler is clustered, skipping the policy instance recovery.");
+            return;
+        }
         RequestContext.setInitialValue();
         try {
             PolicyInstanceBean bean = new PolicyInstanceBean();
@@ -66,6 +76,10 @@ public class RecoveryService implements BeaconService {
                 String policyId = instance.getPolicyId();
                 String offset = String.valueOf(instance.getCurrentOffset());
                 String recoverInstance = instance.getInstanceId();
+                // Only the jobs which were not recoverable by the clustered job store are recovered here.
+                if (clustered && !quartzScheduler.isRecoveryRequested(policyId, offset)) {
+                    continue;
+                }
                 // Trigger job with (policy id and offset)
                 LOG.info("Recovering instanceId: [{}], current offset: [{}]", recoverInstance, offset);
                 boolean recoveryStatus = scheduler.recoverPolicyInstance(policyId, offset, recoverInstance);
@@ -80,6 +94,12 @@ public class RecoveryService implements BeaconService {
         }
     }
 
+    @Override
+    public List<String> getDependencies() {
+        // Recovered jobs report their completion through the admin jobs.
+        return Arrays.asList(BeaconQuartzScheduler.class.getName(), AdminJobService.class.getName());
+    }
+
     @Override
     public void destroy() throws BeaconException {
     }
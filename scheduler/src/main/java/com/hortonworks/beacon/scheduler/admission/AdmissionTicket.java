@@ -0,0 +1,88 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.scheduler.admission;
+
+/**
+ * A replication job asking for admission, identified by its policy and job offset.
+ */
+public final class AdmissionTicket {
+
+    private final String policyId;
+    private final String jobGroup;
+    private final String pair;
+    private final int priority;
+    private long sequence;
+
+    public AdmissionTicket(String policyId, String jobGroup, String sourceCluster, String targetCluster,
+                           int priority) {
+        this.policyId = policyId;
+        this.jobGroup = jobGroup;
+        this.pair = getPair(sourceCluster, targetCluster);
+        this.priority = priority;
+    }
+
+    public static String getPair(String sourceCluster, String targetCluster) {
+        return sourceCluster + "->" + targetCluster;
+    }
+
+    public static String getKey(String policyId, String jobGroup) {
+        return policyId + "/" + jobGroup;
+    }
+
+    public String getKey() {
+        return getKey(policyId, jobGroup);
+    }
+
+    public String getPolicyId() {
+        return policyId;
+    }
+
+    public String getJobGroup() {
+        return jobGroup;
+    }
+
+    public String getPair() {
+        return pair;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    @Override
+    public String toString() {
+        return "AdmissionTicket{"
+                + "key='" + getKey() + '\''
+                + ", pair='" + pair + '\''
+                + ", priority=" + priority
+                + '}';
+    }
+}
@@ -0,0 +1,325 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.scheduler.admission;
+
+import com.hortonworks.beacon.client.resource.AdmissionStatusResult;
+import com.hortonworks.beacon.config.BeaconConfig;
+import com.hortonworks.beacon.config.Scheduler;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Weighted fair share admission of replication jobs per cluster pair.
+ * At most quartzThreadPool jobs run in total, a cluster pair runs at most admissionPairMaxJobs jobs and a policy at
+ * most admissionPolicyMaxJobs jobs. Deferred jobs are admitted by priority first, then from the pair which got the
+ * smallest share relative to its weight.
+ */
+public class FairShareJobAdmission implements JobAdmission {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FairShareJobAdmission.class);
+
+    // Admitted jobs which are triggered again but not fired on this server, e.g. picked by another cluster server.
+    private static final long RESERVATION_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+
+    // Virtual time advanced by a job of a pair with weight w is VIRTUAL_UNIT / w, exact for the weights up to 16.
+    private static final long VIRTUAL_UNIT = 720720;
+
+    private static final Comparator<AdmissionTicket> TICKET_ORDER = new Comparator<AdmissionTicket>() {
+        @Override
+        public int compare(AdmissionTicket o1, AdmissionTicket o2) {
+            if (o1.getPriority() != o2.getPriority()) {
+                return o1.getPriority() > o2.getPriority() ? -1 : 1;
+            }
+            return o1.getSequence() < o2.getSequence() ? -1 : (o1.getSequence() == o2.getSequence() ? 0 : 1);
+        }
+    };
+
+    private final int maxJobs;
+    private final int pairMaxJobs;
+    private final int policyMaxJobs;
+    private final Map<String, Integer> pairWeights;
+
+    private final Map<String, PairQueue> pairs = new TreeMap<>();
+    private final Map<String, Integer> policyRunning = new HashMap<>();
+    // The same job may be fired again while it is running, each of the fires takes a slot.
+    private final Map<String, List<AdmissionTicket>> running = new HashMap<>();
+    private final Map<String, Long> reservations = new HashMap<>();
+    private int runningJobs;
+    private long sequence;
+    private long virtualTime;
+
+    public FairShareJobAdmission() {
+        this(BeaconConfig.getInstance().getScheduler());
+    }
+
+    private FairShareJobAdmission(Scheduler config) {
+        this(NumberUtils.toInt(config.getQuartzThreadPool(), 0), config.getAdmissionPairMaxJobs(),
+                config.getAdmissionPolicyMaxJobs(), parseWeights(config.getAdmissionPairWeights()));
+    }
+
+    public FairShareJobAdmission(int maxJobs, int pairMaxJobs, int policyMaxJobs, Map<String, Integer> pairWeights) {
+        this.maxJobs = maxJobs;
+        this.pairMaxJobs = pairMaxJobs;
+        this.policyMaxJobs = policyMaxJobs;
+        this.pairWeights = new HashMap<>(pairWeights);
+        LOG.info("Job admission total: [{}], per cluster pair: [{}], per policy: [{}], weights: {}", maxJobs,
+                pairMaxJobs, policyMaxJobs, pairWeights);
+    }
+
+    @Override
+    public synchronized boolean tryAdmit(AdmissionTicket ticket) {
+        String key = ticket.getKey();
+        if (reservations.remove(key) != null) {
+            // Slot was taken when the job was admitted from the queue.
+            return true;
+        }
+        expireReservations();
+        PairQueue pair = getPair(ticket.getPair());
+        if (hasCapacity() && pair.hasCapacity() && hasPolicyCapacity(ticket.getPolicyId())) {
+            AdmissionTicket waiting = pair.waitingKeys.remove(key);
+            if (waiting != null) {
+                pair.waiting.remove(waiting);
+            }
+            admit(pair, ticket);
+            return true;
+        }
+        if (pair.waitingKeys.containsKey(key)) {
+            LOG.info("Job [{}] is already waiting for admission.", key);
+            return false;
+        }
+        ticket.setSequence(sequence++);
+        pair.waiting.add(ticket);
+        pair.waitingKeys.put(key, ticket);
+        LOG.info("Job [{}] is deferred, cluster pair [{}] running: [{}], waiting: [{}]", key, pair.name,
+                pair.running, pair.waiting.size());
+        return false;
+    }
+
+    @Override
+    public synchronized List<AdmissionTicket> release(String key) {
+        expireReservations();
+        releaseSlot(key);
+        return dispatch();
+    }
+
+    @Override
+    public synchronized void cancel(String key) {
+        for (PairQueue pair : pairs.values()) {
+            AdmissionTicket waiting = pair.waitingKeys.remove(key);
+            if (waiting != null) {
+                pair.waiting.remove(waiting);
+                LOG.info("Deferred job [{}] is cancelled.", key);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public synchronized AdmissionStatusResult getStatus() {
+        List<AdmissionStatusResult.PairElement> elements = new ArrayList<>();
+        for (PairQueue pair : pairs.values()) {
+            AdmissionStatusResult.PairElement element = new AdmissionStatusResult.PairElement();
+            element.pair = pair.name;
+            element.weight = pair.weight;
+            element.running = pair.running;
+            element.waiting = pair.waiting.size();
+            elements.add(element);
+        }
+        return new AdmissionStatusResult(elements.toArray(new AdmissionStatusResult.PairElement[elements.size()]));
+    }
+
+    private List<AdmissionTicket> dispatch() {
+        List<AdmissionTicket> admitted = new ArrayList<>();
+        AdmissionTicket next = selectNext();
+        while (next != null) {
+            PairQueue pair = pairs.get(next.getPair());
+            pair.waiting.remove(next);
+            pair.waitingKeys.remove(next.getKey());
+            admit(pair, next);
+            reservations.put(next.getKey(), System.currentTimeMillis());
+            admitted.add(next);
+            next = selectNext();
+        }
+        return admitted;
+    }
+
+    // Highest priority first, then the pair with the earliest virtual start time, then the oldest job.
+    private AdmissionTicket selectNext() {
+        if (!hasCapacity()) {
+            return null;
+        }
+        AdmissionTicket selected = null;
+        long selectedStart = 0;
+        for (PairQueue pair : pairs.values()) {
+            if (!pair.hasCapacity()) {
+                continue;
+            }
+            AdmissionTicket candidate = null;
+            for (AdmissionTicket ticket : pair.waiting) {
+                if (hasPolicyCapacity(ticket.getPolicyId())) {
+                    candidate = ticket;
+                    break;
+                }
+            }
+            if (candidate == null) {
+                continue;
+            }
+            long start = pair.getStartTime(virtualTime);
+            if (selected == null
+                    || candidate.getPriority() > selected.getPriority()
+                    || (candidate.getPriority() == selected.getPriority()
+                        && (start < selectedStart
+                            || (start == selectedStart && candidate.getSequence() < selected.getSequence())))) {
+                selected = candidate;
+                selectedStart = start;
+            }
+        }
+        return selected;
+    }
+
+    private void admit(PairQueue pair, AdmissionTicket ticket) {
+        long start = pair.getStartTime(virtualTime);
+        virtualTime = start;
+        pair.finishTime = start + VIRTUAL_UNIT / pair.weight;
+        pair.running++;
+        Integer count = policyRunning.get(ticket.getPolicyId());
+        policyRunning.put(ticket.getPolicyId(), count == null ? 1 : count + 1);
+        List<AdmissionTicket> tickets = running.get(ticket.getKey());
+        if (tickets == null) {
+            tickets = new ArrayList<>(1);
+            running.put(ticket.getKey(), tickets);
+        }
+        tickets.add(ticket);
+        runningJobs++;
+    }
+
+    private boolean hasCapacity() {
+        return maxJobs <= 0 || runningJobs < maxJobs;
+    }
+
+    private boolean hasPolicyCapacity(String policyId) {
+        Integer count = policyRunning.get(policyId);
+        return policyMaxJobs <= 0 || count == null || count < policyMaxJobs;
+    }
+
+    private PairQueue getPair(String name) {
+        PairQueue pair = pairs.get(name);
+        if (pair == null) {
+            Integer weight = pairWeights.get(name);
+            pair = new PairQueue(name, weight != null && weight > 0 ? weight : 1);
+            pairs.put(name, pair);
+        }
+        return pair;
+    }
+
+    private void releaseSlot(String key) {
+        reservations.remove(key);
+        List<AdmissionTicket> tickets = running.get(key);
+        if (tickets == null) {
+            return;
+        }
+        AdmissionTicket ticket = tickets.remove(tickets.size() - 1);
+        if (tickets.isEmpty()) {
+            running.remove(key);
+        }
+        runningJobs--;
+        pairs.get(ticket.getPair()).running--;
+        String policyId = ticket.getPolicyId();
+        int count = policyRunning.get(policyId) - 1;
+        if (count == 0) {
+            policyRunning.remove(policyId);
+        } else {
+            policyRunning.put(policyId, count);
+        }
+    }
+
+    private void expireReservations() {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        long expiry = System.currentTimeMillis() - RESERVATION_TIMEOUT;
+        List<String> expired = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : reservations.entrySet()) {
+            if (entry.getValue() < expiry) {
+                expired.add(entry.getKey());
+            }
+        }
+        for (String key : expired) {
+            LOG.warn("Admitted job [{}] was not fired in time, releasing its slot.", key);
+            releaseSlot(key);
+        }
+    }
+
+    static Map<String, Integer> parseWeights(String weights) {
+        Map<String, Integer> pairWeights = new HashMap<>();
+        if (StringUtils.isBlank(weights)) {
+            return pairWeights;
+        }
+        for (String entry : weights.split(",")) {
+            int index = entry.lastIndexOf('=');
+            if (index <= 0) {
+                LOG.warn("Ignoring invalid cluster pair weight: [{}]", entry);
+                continue;
+            }
+            try {
+                pairWeights.put(entry.substring(0, index).trim(), Integer.parseInt(entry.substring(index + 1).trim()));
+            } catch (NumberFormatException e) {
+                LOG.warn("Ignoring invalid cluster pair weight: [{}]", entry);
+            }
+        }
+        return pairWeights;
+    }
+
+    private final class PairQueue {
+        private final String name;
+        private final int weight;
+        private final TreeSet<AdmissionTicket> waiting = new TreeSet<>(TICKET_ORDER);
+        private final Map<String, AdmissionTicket> waitingKeys = new HashMap<>();
+        private int running;
+        private long finishTime;
+
+        private PairQueue(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        private boolean hasCapacity() {
+            return pairMaxJobs <= 0 || running < pairMaxJobs;
+        }
+
+        private long getStartTime(long systemTime) {
+            return Math.max(finishTime, systemTime);
+        }
+    }
+}
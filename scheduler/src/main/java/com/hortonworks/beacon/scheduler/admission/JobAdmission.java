@@ -0,0 +1,64 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.scheduler.admission;
+
+import com.hortonworks.beacon.client.resource.AdmissionStatusResult;
+
+import java.util.List;
+
+/**
+ * Admission of replication jobs to the scheduler worker threads.
+ * Jobs which are not admitted are deferred and returned from {@link #release(String)} once they may run.
+ */
+public interface JobAdmission {
+
+    /**
+     * Admits the job or queues it for later.
+     *
+     * @param ticket job to be admitted
+     * @return true if the job can run now, false if it was queued
+     */
+    boolean tryAdmit(AdmissionTicket ticket);
+
+    /**
+     * Releases the slot taken by the job.
+     *
+     * @param key job key, see {@link AdmissionTicket#getKey()}
+     * @return queued jobs admitted in place of the released one, which have to be triggered again
+     */
+    List<AdmissionTicket> release(String key);
+
+    /**
+     * Removes the deferred job from the queue, it is not triggered again once it could be admitted.
+     *
+     * @param key job key, see {@link AdmissionTicket#getKey()}
+     */
+    void cancel(String key);
+
+    /**
+     * Status of the admission per cluster pair.
+     *
+     * @return running and waiting jobs per cluster pair
+     */
+    AdmissionStatusResult getStatus();
+}
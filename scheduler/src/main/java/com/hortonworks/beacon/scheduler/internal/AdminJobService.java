@@ -23,20 +23,27 @@
 package com.hortonworks.beacon.scheduler.internal;
 
 import com.hortonworks.beacon.exceptions.BeaconException;
+import com.hortonworks.beacon.scheduler.quartz.BeaconQuartzScheduler;
 import com.hortonworks.beacon.scheduler.quartz.QuartzJobDetailBuilder;
 import com.hortonworks.beacon.scheduler.quartz.QuartzScheduler;
 import com.hortonworks.beacon.scheduler.quartz.QuartzTriggerBuilder;
-import com.hortonworks.beacon.service.BeaconService;
+import com.hortonworks.beacon.service.DependentService;
 import org.quartz.JobDetail;
 import org.quartz.SchedulerException;
 import org.quartz.Trigger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Admin job scheduler.
  */
-public final class AdminJobService implements BeaconService {
+public final class AdminJobService implements DependentService {
 
     private static final Logger LOG = LoggerFactory.getLogger(AdminJobService.class);
     private static final AdminJobService INSTANCE = new AdminJobService();
@@ -59,14 +66,16 @@ public final class AdminJobService implements BeaconService {
      * @param adminJob adminJob to be scheduled.
      * @param frequency frequency in minute.
      * @param maxRetry max retry count.
+     * @param startDelay delay of the first run in minute.
      * @throws BeaconException thrown if any error occurs.
      */
-    private void schedule(AdminJob adminJob, int frequency, int maxRetry) throws BeaconException {
+    private void schedule(AdminJob adminJob, int frequency, int maxRetry, int startDelay) throws BeaconException {
         String name = adminJob.getName();
         String group = adminJob.getGroup();
         JobDetail jobDetail = QuartzJobDetailBuilder.createAdminJobDetail(adminJob, name, group);
+        Date startTime = new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(startDelay));
         frequency = frequency * 60; // frequency in seconds.
-        Trigger trigger = QuartzTriggerBuilder.createTrigger(name, group, frequency, maxRetry);
+        Trigger trigger = QuartzTriggerBuilder.createTrigger(name, group, startTime, frequency, maxRetry);
         LOG.info("Scheduling admin job: [{}], group: [{}], policy name: [{}] with frequency: [{} sec].",
                 adminJob.getClass().getSimpleName(), group, name, frequency);
         try {
@@ -77,9 +86,22 @@ public final class AdminJobService implements BeaconService {
     }
 
     public void checkAndSchedule(AdminJob adminJob, int frequency, int maxRetry) throws BeaconException {
+        checkAndSchedule(adminJob, frequency, maxRetry, 0);
+    }
+
+    /**
+     * Replaces the scheduled {@link AdminJob} of the same name, the first run of the new job is delayed.
+     * @param adminJob adminJob to be scheduled.
+     * @param frequency frequency in minute.
+     * @param maxRetry max retry count.
+     * @param startDelay delay of the first run in minute.
+     * @throws BeaconException thrown if any error occurs.
+     */
+    public void checkAndSchedule(AdminJob adminJob, int frequency, int maxRetry, int startDelay)
+            throws BeaconException {
         boolean checkAndDelete = checkAndDelete(adminJob);
         if (checkAndDelete) {
-            schedule(adminJob, frequency, maxRetry);
+            schedule(adminJob, frequency, maxRetry, startDelay);
         }
     }
 
@@ -102,11 +124,30 @@ public final class AdminJobService implements BeaconService {
         }
     }
 
+    /**
+     * Names of the scheduled {@link AdminJob}s of a group.
+     * @param group admin job group.
+     * @return names of the scheduled jobs.
+     * @throws BeaconException thrown if any error occurs.
+     */
+    public Set<String> getScheduledJobNames(String group) throws BeaconException {
+        try {
+            return scheduler.getJobNames(group);
+        } catch (SchedulerException e) {
+            throw new BeaconException(e);
+        }
+    }
+
     @Override
     public void init() throws BeaconException {
         scheduler = QuartzScheduler.get();
     }
 
+    @Override
+    public List<String> getDependencies() {
+        return Collections.singletonList(BeaconQuartzScheduler.class.getName());
+    }
+
     @Override
     public void destroy() throws BeaconException {
 
@@ -0,0 +1,208 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.scheduler.internal;
+
+import com.hortonworks.beacon.RequestContext;
+import com.hortonworks.beacon.config.BeaconConfig;
+import com.hortonworks.beacon.entity.util.ClusterHelper;
+import com.hortonworks.beacon.exceptions.BeaconException;
+import com.hortonworks.beacon.job.JobContextCodec;
+import com.hortonworks.beacon.job.JobStatus;
+import com.hortonworks.beacon.replication.InstanceReplication;
+import com.hortonworks.beacon.scheduler.HousekeepingScheduler;
+import com.hortonworks.beacon.service.BeaconStoreService;
+import com.hortonworks.beacon.service.DependentService;
+import com.hortonworks.beacon.store.bean.InstanceJobBean;
+import com.hortonworks.beacon.store.bean.PolicyBean;
+import com.hortonworks.beacon.store.bean.PolicyInstanceBean;
+import com.hortonworks.beacon.store.executors.InstanceJobExecutor;
+import com.hortonworks.beacon.store.executors.InstanceJobExecutor.InstanceJobQuery;
+import com.hortonworks.beacon.store.executors.PolicyExecutor;
+import com.hortonworks.beacon.store.executors.PolicyExecutor.PolicyQuery;
+import com.hortonworks.beacon.store.executors.PolicyInstanceExecutor;
+import com.hortonworks.beacon.store.executors.PolicyInstanceExecutor.PolicyInstanceQuery;
+import com.hortonworks.beacon.util.FileSystemClientFactory;
+import com.hortonworks.beacon.util.ReplicationType;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delete Hive REPL dump directories of active Hive policies which are not needed anymore.
+ * The dump of the latest succeeded instance is kept, the dumps of the earlier succeeded instances are deleted
+ * once they are older than the retention.
+ */
+public final class HiveDumpCleanupService implements Callable<Void>, DependentService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HiveDumpCleanupService.class);
+
+    private static final HiveDumpCleanupService INSTANCE = new HiveDumpCleanupService();
+    private static final long HOUR_IN_MS = TimeUnit.HOURS.toMillis(1);
+
+    // End time of the latest instance per policy whose dump is deleted, earlier instances are not looked up again
+    private final Map<String, Date> cleanedUpTo = new HashMap<>();
+    private final AtomicLong bytesReclaimed = new AtomicLong();
+
+    private HiveDumpCleanupService() {
+    }
+
+    public static HiveDumpCleanupService get() {
+        return INSTANCE;
+    }
+
+    @Override
+    public Void call() throws BeaconException {
+        int retention = BeaconConfig.getInstance().getScheduler().getHiveDumpRetention();
+        Date cleanupDate = new Date(System.currentTimeMillis() - HOUR_IN_MS * retention);
+        try {
+            LOG.info("HiveDumpCleanupService execution started with retention: [{}] hours.", retention);
+            RequestContext.get().startTransaction();
+            long reclaimed = 0;
+            Set<String> policyIds = new HashSet<>();
+            for (PolicyBean policy : getHivePolicies()) {
+                policyIds.add(policy.getId());
+                reclaimed += cleanupPolicy(policy, cleanupDate);
+            }
+            RequestContext.get().commitTransaction();
+            synchronized (cleanedUpTo) {
+                cleanedUpTo.keySet().retainAll(policyIds);
+            }
+            bytesReclaimed.addAndGet(reclaimed);
+            LOG.info("HiveDumpCleanupService execution completed, bytes reclaimed: [{}], total: [{}].", reclaimed,
+                    bytesReclaimed.get());
+            return null;
+        } finally {
+            RequestContext.get().rollbackTransaction();
+            RequestContext.get().clear();
+        }
+    }
+
+    private static List<PolicyBean> getHivePolicies() throws BeaconException {
+        PolicyBean bean = new PolicyBean();
+        bean.setType(ReplicationType.HIVE.name());
+        return new PolicyExecutor(bean).getPolicies(PolicyQuery.GET_POLICIES_FOR_TYPE);
+    }
+
+    private long cleanupPolicy(PolicyBean policy, Date cleanupDate) {
+        PolicyInstanceBean bean = new PolicyInstanceBean();
+        bean.setPolicyId(policy.getId());
+        bean.setStatus(JobStatus.SUCCESS.name());
+        synchronized (cleanedUpTo) {
+            Date cleanedUpDate = cleanedUpTo.get(policy.getId());
+            bean.setEndTime(cleanedUpDate != null ? cleanedUpDate : new Date(0));
+        }
+        PolicyInstanceExecutor executor = new PolicyInstanceExecutor(bean);
+        List<PolicyInstanceBean> instances = executor.executeSelectQuery(
+                PolicyInstanceQuery.GET_INSTANCE_SUCCEEDED_AFTER);
+
+        // Instances are ordered by end time, the last one has loaded the latest dump.
+        long reclaimed = 0;
+        for (int i = 0; i < instances.size() - 1; i++) {
+            PolicyInstanceBean instance = instances.get(i);
+            if (!instance.getEndTime().before(cleanupDate)) {
+                break;
+            }
+            try {
+                reclaimed += deleteDump(policy, instance);
+            } catch (BeaconException | IOException e) {
+                LOG.warn("Failed to delete dump of instance: [{}], will retry", instance.getInstanceId(), e);
+                break;
+            }
+            synchronized (cleanedUpTo) {
+                cleanedUpTo.put(policy.getId(), instance.getEndTime());
+            }
+        }
+        return reclaimed;
+    }
+
+    private long deleteDump(PolicyBean policy, PolicyInstanceBean instance) throws BeaconException, IOException {
+        // The job context is handed over from job to job, so the last job has the dump directory of the instance.
+        InstanceJobBean bean = new InstanceJobBean(instance.getInstanceId(), instance.getCurrentOffset());
+        InstanceJobBean instanceJob = new InstanceJobExecutor(bean).getInstanceJob(InstanceJobQuery.GET_INSTANCE_JOB);
+        String dumpDirectory = StringUtils.isBlank(instanceJob.getContextData()) ? null
+                : JobContextCodec.decode(instanceJob.getContextData()).getJobContextMap()
+                .get(InstanceReplication.DUMP_DIRECTORY);
+        if (StringUtils.isBlank(dumpDirectory)) {
+            return 0;
+        }
+        Path dumpPath = new Path(dumpDirectory);
+        FileSystem fileSystem = FileSystemClientFactory.get().createFileSystem(dumpDirectory,
+                getConfiguration(policy.getSourceCluster()));
+        if (!fileSystem.exists(dumpPath)) {
+            return 0;
+        }
+        long length = fileSystem.getContentSummary(dumpPath).getLength();
+        if (!fileSystem.delete(dumpPath, true)) {
+            throw new BeaconException("Dump directory {} could not be deleted", dumpDirectory);
+        }
+        LOG.info("Deleted dump directory: [{}] of instance: [{}], bytes: [{}].", dumpDirectory,
+                instance.getInstanceId(), length);
+        return length;
+    }
+
+    private static Configuration getConfiguration(String clusterName) {
+        try {
+            return ClusterHelper.getHAConfigurationOrDefault(clusterName);
+        } catch (BeaconException | RuntimeException e) {
+            LOG.debug("Using default configuration for cluster: [{}]", clusterName, e);
+            return new Configuration();
+        }
+    }
+
+    long getBytesReclaimed() {
+        return bytesReclaimed.get();
+    }
+
+    @Override
+    public void init() {
+        int frequency = BeaconConfig.getInstance().getScheduler().getCleanupFrequency();
+        int frequencyInMinute = frequency * 60; // Convert hours into minute.
+        HousekeepingScheduler.schedule(this, frequencyInMinute, 15, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public List<String> getDependencies() {
+        return Collections.singletonList(BeaconStoreService.class.getName());
+    }
+
+    @Override
+    public void destroy() throws BeaconException {
+        // Nothing to do.
+    }
+}
@@ -0,0 +1,363 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+package com.hortonworks.beacon.scheduler.internal;
+
+import com.hortonworks.beacon.BeaconClientFactory;
+import com.hortonworks.beacon.client.BeaconClient;
+import com.hortonworks.beacon.client.BeaconClientException;
+import com.hortonworks.beacon.config.BeaconConfig;
+import com.hortonworks.beacon.exceptions.BeaconException;
+import com.hortonworks.beacon.service.DependentService;
+import com.hortonworks.beacon.service.Services;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.core.Response;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outbound queue of policy status updates to the peer Beacon servers.
+ * The updates are queued per peer in memory, collapsed to the latest status of each policy and sent in batches
+ * through the bulk status sync API, away from the caller's thread. Only a status that could not be delivered, or
+ * that is still queued when the queue stops, is recorded as a {@link SyncStatusJob}, which survives a restart.
+ * The sync status job of a policy is deleted once a later status of the policy is delivered.
+ */
+public final class PolicyStatusSyncQueue implements DependentService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PolicyStatusSyncQueue.class);
+    private static final PolicyStatusSyncQueue INSTANCE = new PolicyStatusSyncQueue();
+
+    static final int MAX_BATCH_SIZE = 100;
+    private static final long BATCH_DELAY_MILLIS = 100;
+    private static final int SYNC_THREADS = 4;
+
+    private final ConcurrentMap<String, PeerQueue> peers = new ConcurrentHashMap<>();
+    // Policies with a sync status job, which has to be deleted once a later status is delivered.
+    private final Set<String> syncStatusJobs = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private volatile ScheduledExecutorService executor;
+
+    private PolicyStatusSyncQueue() {
+    }
+
+    public static PolicyStatusSyncQueue get() {
+        return INSTANCE;
+    }
+
+    @Override
+    public void init() throws BeaconException {
+        AdminJobService adminJobService = getAdminJobService();
+        if (adminJobService != null) {
+            syncStatusJobs.addAll(adminJobService.getScheduledJobNames(AdminJob.POLICY_STATUS));
+        }
+        executor = new ScheduledThreadPoolExecutor(SYNC_THREADS, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "policy-status-sync-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    @Override
+    public List<String> getDependencies() {
+        return Collections.singletonList(AdminJobService.class.getName());
+    }
+
+    @Override
+    public void destroy() throws BeaconException {
+        ScheduledExecutorService syncExecutor = executor;
+        executor = null;
+        if (syncExecutor != null) {
+            syncExecutor.shutdownNow();
+            try {
+                syncExecutor.awaitTermination(BATCH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Updates still queued are left to sync status jobs.
+        for (PeerQueue peer : peers.values()) {
+            Map<String, String> pending;
+            synchronized (peer) {
+                pending = new LinkedHashMap<>(peer.pending);
+                peer.pending.clear();
+            }
+            for (Map.Entry<String, String> entry : pending.entrySet()) {
+                scheduleSyncStatusJob(peer, entry.getKey(), entry.getValue(), false);
+            }
+        }
+        peers.clear();
+        syncStatusJobs.clear();
+    }
+
+    /**
+     * Queues the status of the policy for the peer. A status still pending for the same policy is replaced.
+     */
+    public void enqueue(String endPoint, String knoxURL, String policyName, String status) {
+        PeerQueue peer = getPeer(endPoint, knoxURL);
+        ScheduledExecutorService syncExecutor = executor;
+        if (syncExecutor == null) {
+            LOG.warn("Status sync queue is not running, status of policy [{}] is left to a sync status job",
+                    policyName);
+            scheduleSyncStatusJob(peer, policyName, status, false);
+            return;
+        }
+        synchronized (peer) {
+            peer.pending.remove(policyName);
+            peer.pending.put(policyName, status);
+            if (peer.scheduled) {
+                return;
+            }
+            try {
+                syncExecutor.schedule(new SyncTask(peer, syncExecutor), BATCH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                peer.scheduled = true;
+                return;
+            } catch (RejectedExecutionException e) {
+                peer.pending.remove(policyName);
+            }
+        }
+        LOG.warn("Status sync queue is stopped, status of policy [{}] is left to a sync status job", policyName);
+        scheduleSyncStatusJob(peer, policyName, status, false);
+    }
+
+    int getPendingCount() {
+        int count = 0;
+        for (PeerQueue peer : peers.values()) {
+            synchronized (peer) {
+                count += peer.pending.size();
+            }
+        }
+        return count;
+    }
+
+    private PeerQueue getPeer(String endPoint, String knoxURL) {
+        String key = StringUtils.trimToEmpty(endPoint) + "|" + StringUtils.trimToEmpty(knoxURL);
+        PeerQueue peer = peers.get(key);
+        if (peer == null) {
+            PeerQueue newPeer = new PeerQueue(endPoint, knoxURL);
+            peer = peers.putIfAbsent(key, newPeer);
+            if (peer == null) {
+                peer = newPeer;
+            }
+        }
+        return peer;
+    }
+
+    // Must not be called holding the peer lock, the job is stored by Quartz. A delayed job runs first after one
+    // sync frequency, as the peer has just failed.
+    private void scheduleSyncStatusJob(PeerQueue peer, String policyName, String status, boolean delayed) {
+        AdminJobService adminJobService = getAdminJobService();
+        if (adminJobService == null) {
+            return;
+        }
+        int frequency = BeaconConfig.getInstance().getScheduler().getHousekeepingSyncFrequency();
+        int maxRetry = BeaconConfig.getInstance().getScheduler().getHousekeepingSyncMaxRetry();
+        try {
+            adminJobService.checkAndSchedule(new SyncStatusJob(peer.endPoint, peer.knoxURL, policyName, status),
+                    frequency, maxRetry, delayed ? frequency : 0);
+            syncStatusJobs.add(policyName);
+        } catch (Exception e) {
+            LOG.error("Unable to schedule sync status job of policy [{}]", policyName, e);
+        }
+    }
+
+    private static AdminJobService getAdminJobService() {
+        try {
+            return Services.get().getService(AdminJobService.class);
+        } catch (NoSuchElementException e) {
+            //AdminJob Service might not be configured, so log the message and proceed.
+            LOG.error(e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Pending status updates of one peer.
+     */
+    private static final class PeerQueue {
+        private final String endPoint;
+        private final String knoxURL;
+        private final Map<String, String> pending = new LinkedHashMap<>();
+        private boolean scheduled;
+        private volatile boolean bulkUnsupported;
+
+        private PeerQueue(String endPoint, String knoxURL) {
+            this.endPoint = endPoint;
+            this.knoxURL = knoxURL;
+        }
+    }
+
+    /**
+     * Sends the next batch of a peer and reschedules itself while updates are pending.
+     * At most one task runs per peer, so the updates of a peer are sent in order.
+     */
+    private final class SyncTask implements Runnable {
+        private final PeerQueue peer;
+        private final ScheduledExecutorService syncExecutor;
+
+        private SyncTask(PeerQueue peer, ScheduledExecutorService syncExecutor) {
+            this.peer = peer;
+            this.syncExecutor = syncExecutor;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Map<String, String> batch = nextBatch();
+                if (!batch.isEmpty()) {
+                    send(batch);
+                }
+            } catch (Throwable t) {
+                LOG.error("Unexpected error while syncing policy status to {}", peer.endPoint, t);
+            } finally {
+                synchronized (peer) {
+                    peer.scheduled = !peer.pending.isEmpty() && reschedule();
+                }
+            }
+        }
+
+        // Updates left queued when the executor is stopped are handed to sync status jobs by destroy().
+        private boolean reschedule() {
+            try {
+                syncExecutor.schedule(this, 0, TimeUnit.MILLISECONDS);
+                return true;
+            } catch (RejectedExecutionException e) {
+                LOG.warn("Status sync queue is stopped, {} pending updates to {} are left to sync status jobs",
+                        peer.pending.size(), peer.endPoint);
+                return false;
+            }
+        }
+
+        private Map<String, String> nextBatch() {
+            Map<String, String> batch = new LinkedHashMap<>();
+            synchronized (peer) {
+                Iterator<Map.Entry<String, String>> iterator = peer.pending.entrySet().iterator();
+                while (iterator.hasNext() && batch.size() < MAX_BATCH_SIZE) {
+                    Map.Entry<String, String> entry = iterator.next();
+                    batch.put(entry.getKey(), entry.getValue());
+                    iterator.remove();
+                }
+            }
+            return batch;
+        }
+
+        private void send(Map<String, String> batch) {
+            BeaconClient client;
+            try {
+                client = BeaconClientFactory.getBeaconClient(peer.endPoint, peer.knoxURL);
+            } catch (BeaconClientException e) {
+                LOG.error("Unable to create client for {}, {} status updates are left to sync status jobs",
+                        peer.endPoint, batch.size(), e);
+                undelivered(batch);
+                return;
+            }
+            if (!peer.bulkUnsupported) {
+                try {
+                    client.syncPolicyStatus(batch);
+                    LOG.info("Synced status of {} policies to {}", batch.size(), peer.endPoint);
+                    delivered(batch.keySet());
+                    return;
+                } catch (BeaconClientException e) {
+                    if (e.getStatus() == Response.Status.NOT_FOUND.getStatusCode()) {
+                        LOG.info("{} does not support bulk status sync, syncing policies one by one", peer.endPoint);
+                        peer.bulkUnsupported = true;
+                    } else if (e.getStatus() > 0) {
+                        LOG.warn("Bulk status sync of {} policies to {} failed, syncing policies one by one",
+                                batch.size(), peer.endPoint, e);
+                    } else {
+                        unreachable(batch, e);
+                        return;
+                    }
+                } catch (Exception e) {
+                    unreachable(batch, e);
+                    return;
+                }
+            }
+            for (Map.Entry<String, String> entry : batch.entrySet()) {
+                try {
+                    client.syncPolicyStatus(entry.getKey(), entry.getValue(), true);
+                    delivered(Collections.singleton(entry.getKey()));
+                } catch (Exception e) {
+                    LOG.error("Status sync of policy [{}] to {} failed, it is left to a sync status job",
+                            entry.getKey(), peer.endPoint, e);
+                    undelivered(Collections.singletonMap(entry.getKey(), entry.getValue()));
+                }
+            }
+        }
+
+        // No response from the peer, so syncing the policies one by one would fail as well.
+        private void unreachable(Map<String, String> batch, Exception e) {
+            LOG.error("Status sync of {} policies to {} failed, they are left to sync status jobs",
+                    batch.size(), peer.endPoint, e);
+            undelivered(batch);
+        }
+
+        // Records the undelivered statuses as sync status jobs, first run one sync frequency away. A policy with a
+        // newer status queued meanwhile is skipped, the newer status is delivered or recorded in its place.
+        private void undelivered(Map<String, String> statuses) {
+            for (Map.Entry<String, String> entry : statuses.entrySet()) {
+                synchronized (peer) {
+                    if (peer.pending.containsKey(entry.getKey())) {
+                        continue;
+                    }
+                }
+                scheduleSyncStatusJob(peer, entry.getKey(), entry.getValue(), true);
+            }
+        }
+
+        // Deletes the sync status jobs left by earlier failures, so they do not send an older status later on.
+        private void delivered(Iterable<String> policyNames) {
+            for (String policyName : policyNames) {
+                if (!syncStatusJobs.remove(policyName)) {
+                    continue;
+                }
+                AdminJobService adminJobService = getAdminJobService();
+                if (adminJobService == null) {
+                    return;
+                }
+                try {
+                    adminJobService.checkAndDelete(new SyncStatusJob(null, null, policyName, null));
+                } catch (Exception e) {
+                    LOG.warn("Unable to delete sync status job of policy [{}]", policyName, e);
+                }
+            }
+        }
+    }
+}
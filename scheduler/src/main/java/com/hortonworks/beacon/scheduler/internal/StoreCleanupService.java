@@ -28,7 +28,8 @@ import com.hortonworks.beacon.config.Scheduler;
 import com.hortonworks.beacon.constants.BeaconConstants;
 import com.hortonworks.beacon.exceptions.BeaconException;
 import com.hortonworks.beacon.scheduler.HousekeepingScheduler;
-import com.hortonworks.beacon.service.BeaconService;
+import com.hortonworks.beacon.service.BeaconStoreService;
+import com.hortonworks.beacon.service.DependentService;
 import com.hortonworks.beacon.store.bean.InstanceJobBean;
 import com.hortonworks.beacon.store.bean.PolicyBean;
 import com.hortonworks.beacon.store.bean.PolicyInstanceBean;
@@ -41,7 +42,9 @@ import com.hortonworks.beacon.store.executors.PolicyInstanceExecutor.PolicyInsta
 import com.hortonworks.beacon.store.executors.PolicyPropertiesExecutor;
 import com.hortonworks.beacon.util.DateUtil;
 
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 
@@ -51,7 +54,7 @@ import org.slf4j.LoggerFactory;
 /**
  * Cleanup retired policy, policy-instance and instance-job data from Store.
  */
-public final class StoreCleanupService implements Callable<Void>, BeaconService {
+public final class StoreCleanupService implements Callable<Void>, DependentService {
 
     private static final Logger LOG = LoggerFactory.getLogger(StoreCleanupService.class);
 
@@ -118,6 +121,11 @@ public final class StoreCleanupService implements Callable<Void>, BeaconService
         HousekeepingScheduler.schedule(this, frequencyInMinute, 10, TimeUnit.MINUTES);
     }
 
+    @Override
+    public List<String> getDependencies() {
+        return Collections.singletonList(BeaconStoreService.class.getName());
+    }
+
     @Override
     public void destroy() throws BeaconException {
         // Nothing to do.
@@ -30,24 +30,31 @@ import com.hortonworks.beacon.constants.BeaconConstants;
 import com.hortonworks.beacon.exceptions.BeaconException;
 import com.hortonworks.beacon.nodes.NodeGenerator;
 import com.hortonworks.beacon.replication.ReplicationJobDetails;
+import com.hortonworks.beacon.replication.fs.SnapshotEvictionService;
 import com.hortonworks.beacon.scheduler.BeaconScheduler;
 import com.hortonworks.beacon.scheduler.SchedulerCache;
-import com.hortonworks.beacon.service.BeaconService;
+import com.hortonworks.beacon.scheduler.admission.JobAdmissionFactory;
+import com.hortonworks.beacon.service.BeaconStoreService;
+import com.hortonworks.beacon.service.DependentService;
 import org.apache.commons.lang3.StringUtils;
 import org.quartz.JobDetail;
+import org.quartz.JobKey;
 import org.quartz.SchedulerException;
 import org.quartz.Trigger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * BeaconScheduler API implementation for Quartz.
  */
-public final class BeaconQuartzScheduler implements BeaconScheduler, BeaconService {
+public final class BeaconQuartzScheduler implements BeaconScheduler, DependentService {
 
     private static final Logger LOG = LoggerFactory.getLogger(BeaconQuartzScheduler.class);
 
@@ -56,6 +63,8 @@ public final class BeaconQuartzScheduler implements BeaconScheduler, BeaconServi
     private static final String BEACON_SCHEDULER_TRIGGER_LISTENER = "beaconSchedulerTriggerListener";
 
     private QuartzScheduler scheduler;
+    private boolean clustered;
+    private Set<JobKey> recoveryRequested = Collections.emptySet();
 
     private static final BeaconQuartzScheduler INSTANCE = new BeaconQuartzScheduler();
 
@@ -67,6 +76,22 @@ public final class BeaconQuartzScheduler implements BeaconScheduler, BeaconServi
         return INSTANCE;
     }
 
+    public boolean isClustered() {
+        return clustered;
+    }
+
+    /**
+     * Checks whether the job of the policy offset was not recoverable by the clustered job store until this start.
+     * Its instances running at the time have to be recovered by the beacon server.
+     */
+    public boolean isRecoveryRequested(String policyId, String offset) {
+        return recoveryRequested.contains(new JobKey(policyId, offset));
+    }
+
+    public boolean hasRecoveryRequested() {
+        return !recoveryRequested.isEmpty();
+    }
+
     private static final String THREAD_POOL_CLASS_VALUE = "org.quartz.simpl.SimpleThreadPool";
     private static final String JOB_FACTORY_CLASS_VALUE = "org.quartz.simpl.SimpleJobFactory";
     private static final String DRIVER_DELEGATION_CLASS_VALUE = "org.quartz.impl.jdbcjobstore.StdJDBCDelegate";
@@ -74,11 +99,16 @@ public final class BeaconQuartzScheduler implements BeaconScheduler, BeaconServi
     private static final String JOB_STORE_CLASS_VALUE = "org.quartz.impl.jdbcjobstore.JobStoreTX";
     private static final String DATA_SOURCE = "beaconDataSource";
     private static final String INSTANCE_ID = "beaconScheduler";
+    private static final String INSTANCE_ID_AUTO = "AUTO";
 
     enum QuartzProperties {
         THREAD_POOL_CLASS("org.quartz.threadPool.class"),
         THREAD_POOL_COUNT("org.quartz.threadPool.threadCount"),
         INSTANCE_ID("org.quartz.scheduler.instanceId"),
+        IS_CLUSTERED("org.quartz.jobStore.isClustered"),
+        CLUSTER_CHECKIN_INTERVAL("org.quartz.jobStore.clusterCheckinInterval"),
+        MISFIRE_THRESHOLD("org.quartz.jobStore.misfireThreshold"),
+        ACQUIRE_TRIGGERS_WITHIN_LOCK("org.quartz.jobStore.acquireTriggersWithinLock"),
         JOB_FACTORY_CLASS("org.quartz.scheduler.jobFactory.class"),
         DRIVER_DELEGATE_CLASS("org.quartz.jobStore.driverDelegateClass"),
         TABLE_PREFIX("org.quartz.jobStore.tablePrefix"),
@@ -110,6 +140,29 @@ public final class BeaconQuartzScheduler implements BeaconScheduler, BeaconServi
         if (schedulerConfig == null) {
             throw new IllegalStateException("Beacon scheduler configuration is not provided.");
         }
+        Properties properties = getQuartzProperties(dbStore, schedulerConfig);
+        clustered = Boolean.parseBoolean(properties.getProperty(QuartzProperties.IS_CLUSTERED.getProperty()));
+
+        try {
+            if (!isStarted()) {
+                scheduler.initializeScheduler(new QuartzJobListener(BEACON_SCHEDULER_JOB_LISTENER),
+                        new QuartzTriggerListener(BEACON_SCHEDULER_TRIGGER_LISTENER, clustered,
+                                JobAdmissionFactory.getJobAdmission()), properties);
+                LOG.info("Beacon scheduler initialized successfully.");
+                if (clustered) {
+                    // Before the start, so that none of the jobs is executing on this server.
+                    recoveryRequested = scheduler.requestRecovery();
+                }
+                startScheduler();
+            } else {
+                LOG.info("Instance of the beacon scheduler is already running.");
+            }
+        } catch (SchedulerException e) {
+            throw new BeaconException(e.getMessage(), e);
+        }
+    }
+
+    static Properties getQuartzProperties(DbStore dbStore, Scheduler schedulerConfig) throws BeaconException {
         Properties properties = new Properties();
         properties.setProperty(QuartzProperties.THREAD_POOL_CLASS.getProperty(), THREAD_POOL_CLASS_VALUE);
         properties.setProperty(QuartzProperties.JOB_FACTORY_CLASS.getProperty(), JOB_FACTORY_CLASS_VALUE);
@@ -117,7 +170,21 @@ public final class BeaconQuartzScheduler implements BeaconScheduler, BeaconServi
         if (StringUtils.isNotBlank(schedulerConfig.getQuartzPrefix())) {
             properties.setProperty(QuartzProperties.TABLE_PREFIX.getProperty(), schedulerConfig.getQuartzPrefix());
             properties.setProperty(QuartzProperties.JOB_STORE_CLASS.getProperty(), JOB_STORE_CLASS_VALUE);
-            properties.setProperty(QuartzProperties.INSTANCE_ID.getProperty(), INSTANCE_ID);
+            properties.setProperty(QuartzProperties.MISFIRE_THRESHOLD.getProperty(),
+                    String.valueOf(schedulerConfig.getQuartzMisfireThreshold()));
+            if (schedulerConfig.isQuartzClustered()) {
+                // Every server of the cluster needs its own instance id, Quartz generates it from host and time.
+                properties.setProperty(QuartzProperties.INSTANCE_ID.getProperty(), INSTANCE_ID_AUTO);
+                properties.setProperty(QuartzProperties.IS_CLUSTERED.getProperty(), Boolean.TRUE.toString());
+                properties.setProperty(QuartzProperties.CLUSTER_CHECKIN_INTERVAL.getProperty(),
+                        String.valueOf(schedulerConfig.getQuartzClusterCheckinInterval()));
+                properties.setProperty(QuartzProperties.ACQUIRE_TRIGGERS_WITHIN_LOCK.getProperty(),
+                        Boolean.TRUE.toString());
+                LOG.info("Beacon quartz scheduler is clustered with check-in interval: [{}ms]",
+                        schedulerConfig.getQuartzClusterCheckinInterval());
+            } else {
+                properties.setProperty(QuartzProperties.INSTANCE_ID.getProperty(), INSTANCE_ID);
+            }
             properties.setProperty(QuartzProperties.DATA_SOURCE.getProperty(), DATA_SOURCE);
             LOG.info("Beacon quartz scheduler database driver: [{}={}]", QuartzProperties.DRIVER.getProperty(),
                     dbStore.getDriver());
@@ -152,20 +219,10 @@ public final class BeaconQuartzScheduler implements BeaconScheduler, BeaconServi
                 properties.setProperty(QuartzProperties.VALIDATION_QUERY.getProperty(),
                         BeaconConstants.VALIDATION_QUERY);
             }
+        } else if (schedulerConfig.isQuartzClustered()) {
+            LOG.warn("Beacon quartz scheduler can not be clustered without a database job store (quartzPrefix).");
         }
-
-        try {
-            if (!isStarted()) {
-                scheduler.initializeScheduler(new QuartzJobListener(BEACON_SCHEDULER_JOB_LISTENER),
-                        new QuartzTriggerListener(BEACON_SCHEDULER_TRIGGER_LISTENER), properties);
-                LOG.info("Beacon scheduler initialized successfully.");
-                startScheduler();
-            } else {
-                LOG.info("Instance of the beacon scheduler is already running.");
-            }
-        } catch (SchedulerException e) {
-            throw new BeaconException(e.getMessage(), e);
-        }
+        return properties;
     }
 
     @Override
@@ -182,7 +239,9 @@ public final class BeaconQuartzScheduler implements BeaconScheduler, BeaconServi
     public String schedulePolicy(List<ReplicationJobDetails> jobs, boolean recovery, String policyId, Date startTime,
                                  Date endTime, int frequency) throws BeaconException {
         jobs = NodeGenerator.appendNodes(jobs);
-        List<JobDetail> jobDetails = QuartzJobDetailBuilder.createJobDetailList(jobs, recovery, policyId);
+        // In a cluster, jobs in flight on a failed server are recovered by the other servers.
+        List<JobDetail> jobDetails = QuartzJobDetailBuilder.createJobDetailList(jobs, recovery || clustered,
+                policyId);
         Trigger trigger = QuartzTriggerBuilder.createTrigger(policyId, START_NODE_GROUP, startTime, endTime,
                 frequency);
         try {
@@ -292,6 +351,12 @@ public final class BeaconQuartzScheduler implements BeaconScheduler, BeaconServi
         return scheduler.checkExists(policyId, group);
     }
 
+    @Override
+    public List<String> getDependencies() {
+        // The jobs start running as soon as the scheduler is started, FS replication evicts its snapshots.
+        return Arrays.asList(BeaconStoreService.class.getName(), SnapshotEvictionService.class.getName());
+    }
+
     @Override
     public void destroy() throws BeaconException {
         try {
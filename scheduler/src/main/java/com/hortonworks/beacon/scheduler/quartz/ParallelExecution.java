@@ -42,7 +42,8 @@ final class ParallelExecution {
     static boolean checkParallelExecution(JobExecutionContext context) {
         // TODO check and prevent parallel execution execution of the job instance.
         // there is two cases:
-        // 1. (covered) previous instance is still running and next instance triggered. (scheduler based, not store)
+        // 1. (covered) previous instance is still running and next instance triggered. (scheduler based, and store
+        // based on a clustered scheduler, where it may be running on another server)
         // 2. (covered) After restart, previous instance is still in running state (store) but no actual jobs are
         // running.
 
@@ -52,6 +53,11 @@ final class ParallelExecution {
             SchedulerCache cache = SchedulerCache.get();
             InstanceSchedulerDetail detail = cache.getInstanceSchedulerDetail(currentJob.getName());
             String instanceId = detail != null ? detail.getInstanceId() : null;
+            if (instanceId == null) {
+                // Found in the store by the trigger listener, when running on another server of the cluster.
+                instanceId = context.getJobDetail().getJobDataMap().getString(
+                        QuartzDataMapEnum.PARALLEL_INSTANCE.getValue());
+            }
             LOG.warn("Another policy instance [{}] is in execution, current instance will be skipped.", instanceId);
             context.getJobDetail().getJobDataMap().put(QuartzDataMapEnum.PARALLEL_INSTANCE.getValue(),
                     instanceId);
@@ -22,6 +22,7 @@
 
 package com.hortonworks.beacon.scheduler.quartz;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.hortonworks.beacon.RequestContext;
 import com.hortonworks.beacon.config.BeaconConfig;
 import com.hortonworks.beacon.exceptions.BeaconException;
@@ -81,7 +82,7 @@ public class QuartzJobListener extends JobListenerSupport {
             String instanceId = null;
             JobContext jobContext;
             if (!isRetry) {
-                instanceId = handleStartNode(context);
+                instanceId = context.isRecovering() ? handleRecoveringStartNode(context) : handleStartNode(context);
             }
 
             if (instanceId != null) {
@@ -94,10 +95,8 @@ public class QuartzJobListener extends JobListenerSupport {
             BeaconLogUtils.prefixId(instanceId);
 
             if (isRetry) {
-                int instanceRunCount = StoreHelper.getInstanceRunCount(jobContext);
-                int jobRunCount = StoreHelper.getJobRunCount(jobContext);
-                StoreHelper.updateJobRunCount(jobContext, ++jobRunCount);
-                StoreHelper.updateInstanceRunCount(jobContext, ++instanceRunCount);
+                StoreHelper.incrementJobRunCount(jobContext);
+                StoreHelper.incrementInstanceRunCount(jobContext);
             }
 
             recoveryFlag(context, jobContext);
@@ -122,7 +121,8 @@ public class QuartzJobListener extends JobListenerSupport {
     }
 
     private void recoveryFlag(JobExecutionContext context, JobContext jobContext) throws BeaconStoreException {
-        boolean recovery = getFlag(QuartzDataMapEnum.IS_RECOVERY.getValue(), context.getJobDetail().getJobDataMap());
+        boolean recovery = getFlag(QuartzDataMapEnum.IS_RECOVERY.getValue(), context.getJobDetail().getJobDataMap())
+                || context.isRecovering();
         jobContext.setRecovery(recovery);
         if (!recovery) {
             String policyId = context.getJobDetail().getKey().getName();
@@ -151,6 +151,24 @@ public class QuartzJobListener extends JobListenerSupport {
         return null;
     }
 
+    // Job data of a job recovered from a failed cluster server is the one stored before its execution, so the
+    // instance may already be created by the failed server with the next counter value.
+    @VisibleForTesting
+    String handleRecoveringStartNode(JobExecutionContext context) {
+        JobDetail jobDetail = context.getJobDetail();
+        JobKey jobKey = jobDetail.getKey();
+        if (jobKey.getGroup().equals(START_NODE_GROUP)) {
+            int counter = jobDetail.getJobDataMap().getInt(QuartzDataMapEnum.COUNTER.getValue()) + 1;
+            String instanceId = jobKey.getName() + "@" + counter;
+            if (StoreHelper.policyInstanceExists(instanceId)) {
+                jobDetail.getJobDataMap().put(QuartzDataMapEnum.COUNTER.getValue(), counter);
+                LOG.info("Policy instance [{}] is recovered from another server.", instanceId);
+                return instanceId;
+            }
+        }
+        return handleStartNode(context);
+    }
+
     // This is beacon managed job context which is used across all the jobs of a instance.
     private JobContext initializeJobContext(String instanceId) {
         JobContext context = new JobContext();
@@ -41,8 +41,10 @@ import org.quartz.impl.matchers.NotMatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * Beacon scheduler's interaction with quartz.
@@ -77,6 +79,27 @@ public final class QuartzScheduler {
         }
     }
 
+    // Jobs scheduled before the switch to the clustered job store are not recoverable by the other servers.
+    Set<JobKey> requestRecovery() throws SchedulerException {
+        Set<JobKey> updated = new HashSet<>();
+        for (String group : scheduler.getJobGroupNames()) {
+            if (group.startsWith(AdminJob.ADMIN_JOBS)) {
+                continue;
+            }
+            for (JobKey jobKey : scheduler.getJobKeys(GroupMatcher.jobGroupEquals(group))) {
+                JobDetail jobDetail = scheduler.getJobDetail(jobKey);
+                if (jobDetail != null && !jobDetail.requestsRecovery()) {
+                    scheduler.addJob(jobDetail.getJobBuilder().requestRecovery(true).build(), true, true);
+                    updated.add(jobKey);
+                }
+            }
+        }
+        if (!updated.isEmpty()) {
+            LOG.info("Updated [{}] scheduled jobs to request recovery.", updated.size());
+        }
+        return updated;
+    }
+
     void stopScheduler() throws SchedulerException {
         if (scheduler != null && scheduler.isStarted()) {
             scheduler.shutdown(false);
@@ -194,6 +217,14 @@ public final class QuartzScheduler {
         return scheduler.checkExists(jobKey);
     }
 
+    public Set<String> getJobNames(String group) throws SchedulerException {
+        Set<String> names = new HashSet<>();
+        for (JobKey jobKey : scheduler.getJobKeys(GroupMatcher.jobGroupEquals(group))) {
+            names.add(jobKey.getName());
+        }
+        return names;
+    }
+
     boolean recoverPolicyInstance(String name, String group, String recoverInstance) throws SchedulerException {
         SchedulerCache cache = SchedulerCache.get();
         try {
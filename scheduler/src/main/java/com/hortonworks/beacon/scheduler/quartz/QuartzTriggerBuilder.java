@@ -139,9 +139,13 @@ public final class QuartzTriggerBuilder {
     }
 
     public static Trigger createTrigger(String name, String group, int frequency, int repeatCount) {
+        return createTrigger(name, group, new Date(), frequency, repeatCount);
+    }
+
+    public static Trigger createTrigger(String name, String group, Date startTime, int frequency, int repeatCount) {
         return TriggerBuilder.newTrigger()
                 .withIdentity(name, group)
-                .startNow()
+                .startAt(startTime)
                 .withSchedule(simpleSchedule()
                         .withIntervalInSeconds(frequency)
                         .withRepeatCount(repeatCount)
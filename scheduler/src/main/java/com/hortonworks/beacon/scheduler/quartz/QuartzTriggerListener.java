@@ -24,21 +24,30 @@ package com.hortonworks.beacon.scheduler.quartz;
 
 import com.hortonworks.beacon.RequestContext;
 import com.hortonworks.beacon.constants.BeaconConstants;
+import com.hortonworks.beacon.entity.FSDRProperties;
 import com.hortonworks.beacon.exceptions.BeaconException;
 import com.hortonworks.beacon.log.BeaconLogUtils;
 import com.hortonworks.beacon.scheduler.BeaconScheduler;
 import com.hortonworks.beacon.scheduler.InstanceSchedulerDetail;
 import com.hortonworks.beacon.scheduler.SchedulerCache;
+import com.hortonworks.beacon.scheduler.admission.AdmissionTicket;
+import com.hortonworks.beacon.scheduler.admission.JobAdmission;
 import com.hortonworks.beacon.service.Services;
 import com.hortonworks.beacon.store.BeaconStoreException;
+import com.hortonworks.beacon.store.bean.PolicyBean;
+import com.hortonworks.beacon.store.bean.PolicyPropertiesBean;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.quartz.JobDataMap;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobKey;
+import org.quartz.SchedulerException;
 import org.quartz.Trigger;
 import org.quartz.listeners.TriggerListenerSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 /**
@@ -47,10 +56,20 @@ import java.util.NoSuchElementException;
 public class QuartzTriggerListener extends TriggerListenerSupport {
 
     private static final Logger LOG = LoggerFactory.getLogger(QuartzTriggerListener.class);
+    private static final String ADMISSION_DEFERRED = "admission_deferred";
+
     private String name;
+    private boolean clustered;
+    private JobAdmission admission;
 
     public QuartzTriggerListener(String name) {
+        this(name, false, null);
+    }
+
+    public QuartzTriggerListener(String name, boolean clustered, JobAdmission admission) {
         this.name = name;
+        this.clustered = clustered;
+        this.admission = admission;
     }
 
     public String getName() {
@@ -64,8 +83,9 @@ public class QuartzTriggerListener extends TriggerListenerSupport {
         String policyId = trigger.getJobKey().getName();
         BeaconLogUtils.prefixId(policyId);
         LOG.info("Trigger [key: {}] is fired for Job [key: {}]", trigger.getKey(), jobKey);
+        PolicyBean policy;
         try {
-            StoreHelper.getPolicyById(policyId);
+            policy = StoreHelper.getPolicyById(policyId);
         } catch (NoSuchElementException e) {
             LOG.error("Policy [{}] not found. Removing policy trigger.", jobKey.getName(), e);
             trigger.getJobDataMap().put(QuartzDataMapEnum.POLICY_NOT_FOUND.getValue(), true);
@@ -76,11 +96,20 @@ public class QuartzTriggerListener extends TriggerListenerSupport {
             return;
         }
 
+        if (admission != null && !admission.tryAdmit(getAdmissionTicket(jobKey, policy))) {
+            // The job does not hold a worker thread while waiting, it is triggered again once admitted.
+            context.put(ADMISSION_DEFERRED, true);
+            return;
+        }
+
         SchedulerCache cache = SchedulerCache.get();
         synchronized (cache) {
             // Check the parallel for the START node only.
             if (BeaconQuartzScheduler.START_NODE_GROUP.equals(jobKey.getGroup())) {
                 boolean exist = cache.exists(jobKey.getName());
+                if (!exist && clustered) {
+                    exist = isRunningOnOtherServer(jobKey, context);
+                }
                 if (exist) {
                     LOG.info("Setting the parallel flag for job: [{}]", jobKey);
                     context.getJobDetail().getJobDataMap().put(QuartzDataMapEnum.IS_PARALLEL.getValue(), true);
@@ -91,6 +120,61 @@ public class QuartzTriggerListener extends TriggerListenerSupport {
         }
     }
 
+    // The scheduler cache only knows the instances started by this server. In a cluster, an instance of the policy
+    // may be in the middle of its chain on another server, which is found from its RUNNING instance in the store.
+    // A recovered or retried start job continues that instance itself, so it is not a parallel one.
+    private static boolean isRunningOnOtherServer(JobKey jobKey, JobExecutionContext context) {
+        JobDataMap jobDataMap = context.getJobDetail().getJobDataMap();
+        if (context.isRecovering() || jobDataMap.getBoolean(QuartzDataMapEnum.IS_RECOVERY.getValue())) {
+            return false;
+        }
+        String instanceId = StoreHelper.getRunningInstanceId(jobKey.getName());
+        if (instanceId == null) {
+            return false;
+        }
+        LOG.info("Policy instance [{}] is running on another server.", instanceId);
+        jobDataMap.put(QuartzDataMapEnum.PARALLEL_INSTANCE.getValue(), instanceId);
+        return true;
+    }
+
+    private static AdmissionTicket getAdmissionTicket(JobKey jobKey, PolicyBean policy) {
+        int priority = 0;
+        List<PolicyPropertiesBean> properties = policy.getCustomProperties();
+        if (properties != null) {
+            for (PolicyPropertiesBean property : properties) {
+                if (FSDRProperties.PRIORITY.getName().equals(property.getName())) {
+                    priority = NumberUtils.toInt(property.getValue(), 0);
+                }
+            }
+        }
+        return new AdmissionTicket(jobKey.getName(), jobKey.getGroup(), policy.getSourceCluster(),
+                policy.getTargetCluster(), priority);
+    }
+
+    private void releaseAdmission(JobKey jobKey, org.quartz.Scheduler scheduler) {
+        if (admission == null) {
+            return;
+        }
+        List<AdmissionTicket> admitted = new ArrayList<>(
+                admission.release(AdmissionTicket.getKey(jobKey.getName(), jobKey.getGroup())));
+        while (!admitted.isEmpty()) {
+            AdmissionTicket ticket = admitted.remove(0);
+            try {
+                scheduler.triggerJob(new JobKey(ticket.getPolicyId(), ticket.getJobGroup()));
+                LOG.info("Admitted deferred job [{}] is triggered.", ticket.getKey());
+            } catch (SchedulerException e) {
+                LOG.warn("Could not trigger admitted job [{}].", ticket.getKey(), e);
+                admitted.addAll(admission.release(ticket.getKey()));
+            }
+        }
+    }
+
+    private void cancelAdmission(JobKey jobKey) {
+        if (admission != null) {
+            admission.cancel(AdmissionTicket.getKey(jobKey.getName(), jobKey.getGroup()));
+        }
+    }
+
     private void removeJob(JobKey jobKey) {
         try {
             BeaconScheduler scheduler = Services.get().getService(BeaconQuartzScheduler.class);
@@ -104,11 +188,23 @@ public class QuartzTriggerListener extends TriggerListenerSupport {
     public boolean vetoJobExecution(Trigger trigger, JobExecutionContext context) {
         boolean vetoTrigger = false;
         JobDataMap jobDataMap = trigger.getJobDataMap();
-        if (jobDataMap.containsKey(QuartzDataMapEnum.RETRY_MARKER.getValue())) {
+        // Retry triggers of other servers are valid in a cluster, they are recovered by Quartz on failure.
+        if (!clustered && jobDataMap.containsKey(QuartzDataMapEnum.RETRY_MARKER.getValue())) {
             long serverStartTime = jobDataMap.getLong(QuartzDataMapEnum.RETRY_MARKER.getValue());
             vetoTrigger = serverStartTime != BeaconConstants.SERVER_START_TIME;
         }
         vetoTrigger = vetoTrigger || jobDataMap.containsKey(QuartzDataMapEnum.POLICY_NOT_FOUND.getValue());
+        boolean deferred = context.get(ADMISSION_DEFERRED) != null;
+        if (vetoTrigger) {
+            if (deferred) {
+                // Job is waiting for admission but is not going to run, it must not be triggered once admitted.
+                cancelAdmission(trigger.getJobKey());
+            } else {
+                // Job was admitted but is not going to run.
+                releaseAdmission(trigger.getJobKey(), context.getScheduler());
+            }
+        }
+        vetoTrigger = vetoTrigger || deferred;
         LOG.debug("Veto trigger [{}] for job: [{}]", vetoTrigger, trigger.getJobKey());
         return vetoTrigger;
     }
@@ -132,6 +228,7 @@ public class QuartzTriggerListener extends TriggerListenerSupport {
                 jobDataMap.remove(QuartzDataMapEnum.IS_FAILURE.getValue());
                 cache.remove(jobKey.getName());
             }
+            releaseAdmission(jobKey, context.getScheduler());
         } finally {
             RequestContext.get().clear();
         }
@@ -30,6 +30,7 @@ import com.hortonworks.beacon.events.EventEntityType;
 import com.hortonworks.beacon.events.Events;
 import com.hortonworks.beacon.exceptions.BeaconException;
 import com.hortonworks.beacon.job.JobContext;
+import com.hortonworks.beacon.job.JobContextCodec;
 import com.hortonworks.beacon.job.JobStatus;
 import com.hortonworks.beacon.scheduler.internal.SyncStatusJob;
 import com.hortonworks.beacon.store.BeaconStoreException;
@@ -42,6 +43,7 @@ import com.hortonworks.beacon.store.executors.PolicyExecutor;
 import com.hortonworks.beacon.store.executors.PolicyExecutor.PolicyQuery;
 import com.hortonworks.beacon.store.executors.PolicyInstanceExecutor;
 import com.hortonworks.beacon.store.executors.PolicyInstanceExecutor.PolicyInstanceQuery;
+import com.hortonworks.beacon.store.executors.VersionedUpdateExecutor;
 import org.apache.commons.lang3.StringUtils;
 import org.quartz.JobDetail;
 import org.quartz.JobExecutionContext;
@@ -77,6 +79,24 @@ final class StoreHelper {
         return instanceId;
     }
 
+    static boolean policyInstanceExists(String instanceId) {
+        PolicyInstanceBean bean = new PolicyInstanceBean();
+        bean.setInstanceId(instanceId);
+        PolicyInstanceExecutor executor = new PolicyInstanceExecutor(bean);
+        return !executor.executeSelectQuery(PolicyInstanceQuery.GET_INSTANCE_BY_ID).isEmpty();
+    }
+
+    // Running instance of the policy, started by any of the servers sharing the store.
+    static String getRunningInstanceId(String policyId) {
+        PolicyInstanceBean bean = new PolicyInstanceBean();
+        bean.setPolicyId(policyId);
+        bean.setStatus(JobStatus.RUNNING.name());
+        PolicyInstanceExecutor executor = new PolicyInstanceExecutor(bean);
+        List<PolicyInstanceBean> instances =
+                executor.executeSelectQuery(PolicyInstanceQuery.SELECT_POLICY_INSTANCE_RUNNING);
+        return instances.isEmpty() ? null : instances.get(0).getInstanceId();
+    }
+
     static void updatePolicyInstanceCompleted(JobContext jobContext, String status, String message) {
         PolicyInstanceBean bean = new PolicyInstanceBean();
         bean.setStatus(status);
@@ -120,7 +140,7 @@ final class StoreHelper {
         bean.setStatus(status);
         bean.setMessage(truncateMessage(message));
         bean.setEndTime(new Date());
-        bean.setContextData(jobContext.toString());
+        bean.setContextData(JobContextCodec.encode(jobContext));
         InstanceJobExecutor executor = new InstanceJobExecutor(bean);
         executor.executeUpdate(InstanceJobExecutor.InstanceJobQuery.UPDATE_JOB_COMPLETE);
     }
@@ -130,7 +150,7 @@ final class StoreHelper {
         bean.setStatus(status);
         bean.setMessage(truncateMessage(message));
         bean.setEndTime(new Date());
-        bean.setContextData(jobContext.toString());
+        bean.setContextData(JobContextCodec.encode(jobContext));
         bean.setRetirementTime(retireDate);
         InstanceJobExecutor executor = new InstanceJobExecutor(bean);
         executor.executeUpdate(InstanceJobExecutor.InstanceJobQuery.UPDATE_JOB_COMPLETE);
@@ -164,7 +184,7 @@ final class StoreHelper {
         InstanceJobBean instanceJob = executor.getInstanceJob(InstanceJobExecutor.InstanceJobQuery.GET_INSTANCE_JOB);
 
         String contextData = instanceJob.getContextData();
-        JobContext jobContext = JobContext.parseJobContext(contextData);
+        JobContext jobContext = JobContextCodec.decode(contextData);
         // Update the offset to current for job.
         jobContext.setOffset(Integer.parseInt(currentOffset));
         return jobContext;
@@ -277,18 +297,18 @@ final class StoreHelper {
         }
     }
 
-    static int getJobRunCount(JobContext jobContext) {
-        InstanceJobBean bean = new InstanceJobBean(jobContext.getJobInstanceId(), jobContext.getOffset());
-        InstanceJobExecutor executor = new InstanceJobExecutor(bean);
-        InstanceJobBean instanceJob = executor.getInstanceJob(InstanceJobQuery.GET_INSTANCE_JOB);
-        return instanceJob.getRunCount();
-    }
-
-    static void updateJobRunCount(JobContext jobContext, int runCount) {
-        InstanceJobBean bean = new InstanceJobBean(jobContext.getJobInstanceId(), jobContext.getOffset());
-        bean.setRunCount(runCount);
+    static void incrementJobRunCount(JobContext jobContext) {
+        final InstanceJobBean bean = new InstanceJobBean(jobContext.getJobInstanceId(), jobContext.getOffset());
         InstanceJobExecutor executor = new InstanceJobExecutor(bean);
-        executor.executeUpdate(InstanceJobQuery.UPDATE_JOB_RETRY_COUNT);
+        final InstanceJobBean instanceJob = executor.getInstanceJob(InstanceJobQuery.GET_INSTANCE_JOB);
+        new VersionedUpdateExecutor(instanceJob).execute(new VersionedUpdateExecutor.VersionedUpdate() {
+            @Override
+            public int execute() {
+                bean.setRunCount(instanceJob.getRunCount() + 1);
+                bean.setRowVersion(instanceJob.getRowVersion());
+                return new InstanceJobExecutor(bean).executeUpdate(InstanceJobQuery.UPDATE_JOB_RETRY_COUNT);
+            }
+        });
     }
 
     static int getInstanceRunCount(JobContext jobContext) {
@@ -298,11 +318,19 @@ final class StoreHelper {
         return instances.get(0).getRunCount();
     }
 
-    static void updateInstanceRunCount(JobContext jobContext, int runCount) {
-        PolicyInstanceBean bean = new PolicyInstanceBean(jobContext.getJobInstanceId());
-        bean.setRunCount(runCount);
+    static void incrementInstanceRunCount(JobContext jobContext) {
+        final PolicyInstanceBean bean = new PolicyInstanceBean(jobContext.getJobInstanceId());
         PolicyInstanceExecutor executor = new PolicyInstanceExecutor(bean);
-        executor.executeUpdate(PolicyInstanceQuery.UPDATE_INSTANCE_RETRY_COUNT);
+        final PolicyInstanceBean instance =
+                executor.executeSelectQuery(PolicyInstanceQuery.GET_INSTANCE_BY_ID).get(0);
+        new VersionedUpdateExecutor(instance).execute(new VersionedUpdateExecutor.VersionedUpdate() {
+            @Override
+            public int execute() {
+                bean.setRunCount(instance.getRunCount() + 1);
+                bean.setRowVersion(instance.getRowVersion());
+                return new PolicyInstanceExecutor(bean).executeUpdate(PolicyInstanceQuery.UPDATE_INSTANCE_RETRY_COUNT);
+            }
+        });
     }
 
     static String updatePolicyStatus(String policyId) throws BeaconStoreException {
@@ -0,0 +1,278 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.scheduler.admission;
+
+import com.hortonworks.beacon.client.resource.AdmissionStatusResult;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for FairShareJobAdmission, including a simulation of the scheduler worker threads.
+ */
+public class FairShareJobAdmissionTest {
+
+    private static final String HEAVY_SOURCE = "dc$heavySource";
+    private static final String HEAVY_TARGET = "dc$heavyTarget";
+    private static final String LIGHT_SOURCE = "dc$lightSource";
+    private static final String LIGHT_TARGET = "dc$lightTarget";
+    private static final int WORKER_THREADS = 5;
+
+    @Test
+    public void testPairLimitAndRelease() {
+        FairShareJobAdmission admission = new FairShareJobAdmission(0, 2, 0, new HashMap<String, Integer>());
+        Assert.assertTrue(admission.tryAdmit(heavyTicket("policy-1", 0)));
+        Assert.assertTrue(admission.tryAdmit(heavyTicket("policy-2", 0)));
+        Assert.assertFalse(admission.tryAdmit(heavyTicket("policy-3", 0)));
+        // Same job fired again while waiting is not queued twice.
+        Assert.assertFalse(admission.tryAdmit(heavyTicket("policy-3", 0)));
+        Assert.assertTrue(admission.tryAdmit(lightTicket("policy-4", 0)));
+
+        AdmissionStatusResult.PairElement heavy = getPairStatus(admission, HEAVY_SOURCE, HEAVY_TARGET);
+        Assert.assertEquals(heavy.running, 2);
+        Assert.assertEquals(heavy.waiting, 1);
+
+        List<AdmissionTicket> admitted = admission.release(AdmissionTicket.getKey("policy-1", "0"));
+        Assert.assertEquals(admitted.size(), 1);
+        Assert.assertEquals(admitted.get(0).getPolicyId(), "policy-3");
+        // Re-triggered job uses the slot reserved for it.
+        Assert.assertTrue(admission.tryAdmit(heavyTicket("policy-3", 0)));
+        heavy = getPairStatus(admission, HEAVY_SOURCE, HEAVY_TARGET);
+        Assert.assertEquals(heavy.running, 2);
+        Assert.assertEquals(heavy.waiting, 0);
+    }
+
+    @Test
+    public void testPriorityAndPolicyLimit() {
+        FairShareJobAdmission admission = new FairShareJobAdmission(0, 1, 1, new HashMap<String, Integer>());
+        Assert.assertTrue(admission.tryAdmit(heavyTicket("policy-1", 0)));
+        Assert.assertFalse(admission.tryAdmit(heavyTicket("policy-2", 0)));
+        Assert.assertFalse(admission.tryAdmit(heavyTicket("policy-3", 5)));
+
+        List<AdmissionTicket> admitted = admission.release(AdmissionTicket.getKey("policy-1", "0"));
+        Assert.assertEquals(admitted.size(), 1);
+        Assert.assertEquals(admitted.get(0).getPolicyId(), "policy-3");
+
+        // Second job of a running policy waits for the policy limit.
+        FairShareJobAdmission policyAdmission = new FairShareJobAdmission(0, 0, 1, new HashMap<String, Integer>());
+        Assert.assertTrue(policyAdmission.tryAdmit(new AdmissionTicket("policy-1", "0", HEAVY_SOURCE,
+                HEAVY_TARGET, 0)));
+        Assert.assertFalse(policyAdmission.tryAdmit(new AdmissionTicket("policy-1", "1", HEAVY_SOURCE,
+                HEAVY_TARGET, 0)));
+        admitted = policyAdmission.release(AdmissionTicket.getKey("policy-1", "0"));
+        Assert.assertEquals(admitted.size(), 1);
+        Assert.assertEquals(admitted.get(0).getJobGroup(), "1");
+    }
+
+    @Test
+    public void testSameJobAdmittedTwice() {
+        FairShareJobAdmission admission = new FairShareJobAdmission(0, 2, 0, new HashMap<String, Integer>());
+        // Job fired again while its previous execution is still running.
+        Assert.assertTrue(admission.tryAdmit(heavyTicket("policy-1", 0)));
+        Assert.assertTrue(admission.tryAdmit(heavyTicket("policy-1", 0)));
+        Assert.assertFalse(admission.tryAdmit(heavyTicket("policy-2", 0)));
+        Assert.assertEquals(getPairStatus(admission, HEAVY_SOURCE, HEAVY_TARGET).running, 2);
+
+        List<AdmissionTicket> admitted = admission.release(AdmissionTicket.getKey("policy-1", "0"));
+        Assert.assertEquals(admitted.size(), 1);
+        Assert.assertEquals(admitted.get(0).getPolicyId(), "policy-2");
+        Assert.assertTrue(admission.tryAdmit(heavyTicket("policy-2", 0)));
+        Assert.assertTrue(admission.release(AdmissionTicket.getKey("policy-1", "0")).isEmpty());
+        Assert.assertTrue(admission.release(AdmissionTicket.getKey("policy-2", "0")).isEmpty());
+        Assert.assertEquals(getPairStatus(admission, HEAVY_SOURCE, HEAVY_TARGET).running, 0);
+
+        // Extra release of a job which is not running does not free a slot.
+        Assert.assertTrue(admission.release(AdmissionTicket.getKey("policy-1", "0")).isEmpty());
+        Assert.assertTrue(admission.tryAdmit(heavyTicket("policy-3", 0)));
+        Assert.assertTrue(admission.tryAdmit(heavyTicket("policy-4", 0)));
+        Assert.assertFalse(admission.tryAdmit(heavyTicket("policy-5", 0)));
+
+        // Policy counter is back to zero once both fires of the policy are released.
+        FairShareJobAdmission policyAdmission = new FairShareJobAdmission(0, 0, 2, new HashMap<String, Integer>());
+        Assert.assertTrue(policyAdmission.tryAdmit(heavyTicket("policy-1", 0)));
+        Assert.assertTrue(policyAdmission.tryAdmit(heavyTicket("policy-1", 0)));
+        Assert.assertFalse(policyAdmission.tryAdmit(new AdmissionTicket("policy-1", "1", HEAVY_SOURCE,
+                HEAVY_TARGET, 0)));
+        Assert.assertEquals(policyAdmission.release(AdmissionTicket.getKey("policy-1", "0")).size(), 1);
+        Assert.assertTrue(policyAdmission.tryAdmit(new AdmissionTicket("policy-1", "1", HEAVY_SOURCE,
+                HEAVY_TARGET, 0)));
+        policyAdmission.release(AdmissionTicket.getKey("policy-1", "0"));
+        policyAdmission.release(AdmissionTicket.getKey("policy-1", "1"));
+        Assert.assertTrue(policyAdmission.tryAdmit(heavyTicket("policy-1", 0)));
+        Assert.assertTrue(policyAdmission.tryAdmit(new AdmissionTicket("policy-1", "1", HEAVY_SOURCE,
+                HEAVY_TARGET, 0)));
+    }
+
+    @Test
+    public void testWeightedShare() {
+        Map<String, Integer> weights = FairShareJobAdmission.parseWeights(
+                AdmissionTicket.getPair(HEAVY_SOURCE, HEAVY_TARGET) + "=1,"
+                        + AdmissionTicket.getPair(LIGHT_SOURCE, LIGHT_TARGET) + "=3, invalid");
+        Assert.assertEquals(weights.size(), 2);
+        FairShareJobAdmission admission = new FairShareJobAdmission(1, 0, 0, weights);
+        Assert.assertTrue(admission.tryAdmit(heavyTicket("running", 0)));
+        for (int i = 0; i < 8; i++) {
+            Assert.assertFalse(admission.tryAdmit(heavyTicket("heavy-" + i, 0)));
+            Assert.assertFalse(admission.tryAdmit(lightTicket("light-" + i, 0)));
+        }
+
+        // With a single slot, the light pair gets three admissions for every heavy one.
+        int light = 0;
+        String current = AdmissionTicket.getKey("running", "0");
+        for (int i = 0; i < 8; i++) {
+            List<AdmissionTicket> admitted = admission.release(current);
+            Assert.assertEquals(admitted.size(), 1);
+            AdmissionTicket ticket = admitted.get(0);
+            if (ticket.getPair().equals(AdmissionTicket.getPair(LIGHT_SOURCE, LIGHT_TARGET))) {
+                light++;
+            }
+            Assert.assertTrue(admission.tryAdmit(ticket));
+            current = ticket.getKey();
+        }
+        Assert.assertEquals(light, 6);
+    }
+
+    @Test
+    public void testStarvationSimulation() {
+        Simulation fifo = new Simulation(null);
+        fifo.run();
+        Simulation fairShare = new Simulation(new FairShareJobAdmission(WORKER_THREADS, 3, 1,
+                new HashMap<String, Integer>()));
+        fairShare.run();
+
+        // Without admission the light pair waits for the long jobs to release the worker threads.
+        Assert.assertTrue(fifo.maxLightWait >= 100, "Light pair wait: " + fifo.maxLightWait);
+        Assert.assertTrue(fairShare.maxLightWait <= 5, "Light pair wait: " + fairShare.maxLightWait);
+        // Heavy pair still completes all its jobs.
+        Assert.assertEquals(fifo.heavyCompleted, Simulation.HEAVY_JOBS);
+        Assert.assertEquals(fairShare.heavyCompleted, Simulation.HEAVY_JOBS);
+        AdmissionStatusResult.PairElement heavy = getPairStatus(fairShare.admission, HEAVY_SOURCE, HEAVY_TARGET);
+        Assert.assertEquals(heavy.running, 0);
+        Assert.assertEquals(heavy.waiting, 0);
+    }
+
+    private static AdmissionTicket heavyTicket(String policyId, int priority) {
+        return new AdmissionTicket(policyId, "0", HEAVY_SOURCE, HEAVY_TARGET, priority);
+    }
+
+    private static AdmissionTicket lightTicket(String policyId, int priority) {
+        return new AdmissionTicket(policyId, "0", LIGHT_SOURCE, LIGHT_TARGET, priority);
+    }
+
+    private static AdmissionStatusResult.PairElement getPairStatus(JobAdmission admission, String source,
+                                                                  String target) {
+        for (AdmissionStatusResult.PairElement element : admission.getStatus().getElements()) {
+            if (element.pair.equals(AdmissionTicket.getPair(source, target))) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Discrete time simulation of the scheduler worker threads. Fired jobs wait in FIFO order for a worker thread,
+     * deferred jobs are dropped and fired again when admitted.
+     */
+    private static final class Simulation {
+        private static final int HEAVY_JOBS = 10;
+        private static final int HEAVY_DURATION = 100;
+        private static final int LIGHT_DURATION = 5;
+        private static final int LIGHT_FREQUENCY = 20;
+        private static final int END_TIME = 1000;
+
+        private final JobAdmission admission;
+        private final LinkedList<Fire> fired = new LinkedList<>();
+        private final List<Fire> runningJobs = new ArrayList<>();
+        private final Map<String, Fire> deferred = new HashMap<>();
+        private int maxLightWait;
+        private int heavyCompleted;
+
+        private Simulation(JobAdmission admission) {
+            this.admission = admission;
+        }
+
+        private void run() {
+            for (int i = 0; i < HEAVY_JOBS; i++) {
+                fired.add(new Fire(heavyTicket("heavy-" + i, 0), HEAVY_DURATION, 0));
+            }
+            for (int time = 0; time < END_TIME; time++) {
+                complete(time);
+                if (time > 0 && time % LIGHT_FREQUENCY == 0 && time < END_TIME / 2) {
+                    fired.add(new Fire(lightTicket("light", 0), LIGHT_DURATION, time));
+                }
+                while (runningJobs.size() < WORKER_THREADS && !fired.isEmpty()) {
+                    Fire fire = fired.removeFirst();
+                    if (admission != null && !admission.tryAdmit(fire.ticket)) {
+                        deferred.put(fire.ticket.getKey(), fire);
+                        continue;
+                    }
+                    fire.endTime = time + fire.duration;
+                    runningJobs.add(fire);
+                    if (fire.duration == LIGHT_DURATION) {
+                        maxLightWait = Math.max(maxLightWait, time - fire.fireTime);
+                    }
+                }
+            }
+        }
+
+        private void complete(int time) {
+            List<Fire> completed = new ArrayList<>();
+            for (Fire fire : runningJobs) {
+                if (fire.endTime <= time) {
+                    completed.add(fire);
+                }
+            }
+            runningJobs.removeAll(completed);
+            for (Fire fire : completed) {
+                if (fire.duration == HEAVY_DURATION) {
+                    heavyCompleted++;
+                }
+                List<AdmissionTicket> admitted = admission != null
+                        ? admission.release(fire.ticket.getKey())
+                        : Collections.<AdmissionTicket>emptyList();
+                for (AdmissionTicket ticket : admitted) {
+                    fired.add(deferred.remove(ticket.getKey()));
+                }
+            }
+        }
+    }
+
+    private static final class Fire {
+        private final AdmissionTicket ticket;
+        private final int duration;
+        private final int fireTime;
+        private int endTime;
+
+        private Fire(AdmissionTicket ticket, int duration, int fireTime) {
+            this.ticket = ticket;
+            this.duration = duration;
+            this.fireTime = fireTime;
+        }
+    }
+}
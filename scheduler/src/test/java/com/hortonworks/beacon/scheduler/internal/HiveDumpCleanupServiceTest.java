@@ -0,0 +1,164 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.scheduler.internal;
+
+import com.hortonworks.beacon.RequestContext;
+import com.hortonworks.beacon.config.BeaconConfig;
+import com.hortonworks.beacon.exceptions.BeaconException;
+import com.hortonworks.beacon.job.JobContext;
+import com.hortonworks.beacon.job.JobContextCodec;
+import com.hortonworks.beacon.job.JobStatus;
+import com.hortonworks.beacon.replication.InstanceReplication;
+import com.hortonworks.beacon.service.BeaconStoreService;
+import com.hortonworks.beacon.service.ServiceManager;
+import com.hortonworks.beacon.store.bean.InstanceJobBean;
+import com.hortonworks.beacon.store.bean.PolicyBean;
+import com.hortonworks.beacon.store.bean.PolicyInstanceBean;
+import com.hortonworks.beacon.store.bean.PolicyPropertiesBean;
+import com.hortonworks.beacon.store.executors.InstanceJobExecutor;
+import com.hortonworks.beacon.store.executors.PolicyExecutor;
+import com.hortonworks.beacon.store.executors.PolicyInstanceExecutor;
+import com.hortonworks.beacon.tools.BeaconDBSetup;
+import com.hortonworks.beacon.util.ReplicationType;
+import org.apache.hadoop.fs.FileUtil;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test for deleting Hive dump directories on the local file system.
+ */
+public class HiveDumpCleanupServiceTest {
+
+    private static final String POLICY_ID = "/source/source/target/hive-dump-cleanup/0/1521033434538/000000001";
+
+    private File baseDir;
+    private File[] dumps = new File[4];
+
+    @BeforeClass
+    public void setup() throws Exception {
+        String currentDir = System.getProperty("user.dir");
+        File hsqldbFile = new File(currentDir, "../src/sql/tables_hsqldb.sql");
+        BeaconConfig.getInstance().getDbStore().setSchemaDirectory(hsqldbFile.getParent());
+        BeaconDBSetup.setupDB();
+        ServiceManager.getInstance().initialize(Collections.singletonList(BeaconStoreService.class.getName()), null);
+        BeaconConfig.getInstance().getScheduler().setHiveDumpRetention(24);
+
+        baseDir = Files.createTempDirectory("hive-dump-cleanup").toFile();
+        RequestContext.setInitialValue();
+        RequestContext.get().startTransaction();
+        submitPolicy();
+        long now = System.currentTimeMillis();
+        long[] endTimes = {now - TimeUnit.HOURS.toMillis(72), now - TimeUnit.HOURS.toMillis(48),
+            now - TimeUnit.HOURS.toMillis(2), now - TimeUnit.HOURS.toMillis(1), };
+        for (int i = 0; i < dumps.length; i++) {
+            dumps[i] = createDump("dump" + i, (i + 1) * 1024);
+            insertInstance(i + 1, JobStatus.SUCCESS, new Date(endTimes[i]), dumps[i]);
+        }
+        insertInstance(dumps.length + 1, JobStatus.FAILED, new Date(now), createDump("failed", 1024));
+        RequestContext.get().commitTransaction();
+        RequestContext.get().clear();
+    }
+
+    @AfterClass
+    public void teardown() throws BeaconException {
+        FileUtil.fullyDelete(baseDir);
+        ServiceManager.getInstance().destroy();
+    }
+
+    @Test
+    public void testDeleteDumpsOlderThanRetention() throws Exception {
+        HiveDumpCleanupService cleanupService = HiveDumpCleanupService.get();
+        long bytesReclaimed = cleanupService.getBytesReclaimed();
+        RequestContext.setInitialValue();
+        cleanupService.call();
+
+        Assert.assertFalse(dumps[0].exists());
+        Assert.assertFalse(dumps[1].exists());
+        // Within retention
+        Assert.assertTrue(dumps[2].exists());
+        // Loaded by the latest succeeded instance
+        Assert.assertTrue(dumps[3].exists());
+        Assert.assertTrue(new File(baseDir, "failed").exists());
+        Assert.assertEquals(cleanupService.getBytesReclaimed() - bytesReclaimed, 1024 + 2048);
+
+        RequestContext.setInitialValue();
+        cleanupService.call();
+        Assert.assertTrue(dumps[2].exists());
+        Assert.assertEquals(cleanupService.getBytesReclaimed() - bytesReclaimed, 1024 + 2048);
+    }
+
+    private File createDump(String name, int size) throws IOException {
+        File dump = new File(baseDir, name);
+        Files.createDirectories(dump.toPath());
+        Files.write(new File(dump, "_dumpmetadata").toPath(), new byte[size]);
+        return dump;
+    }
+
+    private static void submitPolicy() throws BeaconException {
+        PolicyBean bean = new PolicyBean("hive-dump-cleanup");
+        bean.setId(POLICY_ID);
+        bean.setType(ReplicationType.HIVE.name());
+        bean.setSourceCluster("source");
+        bean.setTargetCluster("target");
+        bean.setSourceDataset("sales");
+        bean.setTargetDataset("sales");
+        bean.setCustomProperties(new ArrayList<PolicyPropertiesBean>());
+        new PolicyExecutor(bean).submitPolicy();
+    }
+
+    private static void insertInstance(int count, JobStatus status, Date endTime, File dump) {
+        String instanceId = POLICY_ID + "@" + count;
+        PolicyInstanceBean instance = new PolicyInstanceBean();
+        instance.setInstanceId(instanceId);
+        instance.setPolicyId(POLICY_ID);
+        instance.setStartTime(new Date(endTime.getTime() - TimeUnit.MINUTES.toMillis(10)));
+        instance.setEndTime(endTime);
+        instance.setStatus(status.name());
+        instance.setRunCount(0);
+        instance.setCurrentOffset(1);
+        new PolicyInstanceExecutor(instance).execute();
+
+        JobContext jobContext = new JobContext();
+        jobContext.setJobInstanceId(instanceId);
+        jobContext.setOffset(1);
+        jobContext.getJobContextMap().put(InstanceReplication.DUMP_DIRECTORY, dump.toURI().toString());
+        for (int offset = 0; offset < 2; offset++) {
+            InstanceJobBean job = new InstanceJobBean(instanceId, offset);
+            job.setStatus(status.name());
+            job.setRunCount(0);
+            job.setEndTime(endTime);
+            job.setContextData(JobContextCodec.encode(jobContext));
+            new InstanceJobExecutor(job).execute();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+package com.hortonworks.beacon.scheduler.internal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.hortonworks.beacon.BeaconClientFactory;
+import com.hortonworks.beacon.client.BeaconClient;
+import com.hortonworks.beacon.client.BeaconClientException;
+
+/**
+ * PolicyStatusSyncQueue Test class.
+ */
+public class PolicyStatusSyncQueueTest {
+
+    private static final String END_POINT = "http://localhost:25968";
+
+    private final PolicyStatusSyncQueue queue = PolicyStatusSyncQueue.get();
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        queue.init();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        queue.destroy();
+        BeaconClientFactory.setBeaconClient(null);
+    }
+
+    @Test
+    public void testUpdatesAreCoalescedPerPolicy() throws Exception {
+        final List<Map<String, String>> batches = new CopyOnWriteArrayList<>();
+        final CountDownLatch firstBatchSent = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        BeaconClientFactory.setBeaconClient((BeaconClient) Proxy.newProxyInstance(
+                BeaconClient.class.getClassLoader(), new Class[]{BeaconClient.class}, new InvocationHandler() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if (method.getName().equals("syncPolicyStatus") && args.length == 1) {
+                            batches.add(new HashMap<>((Map<String, String>) args[0]));
+                            firstBatchSent.countDown();
+                            release.await(30, TimeUnit.SECONDS);
+                            return null;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                }));
+
+        queue.enqueue(END_POINT, null, "policy-0", "RUNNING");
+        Assert.assertTrue(firstBatchSent.await(30, TimeUnit.SECONDS));
+
+        // Queued while the first batch is in flight.
+        queue.enqueue(END_POINT, null, "policy-1", "SUSPENDED");
+        queue.enqueue(END_POINT, null, "policy-2", "SUSPENDED");
+        queue.enqueue(END_POINT, null, "policy-1", "RUNNING");
+        release.countDown();
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while ((batches.size() < 2 || queue.getPendingCount() > 0) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(batches.size(), 2);
+        Assert.assertEquals(batches.get(0).get("policy-0"), "RUNNING");
+        Map<String, String> second = batches.get(1);
+        Assert.assertEquals(second.size(), 2);
+        Assert.assertEquals(second.get("policy-1"), "RUNNING");
+        Assert.assertEquals(second.get("policy-2"), "SUSPENDED");
+    }
+
+    @Test
+    public void testFallbackWithoutBulkEndpoint() throws Exception {
+        final List<Map<String, String>> batches = new CopyOnWriteArrayList<>();
+        final Map<String, String> synced = new ConcurrentHashMap<>();
+        BeaconClientFactory.setBeaconClient(createClient(batches, synced, 404, null));
+
+        queue.enqueue(END_POINT, null, "policy-1", "SUSPENDED");
+        awaitSynced(synced, 1);
+        queue.enqueue(END_POINT, null, "policy-2", "RUNNING");
+        awaitSynced(synced, 2);
+
+        // The peer is asked for the bulk endpoint only once.
+        Assert.assertEquals(batches.size(), 1);
+        Assert.assertEquals(synced.get("policy-1"), "SUSPENDED");
+        Assert.assertEquals(synced.get("policy-2"), "RUNNING");
+    }
+
+    @Test
+    public void testFailedBatchIsSyncedPerPolicy() throws Exception {
+        final List<Map<String, String>> batches = new CopyOnWriteArrayList<>();
+        final Map<String, String> synced = new ConcurrentHashMap<>();
+        BeaconClientFactory.setBeaconClient(createClient(batches, synced, 400, "policy-1"));
+
+        queue.enqueue(END_POINT, null, "policy-1", "SUSPENDED");
+        queue.enqueue(END_POINT, null, "policy-2", "RUNNING");
+        awaitSynced(synced, 1);
+        Thread.sleep(200);
+
+        // The failing policy does not hold back the other one.
+        Assert.assertEquals(batches.size(), 1);
+        Assert.assertEquals(synced.size(), 1);
+        Assert.assertEquals(synced.get("policy-2"), "RUNNING");
+        Assert.assertEquals(queue.getPendingCount(), 0);
+    }
+
+    /**
+     * Client failing every bulk sync with the given HTTP status and the single policy sync of the failing policy.
+     */
+    private static BeaconClient createClient(final List<Map<String, String>> batches, final Map<String, String> synced,
+                                             final int bulkStatus, final String failingPolicy) {
+        return (BeaconClient) Proxy.newProxyInstance(
+                BeaconClient.class.getClassLoader(), new Class[]{BeaconClient.class}, new InvocationHandler() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if (method.getName().equals("syncPolicyStatus") && args.length == 1) {
+                            batches.add(new HashMap<>((Map<String, String>) args[0]));
+                            throw newClientException(bulkStatus);
+                        }
+                        if (method.getName().equals("syncPolicyStatus") && args.length == 3) {
+                            if (args[0].equals(failingPolicy)) {
+                                throw newClientException(500);
+                            }
+                            synced.put((String) args[0], (String) args[1]);
+                            return null;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static BeaconClientException newClientException(int status) {
+        BeaconClientException e = new BeaconClientException(null, "Status sync failed with {}", status);
+        e.setStatus(status);
+        return e;
+    }
+
+    private static void awaitSynced(Map<String, String> synced, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (synced.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(synced.size(), count);
+    }
+}
@@ -0,0 +1,340 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.scheduler.quartz;
+
+import com.hortonworks.beacon.RequestContext;
+import com.hortonworks.beacon.config.BeaconConfig;
+import com.hortonworks.beacon.config.Scheduler;
+import com.hortonworks.beacon.job.JobStatus;
+import com.hortonworks.beacon.scheduler.SchedulerCache;
+import com.hortonworks.beacon.service.BeaconStoreService;
+import com.hortonworks.beacon.service.ServiceManager;
+import com.hortonworks.beacon.store.BeaconStoreException;
+import com.hortonworks.beacon.store.bean.PolicyBean;
+import com.hortonworks.beacon.store.bean.PolicyPropertiesBean;
+import com.hortonworks.beacon.store.executors.PolicyExecutor;
+import com.hortonworks.beacon.tools.BeaconDBSetup;
+import org.quartz.Job;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.JobExecutionContextImpl;
+import org.quartz.impl.SchedulerRepository;
+import org.quartz.impl.StdSchedulerFactory;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.TriggerFiredBundle;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests two beacon quartz schedulers sharing the clustered job store.
+ */
+public class ClusteredQuartzSchedulerTest {
+
+    private static final String EMBEDDED_DRIVER = "org.apache.derby.jdbc.EmbeddedDriver";
+    private static final String DATA_SOURCE_PREFIX = "org.quartz.dataSource.beaconDataSource.";
+    private static final String POLICY_ID = "/source/source/target/clustered/0/1521033434538/000000001";
+    private static final String PARALLEL_POLICY_ID = "/source/source/target/parallel/0/1521033434538/000000002";
+    private static final CountDownLatch EXECUTED = new CountDownLatch(1);
+    private static final CountDownLatch STARTED = new CountDownLatch(1);
+    private static final CountDownLatch RELEASE = new CountDownLatch(1);
+    private static final CountDownLatch RECOVERED = new CountDownLatch(1);
+    private static volatile String executedBy;
+    private static volatile String recoveredBy;
+
+    private org.quartz.Scheduler first;
+    private org.quartz.Scheduler second;
+    private org.quartz.Scheduler failing;
+    private Properties properties;
+
+    /**
+     * Job recording the scheduler instance which executed it.
+     */
+    public static class ClusterTestJob implements Job {
+        @Override
+        public void execute(JobExecutionContext context) throws JobExecutionException {
+            try {
+                executedBy = context.getScheduler().getSchedulerInstanceId();
+            } catch (SchedulerException e) {
+                throw new JobExecutionException(e);
+            }
+            EXECUTED.countDown();
+        }
+    }
+
+    /**
+     * Job blocking its first execution, as if its server failed in the middle of it, and recording the scheduler
+     * instance which executed the recovery.
+     */
+    public static class BlockingTestJob implements Job {
+        @Override
+        public void execute(JobExecutionContext context) throws JobExecutionException {
+            try {
+                if (context.isRecovering()) {
+                    recoveredBy = context.getScheduler().getSchedulerInstanceId();
+                    RECOVERED.countDown();
+                } else {
+                    STARTED.countDown();
+                    RELEASE.await();
+                }
+            } catch (SchedulerException | InterruptedException e) {
+                throw new JobExecutionException(e);
+            }
+        }
+    }
+
+    @BeforeClass
+    public void setup() throws Exception {
+        String currentDir = System.getProperty("user.dir");
+        File derbyFile = new File(currentDir, "../src/sql/tables_derby.sql");
+        BeaconConfig.getInstance().getDbStore().setSchemaDirectory(derbyFile.getParent());
+        BeaconDBSetup.setupDB();
+
+        Scheduler schedulerConfig = new Scheduler();
+        schedulerConfig.copy(BeaconConfig.getInstance().getScheduler());
+        schedulerConfig.setQuartzPrefix("QUARTZ_");
+        schedulerConfig.setQuartzClustered(true);
+        schedulerConfig.setQuartzClusterCheckinInterval(1000);
+        properties = BeaconQuartzScheduler.getQuartzProperties(
+                BeaconConfig.getInstance().getDbStore(), schedulerConfig);
+        properties.setProperty(BeaconQuartzScheduler.QuartzProperties.DRIVER.getProperty(), EMBEDDED_DRIVER);
+
+        first = createScheduler(withDataSource(properties, "firstDataSource"));
+        // Generated instance ids contain the creation time.
+        Thread.sleep(10);
+        second = createScheduler(withDataSource(properties, "secondDataSource"));
+
+        ServiceManager.getInstance().initialize(Collections.singletonList(BeaconStoreService.class.getName()), null);
+        submitPolicy(POLICY_ID, "clustered");
+        submitPolicy(PARALLEL_POLICY_ID, "parallel");
+    }
+
+    @AfterClass
+    public void teardown() throws Exception {
+        RELEASE.countDown();
+        if (failing != null && !failing.isShutdown()) {
+            failing.shutdown(false);
+        }
+        if (first != null && !first.isShutdown()) {
+            first.shutdown(false);
+        }
+        if (second != null && !second.isShutdown()) {
+            second.shutdown(false);
+        }
+        ServiceManager.getInstance().destroy();
+    }
+
+    @Test
+    public void testClusteredInstances() throws Exception {
+        Assert.assertTrue(first.getMetaData().isJobStoreClustered());
+        Assert.assertTrue(second.getMetaData().isJobStoreClustered());
+        Assert.assertEquals(first.getSchedulerName(), second.getSchedulerName());
+        Assert.assertNotEquals(first.getSchedulerInstanceId(), second.getSchedulerInstanceId());
+    }
+
+    @Test(dependsOnMethods = "testClusteredInstances")
+    public void testInFlightJobRecoveredAfterFailure() throws Exception {
+        Thread.sleep(10);
+        failing = createScheduler(withDataSource(properties, "failingDataSource"));
+        first.standby();
+        second.standby();
+
+        String jobName = "blocking-job-" + System.currentTimeMillis();
+        JobDetail jobDetail = JobBuilder.newJob(BlockingTestJob.class)
+                .withIdentity(jobName, BeaconQuartzScheduler.START_NODE_GROUP)
+                .requestRecovery(true)
+                .build();
+        Trigger trigger = TriggerBuilder.newTrigger()
+                .withIdentity(jobName, BeaconQuartzScheduler.START_NODE_GROUP)
+                .startNow()
+                .build();
+        failing.scheduleJob(jobDetail, trigger);
+        Assert.assertTrue(STARTED.await(30, TimeUnit.SECONDS), "Job was not started.");
+        // The fired trigger of the executing job stays in the job store, as after a crash.
+        failing.shutdown(false);
+        first.start();
+        second.start();
+
+        Assert.assertTrue(RECOVERED.await(60, TimeUnit.SECONDS), "Job was not recovered by the other schedulers.");
+        Assert.assertNotEquals(recoveredBy, failing.getSchedulerInstanceId());
+        first.deleteJob(jobDetail.getKey());
+    }
+
+    @Test
+    public void testHandleRecoveringStartNode() throws Exception {
+        QuartzJobListener listener = new QuartzJobListener("clustered-test-listener");
+        RequestContext.setInitialValue();
+        try {
+            RequestContext.get().startTransaction();
+            // The failed server created the instance before the recovered job data was updated.
+            String instanceId = StoreHelper.insertPolicyInstance(POLICY_ID, 5, JobStatus.RUNNING.name());
+            StoreHelper.insertJobInstance(instanceId, 1);
+
+            JobExecutionContext recovered = createRecoveringContext(4);
+            Assert.assertEquals(listener.handleRecoveringStartNode(recovered), instanceId);
+            Assert.assertEquals(recovered.getJobDetail().getJobDataMap().getInt(
+                    QuartzDataMapEnum.COUNTER.getValue()), 5);
+
+            // The failed server did not create the instance, the next one is created.
+            JobExecutionContext notCreated = createRecoveringContext(5);
+            Assert.assertEquals(listener.handleRecoveringStartNode(notCreated), POLICY_ID + "@6");
+            Assert.assertEquals(notCreated.getJobDetail().getJobDataMap().getInt(
+                    QuartzDataMapEnum.COUNTER.getValue()), 6);
+            Assert.assertTrue(StoreHelper.policyInstanceExists(POLICY_ID + "@6"));
+            RequestContext.get().commitTransaction();
+        } finally {
+            RequestContext.get().clear();
+        }
+    }
+
+    @Test(dependsOnMethods = "testInFlightJobRecoveredAfterFailure")
+    public void testJobTakenOverAfterShutdown() throws Exception {
+        String jobName = "cluster-job-" + System.currentTimeMillis();
+        JobDetail jobDetail = JobBuilder.newJob(ClusterTestJob.class)
+                .withIdentity(jobName, BeaconQuartzScheduler.START_NODE_GROUP)
+                .requestRecovery(true)
+                .build();
+        Trigger trigger = TriggerBuilder.newTrigger()
+                .withIdentity(jobName, BeaconQuartzScheduler.START_NODE_GROUP)
+                .startAt(new Date(System.currentTimeMillis() + 3 * 1000))
+                .build();
+        first.scheduleJob(jobDetail, trigger);
+        first.shutdown(false);
+
+        Assert.assertTrue(EXECUTED.await(30, TimeUnit.SECONDS), "Job was not executed by the other scheduler.");
+        Assert.assertEquals(executedBy, second.getSchedulerInstanceId());
+        second.deleteJob(jobDetail.getKey());
+    }
+
+    @Test
+    public void testParallelInstanceOnOtherServer() throws Exception {
+        QuartzTriggerListener firstListener = new QuartzTriggerListener("first-listener", true, null);
+        QuartzTriggerListener secondListener = new QuartzTriggerListener("second-listener", true, null);
+        try {
+            JobExecutionContext firstFired = createFiredContext(first, false);
+            firstListener.triggerFired(firstFired.getTrigger(), firstFired);
+            Assert.assertFalse(ParallelExecution.checkParallelExecution(firstFired));
+
+            // The first server started the instance, the scheduler cache of the second server does not know it.
+            RequestContext.setInitialValue();
+            RequestContext.get().startTransaction();
+            String instanceId = StoreHelper.insertPolicyInstance(PARALLEL_POLICY_ID, 1, JobStatus.RUNNING.name());
+            RequestContext.get().commitTransaction();
+            SchedulerCache.get().remove(PARALLEL_POLICY_ID);
+
+            JobExecutionContext secondFired = createFiredContext(second, false);
+            secondListener.triggerFired(secondFired.getTrigger(), secondFired);
+            Assert.assertTrue(ParallelExecution.checkParallelExecution(secondFired));
+            Assert.assertEquals(secondFired.getJobDetail().getJobDataMap().getString(
+                    QuartzDataMapEnum.PARALLEL_INSTANCE.getValue()), instanceId);
+            Assert.assertFalse(SchedulerCache.get().exists(PARALLEL_POLICY_ID));
+
+            // The second server recovering the start job of the failed first server continues the same instance.
+            JobExecutionContext recovered = createFiredContext(second, true);
+            secondListener.triggerFired(recovered.getTrigger(), recovered);
+            Assert.assertFalse(ParallelExecution.checkParallelExecution(recovered));
+        } finally {
+            SchedulerCache.get().remove(PARALLEL_POLICY_ID);
+            RequestContext.get().clear();
+        }
+    }
+
+    private JobExecutionContext createFiredContext(org.quartz.Scheduler scheduler, boolean recovering) {
+        JobDetail jobDetail = JobBuilder.newJob(ClusterTestJob.class)
+                .withIdentity(PARALLEL_POLICY_ID, BeaconQuartzScheduler.START_NODE_GROUP)
+                .build();
+        OperableTrigger trigger = (OperableTrigger) TriggerBuilder.newTrigger()
+                .withIdentity(PARALLEL_POLICY_ID, BeaconQuartzScheduler.START_NODE_GROUP)
+                .forJob(jobDetail)
+                .build();
+        Date now = new Date();
+        TriggerFiredBundle bundle = new TriggerFiredBundle(jobDetail, trigger, null, recovering, now, now, null, null);
+        return new JobExecutionContextImpl(scheduler, bundle, null);
+    }
+
+    private static void submitPolicy(String policyId, String name) throws BeaconStoreException {
+        PolicyBean bean = new PolicyBean(name);
+        bean.setId(policyId);
+        bean.setType("FS");
+        bean.setSourceCluster("source");
+        bean.setTargetCluster("target");
+        bean.setCustomProperties(new ArrayList<PolicyPropertiesBean>());
+        RequestContext.setInitialValue();
+        RequestContext.get().startTransaction();
+        new PolicyExecutor(bean).submitPolicy();
+        RequestContext.get().commitTransaction();
+        RequestContext.get().clear();
+    }
+
+    private JobExecutionContext createRecoveringContext(int counter) {
+        JobDetail jobDetail = JobBuilder.newJob(ClusterTestJob.class)
+                .withIdentity(POLICY_ID, BeaconQuartzScheduler.START_NODE_GROUP)
+                .usingJobData(QuartzDataMapEnum.COUNTER.getValue(), counter)
+                .usingJobData(QuartzDataMapEnum.NO_OF_JOBS.getValue(), 1)
+                .build();
+        OperableTrigger trigger = (OperableTrigger) TriggerBuilder.newTrigger()
+                .withIdentity(POLICY_ID, BeaconQuartzScheduler.START_NODE_GROUP)
+                .forJob(jobDetail)
+                .build();
+        Date now = new Date();
+        TriggerFiredBundle bundle = new TriggerFiredBundle(jobDetail, trigger, null, true, now, now, null, null);
+        return new JobExecutionContextImpl(first, bundle, null);
+    }
+
+    // Each scheduler has its own connection pool, shutting down a scheduler closes the pool of its data source.
+    private static Properties withDataSource(Properties properties, String dataSource) {
+        Properties result = new Properties();
+        for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+            String key = (String) entry.getKey();
+            if (key.startsWith(DATA_SOURCE_PREFIX)) {
+                key = "org.quartz.dataSource." + dataSource + "." + key.substring(DATA_SOURCE_PREFIX.length());
+            }
+            result.setProperty(key, (String) entry.getValue());
+        }
+        result.setProperty(BeaconQuartzScheduler.QuartzProperties.DATA_SOURCE.getProperty(), dataSource);
+        return result;
+    }
+
+    private org.quartz.Scheduler createScheduler(Properties properties) throws SchedulerException {
+        org.quartz.Scheduler scheduler = new StdSchedulerFactory(properties).getScheduler();
+        // Both schedulers share the instance name, remove it from the repository to create the next one.
+        SchedulerRepository.getInstance().remove(scheduler.getSchedulerName());
+        scheduler.start();
+        return scheduler;
+    }
+}
@@ -22,15 +22,32 @@
 
 package com.hortonworks.beacon.scheduler.quartz;
 
+import com.hortonworks.beacon.RequestContext;
+import com.hortonworks.beacon.client.resource.AdmissionStatusResult;
 import com.hortonworks.beacon.config.BeaconConfig;
+import com.hortonworks.beacon.constants.BeaconConstants;
 import com.hortonworks.beacon.exceptions.BeaconException;
 import com.hortonworks.beacon.replication.ReplicationJobDetails;
+import com.hortonworks.beacon.scheduler.SchedulerCache;
+import com.hortonworks.beacon.scheduler.admission.AdmissionTicket;
+import com.hortonworks.beacon.scheduler.admission.FairShareJobAdmission;
 import com.hortonworks.beacon.service.BeaconStoreService;
 import com.hortonworks.beacon.service.ServiceManager;
 import com.hortonworks.beacon.service.Services;
+import com.hortonworks.beacon.store.bean.PolicyBean;
+import com.hortonworks.beacon.store.bean.PolicyPropertiesBean;
+import com.hortonworks.beacon.store.executors.PolicyExecutor;
 import com.hortonworks.beacon.tools.BeaconDBSetup;
 import com.hortonworks.beacon.util.ReplicationType;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
 import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.JobExecutionContextImpl;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.TriggerFiredBundle;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -39,6 +56,7 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 
 /**
@@ -49,6 +67,7 @@ public class QuartzTriggerListenerTest {
     private static final String JOB_IDENTIFIER = "job-identifier";
     private static final String NAME = "test-job";
     private static final String POLICY_ID = "dataCenter-Cluster-0-1488946092144-000000001";
+    private static final String ADMISSION_POLICY_ID = "dataCenter-Cluster-0-1488946092144-000000002";
 
     private static final List<String> DEFAULT_SERVICES = new ArrayList<String>() {
         {
@@ -85,6 +104,59 @@ public class QuartzTriggerListenerTest {
         Assert.assertFalse(exists);
     }
 
+    @Test
+    public void testVetoedDeferredJobCancelled() throws Exception {
+        PolicyBean bean = new PolicyBean("admission");
+        bean.setId(ADMISSION_POLICY_ID);
+        bean.setType("FS");
+        bean.setSourceCluster("source");
+        bean.setTargetCluster("target");
+        bean.setCustomProperties(new ArrayList<PolicyPropertiesBean>());
+        RequestContext.setInitialValue();
+        RequestContext.get().startTransaction();
+        new PolicyExecutor(bean).submitPolicy();
+        RequestContext.get().commitTransaction();
+
+        FairShareJobAdmission admission = new FairShareJobAdmission(0, 1, 0, new HashMap<String, Integer>());
+        QuartzTriggerListener listener = new QuartzTriggerListener("admission-listener", false, admission);
+        try {
+            JobExecutionContext running = createFiredContext(false);
+            listener.triggerFired(running.getTrigger(), running);
+            Assert.assertFalse(listener.vetoJobExecution(running.getTrigger(), running));
+
+            // The same job fired again with the retry marker of a previous server start is deferred and vetoed.
+            JobExecutionContext deferred = createFiredContext(true);
+            listener.triggerFired(deferred.getTrigger(), deferred);
+            Assert.assertTrue(listener.vetoJobExecution(deferred.getTrigger(), deferred));
+
+            // The running job keeps its slot and the vetoed job is not waiting for admission anymore.
+            AdmissionStatusResult.PairElement pair = admission.getStatus().getElements()[0];
+            Assert.assertEquals(pair.running, 1);
+            Assert.assertEquals(pair.waiting, 0);
+            Assert.assertTrue(admission.release(AdmissionTicket.getKey(ADMISSION_POLICY_ID,
+                    BeaconQuartzScheduler.START_NODE_GROUP)).isEmpty());
+        } finally {
+            SchedulerCache.get().remove(ADMISSION_POLICY_ID);
+            RequestContext.get().clear();
+        }
+    }
+
+    private JobExecutionContext createFiredContext(boolean staleRetry) {
+        JobDetail jobDetail = JobBuilder.newJob(QuartzJob.class)
+                .withIdentity(ADMISSION_POLICY_ID, BeaconQuartzScheduler.START_NODE_GROUP)
+                .build();
+        TriggerBuilder<Trigger> builder = TriggerBuilder.newTrigger()
+                .withIdentity(ADMISSION_POLICY_ID, BeaconQuartzScheduler.START_NODE_GROUP)
+                .forJob(jobDetail);
+        if (staleRetry) {
+            builder.usingJobData(QuartzDataMapEnum.RETRY_MARKER.getValue(), BeaconConstants.SERVER_START_TIME - 1);
+        }
+        OperableTrigger trigger = (OperableTrigger) builder.build();
+        Date now = new Date();
+        TriggerFiredBundle bundle = new TriggerFiredBundle(jobDetail, trigger, null, false, now, now, null, null);
+        return new JobExecutionContextImpl(null, bundle, null);
+    }
+
     private void createDBSchema() throws Exception {
         String currentDir = System.getProperty("user.dir");
         File hsqldbFile = new File(currentDir, "../src/sql/tables_hsqldb.sql");
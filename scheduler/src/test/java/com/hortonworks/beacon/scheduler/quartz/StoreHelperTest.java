@@ -0,0 +1,197 @@
+/**
+ * HORTONWORKS DATAPLANE SERVICE AND ITS CONSTITUENT SERVICES
+ *
+ * (c) 2016-2018 Hortonworks, Inc. All rights reserved.
+ *
+ * This code is provided to you pursuant to your written agreement with Hortonworks, which may be the terms of the
+ * Affero General Public License version 3 (AGPLv3), or pursuant to a written agreement with a third party authorized
+ * to distribute this code.  If you do not have a written agreement with Hortonworks or with an authorized and
+ * properly licensed third party, you do not have any rights to this code.
+ *
+ * If this code is provided to you under the terms of the AGPLv3:
+ * (A) HORTONWORKS PROVIDES THIS CODE TO YOU WITHOUT WARRANTIES OF ANY KIND;
+ * (B) HORTONWORKS DISCLAIMS ANY AND ALL EXPRESS AND IMPLIED WARRANTIES WITH RESPECT TO THIS CODE, INCLUDING BUT NOT
+ *    LIMITED TO IMPLIED WARRANTIES OF TITLE, NON-INFRINGEMENT, MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE;
+ * (C) HORTONWORKS IS NOT LIABLE TO YOU, AND WILL NOT DEFEND, INDEMNIFY, OR HOLD YOU HARMLESS FOR ANY CLAIMS ARISING
+ *    FROM OR RELATED TO THE CODE; AND
+ * (D) WITH RESPECT TO YOUR EXERCISE OF ANY RIGHTS GRANTED TO YOU FOR THE CODE, HORTONWORKS IS NOT LIABLE FOR ANY
+ *    DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, PUNITIVE OR CONSEQUENTIAL DAMAGES INCLUDING, BUT NOT LIMITED TO,
+ *    DAMAGES RELATED TO LOST REVENUE, LOST PROFITS, LOSS OF INCOME, LOSS OF BUSINESS ADVANTAGE OR UNAVAILABILITY,
+ *    OR LOSS OR CORRUPTION OF DATA.
+ */
+
+package com.hortonworks.beacon.scheduler.quartz;
+
+import com.hortonworks.beacon.RequestContext;
+import com.hortonworks.beacon.config.BeaconConfig;
+import com.hortonworks.beacon.exceptions.BeaconException;
+import com.hortonworks.beacon.job.JobContext;
+import com.hortonworks.beacon.job.JobStatus;
+import com.hortonworks.beacon.service.BeaconStoreService;
+import com.hortonworks.beacon.service.ServiceManager;
+import com.hortonworks.beacon.store.bean.InstanceJobBean;
+import com.hortonworks.beacon.store.bean.PolicyBean;
+import com.hortonworks.beacon.store.bean.PolicyInstanceBean;
+import com.hortonworks.beacon.store.bean.PolicyPropertiesBean;
+import com.hortonworks.beacon.store.executors.InstanceJobExecutor;
+import com.hortonworks.beacon.store.executors.PolicyExecutor;
+import com.hortonworks.beacon.store.executors.PolicyInstanceExecutor;
+import com.hortonworks.beacon.tools.BeaconDBSetup;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Test for the version checked run count updates of StoreHelper.
+ */
+public class StoreHelperTest {
+
+    private static final String POLICY_ID = "/source/source/target/store-helper/0/1521033434538/000000001";
+
+    @BeforeClass
+    public void setup() throws Exception {
+        String currentDir = System.getProperty("user.dir");
+        File hsqldbFile = new File(currentDir, "../src/sql/tables_hsqldb.sql");
+        BeaconConfig.getInstance().getDbStore().setSchemaDirectory(hsqldbFile.getParent());
+        BeaconDBSetup.setupDB();
+        ServiceManager.getInstance().initialize(Collections.singletonList(BeaconStoreService.class.getName()), null);
+
+        PolicyBean bean = new PolicyBean("store-helper");
+        bean.setId(POLICY_ID);
+        bean.setType("FS");
+        bean.setSourceCluster("source");
+        bean.setTargetCluster("target");
+        bean.setCustomProperties(new ArrayList<PolicyPropertiesBean>());
+        RequestContext.setInitialValue();
+        RequestContext.get().startTransaction();
+        new PolicyExecutor(bean).submitPolicy();
+        for (int count = 1; count <= 2; count++) {
+            String instanceId = StoreHelper.insertPolicyInstance(POLICY_ID, count, JobStatus.RUNNING.name());
+            StoreHelper.insertJobInstance(instanceId, 1);
+        }
+        RequestContext.get().commitTransaction();
+        RequestContext.get().clear();
+    }
+
+    @AfterClass
+    public void teardown() throws BeaconException {
+        ServiceManager.getInstance().destroy();
+    }
+
+    @Test
+    public void testIncrementRetriedAfterConcurrentUpdate() throws Exception {
+        final JobContext jobContext = getJobContext(POLICY_ID + "@1");
+        int versionBefore = getInstance(jobContext).getRowVersion();
+
+        RequestContext.setInitialValue();
+        try {
+            RequestContext.get().startTransaction();
+            // Loads the instance into this request's entity manager.
+            Assert.assertEquals(StoreHelper.getInstanceRunCount(jobContext), 0);
+
+            // Another request changes the row, so the version read above is stale.
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        RequestContext.setInitialValue();
+                        try {
+                            RequestContext.get().startTransaction();
+                            StoreHelper.updateInstanceCurrentOffset(jobContext);
+                            RequestContext.get().commitTransaction();
+                        } finally {
+                            RequestContext.get().clear();
+                        }
+                        return null;
+                    }
+                }).get();
+            } finally {
+                executor.shutdownNow();
+            }
+
+            StoreHelper.incrementInstanceRunCount(jobContext);
+            RequestContext.get().commitTransaction();
+        } finally {
+            RequestContext.get().clear();
+        }
+
+        PolicyInstanceBean instance = getInstance(jobContext);
+        Assert.assertEquals(instance.getRunCount(), 1);
+        Assert.assertEquals(instance.getRowVersion(), versionBefore + 2);
+    }
+
+    @Test
+    public void testConcurrentIncrementsNotLost() throws Exception {
+        final JobContext jobContext = getJobContext(POLICY_ID + "@2");
+        final int threads = 4;
+        final int increments = 5;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int j = 0; j < increments; j++) {
+                            RequestContext.setInitialValue();
+                            try {
+                                RequestContext.get().startTransaction();
+                                StoreHelper.incrementJobRunCount(jobContext);
+                                StoreHelper.incrementInstanceRunCount(jobContext);
+                                RequestContext.get().commitTransaction();
+                            } finally {
+                                RequestContext.get().clear();
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(getInstance(jobContext).getRunCount(), threads * increments);
+        RequestContext.setInitialValue();
+        try {
+            InstanceJobBean bean = new InstanceJobBean(jobContext.getJobInstanceId(), jobContext.getOffset());
+            InstanceJobBean instanceJob = new InstanceJobExecutor(bean).getInstanceJob(
+                    InstanceJobExecutor.InstanceJobQuery.GET_INSTANCE_JOB);
+            Assert.assertEquals(instanceJob.getRunCount(), threads * increments);
+        } finally {
+            RequestContext.get().clear();
+        }
+    }
+
+    private static JobContext getJobContext(String instanceId) {
+        JobContext jobContext = new JobContext();
+        jobContext.setJobInstanceId(instanceId);
+        jobContext.setOffset(0);
+        return jobContext;
+    }
+
+    private static PolicyInstanceBean getInstance(JobContext jobContext) {
+        RequestContext.setInitialValue();
+        try {
+            PolicyInstanceBean bean = new PolicyInstanceBean(jobContext.getJobInstanceId());
+            return new PolicyInstanceExecutor(bean).executeSelectQuery(
+                    PolicyInstanceExecutor.PolicyInstanceQuery.GET_INSTANCE_BY_ID).get(0);
+        } finally {
+            RequestContext.get().clear();
+        }
+    }
+}
@@ -201,6 +201,7 @@ CREATE TABLE BEACON_POLICY
   RETIREMENT_TIME      TIMESTAMP,
   JOBS                 VARCHAR(1024),
   USERNAME             VARCHAR(64),
+  ROW_VERSION          INTEGER DEFAULT 0,
   PRIMARY KEY (ID)
 );
 
@@ -228,6 +229,7 @@ CREATE TABLE BEACON_POLICY_INSTANCE
   RUN_COUNT          INTEGER,
   CURRENT_OFFSET     INTEGER,
   TRACKING_INFO      VARCHAR(4000),
+  ROW_VERSION        INTEGER DEFAULT 0,
   PRIMARY KEY (ID),
   FOREIGN KEY (POLICY_ID) REFERENCES BEACON_POLICY (ID)
 );
@@ -243,6 +245,7 @@ CREATE TABLE BEACON_INSTANCE_JOB
   RETIREMENT_TIME TIMESTAMP,
   RUN_COUNT       INTEGER,
   CONTEXT_DATA    VARCHAR(4000),
+  ROW_VERSION     INTEGER DEFAULT 0,
   PRIMARY KEY (INSTANCE_ID, "offset"),
   FOREIGN KEY (INSTANCE_ID) REFERENCES BEACON_POLICY_INSTANCE (ID)
 );
@@ -207,6 +207,7 @@ CREATE TABLE IF NOT EXISTS BEACON_POLICY
   RETIREMENT_TIME      DATETIME NULL DEFAULT NULL,
   JOBS                 VARCHAR(1024),
   USERNAME             VARCHAR(64),
+  ROW_VERSION          INTEGER DEFAULT 0,
   PRIMARY KEY (ID)
 ) ENGINE=InnoDB;
 
@@ -234,6 +235,7 @@ CREATE TABLE IF NOT EXISTS BEACON_POLICY_INSTANCE
   RUN_COUNT          INTEGER,
   CURRENT_OFFSET     INTEGER,
   TRACKING_INFO      VARCHAR(4000),
+  ROW_VERSION        INTEGER DEFAULT 0,
   PRIMARY KEY (ID),
   FOREIGN KEY (POLICY_ID) REFERENCES BEACON_POLICY (ID)
 ) ENGINE=InnoDB;
@@ -250,6 +252,7 @@ CREATE TABLE IF NOT EXISTS BEACON_INSTANCE_JOB
   RETIREMENT_TIME DATETIME    NULL DEFAULT NULL,
   RUN_COUNT       INTEGER,
   CONTEXT_DATA    VARCHAR(4000),
+  ROW_VERSION     INTEGER DEFAULT 0,
   PRIMARY KEY (INSTANCE_ID, OFFSET),
   FOREIGN KEY (INSTANCE_ID) REFERENCES BEACON_POLICY_INSTANCE (ID)
 ) ENGINE=InnoDB;
@@ -191,6 +191,7 @@ CREATE TABLE IF NOT EXISTS BEACON_POLICY
   RETIREMENT_TIME      TIMESTAMP NULL DEFAULT NULL,
   JOBS                 VARCHAR(1024),
   USERNAME             VARCHAR(64),
+  ROW_VERSION          INTEGER DEFAULT 0,
   PRIMARY KEY (ID)
 );
 
@@ -218,6 +219,7 @@ CREATE TABLE IF NOT EXISTS BEACON_POLICY_INSTANCE
   RUN_COUNT          INTEGER,
   CURRENT_OFFSET     INTEGER,
   TRACKING_INFO      VARCHAR(4000),
+  ROW_VERSION        INTEGER DEFAULT 0,
   PRIMARY KEY (ID),
   FOREIGN KEY (POLICY_ID) REFERENCES BEACON_POLICY (ID)
 );
@@ -234,6 +236,7 @@ CREATE TABLE IF NOT EXISTS BEACON_INSTANCE_JOB
   RETIREMENT_TIME TIMESTAMP    NULL DEFAULT NULL,
   RUN_COUNT       INTEGER,
   CONTEXT_DATA    VARCHAR(4000),
+  ROW_VERSION     INTEGER DEFAULT 0,
   PRIMARY KEY (INSTANCE_ID, "offset"),
   FOREIGN KEY (INSTANCE_ID) REFERENCES BEACON_POLICY_INSTANCE (ID)
 );